@@ -0,0 +1,89 @@
+package datadog.communication.serialization;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.serialization.msgpack.MsgPackWriter;
+import java.nio.ByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes bursty payloads, where one in every {@code burstEvery} payloads is much larger than
+ * the rest. {@code freshBuffer} allocates a buffer per payload, {@code retainedBuffer} keeps one
+ * buffer which stays at its peak size, and {@code pooledBuffer} keeps one buffer which hands its
+ * grown memory back to the pool after each payload. Run with {@code -prof gc} to compare
+ * allocation rates.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class ByteBufferPoolBenchmark {
+
+  private static final int INITIAL_CAPACITY = 64 << 10;
+  private static final byte[] VALUE = new byte[64];
+
+  @Param({"4", "16"})
+  int burstEvery;
+
+  @Param({"false", "true"})
+  boolean direct;
+
+  private GrowableBuffer retainedBuffer;
+  private MsgPackWriter retainedWriter;
+  private GrowableBuffer pooledBuffer;
+  private MsgPackWriter pooledWriter;
+  private int payload;
+
+  @Setup(Level.Trial)
+  public void init() {
+    retainedBuffer = new GrowableBuffer(INITIAL_CAPACITY);
+    retainedWriter = new MsgPackWriter(retainedBuffer);
+    pooledBuffer = new GrowableBuffer(INITIAL_CAPACITY, new ByteBufferPool(direct, 4, 16 << 20));
+    pooledWriter = new MsgPackWriter(pooledBuffer);
+  }
+
+  private int nextPayloadSize() {
+    // the usual payload fits in the initial capacity, a burst needs 16 times as much
+    return ++payload % burstEvery == 0 ? 64 * 256 : 256;
+  }
+
+  private static ByteBuffer serialize(MsgPackWriter writer, GrowableBuffer buffer, int values) {
+    buffer.reset();
+    writer.startArray(values);
+    for (int i = 0; i < values; ++i) {
+      writer.writeBinary(VALUE, 0, VALUE.length);
+    }
+    buffer.mark();
+    return buffer.slice();
+  }
+
+  @Benchmark
+  public ByteBuffer freshBuffer() {
+    GrowableBuffer buffer = new GrowableBuffer(INITIAL_CAPACITY);
+    return serialize(new MsgPackWriter(buffer), buffer, nextPayloadSize());
+  }
+
+  @Benchmark
+  public ByteBuffer retainedBuffer() {
+    return serialize(retainedWriter, retainedBuffer, nextPayloadSize());
+  }
+
+  @Benchmark
+  public ByteBuffer pooledBuffer() {
+    return serialize(pooledWriter, pooledBuffer, nextPayloadSize());
+  }
+}
@@ -72,6 +72,7 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
   private volatile String dataStreamsEndpoint;
   private volatile boolean supportsLongRunning;
   private volatile boolean supportsDropping;
+  private volatile boolean supportsGzipTraces;
   private volatile String state;
   private volatile String configEndpoint;
   private volatile String debuggerEndpoint;
@@ -103,6 +104,7 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
     metricsEndpoint = null;
     supportsDropping = false;
     supportsLongRunning = false;
+    supportsGzipTraces = false;
     state = null;
     configEndpoint = null;
     debuggerEndpoint = null;
@@ -157,6 +159,7 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
       if (fallback) {
         supportsDropping = false;
         supportsLongRunning = false;
+        supportsGzipTraces = false;
         log.debug("Falling back to probing, client dropping will be disabled");
         // disable metrics unless the info endpoint is present, which prevents
         // sending metrics to 7.26.0, which has a bug in reporting metric origin
@@ -174,11 +177,12 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
 
     if (log.isDebugEnabled()) {
       log.debug(
-          "discovered traceEndpoint={}, metricsEndpoint={}, supportsDropping={}, supportsLongRunning={}, dataStreamsEndpoint={}, configEndpoint={}, evpProxyEndpoint={}, telemetryProxyEndpoint={}",
+          "discovered traceEndpoint={}, metricsEndpoint={}, supportsDropping={}, supportsLongRunning={}, supportsGzipTraces={}, dataStreamsEndpoint={}, configEndpoint={}, evpProxyEndpoint={}, telemetryProxyEndpoint={}",
           traceEndpoint,
           metricsEndpoint,
           supportsDropping,
           supportsLongRunning,
+          supportsGzipTraces,
           dataStreamsEndpoint,
           configEndpoint,
           evpProxyEndpoint,
@@ -272,6 +276,12 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
 
       supportsLongRunning = Boolean.TRUE.equals(map.getOrDefault("long_running_spans", false));
 
+      Object gzipTraces = map.get("gzip_traces");
+      supportsGzipTraces =
+          null != gzipTraces
+              && ("true".equalsIgnoreCase(String.valueOf(gzipTraces))
+                  || Boolean.TRUE.equals(gzipTraces));
+
       if (metricsEnabled) {
         Object canDrop = map.get("client_drop_p0s");
         supportsDropping =
@@ -335,6 +345,11 @@ public class DDAgentFeaturesDiscovery implements DroppingPolicy {
     return supportsLongRunning;
   }
 
+  /** @return whether the agent accepts gzip compressed trace payloads */
+  public boolean supportsGzipTraces() {
+    return supportsGzipTraces;
+  }
+
   public String getMetricsEndpoint() {
     return metricsEndpoint;
   }
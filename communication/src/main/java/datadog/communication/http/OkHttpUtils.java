@@ -17,6 +17,8 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import javax.annotation.Nullable;
 import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
@@ -279,7 +281,7 @@ public final class OkHttpUtils {
 
     private static final MediaType MSGPACK = MediaType.get("application/msgpack");
 
-    private final List<ByteBuffer> buffers;
+    final List<ByteBuffer> buffers;
 
     private ByteBufferRequestBody(List<ByteBuffer> buffers) {
       this.buffers = buffers;
@@ -309,7 +311,16 @@ public final class OkHttpUtils {
     }
   }
 
+  /**
+   * Deflates the buffers straight into the sink. Heap buffers are handed to the {@link Deflater}
+   * without being copied into an intermediate buffer first.
+   */
   private static final class GZipByteBufferRequestBody extends ByteBufferRequestBody {
+    private static final byte[] GZIP_HEADER = {
+      0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int CHUNK_SIZE = 8192;
+
     private GZipByteBufferRequestBody(List<ByteBuffer> buffers) {
       super(buffers);
     }
@@ -321,11 +332,52 @@ public final class OkHttpUtils {
 
     @Override
     public void writeTo(BufferedSink sink) throws IOException {
-      BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
-
-      super.writeTo(gzipSink);
+      Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      try {
+        CRC32 crc = new CRC32();
+        byte[] output = new byte[CHUNK_SIZE];
+        byte[] input = null;
+        sink.write(GZIP_HEADER);
+        for (ByteBuffer buffer : buffers) {
+          if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + buffer.position();
+            int length = buffer.remaining();
+            crc.update(buffer.array(), offset, length);
+            deflater.setInput(buffer.array(), offset, length);
+            deflate(deflater, output, sink);
+            buffer.position(buffer.limit());
+          } else {
+            if (null == input) {
+              input = new byte[CHUNK_SIZE];
+            }
+            while (buffer.hasRemaining()) {
+              int length = Math.min(buffer.remaining(), input.length);
+              buffer.get(input, 0, length);
+              crc.update(input, 0, length);
+              deflater.setInput(input, 0, length);
+              deflate(deflater, output, sink);
+            }
+          }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+          sink.write(output, 0, deflater.deflate(output));
+        }
+        sink.writeIntLe((int) crc.getValue());
+        sink.writeIntLe(deflater.getTotalIn());
+      } finally {
+        deflater.end();
+      }
+    }
 
-      gzipSink.close();
+    private static void deflate(Deflater deflater, byte[] output, BufferedSink sink)
+        throws IOException {
+      while (!deflater.needsInput()) {
+        int length = deflater.deflate(output);
+        if (length > 0) {
+          sink.write(output, 0, length);
+        }
+      }
     }
   }
 
@@ -0,0 +1,146 @@
+package datadog.communication.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles serialization buffers in power of two size classes, so buffers grown to hold a burst
+ * of data are handed to the next writer which needs one rather than left for the garbage
+ * collector. Requests larger than the largest size class are allocated exactly and never retained.
+ *
+ * <p>Only a bounded number of bytes is retained, buffers released beyond that are dropped.
+ */
+public final class ByteBufferPool {
+
+  /** Heap pool shared by the trace, stats and data streams serializers. */
+  public static final ByteBufferPool SHARED = new ByteBufferPool(false, 4, 16 << 20);
+
+  private static final int MIN_CLASS_BITS = 10; // 1KB
+  private static final int MAX_CLASS_BITS = 24; // 16MB
+
+  private final boolean direct;
+  private final long maxRetainedBytes;
+  private final SizeClass[] sizeClasses;
+
+  private final AtomicLong retainedBytes = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param direct whether to allocate direct buffers
+   * @param maxBuffersPerClass how many free buffers to retain per size class
+   * @param maxRetainedBytes how many bytes of free buffers to retain overall
+   */
+  public ByteBufferPool(boolean direct, int maxBuffersPerClass, long maxRetainedBytes) {
+    this.direct = direct;
+    this.maxRetainedBytes = maxRetainedBytes;
+    this.sizeClasses = new SizeClass[MAX_CLASS_BITS - MIN_CLASS_BITS + 1];
+    for (int i = 0; i < sizeClasses.length; ++i) {
+      sizeClasses[i] = new SizeClass(maxBuffersPerClass);
+    }
+  }
+
+  /**
+   * @return a cleared buffer with at least the requested capacity, which is rounded up to the next
+   *     size class
+   */
+  public ByteBuffer acquire(int minCapacity) {
+    int bits = sizeClassBits(minCapacity);
+    if (bits > MAX_CLASS_BITS) {
+      misses.incrementAndGet();
+      return allocate(minCapacity);
+    }
+    ByteBuffer buffer = sizeClasses[bits - MIN_CLASS_BITS].poll();
+    if (null == buffer) {
+      misses.incrementAndGet();
+      return allocate(1 << bits);
+    }
+    retainedBytes.addAndGet(-buffer.capacity());
+    hits.incrementAndGet();
+    buffer.clear();
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool. The caller must not use the buffer, or any view of it, again.
+   * Buffers which weren't allocated by a pool of the same kind are ignored.
+   */
+  public void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (buffer.isDirect() != direct
+        || buffer.isReadOnly()
+        || Integer.bitCount(capacity) != 1
+        || capacity < 1 << MIN_CLASS_BITS
+        || capacity > 1 << MAX_CLASS_BITS) {
+      return;
+    }
+    if (retainedBytes.addAndGet(capacity) > maxRetainedBytes
+        || !sizeClasses[Integer.numberOfTrailingZeros(capacity) - MIN_CLASS_BITS].offer(buffer)) {
+      retainedBytes.addAndGet(-capacity);
+    }
+  }
+
+  /** @return the size of the buffer {@link #acquire(int)} returns for this capacity */
+  public static int sizeClassCapacity(int minCapacity) {
+    int bits = sizeClassBits(minCapacity);
+    return bits > MAX_CLASS_BITS ? minCapacity : 1 << bits;
+  }
+
+  public boolean isDirect() {
+    return direct;
+  }
+
+  /** @return how many acquired buffers were recycled */
+  public long hits() {
+    return hits.get();
+  }
+
+  /** @return how many acquired buffers had to be allocated */
+  public long misses() {
+    return misses.get();
+  }
+
+  /** @return how many bytes of free buffers the pool holds */
+  public long retainedBytes() {
+    return retainedBytes.get();
+  }
+
+  private static int sizeClassBits(int minCapacity) {
+    if (minCapacity <= 1 << MIN_CLASS_BITS) {
+      return MIN_CLASS_BITS;
+    }
+    return 32 - Integer.numberOfLeadingZeros(minCapacity - 1);
+  }
+
+  private ByteBuffer allocate(int capacity) {
+    return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  private static final class SizeClass {
+    private final ByteBuffer[] buffers;
+    private int size;
+
+    SizeClass(int capacity) {
+      this.buffers = new ByteBuffer[capacity];
+    }
+
+    synchronized ByteBuffer poll() {
+      if (size == 0) {
+        return null;
+      }
+      ByteBuffer buffer = buffers[--size];
+      buffers[size] = null;
+      return buffer;
+    }
+
+    synchronized boolean offer(ByteBuffer buffer) {
+      if (size == buffers.length) {
+        return false;
+      }
+      buffers[size++] = buffer;
+      return true;
+    }
+  }
+}
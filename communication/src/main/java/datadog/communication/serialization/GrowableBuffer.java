@@ -5,18 +5,29 @@ import java.nio.ByteBuffer;
 /**
  * This buffer doesn't have a bounded length, and grows linearly. Don't use it except when
  * serialising the contents of a bounded data structure.
+ *
+ * <p>When backed by a {@link ByteBufferPool} it grows through the pool's size classes instead, and
+ * hands buffers it has outgrown back to the pool, including any grown buffer when it is reset.
  */
 public final class GrowableBuffer implements StreamingBuffer {
 
   private final int initialCapacity;
+  private final ByteBufferPool pool;
   private ByteBuffer buffer;
   private int messageCount;
 
   public GrowableBuffer(int initialCapacity) {
     this.initialCapacity = initialCapacity;
+    this.pool = null;
     this.buffer = ByteBuffer.allocate(initialCapacity);
   }
 
+  public GrowableBuffer(int initialCapacity, ByteBufferPool pool) {
+    this.initialCapacity = ByteBufferPool.sizeClassCapacity(initialCapacity);
+    this.pool = pool;
+    this.buffer = pool.acquire(initialCapacity);
+  }
+
   public ByteBuffer slice() {
     buffer.flip();
     return buffer.slice();
@@ -29,6 +40,11 @@ public final class GrowableBuffer implements StreamingBuffer {
   @Override
   public void reset() {
     messageCount = 0;
+    if (null != pool && buffer.capacity() > initialCapacity) {
+      // don't hold on to the memory needed for a burst, another writer may need it next
+      pool.release(buffer);
+      buffer = pool.acquire(initialCapacity);
+    }
     buffer.position(0);
     buffer.limit(buffer.capacity());
   }
@@ -115,11 +131,19 @@ public final class GrowableBuffer implements StreamingBuffer {
 
   private void checkCapacity(int required) {
     if (buffer.remaining() < required) {
-      // round up to next multiple of required
-      int newSize = (buffer.capacity() + required + initialCapacity - 1) & -initialCapacity;
-      ByteBuffer newBuffer = ByteBuffer.allocate(newSize);
+      ByteBuffer newBuffer;
+      if (null == pool) {
+        // round up to next multiple of required
+        int newSize = (buffer.capacity() + required + initialCapacity - 1) & -initialCapacity;
+        newBuffer = ByteBuffer.allocate(newSize);
+      } else {
+        newBuffer = pool.acquire(buffer.position() + required);
+      }
       buffer.flip();
       newBuffer.put(buffer);
+      if (null != pool) {
+        pool.release(buffer);
+      }
       buffer = newBuffer;
     }
   }
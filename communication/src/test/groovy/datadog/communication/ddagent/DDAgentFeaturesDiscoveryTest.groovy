@@ -37,6 +37,7 @@ class DDAgentFeaturesDiscoveryTest extends DDSpecification {
   static final String INFO_WITHOUT_DATA_STREAMS_RESPONSE = loadJsonFile("agent-info-without-data-streams.json")
   static final String INFO_WITHOUT_DATA_STREAMS_STATE = Strings.sha256(INFO_WITHOUT_DATA_STREAMS_RESPONSE)
   static final String INFO_WITH_LONG_RUNNING_SPANS = loadJsonFile("agent-info-with-long-running-spans.json")
+  static final String INFO_WITH_GZIP_TRACES = loadJsonFile("agent-info-with-gzip-traces.json")
   static final String INFO_WITH_TELEMETRY_PROXY_RESPONSE = loadJsonFile("agent-info-with-telemetry-proxy.json")
   static final String INFO_WITH_OLD_EVP_PROXY = loadJsonFile("agent-info-with-old-evp-proxy.json")
   static final String PROBE_STATE = "probestate"
@@ -66,6 +67,7 @@ class DDAgentFeaturesDiscoveryTest extends DDSpecification {
     features.getEvpProxyEndpoint() == "evp_proxy/v4/"
     features.getVersion() == "0.99.0"
     !features.supportsLongRunning()
+    !features.supportsGzipTraces()
     !features.supportsTelemetryProxy()
     0 * _
   }
@@ -151,6 +153,20 @@ class DDAgentFeaturesDiscoveryTest extends DDSpecification {
     0 * _
   }
 
+  def "test parse /info response with gzip traces available"() {
+    setup:
+    OkHttpClient client = Mock(OkHttpClient)
+    DDAgentFeaturesDiscovery features = new DDAgentFeaturesDiscovery(client, monitoring, agentUrl, true, true)
+
+    when: "/info available"
+    features.discover()
+
+    then:
+    1 * client.newCall(_) >> { Request request -> infoResponse(request, INFO_WITH_GZIP_TRACES) }
+    features.supportsGzipTraces()
+    0 * _
+  }
+
   def "test fallback when /info not found"() {
     setup:
     OkHttpClient client = Mock(OkHttpClient)
@@ -0,0 +1,112 @@
+package datadog.communication.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+public class ByteBufferPoolTest {
+
+  @Test
+  public void capacityIsRoundedUpToSizeClass() {
+    ByteBufferPool pool = new ByteBufferPool(false, 4, 1 << 20);
+    assertEquals(1024, pool.acquire(1).capacity());
+    assertEquals(1024, pool.acquire(1024).capacity());
+    assertEquals(2048, pool.acquire(1025).capacity());
+    assertEquals(1 << 20, pool.acquire((1 << 20) - 1).capacity());
+    assertEquals(4, pool.misses());
+  }
+
+  @Test
+  public void releasedBuffersAreRecycled() {
+    ByteBufferPool pool = new ByteBufferPool(false, 4, 1 << 20);
+    ByteBuffer buffer = pool.acquire(4096);
+    buffer.putLong(42L);
+    pool.release(buffer);
+    assertEquals(4096, pool.retainedBytes());
+
+    ByteBuffer recycled = pool.acquire(3000);
+    assertSame(buffer, recycled);
+    assertEquals(0, recycled.position());
+    assertEquals(recycled.capacity(), recycled.limit());
+    assertEquals(1, pool.hits());
+    assertEquals(1, pool.misses());
+    assertEquals(0, pool.retainedBytes());
+
+    assertNotSame(buffer, pool.acquire(8192));
+    assertEquals(2, pool.misses());
+  }
+
+  @Test
+  public void retentionIsBounded() {
+    ByteBufferPool pool = new ByteBufferPool(false, 2, 8192);
+    pool.release(ByteBuffer.allocate(1024));
+    pool.release(ByteBuffer.allocate(1024));
+    pool.release(ByteBuffer.allocate(1024));
+    assertEquals(2048, pool.retainedBytes());
+
+    pool.release(ByteBuffer.allocate(4096));
+    pool.release(ByteBuffer.allocate(4096));
+    assertEquals(6144, pool.retainedBytes());
+  }
+
+  @Test
+  public void foreignBuffersAreIgnored() {
+    ByteBufferPool pool = new ByteBufferPool(false, 4, 1 << 30);
+    pool.release(ByteBuffer.allocate(1000));
+    pool.release(ByteBuffer.allocate(512));
+    pool.release(ByteBuffer.allocate(1 << 25));
+    pool.release(ByteBuffer.allocateDirect(1024));
+    pool.release(ByteBuffer.allocate(1024).asReadOnlyBuffer());
+    assertEquals(0, pool.retainedBytes());
+  }
+
+  @Test
+  public void oversizedBuffersAreAllocatedExactly() {
+    ByteBufferPool pool = new ByteBufferPool(false, 4, 1 << 30);
+    ByteBuffer buffer = pool.acquire((1 << 24) + 1);
+    assertEquals((1 << 24) + 1, buffer.capacity());
+    pool.release(buffer);
+    assertEquals(0, pool.retainedBytes());
+  }
+
+  @Test
+  public void directPool() {
+    ByteBufferPool pool = new ByteBufferPool(true, 4, 1 << 20);
+    ByteBuffer buffer = pool.acquire(100);
+    assertTrue(buffer.isDirect());
+    pool.release(buffer);
+    pool.release(ByteBuffer.allocate(1024));
+    assertEquals(1024, pool.retainedBytes());
+    assertFalse(pool.acquire(100).hasArray());
+  }
+
+  @Test
+  public void pooledGrowableBufferReturnsGrownBuffersOnReset() {
+    ByteBufferPool pool = new ByteBufferPool(false, 4, 1 << 20);
+    GrowableBuffer gb = new GrowableBuffer(1000, pool);
+    assertEquals(1024, gb.capacity());
+    for (int i = 0; i < 1000; ++i) {
+      gb.putLong(i);
+    }
+    assertEquals(8192, gb.capacity());
+    ByteBuffer contents = gb.slice();
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals(i, contents.getLong());
+    }
+
+    gb.reset();
+    assertEquals(1024, gb.capacity());
+    assertEquals(8192 + 2048 + 4096, pool.retainedBytes());
+
+    long misses = pool.misses();
+    for (int i = 0; i < 1000; ++i) {
+      gb.putLong(i);
+    }
+    assertEquals(misses, pool.misses());
+  }
+}
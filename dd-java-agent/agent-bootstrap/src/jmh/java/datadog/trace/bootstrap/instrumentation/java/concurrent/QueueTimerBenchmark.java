@@ -0,0 +1,184 @@
+package datadog.trace.bootstrap.instrumentation.java.concurrent;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.EndpointTracker;
+import datadog.trace.api.profiling.QueueTiming;
+import datadog.trace.api.profiling.Timing;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
+import datadog.trace.bootstrap.instrumentation.api.TaskWrapper;
+import datadog.trace.bootstrap.instrumentation.jfr.InstrumentationBasedProfiling;
+import datadog.trace.common.writer.ListWriter;
+import datadog.trace.core.CoreTracer;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of an executor running tiny tasks which are timed while queued, as the java-concurrent
+ * instrumentation does for the tasks which captured a context. With {@code tracker} a timing is
+ * allocated per task like the {@code QueueTimeTracker} of the profiler does, with {@code state} the
+ * start of the queueing is kept in the state of the task and {@code none} is the baseline without
+ * queueing time. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class QueueTimerBenchmark {
+
+  private static final int TASKS = 1024;
+
+  private static final long THRESHOLD_MILLIS = 50;
+
+  @Param({"none", "tracker", "state"})
+  String queueTiming;
+
+  @Param({"1", "4"})
+  int workers;
+
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    CoreTracer tracer =
+        CoreTracer.builder()
+            .writer(new ListWriter())
+            .profilingContextIntegration(new QueueTimingIntegration(queueTiming))
+            .build();
+    AgentTracer.forceRegister(tracer);
+    InstrumentationBasedProfiling.enableInstrumentationBasedProfiling();
+    executor = Executors.newFixedThreadPool(workers);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TASKS)
+  public void execute() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(TASKS);
+    for (int i = 0; i < TASKS; i++) {
+      Task task = new Task(latch);
+      QueueTimerHelper.startQueuingTimer(task.state, ThreadPoolExecutor.class, task);
+      executor.execute(task);
+    }
+    latch.await();
+  }
+
+  private static final class Task implements Runnable {
+    // stands in for the context store field injected into the task
+    final State state = State.FACTORY.create();
+    final CountDownLatch latch;
+
+    Task(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void run() {
+      // the instrumentation stops the timing once the captured context has been activated
+      state.stopTiming(this);
+      latch.countDown();
+    }
+  }
+
+  private static final class QueueTimingIntegration implements ProfilingContextIntegration {
+    private final boolean tracker;
+    private final boolean state;
+
+    QueueTimingIntegration(String queueTiming) {
+      this.tracker = "tracker".equals(queueTiming);
+      this.state = "state".equals(queueTiming);
+    }
+
+    @Override
+    public Timing start(TimerType type) {
+      return tracker ? new Tracker(this, System.nanoTime()) : Timing.NoOp.INSTANCE;
+    }
+
+    @Override
+    public long getQueueingStartTicks() {
+      return state ? System.nanoTime() : 0L;
+    }
+
+    @Override
+    public void recordQueueingTime(
+        long startTicks, long startMillis, Object task, Class<?> scheduler, Thread origin) {
+      // same checks as the profiler, the tasks are expected to be dequeued within the threshold
+      if (System.currentTimeMillis() - startMillis >= THRESHOLD_MILLIS) {
+        TaskWrapper.getUnwrappedType(task);
+      }
+    }
+
+    @Override
+    public String name() {
+      return "benchmark";
+    }
+
+    @Override
+    public void onRootSpanFinished(AgentSpan rootSpan, EndpointTracker tracker) {}
+
+    @Override
+    public EndpointTracker onRootSpanStarted(AgentSpan rootSpan) {
+      return EndpointTracker.NO_OP;
+    }
+  }
+
+  /** Same layout as the {@code QueueTimeTracker} of the profiler */
+  private static final class Tracker implements QueueTiming {
+    private final QueueTimingIntegration integration;
+    private final Thread origin;
+    private final long startTicks;
+    private final long startMillis;
+    private WeakReference<Object> weakTask;
+    private Class<?> scheduler;
+
+    Tracker(QueueTimingIntegration integration, long startTicks) {
+      this.integration = integration;
+      this.origin = Thread.currentThread();
+      this.startTicks = startTicks;
+      this.startMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void setTask(Object task) {
+      this.weakTask = new WeakReference<>(task);
+    }
+
+    @Override
+    public void setScheduler(Class<?> scheduler) {
+      this.scheduler = scheduler;
+    }
+
+    @Override
+    public void close() {
+      Object task = weakTask.get();
+      if (task != null) {
+        integration.recordQueueingTime(startTicks, startMillis, task, scheduler, origin);
+      }
+    }
+  }
+}
@@ -19,10 +19,14 @@ public class AdviceUtils {
    */
   public static <T> AgentScope startTaskScope(
       final ContextStore<T, State> contextStore, final T task) {
-    return startTaskScope(contextStore.get(task), false);
+    return startTaskScope(contextStore.get(task), task);
   }
 
   public static AgentScope startTaskScope(State state, boolean migrated) {
+    return startTaskScope(state, null);
+  }
+
+  private static AgentScope startTaskScope(State state, Object task) {
     if (state != null) {
       final AgentScope.Continuation continuation = state.getAndResetContinuation();
       if (continuation != null) {
@@ -30,7 +34,7 @@ public class AdviceUtils {
         scope.setAsyncPropagation(true);
         // important - stop timing after the scope has been activated so the time in the queue can
         // be attributed to the correct context without duplicating the propagated information
-        state.stopTiming();
+        state.stopTiming(task);
         return scope;
       }
     }
@@ -62,6 +62,16 @@ public class ExcludeFilter {
     return false;
   }
 
+  /** @return a hash of the excluded class names and prefixes, which changes when they do */
+  public static long fingerprint() {
+    long fingerprint = 0;
+    for (ExcludeType type : SKIP_TYPE_VALUES) {
+      fingerprint = 31 * fingerprint + excludedClassNames.get(type).hashCode();
+      fingerprint = 31 * fingerprint + SKIP_TYPE_PREFIXES.get(type).hashCode();
+    }
+    return fingerprint;
+  }
+
   private static EnumSet<ExcludeType> exclude(Class<?> clazz) {
     EnumSet<ExcludeType> skipTypes = EnumSet.noneOf(ExcludeType.class);
     String name = clazz.getName();
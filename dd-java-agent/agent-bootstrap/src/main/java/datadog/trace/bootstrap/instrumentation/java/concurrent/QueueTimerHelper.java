@@ -4,6 +4,7 @@ import datadog.trace.api.profiling.QueueTiming;
 import datadog.trace.api.profiling.Timer;
 import datadog.trace.bootstrap.ContextStore;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
 import datadog.trace.bootstrap.instrumentation.jfr.InstrumentationBasedProfiling;
 
 public class QueueTimerHelper {
@@ -18,8 +19,15 @@ public class QueueTimerHelper {
     // avoid calling this before JFR is initialised because it will lead to reading the wrong
     // TSC frequency before JFR has set it up properly
     if (task != null && state != null && InstrumentationBasedProfiling.isJFRReady()) {
-      QueueTiming timing =
-          (QueueTiming) AgentTracer.get().getProfilingContext().start(Timer.TimerType.QUEUEING);
+      ProfilingContextIntegration profiling = AgentTracer.get().getProfilingContext();
+      // the start of the queueing is kept in the state when the profiler supports it so nothing
+      // is allocated per task, the event is only created if the task stays queued long enough
+      long startTicks = profiling.getQueueingStartTicks();
+      if (startTicks != 0) {
+        state.startQueuing(startTicks, schedulerClass);
+        return;
+      }
+      QueueTiming timing = (QueueTiming) profiling.start(Timer.TimerType.QUEUEING);
       timing.setTask(task);
       timing.setScheduler(schedulerClass);
       state.setTiming(timing);
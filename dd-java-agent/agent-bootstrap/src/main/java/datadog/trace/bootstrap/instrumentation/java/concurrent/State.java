@@ -6,6 +6,8 @@ import datadog.trace.api.profiling.Timing;
 import datadog.trace.bootstrap.ContextStore;
 import datadog.trace.bootstrap.instrumentation.api.AgentScope;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public final class State {
@@ -23,6 +25,16 @@ public final class State {
 
   private volatile Timing timing = null;
 
+  private static final AtomicLongFieldUpdater<State> QUEUEING_START_TICKS =
+      AtomicLongFieldUpdater.newUpdater(State.class, "queueingStartTicks");
+
+  // queueing time tracked without a Timing instance, the plain fields are published by the lazy
+  // write of the start ticks and are only read after these have been reset by getAndSet
+  private volatile long queueingStartTicks = 0;
+  private long queueingStartMillis;
+  private Class<?> queueingScheduler;
+  private Thread queueingOrigin;
+
   private State() {}
 
   public boolean captureAndSetContinuation(final AgentScope scope) {
@@ -78,14 +90,51 @@ public final class State {
     TIMING.lazySet(this, timing);
   }
 
+  /**
+   * Starts timing the queueing of the task without allocating a {@link Timing}
+   *
+   * @param startTicks the non zero ticks when the task was queued
+   * @param scheduler the type of the executor the task is queued to
+   */
+  public void startQueuing(long startTicks, Class<?> scheduler) {
+    queueingStartMillis = System.currentTimeMillis();
+    queueingScheduler = scheduler;
+    queueingOrigin = Thread.currentThread();
+    QUEUEING_START_TICKS.lazySet(this, startTicks);
+  }
+
   public boolean isTimed() {
-    return TIMING.get(this) != null;
+    return TIMING.get(this) != null || queueingStartTicks != 0;
   }
 
   public void stopTiming() {
+    stopTiming(null);
+  }
+
+  /**
+   * Stops timing the queueing of the task
+   *
+   * @param task the dequeued task, queueing time tracked by the state is not recorded without it
+   */
+  public void stopTiming(Object task) {
     Timing timing = TIMING.getAndSet(this, null);
     if (timing != null) {
       timing.close();
     }
+    if (queueingStartTicks != 0) {
+      long startTicks = QUEUEING_START_TICKS.getAndSet(this, 0L);
+      if (startTicks != 0) {
+        Class<?> scheduler = queueingScheduler;
+        Thread origin = queueingOrigin;
+        // don't keep the submitting thread reachable from a retained state
+        queueingScheduler = null;
+        queueingOrigin = null;
+        if (task != null) {
+          AgentTracer.get()
+              .getProfilingContext()
+              .recordQueueingTime(startTicks, queueingStartMillis, task, scheduler, origin);
+        }
+      }
+    }
   }
 }
@@ -0,0 +1,101 @@
+package datadog.trace.bootstrap.instrumentation.java.concurrent
+
+import datadog.trace.api.profiling.QueueTiming
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.TracerAPI
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration
+import datadog.trace.bootstrap.instrumentation.jfr.InstrumentationBasedProfiling
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.ThreadPoolExecutor
+
+import static datadog.trace.api.profiling.Timer.TimerType.QUEUEING
+
+class QueueTimerHelperTest extends DDSpecification {
+
+  def profiling = Mock(ProfilingContextIntegration)
+  def previousTracer
+
+  def setup() {
+    previousTracer = AgentTracer.get()
+    AgentTracer.forceRegister(Mock(TracerAPI) {
+      getProfilingContext() >> profiling
+    })
+    InstrumentationBasedProfiling.enableInstrumentationBasedProfiling()
+  }
+
+  def cleanup() {
+    AgentTracer.forceRegister(previousTracer)
+  }
+
+  def "queueing time is kept in the state when the profiler supports it"() {
+    setup:
+    def state = State.FACTORY.create()
+    def task = new Object()
+
+    when:
+    QueueTimerHelper.startQueuingTimer(state, ThreadPoolExecutor, task)
+
+    then: "no timing is started"
+    1 * profiling.getQueueingStartTicks() >> 42
+    0 * profiling.start(_)
+    state.isTimed()
+
+    when:
+    state.stopTiming(task)
+
+    then: "the state no longer references the submitting thread"
+    1 * profiling.recordQueueingTime(42, { it > 0 }, task, ThreadPoolExecutor, Thread.currentThread())
+    !state.isTimed()
+    state.queueingOrigin == null
+    state.queueingScheduler == null
+
+    when: "the timing is stopped twice"
+    state.stopTiming(task)
+
+    then: "the queueing time is recorded once"
+    0 * profiling.recordQueueingTime(*_)
+  }
+
+  def "queueing time is not recorded without the task"() {
+    setup:
+    def state = State.FACTORY.create()
+    def task = new Object()
+    profiling.getQueueingStartTicks() >> 42
+
+    when:
+    QueueTimerHelper.startQueuingTimer(state, ThreadPoolExecutor, task)
+    state.stopTiming()
+
+    then:
+    0 * profiling.recordQueueingTime(*_)
+    !state.isTimed()
+    state.queueingOrigin == null
+    state.queueingScheduler == null
+  }
+
+  def "queueing time is measured with a timing when the profiler requires it"() {
+    setup:
+    def state = State.FACTORY.create()
+    def task = new Object()
+    def timing = Mock(QueueTiming)
+
+    when:
+    QueueTimerHelper.startQueuingTimer(state, ThreadPoolExecutor, task)
+
+    then:
+    1 * profiling.getQueueingStartTicks() >> 0
+    1 * profiling.start(QUEUEING) >> timing
+    1 * timing.setTask(task)
+    1 * timing.setScheduler(ThreadPoolExecutor)
+    state.isTimed()
+
+    when:
+    state.stopTiming(task)
+
+    then:
+    1 * timing.close()
+    0 * profiling.recordQueueingTime(*_)
+    !state.isTimed()
+  }
+}
@@ -25,7 +25,6 @@ public class DebuggerSink {
   private static final int MAX_FLUSH_INTERVAL = 2000;
   private static final long INITIAL_FLUSH_INTERVAL = 1000;
   private static final String PREFIX = "debugger.sink.";
-  private static final int CAPACITY = 1000;
   static final long STEP_SIZE = 200;
 
   private final ProbeStatusSink probeStatusSink;
@@ -67,7 +66,7 @@ public class DebuggerSink {
         snapshotUploader,
         debuggerMetrics,
         new ProbeStatusSink(config, config.getFinalDebuggerSnapshotUrl(), false),
-        new SnapshotSink(config),
+        new SnapshotSink(config, debuggerMetrics),
         new SymbolSink(config));
   }
 
@@ -143,10 +142,8 @@ public class DebuggerSink {
   }
 
   public void addSnapshot(Snapshot snapshot) {
-    boolean added = snapshotSink.offer(snapshot);
-    if (!added) {
-      debuggerMetrics.count(PREFIX + "dropped.requests", 1);
-    } else {
+    // dropped snapshots are accounted by the snapshot sink and reported when flushing
+    if (snapshotSink.offer(snapshot)) {
       probeStatusSink.addEmitting(snapshot.getProbe().getProbeId());
     }
   }
@@ -193,7 +190,8 @@ public class DebuggerSink {
   }
 
   void doReconsiderFlushInterval() {
-    double remainingCapacityPercent = snapshotSink.remainingCapacity() * 1D / CAPACITY;
+    double remainingCapacityPercent =
+        snapshotSink.remainingCapacity() * 1D / snapshotSink.capacity();
     long currentInterval = currentFlushInterval;
     long newInterval = currentInterval;
     if (remainingCapacityPercent <= FREE_CAPACITY_LOWER_THRESHOLD) {
@@ -1,6 +1,7 @@
 package com.datadog.debugger.sink;
 
 import com.datadog.debugger.agent.DebuggerAgent;
+import com.datadog.debugger.util.DebuggerMetrics;
 import com.datadog.debugger.util.ExceptionHelper;
 import com.datadog.debugger.util.SnapshotPruner;
 import datadog.trace.api.Config;
@@ -8,35 +9,55 @@ import datadog.trace.relocate.api.RatelimitedLogger;
 import datadog.trace.util.TagsHelper;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpscArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Collects snapshots that needs to be sent to the backend */
+/**
+ * Collects snapshots that needs to be sent to the backend. Snapshots are offered by application
+ * threads into a lock-free queue, and drained and serialized by the single flushing thread.
+ */
 public class SnapshotSink {
   private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotSink.class);
-  private static final int CAPACITY = 1000;
+  static final int CAPACITY = 1024;
   public static final int MAX_SNAPSHOT_SIZE = 1024 * 1024;
   private static final int MINUTES_BETWEEN_ERROR_LOG = 5;
+  private static final String PREFIX = "debugger.sink.";
 
-  private final BlockingQueue<Snapshot> snapshots = new ArrayBlockingQueue<>(CAPACITY);
+  private final MpscArrayQueue<Snapshot> snapshots = new MpscArrayQueue<>(CAPACITY);
+  // snapshots dropped because the queue was full, per probe id, removed when reported on each drain
+  private final Map<String, Long> droppedSnapshots = new ConcurrentHashMap<>();
+  // only accessed by the draining thread
+  private final List<Snapshot> drainedSnapshots = new ArrayList<>();
+  private final MessagePassingQueue.Consumer<Snapshot> drainer = drainedSnapshots::add;
   private final String serviceName;
   private final int batchSize;
+  private final DebuggerMetrics debuggerMetrics;
   private final RatelimitedLogger ratelimitedLogger =
       new RatelimitedLogger(LOGGER, MINUTES_BETWEEN_ERROR_LOG, TimeUnit.MINUTES);
 
   public SnapshotSink(Config config) {
+    this(config, DebuggerMetrics.getInstance(config));
+  }
+
+  public SnapshotSink(Config config, DebuggerMetrics debuggerMetrics) {
     this.serviceName = TagsHelper.sanitize(config.getServiceName());
     this.batchSize = config.getDebuggerUploadBatchSize();
+    this.debuggerMetrics = debuggerMetrics;
   }
 
   public List<String> getSerializedSnapshots() {
-    List<Snapshot> snapshots = new ArrayList<>();
-    this.snapshots.drainTo(snapshots, batchSize);
-    List<String> serializedSnapshots = new ArrayList<>();
-    for (Snapshot snapshot : snapshots) {
+    reportDroppedSnapshots();
+    drainedSnapshots.clear();
+    snapshots.drain(drainer, batchSize);
+    List<String> serializedSnapshots = new ArrayList<>(drainedSnapshots.size());
+    long now = System.currentTimeMillis();
+    for (Snapshot snapshot : drainedSnapshots) {
+      debuggerMetrics.histogram(PREFIX + "snapshot.latency", now - snapshot.getTimestamp());
       try {
         String strSnapshot = serializeSnapshot(serviceName, snapshot);
         serializedSnapshots.add(strSnapshot);
@@ -45,21 +66,53 @@ public class SnapshotSink {
         ExceptionHelper.logException(LOGGER, e, "Error during snapshot serialization:");
       }
     }
+    // do not retain the snapshots until the next flush
+    drainedSnapshots.clear();
     return serializedSnapshots;
   }
 
   public List<Snapshot> getSnapshots() {
     List<Snapshot> snapshots = new ArrayList<>();
-    this.snapshots.drainTo(snapshots, batchSize);
+    this.snapshots.drain(snapshots::add, batchSize);
     return snapshots;
   }
 
   public long remainingCapacity() {
-    return snapshots.remainingCapacity();
+    return snapshots.capacity() - snapshots.size();
   }
 
+  public int capacity() {
+    return snapshots.capacity();
+  }
+
+  /**
+   * Adds the snapshot without blocking. When the queue is full the snapshot is dropped and
+   * accounted to its probe.
+   *
+   * @return {@code true} if the snapshot was added
+   */
   public boolean offer(Snapshot snapshot) {
-    return snapshots.offer(snapshot);
+    if (snapshots.offer(snapshot)) {
+      return true;
+    }
+    droppedSnapshots.merge(snapshot.getProbe().getId(), 1L, Long::sum);
+    return false;
+  }
+
+  boolean hasDroppedSnapshots() {
+    return !droppedSnapshots.isEmpty();
+  }
+
+  private void reportDroppedSnapshots() {
+    for (String probeId : droppedSnapshots.keySet()) {
+      // removing the entry atomically takes the count, so removed probes are not retained
+      Long dropped = droppedSnapshots.remove(probeId);
+      if (dropped != null) {
+        debuggerMetrics.count(PREFIX + "dropped.requests", dropped, "probe_id:" + probeId);
+        ratelimitedLogger.warn(
+            "Dropped {} snapshots of probe {} because the upload queue is full", dropped, probeId);
+      }
+    }
   }
 
   String serializeSnapshot(String serviceName, Snapshot snapshot) {
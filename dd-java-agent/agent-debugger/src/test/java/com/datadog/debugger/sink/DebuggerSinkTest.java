@@ -1,11 +1,15 @@
 package com.datadog.debugger.sink;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -491,6 +495,38 @@ public class DebuggerSinkTest {
         .incrementCounter(anyString(), eq("cause:rate"), eq("probe_id:" + PROBE_ID.getId()));
   }
 
+  @Test
+  public void droppedSnapshotsReportedPerProbe() {
+    DebuggerMetrics debuggerMetrics = spy(DebuggerMetrics.getInstance(config));
+    SnapshotSink snapshotSink = new SnapshotSink(config, debuggerMetrics);
+    DebuggerSink sink =
+        new DebuggerSink(
+            config,
+            batchUploader,
+            debuggerMetrics,
+            new ProbeStatusSink(config, config.getFinalDebuggerSnapshotUrl(), false),
+            snapshotSink,
+            new SymbolSink(config));
+    DebuggerAgentHelper.injectSerializer(new JsonSnapshotSerializer());
+    Snapshot snapshot = createSnapshot();
+    for (int i = 0; i < SnapshotSink.CAPACITY + 10; i++) {
+      sink.addSnapshot(snapshot);
+    }
+    verify(debuggerMetrics, never()).count(anyString(), anyLong(), any());
+    assertTrue(snapshotSink.hasDroppedSnapshots());
+    sink.flush(sink);
+    verify(debuggerMetrics)
+        .count(
+            eq("debugger.sink.dropped.requests"), eq(10L), eq("probe_id:" + PROBE_ID.getId()));
+    // reported probes are not retained
+    assertFalse(snapshotSink.hasDroppedSnapshots());
+    verify(debuggerMetrics).histogram(eq("debugger.sink.snapshot.latency"), anyLong());
+    verify(batchUploader).upload(payloadCaptor.capture(), matches(EXPECTED_SNAPSHOT_TAGS));
+    sink.flush(sink);
+    // drops are reported only once
+    verify(debuggerMetrics, times(1)).count(anyString(), anyLong(), any());
+  }
+
   private JsonSnapshotSerializer.IntakeRequest assertOneIntakeRequest(String strPayload)
       throws IOException {
     ParameterizedType type =
@@ -0,0 +1,107 @@
+package com.datadog.iast.propagation;
+
+import static datadog.trace.api.iast.VulnerabilityMarks.NOT_MARKED;
+
+import com.datadog.iast.IastRequestContext;
+import com.datadog.iast.model.Range;
+import datadog.trace.api.iast.IastContext;
+import datadog.trace.instrumentation.java.lang.StringBuilderCallSite;
+import datadog.trace.instrumentation.java.lang.StringCallSite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Overhead per string operation on strings that are not tainted, with IAST disabled and enabled.
+ * The request either has not tainted anything yet or holds an unrelated tainted value, in which
+ * case the tainted objects must be looked up.
+ */
+public class StringOperationOverheadBenchmark
+    extends AbstractBenchmark<StringOperationOverheadBenchmark.Context> {
+
+  /** {@code concat}, {@code new StringBuilder}, 3 {@code append}, {@code toString} and format */
+  private static final int OPERATIONS = 7;
+
+  @Param({"false", "true"})
+  boolean requestTainted;
+
+  @Override
+  protected Context initializeContext() {
+    final IastRequestContext context = new IastRequestContext();
+    final String unrelated =
+        requestTainted
+            ? tainted(context, "I am a tainted string", new Range(3, 5, source(), NOT_MARKED))
+            : null;
+    return new Context(
+        context,
+        unrelated,
+        notTainted("I am not a tainted string"),
+        notTainted("neither am I"),
+        notTainted("%s and %s"));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  @Fork(jvmArgsAppend = {"-Ddd.iast.enabled=false"})
+  public String baseline() {
+    final String concat = context.left.concat(context.right);
+    final StringBuilder builder = new StringBuilder(concat);
+    builder.append(context.left).append(context.right).append(concat);
+    final String toString = builder.toString();
+    return String.format(context.format, toString, concat);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  @Fork(jvmArgsAppend = {"-Ddd.iast.enabled=false"})
+  public String iastDisabled() {
+    return instrumented();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERATIONS)
+  @Fork(jvmArgsAppend = {"-Ddd.iast.enabled=true"})
+  public String iastEnabled() {
+    return instrumented();
+  }
+
+  private String instrumented() {
+    final String left = context.left;
+    final String right = context.right;
+    final String concat = StringCallSite.afterConcat(left, right, left.concat(right));
+    final StringBuilder builder =
+        (StringBuilder)
+            StringBuilderCallSite.afterInit(new Object[] {concat}, new StringBuilder(concat));
+    StringBuilderCallSite.afterAppend(builder, left, builder.append(left));
+    StringBuilderCallSite.afterAppend(builder, right, builder.append(right));
+    StringBuilderCallSite.afterAppend(builder, concat, builder.append(concat));
+    final String toString = StringBuilderCallSite.afterToString(builder, builder.toString());
+    final Object[] args = new Object[] {toString, concat};
+    return StringCallSite.afterFormat(context.format, args, String.format(context.format, args));
+  }
+
+  protected static class Context extends AbstractBenchmark.BenchmarkContext {
+
+    /** Keeps the unrelated tainted value alive during the iteration */
+    @SuppressWarnings("unused")
+    private final String unrelated;
+
+    private final String left;
+    private final String right;
+    private final String format;
+
+    protected Context(
+        final IastContext context,
+        final String unrelated,
+        final String left,
+        final String right,
+        final String format) {
+      super(context);
+      this.unrelated = unrelated;
+      this.left = left;
+      this.right = right;
+      this.format = format;
+    }
+  }
+}
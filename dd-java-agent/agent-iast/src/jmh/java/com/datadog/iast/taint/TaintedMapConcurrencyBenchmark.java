@@ -0,0 +1,115 @@
+package com.datadog.iast.taint;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.datadog.iast.model.Range;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Shared map tainting new objects from many threads, as the global context does, while looking up
+ * both recently tainted objects and objects that were never tainted. The {@code lostPuts} counter
+ * reports the tainted objects that could not be found right after being put.
+ */
+@Warmup(iterations = 3, time = 1000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = MILLISECONDS)
+@Fork(1)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class TaintedMapConcurrencyBenchmark {
+
+  private static final int ALIVE_COUNT = 1 << 10;
+
+  private static final Range[] EMPTY_RANGES = new Range[0];
+
+  @Param({"impl", "striped"})
+  String implementation;
+
+  private TaintedMap map;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    map =
+        "striped".equals(implementation)
+            ? new TaintedMap.StripedTaintedMapImpl(
+                TaintedMap.DEFAULT_SEGMENT_COUNT,
+                TaintedMap.DEFAULT_CAPACITY * (1 << 2),
+                TaintedMap.DEFAULT_CAPACITY * (1 << 6),
+                TaintedMap.DEFAULT_MAX_AGE,
+                TaintedMap.DEFAULT_MAX_AGE_UNIT,
+                null)
+            : new TaintedMap.TaintedMapImpl(
+                TaintedMap.DEFAULT_CAPACITY * (1 << 2),
+                TaintedMap.DEFAULT_MAX_BUCKET_SIZE,
+                TaintedMap.DEFAULT_MAX_AGE,
+                TaintedMap.DEFAULT_MAX_AGE_UNIT,
+                null);
+  }
+
+  /** Objects tainted by each thread, the older ones become garbage as new ones are added. */
+  @State(Scope.Thread)
+  public static class Alive {
+    final Object[] objects = new Object[ALIVE_COUNT];
+    int next;
+  }
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long lostPuts;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Object threads001(final Alive alive, final Counters counters) {
+    return putAndGet(alive, counters);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Object threads008(final Alive alive, final Counters counters) {
+    return putAndGet(alive, counters);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public Object threads032(final Alive alive, final Counters counters) {
+    return putAndGet(alive, counters);
+  }
+
+  @Benchmark
+  @Threads(256)
+  public Object threads256(final Alive alive, final Counters counters) {
+    return putAndGet(alive, counters);
+  }
+
+  private Object putAndGet(final Alive alive, final Counters counters) {
+    final TaintedMap map = this.map;
+    final Object tainted = new Object();
+    alive.objects[alive.next++ & (ALIVE_COUNT - 1)] = tainted;
+    map.put(new TaintedObject(tainted, EMPTY_RANGES, map.referenceQueue()));
+    if (map.get(tainted) == null) {
+      counters.lostPuts++;
+    }
+    final Object recent = alive.objects[ThreadLocalRandom.current().nextInt(ALIVE_COUNT)];
+    if (recent != null) {
+      map.get(recent);
+    }
+    return map.get(new Object());
+  }
+}
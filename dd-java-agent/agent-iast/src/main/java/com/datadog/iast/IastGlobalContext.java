@@ -24,15 +24,18 @@ public class IastGlobalContext implements IastContext {
 
   public static class Provider extends IastContext.Provider {
 
-    // (16384 * 4) buckets: approx 256K
+    // (16384 * 4) = 64K slots, approx 256KB of references with compressed oops
     static final int MAP_SIZE = TaintedMap.DEFAULT_CAPACITY * (1 << 2);
+    // (16384 * 64) = 1M slots, approx 4MB of references with compressed oops
+    static final int MAX_MAP_SIZE = TaintedMap.DEFAULT_CAPACITY * (1 << 6);
     static final int MAX_AGE = TaintedMap.DEFAULT_MAX_AGE;
     static final TimeUnit MAX_AGE_UNIT = TaintedMap.DEFAULT_MAX_AGE_UNIT;
 
-    // Map that with purge option
+    // Striped map shared by all the request threads, with purge option
     final IastContext globalContext =
         new IastGlobalContext(
-            TaintedObjects.build(TaintedMap.buildWithPurge(MAP_SIZE, MAX_AGE, MAX_AGE_UNIT)));
+            TaintedObjects.build(
+                TaintedMap.buildStriped(MAP_SIZE, MAX_MAP_SIZE, MAX_AGE, MAX_AGE_UNIT)));
 
     @Nullable
     @Override
@@ -4,6 +4,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_MAX_CONCURRENT_REQUE
 
 import com.datadog.iast.model.VulnerabilityBatch;
 import com.datadog.iast.overhead.OverheadContext;
+import com.datadog.iast.overhead.RouteCoverage;
 import com.datadog.iast.taint.TaintedMap;
 import com.datadog.iast.taint.TaintedObjects;
 import com.datadog.iast.util.Wrapper;
@@ -33,6 +34,9 @@ public class IastRequestContext implements IastContext, HasMetricCollector {
   @Nullable private volatile String xForwardedProto;
   @Nullable private volatile String contentType;
   @Nullable private volatile String authorization;
+  @Nullable private volatile RouteCoverage.Route route;
+  private volatile long routeStart;
+  private volatile boolean skipped;
 
   /**
    * Use {@link IastRequestContext#IastRequestContext(TaintedObjects)} instead as we require more
@@ -103,11 +107,38 @@ public class IastRequestContext implements IastContext, HasMetricCollector {
     return overheadContext;
   }
 
+  @Nullable
+  public RouteCoverage.Route getRoute() {
+    return route;
+  }
+
+  public void setRoute(@Nonnull final RouteCoverage.Route route) {
+    this.route = route;
+    this.routeStart = System.nanoTime();
+  }
+
+  /** Stops the analysis of the request, nothing else will be tainted in this context */
+  public void skipAnalysis() {
+    skipped = true;
+  }
+
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  /** Adds the latency of the request to the coverage of its route, if the route is known */
+  public void onRequestEnd() {
+    final RouteCoverage.Route route = this.route;
+    if (route != null) {
+      route.onRequestEnd(!skipped, System.nanoTime() - routeStart);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Nonnull
   @Override
   public TaintedObjects getTaintedObjects() {
-    return taintedObjects;
+    return skipped ? TaintedObjects.NoOp.INSTANCE : taintedObjects;
   }
 
   @Override
@@ -160,7 +191,11 @@ public class IastRequestContext implements IastContext, HasMetricCollector {
     @SuppressWarnings("unchecked")
     @Override
     public void releaseRequestContext(@Nonnull final IastContext context) {
-      final TaintedObjects taintedObjects = context.getTaintedObjects();
+      // skipped contexts hide their tainted objects, but they must be returned to the pool anyway
+      final TaintedObjects taintedObjects =
+          context instanceof IastRequestContext
+              ? ((IastRequestContext) context).taintedObjects
+              : context.getTaintedObjects();
       taintedObjects.clear();
       // add the root instance to the pool
       if (taintedObjects instanceof Wrapper) {
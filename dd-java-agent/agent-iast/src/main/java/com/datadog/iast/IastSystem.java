@@ -37,6 +37,7 @@ import com.datadog.iast.telemetry.TelemetryRequestStartedHandler;
 import datadog.trace.api.Config;
 import datadog.trace.api.ProductActivation;
 import datadog.trace.api.function.TriConsumer;
+import datadog.trace.api.function.TriFunction;
 import datadog.trace.api.gateway.EventType;
 import datadog.trace.api.gateway.Events;
 import datadog.trace.api.gateway.Flow;
@@ -48,6 +49,7 @@ import datadog.trace.api.iast.IastModule;
 import datadog.trace.api.iast.InstrumentationBridge;
 import datadog.trace.api.iast.telemetry.IastMetricCollector;
 import datadog.trace.api.iast.telemetry.Verbosity;
+import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
 import datadog.trace.util.AgentTaskScheduler;
 import datadog.trace.util.stacktrace.StackWalkerFactory;
 import java.lang.reflect.Constructor;
@@ -87,12 +89,15 @@ public class IastSystem {
     final Reporter reporter = new Reporter(config, AgentTaskScheduler.INSTANCE);
     final boolean globalContext = config.getIastContextMode() == GLOBAL;
     final IastContext.Provider contextProvider = contextProvider(iast, globalContext);
+    // routes are not sampled in global mode as all the requests are analyzed
+    final boolean adaptiveSampling = !globalContext && config.isIastAdaptiveSamplingEnabled();
     if (overheadController == null) {
       overheadController =
           OverheadController.build(
               globalContext ? UNLIMITED : config.getIastRequestSampling(),
               config.getIastMaxConcurrentRequests(),
               globalContext,
+              adaptiveSampling,
               AgentTaskScheduler.INSTANCE);
     }
     IastContext.Provider.register(contextProvider);
@@ -104,6 +109,9 @@ public class IastSystem {
     registerRequestStartedCallback(ss, addTelemetry, dependencies);
     registerRequestEndedCallback(ss, addTelemetry, dependencies);
     registerHeadersCallback(ss);
+    if (adaptiveSampling) {
+      registerRequestMethodUriCallback(ss, dependencies);
+    }
     registerGrpcServerRequestMessageCallback(ss);
     LOGGER.debug("IAST started");
   }
@@ -206,6 +214,13 @@ public class IastSystem {
     ss.registerCallback(event, handler);
   }
 
+  private static void registerRequestMethodUriCallback(
+      final SubscriptionService ss, final Dependencies dependencies) {
+    final EventType<TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>>> event =
+        Events.get().requestMethodUriRaw();
+    ss.registerCallback(event, new RequestMethodUriHandler(dependencies));
+  }
+
   private static void registerGrpcServerRequestMessageCallback(final SubscriptionService ss) {
     ss.registerCallback(Events.get().grpcServerRequestMessage(), new GrpcRequestMessageHandler());
   }
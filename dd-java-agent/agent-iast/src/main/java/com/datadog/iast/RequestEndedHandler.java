@@ -29,7 +29,16 @@ public class RequestEndedHandler implements BiFunction<RequestContext, IGSpanInf
   public Flow<Void> apply(final RequestContext requestContext, final IGSpanInfo igSpanInfo) {
     final TraceSegment traceSegment = requestContext.getTraceSegment();
     final IastContext iastCtx = requestContext.getData(RequestContextSlot.IAST);
-    if (iastCtx != null) {
+    if (iastCtx instanceof IastRequestContext && ((IastRequestContext) iastCtx).isSkipped()) {
+      // skipped once its route was known, the request has already been released
+      final IastRequestContext skippedCtx = (IastRequestContext) iastCtx;
+      try {
+        SKIPPED.setTagTop(traceSegment);
+        contextProvider.releaseRequestContext(skippedCtx);
+      } finally {
+        skippedCtx.onRequestEnd();
+      }
+    } else if (iastCtx != null) {
       for (HttpRequestEndModule module : requestEndModules()) {
         if (module != null) {
           module.onRequestEnd(iastCtx, igSpanInfo);
@@ -40,6 +49,9 @@ public class RequestEndedHandler implements BiFunction<RequestContext, IGSpanInf
         contextProvider.releaseRequestContext(iastCtx);
       } finally {
         overheadController.releaseRequest();
+        if (iastCtx instanceof IastRequestContext) {
+          ((IastRequestContext) iastCtx).onRequestEnd();
+        }
       }
     } else {
       SKIPPED.setTagTop(traceSegment);
@@ -0,0 +1,33 @@
+package com.datadog.iast;
+
+import com.datadog.iast.overhead.OverheadController;
+import datadog.trace.api.function.TriFunction;
+import datadog.trace.api.gateway.Flow;
+import datadog.trace.api.gateway.RequestContext;
+import datadog.trace.api.gateway.RequestContextSlot;
+import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
+import javax.annotation.Nonnull;
+
+/**
+ * Hands the route of the request to the {@link OverheadController} so it can decide if the request
+ * keeps being analyzed, only registered when the sampling adapts to the routes.
+ */
+public class RequestMethodUriHandler
+    implements TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>> {
+
+  private final OverheadController overheadController;
+
+  public RequestMethodUriHandler(@Nonnull final Dependencies dependencies) {
+    this.overheadController = dependencies.getOverheadController();
+  }
+
+  @Override
+  public Flow<Void> apply(
+      final RequestContext requestContext, final String method, final URIDataAdapter uri) {
+    final IastRequestContext ctx = requestContext.getData(RequestContextSlot.IAST);
+    if (ctx != null && method != null && uri != null) {
+      overheadController.acquireRoute(ctx, method, uri.path());
+    }
+    return Flow.ResultFlow.empty();
+  }
+}
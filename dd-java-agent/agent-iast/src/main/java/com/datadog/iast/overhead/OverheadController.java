@@ -14,6 +14,7 @@ import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
 import datadog.trace.util.AgentTaskScheduler;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,14 @@ public interface OverheadController {
 
   boolean acquireRequest();
 
+  /**
+   * Decides if a request acquired with {@link #acquireRequest()} is still analyzed once its route
+   * is known, otherwise the request is released and its context skips the analysis. Further calls
+   * for the same context return the first decision.
+   */
+  boolean acquireRoute(
+      @Nonnull IastRequestContext ctx, @Nonnull String method, @Nullable String path);
+
   void reset();
 
   int releaseRequest();
@@ -35,6 +44,7 @@ public interface OverheadController {
         config.getIastRequestSampling(),
         config.getIastMaxConcurrentRequests(),
         config.getIastContextMode() == IastContext.Mode.GLOBAL,
+        config.isIastAdaptiveSamplingEnabled(),
         scheduler);
   }
 
@@ -43,9 +53,18 @@ public interface OverheadController {
       final int maxConcurrentRequests,
       final boolean globalFallback,
       final AgentTaskScheduler scheduler) {
+    return build(requestSampling, maxConcurrentRequests, globalFallback, false, scheduler);
+  }
+
+  static OverheadController build(
+      final float requestSampling,
+      final int maxConcurrentRequests,
+      final boolean globalFallback,
+      final boolean adaptiveSampling,
+      final AgentTaskScheduler scheduler) {
     final OverheadControllerImpl result =
         new OverheadControllerImpl(
-            requestSampling, maxConcurrentRequests, globalFallback, scheduler);
+            requestSampling, maxConcurrentRequests, globalFallback, adaptiveSampling, scheduler);
     return IastSystem.DEBUG ? new OverheadControllerDebugAdapter(result) : result;
   }
 
@@ -73,6 +92,22 @@ public interface OverheadController {
       return result;
     }
 
+    @Override
+    public boolean acquireRoute(
+        @Nonnull final IastRequestContext ctx,
+        @Nonnull final String method,
+        @Nullable final String path) {
+      final boolean result = delegate.acquireRoute(ctx, method, path);
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(
+            "acquireRoute: acquired={}, route={}, span={}",
+            result,
+            ctx.getRoute(),
+            AgentTracer.activeSpan());
+      }
+      return result;
+    }
+
     @Override
     public int releaseRequest() {
       int result = delegate.releaseRequest();
@@ -127,6 +162,8 @@ public interface OverheadController {
 
   class OverheadControllerImpl implements OverheadController {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OverheadControllerImpl.class);
+
     private static final int RESET_PERIOD_SECONDS = 30;
 
     private final int sampling;
@@ -144,15 +181,28 @@ public interface OverheadController {
     final OverheadContext globalContext =
         new OverheadContext(Config.get().getIastVulnerabilitiesPerRequest());
 
+    /** Coverage of the routes when sampling adapts to them, {@code null} otherwise */
+    @Nullable final RouteCoverage routeCoverage;
+
+    public OverheadControllerImpl(
+        final float requestSampling,
+        final int maxConcurrentRequests,
+        final boolean useGlobalAsFallback,
+        final AgentTaskScheduler taskScheduler) {
+      this(requestSampling, maxConcurrentRequests, useGlobalAsFallback, false, taskScheduler);
+    }
+
     public OverheadControllerImpl(
         final float requestSampling,
         final int maxConcurrentRequests,
         final boolean useGlobalAsFallback,
+        final boolean adaptiveSampling,
         final AgentTaskScheduler taskScheduler) {
       this.sampling = computeSamplingParameter(requestSampling);
       availableRequests = maxConcurrentRequests(maxConcurrentRequests);
       cumulativeCounter = new AtomicLong(sampling);
       this.useGlobalAsFallback = useGlobalAsFallback;
+      this.routeCoverage = adaptiveSampling ? new RouteCoverage() : null;
       if (taskScheduler != null) {
         taskScheduler.scheduleAtFixedRate(
             this::reset, 2 * RESET_PERIOD_SECONDS, RESET_PERIOD_SECONDS, TimeUnit.SECONDS);
@@ -161,6 +211,10 @@ public interface OverheadController {
 
     @Override
     public boolean acquireRequest() {
+      if (routeCoverage != null) {
+        // the sampling decision is delayed until the route of the request is known
+        return availableRequests.acquire();
+      }
       long prevValue = cumulativeCounter.getAndAdd(sampling);
       long newValue = prevValue + sampling;
       if (newValue / 100 == prevValue / 100 + 1) {
@@ -171,11 +225,38 @@ public interface OverheadController {
       return false;
     }
 
+    @Override
+    public boolean acquireRoute(
+        @Nonnull final IastRequestContext ctx,
+        @Nonnull final String method,
+        @Nullable final String path) {
+      if (routeCoverage == null) {
+        return true;
+      }
+      if (ctx.getRoute() != null) {
+        // the route was already decided, the request must not be sampled or released twice
+        return !ctx.isSkipped();
+      }
+      final RouteCoverage.Route route = routeCoverage.route(method, path);
+      ctx.setRoute(route);
+      if (route.sample()) {
+        return true;
+      }
+      ctx.skipAnalysis();
+      availableRequests.release();
+      return false;
+    }
+
     @Override
     public int releaseRequest() {
       return availableRequests.release();
     }
 
+    @Nullable
+    public RouteCoverage getRouteCoverage() {
+      return routeCoverage;
+    }
+
     @Override
     public boolean hasQuota(final Operation operation, @Nullable final AgentSpan span) {
       return operation.hasQuota(getContext(span));
@@ -192,7 +273,7 @@ public interface OverheadController {
       if (requestContext != null) {
         IastRequestContext iastRequestContext = requestContext.getData(RequestContextSlot.IAST);
         if (iastRequestContext != null) {
-          return iastRequestContext.getOverheadContext();
+          return iastRequestContext.isSkipped() ? null : iastRequestContext.getOverheadContext();
         }
         if (!useGlobalAsFallback) {
           return null;
@@ -227,6 +308,12 @@ public interface OverheadController {
       // going above the max concurrent requests. But overall, it should be self-stabilizing. So for
       // practical purposes, the max concurrent requests is a hint.
       availableRequests.reset();
+      if (routeCoverage != null) {
+        routeCoverage.decay();
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Route coverage: routes={}", routeCoverage.routes());
+        }
+      }
     }
   }
 }
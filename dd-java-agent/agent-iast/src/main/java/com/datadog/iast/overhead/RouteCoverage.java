@@ -0,0 +1,266 @@
+package com.datadog.iast.overhead;
+
+import static datadog.trace.api.iast.telemetry.IastMetric.OVERHEAD_ROUTE_ANALYZED;
+import static datadog.trace.api.iast.telemetry.IastMetric.OVERHEAD_ROUTE_NEW;
+import static datadog.trace.api.iast.telemetry.IastMetric.OVERHEAD_ROUTE_SKIPPED;
+
+import datadog.trace.api.iast.telemetry.IastMetricCollector;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Coverage of the routes (method and path template) of the application. Each route samples its
+ * requests inversely to the number of requests of the route analyzed recently, so rare routes are
+ * always analyzed while routes that have already been analyzed many times only pay the IAST cost
+ * for a small fraction of their requests.
+ */
+public class RouteCoverage {
+
+  /** Routes over this limit share the same stats to keep the memory bounded */
+  static final int MAX_ROUTES = 512;
+
+  static final String OVERFLOW_ROUTE = "*";
+
+  /** Sampling of a route is halved after this many requests of the route have been analyzed */
+  static final int ANALYZED_THRESHOLD = 8;
+
+  /** Sampling rates are expressed in per mille */
+  static final int MAX_RATE = 1000;
+
+  static final int MIN_RATE = 10;
+
+  /** Weight of the last request latency in the moving average, as a power of two */
+  private static final int LATENCY_SMOOTHING_SHIFT = 3;
+
+  private static final char PLACEHOLDER = '?';
+
+  private static final int MIN_ID_LENGTH = 8;
+
+  private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+  private final Route overflow = new Route(OVERFLOW_ROUTE);
+
+  @Nonnull
+  public Route route(@Nonnull final String method, @Nullable final String path) {
+    final String key = method.toUpperCase(Locale.ROOT) + ' ' + template(path);
+    final Route route = routes.get(key);
+    if (route != null) {
+      return route;
+    }
+    if (routes.size() >= MAX_ROUTES) {
+      return overflow;
+    }
+    final Route newRoute = new Route(key);
+    final Route previous = routes.putIfAbsent(key, newRoute);
+    if (previous != null) {
+      return previous;
+    }
+    IastMetricCollector.add(OVERHEAD_ROUTE_NEW, 1);
+    return newRoute;
+  }
+
+  public Collection<Route> routes() {
+    return routes.values();
+  }
+
+  public int size() {
+    return routes.size();
+  }
+
+  /**
+   * Halves the number of analyzed requests of each route so routes are eventually analyzed again
+   */
+  public void decay() {
+    for (final Route route : routes.values()) {
+      route.decay();
+    }
+    overflow.decay();
+  }
+
+  public void clear() {
+    routes.clear();
+    overflow.clear();
+  }
+
+  /**
+   * Replaces the segments of the path that look like identifiers (numbers, UUIDs or hexadecimal
+   * hashes) with a placeholder, so requests to the same endpoint share the same route.
+   */
+  static String template(@Nullable final String path) {
+    if (path == null || path.isEmpty()) {
+      return "/";
+    }
+    final int length = path.length();
+    StringBuilder result = null;
+    int start = 0;
+    while (start <= length) {
+      int end = path.indexOf('/', start);
+      if (end < 0) {
+        end = length;
+      }
+      if (isIdentifier(path, start, end)) {
+        if (result == null) {
+          result = new StringBuilder(length).append(path, 0, start);
+        }
+        result.append(PLACEHOLDER);
+      } else if (result != null) {
+        result.append(path, start, end);
+      }
+      if (end < length && result != null) {
+        result.append('/');
+      }
+      start = end + 1;
+    }
+    return result == null ? path : result.toString();
+  }
+
+  private static boolean isIdentifier(final String path, final int start, final int end) {
+    if (start == end) {
+      return false;
+    }
+    boolean digits = true;
+    boolean hex = true;
+    boolean hasDigit = false;
+    for (int i = start; i < end; i++) {
+      final char c = path.charAt(i);
+      if (c >= '0' && c <= '9') {
+        hasDigit = true;
+      } else {
+        digits = false;
+        if (!((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-')) {
+          hex = false;
+          break;
+        }
+      }
+    }
+    return digits || (hex && hasDigit && end - start >= MIN_ID_LENGTH);
+  }
+
+  /** Coverage and latency of the requests of a route */
+  public static final class Route {
+
+    private final String key;
+
+    /** Requests of the route seen since the start of the application */
+    private final AtomicLong requests = new AtomicLong();
+
+    /** Requests of the route analyzed recently, halved on each decay */
+    private final AtomicInteger analyzed = new AtomicInteger();
+
+    /** Accumulated sampling rate, a request is sampled each time it reaches a new thousand */
+    private final AtomicLong cumulativeRate = new AtomicLong(MAX_RATE - 1);
+
+    /** Moving average of the latency of the analyzed requests of the route in nanoseconds */
+    private final AtomicLong analyzedLatency = new AtomicLong();
+
+    /** Moving average of the latency of the skipped requests of the route in nanoseconds */
+    private final AtomicLong skippedLatency = new AtomicLong();
+
+    Route(final String key) {
+      this.key = key;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public long getRequests() {
+      return requests.get();
+    }
+
+    public int getAnalyzed() {
+      return analyzed.get();
+    }
+
+    public long getAnalyzedLatency() {
+      return analyzedLatency.get();
+    }
+
+    public long getSkippedLatency() {
+      return skippedLatency.get();
+    }
+
+    /**
+     * Current sampling rate of the route in per mille. It decreases as more requests of the route
+     * are analyzed and it is scaled down by the latency overhead of the analysis once the latency
+     * of both analyzed and skipped requests is known.
+     */
+    public int rate() {
+      final int analyzed = this.analyzed.get();
+      long rate = (long) MAX_RATE * ANALYZED_THRESHOLD / (ANALYZED_THRESHOLD + analyzed);
+      final long analyzedLatency = this.analyzedLatency.get();
+      final long skippedLatency = this.skippedLatency.get();
+      if (skippedLatency > 0 && analyzedLatency > skippedLatency) {
+        rate = rate * skippedLatency / analyzedLatency;
+      }
+      return (int) Math.max(MIN_RATE, rate);
+    }
+
+    /** Decides if the current request of the route should be analyzed */
+    public boolean sample() {
+      requests.incrementAndGet();
+      final int rate = rate();
+      final long previous = cumulativeRate.getAndAdd(rate);
+      if ((previous + rate) / MAX_RATE != previous / MAX_RATE) {
+        analyzed.incrementAndGet();
+        IastMetricCollector.add(OVERHEAD_ROUTE_ANALYZED, 1);
+        return true;
+      }
+      IastMetricCollector.add(OVERHEAD_ROUTE_SKIPPED, 1);
+      return false;
+    }
+
+    /** Adds the latency of a finished request of the route to the moving averages */
+    public void onRequestEnd(final boolean analyzed, final long latencyNanos) {
+      final AtomicLong average = analyzed ? analyzedLatency : skippedLatency;
+      long current;
+      long next;
+      do {
+        current = average.get();
+        next =
+            current == 0
+                ? latencyNanos
+                : current + ((latencyNanos - current) >> LATENCY_SMOOTHING_SHIFT);
+      } while (!average.compareAndSet(current, next));
+    }
+
+    void decay() {
+      int current;
+      do {
+        current = analyzed.get();
+      } while (!analyzed.compareAndSet(current, current >> 1));
+    }
+
+    void clear() {
+      requests.set(0);
+      analyzed.set(0);
+      cumulativeRate.set(MAX_RATE - 1);
+      analyzedLatency.set(0);
+      skippedLatency.set(0);
+    }
+
+    @Override
+    public String toString() {
+      return "Route{"
+          + "key='"
+          + key
+          + '\''
+          + ", requests="
+          + requests
+          + ", analyzed="
+          + analyzed
+          + ", rate="
+          + rate()
+          + ", analyzedLatency="
+          + analyzedLatency
+          + ", skippedLatency="
+          + skippedLatency
+          + '}';
+    }
+  }
+}
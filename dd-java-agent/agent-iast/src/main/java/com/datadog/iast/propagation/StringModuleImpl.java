@@ -54,11 +54,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(left) && !canBeTainted(right)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject taintedLeft = getTainted(taintedObjects, left);
     final TaintedObject taintedRight = getTainted(taintedObjects, right);
     if (taintedLeft == null && taintedRight == null) {
@@ -82,11 +81,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(param)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject paramTainted = taintedObjects.get(param);
     if (paramTainted == null) {
       return;
@@ -100,11 +98,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(builder) || !canBeTainted(param)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject paramTainted = taintedObjects.get(param);
     if (paramTainted == null) {
       return;
@@ -130,11 +127,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(builder) || !canBeTainted(result)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject to = taintedObjects.get(builder);
     if (to == null) {
       return;
@@ -152,13 +148,11 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(result) || !canBeTainted(args)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
-    final RangeBuilder targetRanges = new RangeBuilder();
+    RangeBuilder targetRanges = null;
     int offset = 0;
     for (int item : recipeOffsets) {
       if (item < 0) {
@@ -167,6 +161,9 @@ public class StringModuleImpl implements StringModule {
         final String argument = args[item];
         final Range[] ranges = getRanges(getTainted(taintedObjects, argument));
         if (ranges.length > 0) {
+          if (targetRanges == null) {
+            targetRanges = new RangeBuilder();
+          }
           targetRanges.add(ranges, offset);
           if (targetRanges.isFull()) {
             break;
@@ -175,7 +172,7 @@ public class StringModuleImpl implements StringModule {
         offset += getToStringLength(argument);
       }
     }
-    if (!targetRanges.isEmpty()) {
+    if (targetRanges != null && !targetRanges.isEmpty()) {
       taintedObjects.taint(result, targetRanges.toArray());
     }
   }
@@ -187,11 +184,10 @@ public class StringModuleImpl implements StringModule {
     if (self == result || !canBeTainted(result)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject selfTainted = taintedObjects.get(self);
     if (selfTainted == null) {
       return;
@@ -212,23 +208,26 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(result)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     // String.join may internally call StringJoiner, if StringJoiner did the job don't do it twice
     if (getTainted(taintedObjects, result) != null) {
       return;
     }
     final Range[] delimiterRanges = getRanges(getTainted(taintedObjects, delimiter));
-    final RangeBuilder targetRanges = new RangeBuilder();
+    // only allocate the builder once there is a range to add
+    RangeBuilder targetRanges = delimiterRanges.length > 0 ? new RangeBuilder() : null;
     int delimiterLength = getToStringLength(delimiter), offset = 0;
     for (int i = 0; i < elements.length; i++) {
       // insert element ranges
       final CharSequence element = elements[i];
       final Range[] ranges = getRanges(getTainted(taintedObjects, element));
       if (ranges.length > 0) {
+        if (targetRanges == null) {
+          targetRanges = new RangeBuilder();
+        }
         targetRanges.add(ranges, offset);
         if (targetRanges.isFull()) {
           break;
@@ -238,14 +237,16 @@ public class StringModuleImpl implements StringModule {
 
       if (i < elements.length - 1) {
         // add delimiter ranges
-        targetRanges.add(delimiterRanges, offset);
-        if (targetRanges.isFull()) {
-          break;
+        if (targetRanges != null) {
+          targetRanges.add(delimiterRanges, offset);
+          if (targetRanges.isFull()) {
+            break;
+          }
         }
         offset += delimiterLength;
       }
     }
-    if (!targetRanges.isEmpty()) {
+    if (targetRanges != null && !targetRanges.isEmpty()) {
       taintedObjects.taint(result, targetRanges.toArray());
     }
   }
@@ -256,11 +257,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(self) || !canBeTainted(result) || self == result) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final Range[] selfRanges = getRanges(taintedObjects.get(self));
     if (selfRanges.length == 0) {
       return;
@@ -276,6 +276,20 @@ public class StringModuleImpl implements StringModule {
     taintedObjects.taint(result, ranges);
   }
 
+  /**
+   * Returns the tainted objects of the current context or {@code null} if there is no context or if
+   * nothing has been tainted in it yet, as no result can be tainted in that case.
+   */
+  @Nullable
+  private static TaintedObjects taintedObjects() {
+    final IastContext ctx = IastContext.Provider.get();
+    if (ctx == null) {
+      return null;
+    }
+    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
+    return taintedObjects.isEmpty() ? null : taintedObjects;
+  }
+
   private static int getToStringLength(@Nullable final CharSequence s) {
     return s == null ? NULL_STR_LENGTH : s.length();
   }
@@ -298,11 +312,10 @@ public class StringModuleImpl implements StringModule {
     if (self == result) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject taintedSelf = taintedObjects.get(self);
     if (taintedSelf == null) {
       return;
@@ -371,11 +384,10 @@ public class StringModuleImpl implements StringModule {
     if (self == result) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final TaintedObject taintedSelf = taintedObjects.get(self);
     if (taintedSelf == null) {
       return;
@@ -405,11 +417,10 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(self)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects taintedObjects = taintedObjects();
+    if (taintedObjects == null) {
       return;
     }
-    final TaintedObjects taintedObjects = ctx.getTaintedObjects();
     final Range[] selfRanges = getRanges(taintedObjects.get(self));
     if (selfRanges.length == 0) {
       return;
@@ -432,13 +443,15 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(result)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects to = taintedObjects();
+    if (to == null) {
       return;
     }
-    final TaintedObjects to = ctx.getTaintedObjects();
-    final Deque<Range> formatRanges = new LinkedList<>();
     final TaintedObject formatTainted = to.get(format);
+    if (formatTainted == null && !anyTainted(to, parameters)) {
+      return;
+    }
+    final Deque<Range> formatRanges = new LinkedList<>();
     if (formatTainted != null) {
       formatRanges.addAll(Arrays.asList(formatTainted.getRanges()));
     }
@@ -493,6 +506,19 @@ public class StringModuleImpl implements StringModule {
     }
   }
 
+  /**
+   * Checks if any of the parameters is tainted, so the formatting of the placeholders can be skipped
+   * when neither the parameters nor the format string are tainted.
+   */
+  private static boolean anyTainted(final TaintedObjects to, final Object[] parameters) {
+    for (final Object parameter : parameters) {
+      if (parameter != null && to.get(parameter) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static boolean checkParameterBounds(
       final String format, final Object[] parameters, int paramIndex) {
     if (paramIndex < parameters.length) {
@@ -515,11 +541,13 @@ public class StringModuleImpl implements StringModule {
     if (!canBeTainted(result)) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects to = taintedObjects();
+    if (to == null) {
+      return;
+    }
+    if (!anyTainted(to, parameters)) {
       return;
     }
-    final TaintedObjects to = ctx.getTaintedObjects();
     // since we might join ranges the final number is unknown beforehand
     final RangeBuilder finalRanges = new RangeBuilder();
     int offset = 0, paramIndex = 0;
@@ -552,11 +580,10 @@ public class StringModuleImpl implements StringModule {
     if (result.length == 1 && result[0] == self) {
       return;
     }
-    final IastContext ctx = IastContext.Provider.get();
-    if (ctx == null) {
+    final TaintedObjects to = taintedObjects();
+    if (to == null) {
       return;
     }
-    final TaintedObjects to = ctx.getTaintedObjects();
     TaintedObject taintedString = to.get(self);
     if (taintedString == null) {
       return;
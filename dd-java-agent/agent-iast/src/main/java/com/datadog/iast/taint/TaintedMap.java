@@ -1,18 +1,23 @@
 package com.datadog.iast.taint;
 
 import com.datadog.iast.IastSystem;
+import com.datadog.iast.model.Range;
 import com.datadog.iast.util.Wrapper;
 import datadog.trace.api.Config;
 import datadog.trace.api.iast.telemetry.IastMetric;
 import datadog.trace.api.iast.telemetry.IastMetricCollector;
 import datadog.trace.api.iast.telemetry.Verbosity;
 import datadog.trace.util.AgentTaskScheduler;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -41,7 +46,8 @@ import org.slf4j.LoggerFactory;
  * <p><i>Capacity</i> is fixed, so there is no rehashing.
  *
  * <p>This implementation works reasonably well under high concurrency, but it will lose some writes
- * in that case.
+ * in that case. {@link StripedTaintedMapImpl} is meant for maps shared by many threads, it does not
+ * lose concurrent writes and grows with the number of tainted objects.
  */
 public interface TaintedMap extends Iterable<TaintedObject> {
 
@@ -59,6 +65,9 @@ public interface TaintedMap extends Iterable<TaintedObject> {
 
   TimeUnit DEFAULT_MAX_AGE_UNIT = TimeUnit.MINUTES;
 
+  /** Default number of segments of the striped map. It MUST be a power of 2. */
+  int DEFAULT_SEGMENT_COUNT = 1 << 6;
+
   /**
    * Builds an instance suitable to be used while in short-lived contexts (e.g. a request), in that
    * cases no purge will happen as they will be cleared on the end of the context.
@@ -80,6 +89,23 @@ public interface TaintedMap extends Iterable<TaintedObject> {
     return IastSystem.DEBUG ? new Debug(map) : map;
   }
 
+  /**
+   * Builds a striped instance suitable to be shared by many threads in a long-lived context (e.g. a
+   * global instance), each segment grows from its share of the initial capacity up to its share of
+   * the max capacity. Stale entries are purged according to the scheduled interval and as soon as
+   * their keys are garbage-collected.
+   */
+  static TaintedMap buildStriped(
+      final int initialCapacity, final int maxCapacity, int maxAge, TimeUnit maxAgeUnit) {
+    return new StripedTaintedMapImpl(
+        DEFAULT_SEGMENT_COUNT,
+        initialCapacity,
+        maxCapacity,
+        maxAge,
+        maxAgeUnit,
+        AgentTaskScheduler.INSTANCE);
+  }
+
   @Nullable
   TaintedObject get(@Nonnull Object key);
 
@@ -89,6 +115,15 @@ public interface TaintedMap extends Iterable<TaintedObject> {
 
   void clear();
 
+  /**
+   * Queue to register the new {@link TaintedObject} entries with, so the map can remove them once
+   * their keys are garbage-collected. {@code null} if the map finds stale entries by itself.
+   */
+  @Nullable
+  default ReferenceQueue<Object> referenceQueue() {
+    return null;
+  }
+
   class TaintedMapImpl implements TaintedMap, Runnable {
 
     protected final TaintedObject[] table;
@@ -328,6 +363,386 @@ public interface TaintedMap extends Iterable<TaintedObject> {
     }
   }
 
+  /**
+   * Map split in segments by the high bits of the hash codes, each of them being an open
+   * addressing hash table with linear probing that is resized on its own.
+   *
+   * <p>Reads are lock-free: entries are never moved or chained, a resize copies the live entries
+   * into a new table and publishes it. Writes lock the segment of the key, so they are not lost
+   * under concurrent modification. Removed entries are replaced by a tombstone until the next
+   * resize of their segment.
+   *
+   * <p>Entries are removed when their keys are garbage-collected, through the shared {@link
+   * #referenceQueue()} drained by puts and by the purge task, and when they get older than the max
+   * age. A put is only lost when the segment of the key is full at its max capacity, which is
+   * reported with the {@link IastMetric#TAINTED_LOST_WRITE} metric.
+   */
+  class StripedTaintedMapImpl implements TaintedMap, Runnable {
+
+    static final Logger LOGGER = LoggerFactory.getLogger(StripedTaintedMapImpl.class);
+
+    /** Max number of collected entries to remove on each put. */
+    static final int MAX_EXPUNGED_PER_PUT = 1 << 4;
+
+    /** Marks the slots of removed entries, as emptying them would break the probe sequences. */
+    static final TaintedObject TOMBSTONE = new TaintedObject(Tombstone.class, new Range[0]);
+
+    protected final Segment[] segments;
+
+    /** Shift of the hash codes to get the segment index. */
+    protected final int segmentShift;
+
+    protected final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+    protected final AtomicLong lostWrites = new AtomicLong();
+
+    /**
+     * Flag for the current alive tainted objects (red/black style marking for max age calculation).
+     */
+    protected volatile boolean generation;
+
+    /** Whether to collect the {@link IastMetric#TAINTED_LOST_WRITE} metric or not */
+    protected final boolean collectLostWriteMetric;
+
+    /**
+     * Create a new striped map.
+     *
+     * @param segmentCount Number of segments. It must be a power of 2.
+     * @param initialCapacity Initial capacity of the whole map, split between the segments.
+     * @param maxCapacity Max capacity of the whole map, split between the segments.
+     * @param maxAge max time an entry can stay in the map (can take up to {@code 2 * maxAge} in the
+     *     worst case)
+     * @param maxAgeUnit unit for the max age
+     * @param scheduler scheduler for the purge, {@code null} to disable it
+     */
+    StripedTaintedMapImpl(
+        final int segmentCount,
+        final int initialCapacity,
+        final int maxCapacity,
+        final int maxAge,
+        @Nullable final TimeUnit maxAgeUnit,
+        @Nullable final AgentTaskScheduler scheduler) {
+      segments = new Segment[segmentCount];
+      // positive hash codes have 31 bits, the segment index is taken from the highest ones
+      segmentShift = Integer.SIZE - 1 - Integer.numberOfTrailingZeros(segmentCount);
+      final int capacity = tableSizeFor(initialCapacity / segmentCount);
+      final int maxSegmentCapacity = Math.max(capacity, tableSizeFor(maxCapacity / segmentCount));
+      for (int i = 0; i < segmentCount; i++) {
+        segments[i] = new Segment(capacity, maxSegmentCapacity);
+      }
+      generation = true;
+      final Verbosity verbosity = Config.get().getIastTelemetryVerbosity();
+      collectLostWriteMetric = IastMetric.TAINTED_LOST_WRITE.isEnabled(verbosity);
+      if (scheduler != null) {
+        scheduler.weakScheduleAtFixedRate(this, maxAge, maxAge, maxAgeUnit);
+      }
+    }
+
+    @Nullable
+    @Override
+    public TaintedObject get(@Nonnull final Object key) {
+      final int hash = System.identityHashCode(key) & POSITIVE_MASK;
+      return segment(hash).get(key, hash);
+    }
+
+    /**
+     * Put a new {@link TaintedObject} in the map. It will not insert the element if it is already
+     * present in the map.
+     *
+     * @param entry Tainted object.
+     */
+    @Override
+    public void put(@Nonnull final TaintedObject entry) {
+      expungeStaleEntries(MAX_EXPUNGED_PER_PUT);
+      if (!segment(entry.positiveHashCode).put(entry, generation)) {
+        lostWrites.incrementAndGet();
+        if (collectLostWriteMetric) {
+          IastMetricCollector.add(IastMetric.TAINTED_LOST_WRITE, 1);
+        }
+      }
+    }
+
+    @Override
+    public int count() {
+      int count = 0;
+      for (final Segment segment : segments) {
+        count += segment.count;
+      }
+      return count;
+    }
+
+    @Override
+    public void clear() {
+      for (final Segment segment : segments) {
+        segment.clear();
+      }
+    }
+
+    @Nonnull
+    @Override
+    public ReferenceQueue<Object> referenceQueue() {
+      return referenceQueue;
+    }
+
+    /** @return the number of puts lost because the segment of the key was full */
+    public long lostWrites() {
+      return lostWrites.get();
+    }
+
+    /** @return the current capacity of the map, which grows with the number of entries */
+    public int capacity() {
+      int capacity = 0;
+      for (final Segment segment : segments) {
+        capacity += segment.table.length();
+      }
+      return capacity;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<TaintedObject> iterator() {
+      return new Iterator<TaintedObject>() {
+        int segmentIndex = 0;
+        int index = 0;
+        @Nullable AtomicReferenceArray<TaintedObject> table = segments[0].table;
+        @Nullable TaintedObject next;
+
+        @Override
+        public boolean hasNext() {
+          while (next == null && table != null) {
+            if (index < table.length()) {
+              final TaintedObject entry = table.get(index++);
+              if (entry != null && entry != TOMBSTONE) {
+                next = entry;
+              }
+            } else {
+              segmentIndex++;
+              index = 0;
+              table = segmentIndex < segments.length ? segments[segmentIndex].table : null;
+            }
+          }
+          return next != null;
+        }
+
+        @Override
+        public TaintedObject next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          final TaintedObject entry = next;
+          next = null;
+          return entry;
+        }
+      };
+    }
+
+    /** Runnable used to purge stale entries after max age */
+    @Override
+    public void run() {
+      expungeStaleEntries(Integer.MAX_VALUE);
+      final boolean current = generation;
+      for (final Segment segment : segments) {
+        segment.purge(current);
+      }
+      generation = !current;
+      if (LOGGER.isDebugEnabled()) {
+        final int count = count();
+        final int capacity = capacity();
+        LOGGER.debug(
+            "Striped map [count:{}, capacity:{}, occupancy:{}, lost writes:{}]",
+            count,
+            capacity,
+            String.format("%2.2f%%", count * 100D / capacity),
+            lostWrites());
+      }
+    }
+
+    protected Segment segment(final int hash) {
+      return segments[(hash >>> segmentShift) & (segments.length - 1)];
+    }
+
+    protected void expungeStaleEntries(final int max) {
+      for (int i = 0; i < max; i++) {
+        final Reference<?> ref = referenceQueue.poll();
+        if (ref == null) {
+          return;
+        }
+        if (ref instanceof TaintedObject) {
+          final TaintedObject entry = (TaintedObject) ref;
+          segment(entry.positiveHashCode).remove(entry);
+        }
+      }
+    }
+
+    /** @return the power of 2 table length for the capacity, leaving at least one empty slot */
+    private static int tableSizeFor(final int capacity) {
+      return capacity <= 4 ? 4 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @SuppressFBWarnings("VO_VOLATILE_INCREMENT") // count is only updated with the segment lock
+    protected static final class Segment {
+
+      /** The table can hold entries and tombstones up to 3/4 of its length. */
+      private static final int LOAD_FACTOR_SHIFT = 2;
+
+      private final int initialCapacity;
+      private final int maxCapacity;
+
+      volatile AtomicReferenceArray<TaintedObject> table;
+
+      /** Number of entries, including the ones whose keys have been collected but not removed. */
+      volatile int count;
+
+      /** Number of tombstones, only accessed with the segment lock. */
+      private int tombstones;
+
+      Segment(final int initialCapacity, final int maxCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = maxCapacity;
+        table = new AtomicReferenceArray<>(initialCapacity);
+      }
+
+      @Nullable
+      TaintedObject get(final Object key, final int hash) {
+        final AtomicReferenceArray<TaintedObject> table = this.table;
+        final int mask = table.length() - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+          final TaintedObject entry = table.get(index);
+          if (entry == null) {
+            return null;
+          }
+          if (entry.positiveHashCode == hash && entry.get() == key) {
+            return entry;
+          }
+        }
+      }
+
+      /** @return {@code false} if the segment is full and the entry has not been added */
+      synchronized boolean put(final TaintedObject entry, final boolean generation) {
+        final Object key = entry.get();
+        if (key == null) {
+          return true;
+        }
+        AtomicReferenceArray<TaintedObject> table = this.table;
+        int mask = table.length() - 1;
+        int free = -1;
+        for (int index = entry.positiveHashCode & mask; ; index = (index + 1) & mask) {
+          final TaintedObject cur = table.get(index);
+          if (cur == null) {
+            if (free == -1) {
+              free = index;
+            }
+            break;
+          }
+          if (cur == TOMBSTONE) {
+            if (free == -1) {
+              free = index;
+            }
+          } else if (cur.positiveHashCode == entry.positiveHashCode && cur.get() == key) {
+            // Duplicate, exit early.
+            return true;
+          }
+        }
+        entry.generation = generation;
+        if (table.get(free) == TOMBSTONE) {
+          tombstones--;
+        } else if (isOverloaded(count + tombstones + 1, table.length())) {
+          table = resize(table);
+          if (isOverloaded(count + 1, table.length())) {
+            return false;
+          }
+          mask = table.length() - 1;
+          free = entry.positiveHashCode & mask;
+          while (table.get(free) != null) {
+            free = (free + 1) & mask;
+          }
+        }
+        table.set(free, entry);
+        count++;
+        return true;
+      }
+
+      synchronized void remove(final TaintedObject entry) {
+        final AtomicReferenceArray<TaintedObject> table = this.table;
+        final int mask = table.length() - 1;
+        for (int index = entry.positiveHashCode & mask; ; index = (index + 1) & mask) {
+          final TaintedObject cur = table.get(index);
+          if (cur == null) {
+            return;
+          }
+          if (cur == entry) {
+            table.set(index, TOMBSTONE);
+            count--;
+            tombstones++;
+            return;
+          }
+        }
+      }
+
+      /** Removes the entries added in a previous generation or whose keys have been collected. */
+      synchronized void purge(final boolean generation) {
+        final AtomicReferenceArray<TaintedObject> table = this.table;
+        for (int index = 0; index < table.length(); index++) {
+          final TaintedObject cur = table.get(index);
+          if (cur != null
+              && cur != TOMBSTONE
+              && (cur.generation != generation || cur.get() == null)) {
+            table.set(index, TOMBSTONE);
+            count--;
+            tombstones++;
+          }
+        }
+      }
+
+      synchronized void clear() {
+        table = new AtomicReferenceArray<>(initialCapacity);
+        count = 0;
+        tombstones = 0;
+      }
+
+      /**
+       * Copies the entries whose keys are still alive into a new table, twice as large if they
+       * still fill half of the current one, and publishes it. The current table is left untouched
+       * for the concurrent reads.
+       */
+      private AtomicReferenceArray<TaintedObject> resize(
+          final AtomicReferenceArray<TaintedObject> table) {
+        final int length = table.length();
+        int live = 0;
+        for (int index = 0; index < length; index++) {
+          final TaintedObject cur = table.get(index);
+          if (cur != null && cur != TOMBSTONE && cur.get() != null) {
+            live++;
+          }
+        }
+        final int newLength = live >= (length >> 1) && length < maxCapacity ? length << 1 : length;
+        final AtomicReferenceArray<TaintedObject> newTable = new AtomicReferenceArray<>(newLength);
+        final int mask = newLength - 1;
+        for (int index = 0; index < length; index++) {
+          final TaintedObject cur = table.get(index);
+          if (cur != null && cur != TOMBSTONE && cur.get() != null) {
+            int newIndex = cur.positiveHashCode & mask;
+            while (newTable.get(newIndex) != null) {
+              newIndex = (newIndex + 1) & mask;
+            }
+            newTable.set(newIndex, cur);
+          }
+        }
+        this.table = newTable;
+        count = live;
+        tombstones = 0;
+        return newTable;
+      }
+
+      private static boolean isOverloaded(final int size, final int length) {
+        return size > length - (length >> LOAD_FACTOR_SHIFT);
+      }
+    }
+
+    /** Referent of the {@link #TOMBSTONE}, never used as a key. */
+    private static final class Tombstone {}
+  }
+
   class Debug implements TaintedMap, Wrapper<TaintedMapImpl> {
 
     static final Logger LOGGER = LoggerFactory.getLogger(TaintedMap.class);
@@ -4,6 +4,7 @@ import static com.datadog.iast.taint.TaintedMap.POSITIVE_MASK;
 
 import com.datadog.iast.model.Range;
 import datadog.trace.api.Config;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -20,7 +21,14 @@ public class TaintedObject extends WeakReference<Object> {
   boolean generation;
 
   public TaintedObject(final @Nonnull Object obj, final @Nonnull Range[] ranges) {
-    super(obj);
+    this(obj, ranges, null);
+  }
+
+  public TaintedObject(
+      final @Nonnull Object obj,
+      final @Nonnull Range[] ranges,
+      final @Nullable ReferenceQueue<Object> queue) {
+    super(obj, queue);
     this.positiveHashCode = System.identityHashCode(obj) & POSITIVE_MASK;
     // ensure ranges never go over the limit
     if (ranges.length > MAX_RANGE_COUNT) {
@@ -33,10 +33,19 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
 
   int count();
 
+  /**
+   * Returns {@code true} if nothing has been tainted since the instance was created or last cleared,
+   * so callers can skip any lookup. It might return {@code false} even if all the tainted objects
+   * have been garbage collected.
+   */
+  boolean isEmpty();
+
   class TaintedObjectsImpl implements TaintedObjects {
 
     private final TaintedMap map;
 
+    private volatile boolean empty = true;
+
     private TaintedObjectsImpl(final @Nonnull TaintedMap map) {
       this.map = map;
     }
@@ -44,7 +53,10 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
     @Nonnull
     @Override
     public TaintedObject taint(final @Nonnull Object obj, final @Nonnull Range[] ranges) {
-      final TaintedObject tainted = new TaintedObject(obj, ranges);
+      final TaintedObject tainted = new TaintedObject(obj, ranges, map.referenceQueue());
+      if (empty) {
+        empty = false;
+      }
       map.put(tainted);
       return tainted;
     }
@@ -52,11 +64,12 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
     @Nullable
     @Override
     public TaintedObject get(final @Nonnull Object obj) {
-      return map.get(obj);
+      return empty ? null : map.get(obj);
     }
 
     @Override
     public void clear() {
+      empty = true;
       map.clear();
     }
 
@@ -65,6 +78,11 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
       return map.count();
     }
 
+    @Override
+    public boolean isEmpty() {
+      return empty;
+    }
+
     @Nonnull
     @Override
     public Iterator<TaintedObject> iterator() {
@@ -119,6 +137,11 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
       return delegated.count();
     }
 
+    @Override
+    public boolean isEmpty() {
+      return delegated.isEmpty();
+    }
+
     @Nonnull
     @Override
     public Iterator<TaintedObject> iterator() {
@@ -165,6 +188,11 @@ public interface TaintedObjects extends Iterable<TaintedObject> {
       return 0;
     }
 
+    @Override
+    public boolean isEmpty() {
+      return true;
+    }
+
     @Override
     @Nonnull
     public Iterator<TaintedObject> iterator() {
@@ -71,6 +71,11 @@ public class TaintedObjectsWithTelemetry implements TaintedObjects, Wrapper<Tain
     return delegate.count();
   }
 
+  @Override
+  public boolean isEmpty() {
+    return delegate.isEmpty();
+  }
+
   @Override
   public TaintedObjects unwrap() {
     return delegate;
@@ -73,4 +73,26 @@ class IastRequestContextTest extends DDSpecification {
     to.count() == 0
     provider.pool.size() == 1
   }
+
+  void 'skipped contexts hide their tainted objects and return them to the pool'() {
+    given:
+    final ctx = provider.buildRequestContext() as IastRequestContext
+    final TaintedObjects to = ctx.getTaintedObjects()
+    to.taint(UUID.randomUUID(), [] as Range[])
+
+    when:
+    ctx.skipAnalysis()
+
+    then:
+    ctx.isSkipped()
+    ctx.getTaintedObjects() === TaintedObjects.NoOp.INSTANCE
+
+    when:
+    provider.releaseRequestContext(ctx)
+
+    then:
+    to.count() == 0
+    provider.pool.size() == 1
+    provider.pool.peek() === to
+  }
 }
@@ -72,7 +72,8 @@ class IastSystemTest extends DDSpecification {
     endCallback.apply(reqCtx, igSpanInfo)
 
     then:
-    1 * iastContext.getTaintedObjects()
+    1 * iastContext.isSkipped()
+    1 * iastContext.onRequestEnd()
     1 * iastContext.getMetricCollector()
     1 * traceSegment.setTagTop('_dd.iast.enabled', 1)
     1 * iastContext.getxContentTypeOptions() >> 'nosniff'
@@ -3,8 +3,13 @@ package com.datadog.iast.overhead
 import com.datadog.iast.IastRequestContext
 import com.datadog.iast.overhead.OverheadController.OverheadControllerImpl
 import datadog.trace.api.Config
+import datadog.trace.api.config.IastConfig
 import datadog.trace.api.gateway.RequestContext
 import datadog.trace.api.gateway.RequestContextSlot
+import datadog.trace.api.iast.telemetry.IastMetric
+import datadog.trace.api.iast.telemetry.IastMetricCollector
+import datadog.trace.api.iast.telemetry.IastMetricCollector.IastMetricData
+import datadog.trace.api.iast.telemetry.Verbosity
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan
 import datadog.trace.test.util.DDSpecification
 import datadog.trace.util.AgentTaskScheduler
@@ -17,6 +22,7 @@ import java.util.concurrent.Executors
 import java.util.concurrent.Future
 import java.util.concurrent.Semaphore
 
+import static com.datadog.iast.test.TaintedObjectsUtils.noOpTaintedObjects
 import static datadog.trace.api.iast.IastDetectionMode.UNLIMITED
 
 @CompileDynamic
@@ -283,6 +289,151 @@ class OverheadControllerTest extends DDSpecification {
     !lastAcquired
   }
 
+  void 'adaptive sampling favours the routes that have been analyzed less often'() {
+    setup:
+    injectSysConfig(IastConfig.IAST_TELEMETRY_VERBOSITY, Verbosity.INFORMATION.name())
+    rebuildConfig()
+    final originalCollector = IastMetricCollector.get()
+    final collector = new IastMetricCollector()
+    IastMetricCollector.register(collector)
+
+    and: 'a synthetic distribution where the n-th route is n times less frequent than the first one'
+    final routeCount = 20
+    final requestCount = 20_000
+    final weights = (1..routeCount).collect { 1D / it }
+    final random = new Random(42)
+    final requests = new int[routeCount]
+    final analyzed = new int[routeCount]
+    final maxConcurrentRequests = 4
+    final overheadController = new OverheadControllerImpl(DEFAULT_REQUEST_SAMPLING, maxConcurrentRequests, false, true, null)
+
+    when: 'the controller is reset periodically while the requests arrive'
+    for (int i = 0; i < requestCount; i++) {
+      final route = pickRoute(random, weights)
+      requests[route]++
+      assert overheadController.acquireRequest()
+      final ctx = new IastRequestContext(noOpTaintedObjects())
+      if (overheadController.acquireRoute(ctx, 'GET', "/api/route${route}/${i}")) {
+        assert !ctx.isSkipped()
+        analyzed[route]++
+        overheadController.releaseRequest()
+      } else {
+        assert ctx.isSkipped()
+      }
+      if (i % 2000 == 1999) {
+        overheadController.reset()
+      }
+    }
+
+    then: 'all the routes are analyzed and the rare ones get a larger share of their requests analyzed'
+    final ratios = (0..<routeCount).collect { analyzed[it] / requests[it] }
+    analyzed.every { it >= RouteCoverage.ANALYZED_THRESHOLD }
+    ratios.last() > 2 * ratios.first()
+    (1..<routeCount).every { ratios[it] >= ratios[it - 1] - 0.02 }
+
+    and: 'less requests are analyzed than with the fixed sampling'
+    analyzed.sum() < requestCount * DEFAULT_REQUEST_SAMPLING / 100
+
+    and: 'all the requests are released'
+    overheadController.availableRequests.available() == maxConcurrentRequests
+
+    and: 'the state of the controller is reported'
+    overheadController.routeCoverage.size() == routeCount
+    final metrics = fetchMetrics(collector)
+    metricValue(metrics, IastMetric.OVERHEAD_ROUTE_NEW) == routeCount
+    metricValue(metrics, IastMetric.OVERHEAD_ROUTE_ANALYZED) == analyzed.sum()
+    metricValue(metrics, IastMetric.OVERHEAD_ROUTE_SKIPPED) == requestCount - analyzed.sum()
+
+    cleanup:
+    IastMetricCollector.register(originalCollector)
+  }
+
+  void 'skipped requests have no quota'() {
+    given:
+    final overheadController = new OverheadControllerImpl(DEFAULT_REQUEST_SAMPLING, UNLIMITED, false, true, null)
+    final ctx = new IastRequestContext(noOpTaintedObjects())
+    final requestContext = Stub(RequestContext) {
+      getData(RequestContextSlot.IAST) >> ctx
+    }
+    final span = Stub(AgentSpan) {
+      getRequestContext() >> requestContext
+    }
+
+    when:
+    ctx.skipAnalysis()
+
+    then:
+    overheadController.getContext(span) == null
+    !overheadController.hasQuota(Operations.REPORT_VULNERABILITY, span)
+  }
+
+  void 'routes are always analyzed when the sampling does not adapt to them'() {
+    given:
+    final overheadController = new OverheadControllerImpl(100, UNLIMITED, false, false, null)
+    final ctx = new IastRequestContext(noOpTaintedObjects())
+
+    when:
+    final acquired = (1..100).collect { overheadController.acquireRoute(ctx, 'GET', '/') }
+
+    then:
+    acquired.every { it }
+    ctx.getRoute() == null
+    !ctx.isSkipped()
+  }
+
+  void 'acquiring the route of a request twice keeps the first decision'() {
+    given:
+    final maxConcurrentRequests = 2
+    final overheadController = new OverheadControllerImpl(DEFAULT_REQUEST_SAMPLING, maxConcurrentRequests, false, true, null)
+
+    when: 'the route is analyzed until a request of it is skipped'
+    IastRequestContext skippedCtx = null
+    while (skippedCtx == null) {
+      assert overheadController.acquireRequest()
+      final ctx = new IastRequestContext(noOpTaintedObjects())
+      if (overheadController.acquireRoute(ctx, 'GET', '/api/route')) {
+        assert overheadController.acquireRoute(ctx, 'GET', '/api/route')
+        overheadController.releaseRequest()
+      } else {
+        skippedCtx = ctx
+      }
+    }
+    final route = skippedCtx.getRoute()
+    final requests = route.getRequests()
+    final analyzed = route.getAnalyzed()
+
+    and: 'the route of the skipped request is acquired again while another request is analyzed'
+    assert overheadController.acquireRequest()
+    final acquiredAgain = overheadController.acquireRoute(skippedCtx, 'GET', '/api/route')
+
+    then: 'the request is neither sampled nor released twice'
+    !acquiredAgain
+    skippedCtx.isSkipped()
+    route.getRequests() == requests
+    route.getAnalyzed() == analyzed
+    overheadController.availableRequests.available() == maxConcurrentRequests - 1
+  }
+
+  private static int pickRoute(final Random random, final List<Double> weights) {
+    double value = random.nextDouble() * (weights.sum() as double)
+    for (int i = 0; i < weights.size(); i++) {
+      value -= weights[i]
+      if (value <= 0) {
+        return i
+      }
+    }
+    return weights.size() - 1
+  }
+
+  private static List<IastMetricData> fetchMetrics(final IastMetricCollector collector) {
+    collector.prepareMetrics()
+    return collector.drain()
+  }
+
+  private static long metricValue(final List<IastMetricData> metrics, final IastMetric metric) {
+    return metrics.findAll { it.metric == metric }.sum { it.value.longValue() } as long
+  }
+
   private AgentSpan getAgentSpanWithOverheadContext() {
     def iastRequestContext = Stub(IastRequestContext)
     iastRequestContext.getOverheadContext() >> new OverheadContext(Config.get().getIastVulnerabilitiesPerRequest())
@@ -0,0 +1,106 @@
+package com.datadog.iast.overhead
+
+import datadog.trace.test.util.DDSpecification
+
+class RouteCoverageTest extends DDSpecification {
+
+  void 'path template of #path is #expected'() {
+    expect:
+    RouteCoverage.template(path) == expected
+
+    where:
+    path                                          | expected
+    null                                          | '/'
+    ''                                            | '/'
+    '/'                                           | '/'
+    '/users'                                      | '/users'
+    '/users/'                                     | '/users/'
+    '/v1/users'                                   | '/v1/users'
+    '/users/42'                                   | '/users/?'
+    '/users/42/orders/7'                          | '/users/?/orders/?'
+    '/item/550e8400-e29b-41d4-a716-446655440000'  | '/item/?'
+    '/commit/deadbeef12'                          | '/commit/?'
+    '/feed/deadbeef'                              | '/feed/deadbeef'
+  }
+
+  void 'requests to the same endpoint share the route'() {
+    given:
+    final coverage = new RouteCoverage()
+
+    when:
+    final route = coverage.route('get', '/users/42')
+
+    then:
+    route.key == 'GET /users/?'
+    coverage.route('GET', '/users/43').is(route)
+    !coverage.route('POST', '/users/43').is(route)
+    coverage.size() == 2
+  }
+
+  void 'routes over the limit share the same stats'() {
+    given:
+    final coverage = new RouteCoverage()
+    (1..RouteCoverage.MAX_ROUTES).each { coverage.route('GET', "/route${it}") }
+
+    when:
+    final first = coverage.route('GET', '/another')
+    final second = coverage.route('GET', '/yet/another')
+
+    then:
+    coverage.size() == RouteCoverage.MAX_ROUTES
+    first.key == RouteCoverage.OVERFLOW_ROUTE
+    first.is(second)
+  }
+
+  void 'sampling decreases as the route is analyzed and recovers after decaying'() {
+    given:
+    final coverage = new RouteCoverage()
+    final route = coverage.route('GET', '/')
+
+    expect: 'the first request is always analyzed'
+    route.rate() == RouteCoverage.MAX_RATE
+    route.sample()
+
+    when:
+    (1..1000).each { route.sample() }
+
+    then:
+    route.requests == 1001
+    route.rate() < RouteCoverage.MAX_RATE / 10
+    route.rate() >= RouteCoverage.MIN_RATE
+
+    when:
+    final rate = route.rate()
+    final analyzed = route.analyzed
+    coverage.decay()
+
+    then:
+    route.analyzed == analyzed >> 1
+    route.rate() > rate
+  }
+
+  void 'sampling is reduced by the latency overhead of the analysis'() {
+    given:
+    final route = new RouteCoverage().route('GET', '/')
+
+    when:
+    route.onRequestEnd(false, 1_000)
+
+    then:
+    route.skippedLatency == 1_000
+    route.rate() == RouteCoverage.MAX_RATE
+
+    when: 'analyzed requests take twice as long'
+    route.onRequestEnd(true, 2_000)
+
+    then:
+    route.analyzedLatency == 2_000
+    route.rate() == RouteCoverage.MAX_RATE / 2
+
+    when: 'latencies are averaged'
+    route.onRequestEnd(true, 10_000)
+
+    then:
+    route.analyzedLatency == 3_000
+  }
+}
@@ -1,6 +1,8 @@
 package com.datadog.iast.propagation
 
 import com.datadog.iast.IastModuleImplTestBase
+import com.datadog.iast.IastRequestContext
+import com.datadog.iast.taint.TaintedObjects
 import datadog.trace.api.gateway.RequestContext
 import datadog.trace.api.gateway.RequestContextSlot
 import datadog.trace.api.iast.propagation.StringModule
@@ -949,6 +951,42 @@ class StringModuleTest extends IastModuleImplTestBase {
     ['', '']          | ['He==>ll<==o', 'World==>!<==']    | 'He==>ll<==o' // extra args
   }
 
+  void 'operations do not look up tainted objects if nothing has been tainted'() {
+    given:
+    final taintedObjects = Mock(TaintedObjects)
+    final emptyCtx = new IastRequestContext(taintedObjects)
+    final builder = sb('123')
+
+    when:
+    module.onStringConcat('123', '456', '123456')
+    module.onStringBuilderAppend(builder.append('456'), '456')
+    module.onStringBuilderToString(builder, builder.toString())
+    module.onStringFormat('%s %s', ['Hello', 'World!'] as Object[], 'Hello World!')
+    module.onStringJoin('1-2', '-', ['1', '2'] as CharSequence[])
+
+    then:
+    5 * tracer.activeSpan() >> span
+    5 * span.getRequestContext() >> reqCtx
+    5 * reqCtx.getData(RequestContextSlot.IAST) >> emptyCtx
+    5 * taintedObjects.isEmpty() >> true
+    0 * _
+  }
+
+  void 'onStringFormat does not taint the result if neither the format nor the parameters are tainted'() {
+    given:
+    final to = ctx.getTaintedObjects()
+    objectHolder.add(taint(to, '==>unrelated<=='))
+    final parameters = ['Hello', 23.5D] as Object[]
+    final formatted = String.format('%s %+.4f', parameters)
+
+    when:
+    module.onStringFormat('%s %+.4f', parameters, formatted)
+
+    then:
+    !to.isEmpty()
+    to.get(formatted) == null
+  }
+
   void 'onSplit'() {
     given:
     final to = ctx.getTaintedObjects()
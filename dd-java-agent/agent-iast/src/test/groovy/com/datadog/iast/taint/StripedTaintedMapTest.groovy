@@ -0,0 +1,186 @@
+package com.datadog.iast.taint
+
+import com.datadog.iast.model.Range
+import datadog.trace.api.config.IastConfig
+import datadog.trace.api.iast.telemetry.IastMetric
+import datadog.trace.api.iast.telemetry.IastMetricCollector
+import datadog.trace.api.iast.telemetry.IastMetricCollector.IastMetricData
+import datadog.trace.api.iast.telemetry.Verbosity
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class StripedTaintedMapTest extends DDSpecification {
+
+  def 'simple workflow'() {
+    given:
+    final map = striped(4, 64, 1024)
+    final o = new Object()
+    final to = new TaintedObject(o, [] as Range[], map.referenceQueue())
+
+    expect:
+    map.count() == 0
+    map.get(o) == null
+
+    when:
+    map.put(to)
+
+    then:
+    map.count() == 1
+    map.get(o) == to
+    map.toList() == [to]
+
+    when: 'putting the same key again'
+    map.put(new TaintedObject(o, [] as Range[], map.referenceQueue()))
+
+    then: 'the first entry is kept'
+    map.count() == 1
+    map.get(o) == to
+
+    when:
+    map.clear()
+
+    then:
+    map.count() == 0
+    map.get(o) == null
+    !map.iterator().hasNext()
+  }
+
+  def 'segments grow up to the max capacity without losing writes'() {
+    given:
+    final map = striped(4, 16, 4096)
+    final objects = (1..2048).collect { new Object() }
+
+    when:
+    objects.each { map.put(new TaintedObject(it, [] as Range[], map.referenceQueue())) }
+
+    then:
+    map.lostWrites() == 0
+    map.count() == objects.size()
+    map.capacity() > 16
+    map.capacity() <= 4096
+    objects.every { map.get(it)?.get() === it }
+    map.toList().size() == objects.size()
+  }
+
+  def 'writes are lost and reported when a segment is full at its max capacity'() {
+    given:
+    injectSysConfig(IastConfig.IAST_TELEMETRY_VERBOSITY, Verbosity.INFORMATION.name())
+    rebuildConfig()
+    final originalCollector = IastMetricCollector.get()
+    final collector = new IastMetricCollector()
+    IastMetricCollector.register(collector)
+
+    and: 'a single segment holding up to 6 entries'
+    final map = striped(1, 4, 8)
+    final objects = (1..10).collect { new Object() }
+
+    when:
+    objects.each { map.put(new TaintedObject(it, [] as Range[], map.referenceQueue())) }
+
+    then:
+    map.capacity() == 8
+    map.count() == 6
+    map.lostWrites() == 4
+    objects.take(6).every { map.get(it) != null }
+    objects.drop(6).every { map.get(it) == null }
+
+    and:
+    final metric = fetchMetrics(collector).find { it.metric == IastMetric.TAINTED_LOST_WRITE }
+    metric != null
+    metric.value.longValue() == 4
+
+    cleanup:
+    IastMetricCollector.register(originalCollector)
+  }
+
+  def 'entries are removed when their keys are garbage-collected'() {
+    given:
+    final map = striped(1, 16, 16)
+    final entries = (1..8).collect { new TaintedObject(new Object(), [] as Range[], map.referenceQueue()) }
+    entries.each { map.put(it) }
+
+    when: 'the references are enqueued as the garbage collector would do'
+    entries.take(4).each {
+      it.clear()
+      it.enqueue()
+    }
+    map.put(new TaintedObject(new Object(), [] as Range[], map.referenceQueue()))
+
+    then:
+    map.count() == 5
+    map.toList().every { !entries.take(4).contains(it) }
+
+    when: 'the freed slots are reused'
+    final objects = (1..6).collect { new Object() }
+    objects.each { map.put(new TaintedObject(it, [] as Range[], map.referenceQueue())) }
+
+    then:
+    map.lostWrites() == 0
+    objects.every { map.get(it) != null }
+    entries.drop(4).every { map.get(it.get()) === it }
+  }
+
+  def 'test max age of entries'() {
+    given:
+    final map = striped(4, 64, 64)
+    final items = (0..10).collect { it.toString() }
+    items.each { map.put(new TaintedObject(it, [] as Range[], map.referenceQueue())) }
+
+    when: 'first purge is called'
+    map.run()
+
+    then: 'all the items remain in the map and the generation changes'
+    map.count() == items.size()
+
+    when: 'second purge is called'
+    map.run()
+
+    then: 'the items are removed from the map as they belong to the previous generation'
+    map.count() == 0
+    items.every { map.get(it) == null }
+  }
+
+  def 'concurrent puts are not lost'() {
+    given:
+    final nThreads = 16
+    final nObjectsPerThread = 2000
+    final map = striped(TaintedMap.DEFAULT_SEGMENT_COUNT, 64, 1 << 20)
+    final executorService = Executors.newFixedThreadPool(nThreads)
+    final latch = new CountDownLatch(nThreads)
+    final objects = (1..nThreads).collect { (1..nObjectsPerThread).collect { new Object() } }
+
+    when:
+    final futures = objects.collect { threadObjects ->
+      executorService.submit({
+        ->
+        latch.countDown()
+        latch.await()
+        threadObjects.each { o ->
+          map.put(new TaintedObject(o, [] as Range[], map.referenceQueue()))
+          assert map.get(o) != null
+        }
+      } as Runnable)
+    }
+    futures*.get()
+
+    then:
+    map.lostWrites() == 0
+    map.count() == nThreads * nObjectsPerThread
+    objects.flatten().every { map.get(it) != null }
+
+    cleanup:
+    executorService?.shutdown()
+  }
+
+  private static TaintedMap.StripedTaintedMapImpl striped(final int segments, final int initialCapacity, final int maxCapacity) {
+    return new TaintedMap.StripedTaintedMapImpl(segments, initialCapacity, maxCapacity, 1, TimeUnit.HOURS, null)
+  }
+
+  private static List<IastMetricData> fetchMetrics(final IastMetricCollector collector) {
+    collector.prepareMetrics()
+    return collector.drain()
+  }
+}
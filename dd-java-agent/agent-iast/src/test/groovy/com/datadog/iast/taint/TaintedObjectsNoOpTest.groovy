@@ -18,6 +18,7 @@ class TaintedObjectsNoOpTest extends Specification {
     tainted == null
     instance.get(toTaint) == null
     instance.count() == 0
+    instance.isEmpty()
     instance.size() == 0
     !instance.iterator().hasNext()
 
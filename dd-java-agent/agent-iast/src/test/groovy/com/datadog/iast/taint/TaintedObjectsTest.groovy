@@ -0,0 +1,34 @@
+package com.datadog.iast.taint
+
+import com.datadog.iast.model.Source
+import datadog.trace.api.iast.SourceTypes
+import datadog.trace.test.util.DDSpecification
+
+import static com.datadog.iast.test.TaintedObjectsUtils.taintedObjects
+
+class TaintedObjectsTest extends DDSpecification {
+
+  void 'tainted objects are empty until something is tainted'() {
+    given:
+    final instance = taintedObjects()
+    final value = 'test'
+
+    expect:
+    instance.isEmpty()
+    instance.get(value) == null
+
+    when:
+    instance.taint(value, Ranges.forCharSequence(value, new Source(SourceTypes.NONE, null, null)))
+
+    then:
+    !instance.isEmpty()
+    instance.get(value) != null
+
+    when:
+    instance.clear()
+
+    then:
+    instance.isEmpty()
+    instance.get(value) == null
+  }
+}
@@ -1,5 +1,6 @@
 package com.datadog.iast.test
 
+import com.datadog.iast.IastRequestContext
 import com.datadog.iast.overhead.Operation
 import com.datadog.iast.overhead.OverheadController
 import com.github.javaparser.quality.Nullable
@@ -13,6 +14,11 @@ class NoopOverheadController implements OverheadController {
     true
   }
 
+  @Override
+  boolean acquireRoute(IastRequestContext ctx, String method, @Nullable String path) {
+    true
+  }
+
   @Override
   int releaseRequest() {
     Integer.MAX_VALUE
@@ -0,0 +1,122 @@
+package com.datadog.profiling.controller.jfr.parser;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmc.flightrecorder.writer.api.Recording;
+import org.openjdk.jmc.flightrecorder.writer.api.Recordings;
+import org.openjdk.jmc.flightrecorder.writer.api.Type;
+import org.openjdk.jmc.flightrecorder.writer.api.Types;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Summarizes a large recording with {@link EventSummaryListener}. The recording repeats the chunks
+ * of the JFR file given by {@code recordingPath}, or of a generated recording holding queue time
+ * like durational events and instant events, up to {@code recordingMegabytes}. The {@code
+ * summaryBytes} counter shows the size of the summary uploaded next to the recording.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class EventSummaryBenchmark {
+
+  @Param({""})
+  String recordingPath;
+
+  @Param({"8", "64"})
+  int recordingMegabytes;
+
+  private byte[] recording;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long summaryBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    byte[] chunks =
+        recordingPath.isEmpty()
+            ? generateRecording()
+            : Files.readAllBytes(Paths.get(recordingPath));
+    ByteArrayOutputStream out = new ByteArrayOutputStream(recordingMegabytes << 20);
+    do {
+      out.write(chunks);
+    } while (out.size() < recordingMegabytes << 20);
+    recording = out.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] summarize(final Counters counters) throws Exception {
+    byte[] summary = EventSummaryListener.summarize(new ByteArrayInputStream(recording));
+    counters.summaryBytes = summary.length;
+    return summary;
+  }
+
+  private static byte[] generateRecording() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    try (Recording recording = Recordings.newRecording(out)) {
+      Type queueTime =
+          recording.registerType(
+              "datadog.QueueTime",
+              "jdk.jfr.Event",
+              b ->
+                  b.addField("startTime", Types.Builtin.LONG)
+                      .addField("duration", Types.Builtin.LONG)
+                      .addField("origin", Types.Builtin.STRING)
+                      .addField("queueType", Types.Builtin.STRING));
+      Type allocation =
+          recording.registerType(
+              "datadog.ObjectSample",
+              "jdk.jfr.Event",
+              b ->
+                  b.addField("startTime", Types.Builtin.LONG)
+                      .addField("size", Types.Builtin.LONG)
+                      .addField("weight", Types.Builtin.FLOAT));
+      for (int i = 0; i < 100_000; i++) {
+        long startTime = random.nextLong(Long.MAX_VALUE);
+        if (i % 4 == 0) {
+          long duration = random.nextLong(1_000_000_000L);
+          recording.writeEvent(
+              queueTime.asValue(
+                  p ->
+                      p.putField("startTime", startTime)
+                          .putField("duration", duration)
+                          .putField("origin", "com.example.Handler")
+                          .putField("queueType", "java.util.concurrent.LinkedBlockingQueue")));
+        } else {
+          long size = random.nextLong(1 << 20);
+          recording.writeEvent(
+              allocation.asValue(
+                  p ->
+                      p.putField("startTime", startTime)
+                          .putField("size", size)
+                          .putField("weight", 1f)));
+        }
+      }
+    }
+    return out.toByteArray();
+  }
+}
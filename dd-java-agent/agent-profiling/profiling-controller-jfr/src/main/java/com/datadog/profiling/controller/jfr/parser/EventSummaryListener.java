@@ -0,0 +1,218 @@
+package com.datadog.profiling.controller.jfr.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jctools.maps.NonBlockingHashMapLong;
+
+/**
+ * A {@linkplain ChunkParserListener} pre-aggregating the recording into a compact summary.
+ *
+ * <p>The summary contains the number of events and the payload bytes for each event type and, for
+ * the event types with a duration (eg. {@code datadog.QueueTime}), a histogram of the durations in
+ * power of two nanosecond buckets. As the constant pools are not resolved by the parser the events
+ * are aggregated per type only.
+ *
+ * <p>The metadata event is usually written at the end of the chunk so the events are first
+ * aggregated per type id and assigned to their type name once the chunk has been fully processed.
+ */
+public final class EventSummaryListener implements ChunkParserListener {
+  /** Only the event types with the largest payloads are reported */
+  static final int TOP_TYPES = 64;
+
+  private static final int BUCKETS = 64;
+
+  private static final String UNKNOWN_TYPE = "unknown";
+
+  private final NonBlockingHashMapLong<TypeStats> chunkStats = new NonBlockingHashMapLong<>(256);
+  private final Map<String, TypeStats> recordingStats = new HashMap<>();
+
+  private MetadataEvent metadata;
+  private double nanosPerTick = 1d;
+  private int chunks;
+
+  /**
+   * Parse the recording and return its summary
+   *
+   * @param recording the JFR recording stream, it will be closed when the parsing is over
+   * @return the summary as UTF-8 encoded JSON
+   * @throws IOException
+   */
+  public static byte[] summarize(InputStream recording) throws IOException {
+    EventSummaryListener listener = new EventSummaryListener();
+    new StreamingChunkParser().parse(recording, listener);
+    return listener.toJson().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean onChunkStart(int chunkIndex, ChunkHeader header) {
+    chunkStats.clear();
+    metadata = null;
+    nanosPerTick = header.frequency > 0 ? 1_000_000_000d / header.frequency : 1d;
+    return true;
+  }
+
+  @Override
+  public boolean onMetadata(MetadataEvent metadata) {
+    this.metadata = metadata;
+    return true;
+  }
+
+  @Override
+  public boolean onEvent(long typeId, RecordingStream stream, long payloadSize) {
+    TypeStats stats = chunkStats.get(typeId);
+    if (stats == null) {
+      stats = new TypeStats();
+      chunkStats.put(typeId, stats);
+    }
+    stats.count++;
+    stats.bytes += payloadSize;
+    try {
+      // the metadata may not be known yet; record the second field as a duration candidate,
+      // without reading past the payload as that field may not be a varint
+      long payloadEnd = stream.position() + payloadSize;
+      if (readVarint(stream, payloadEnd) >= 0) { // start time
+        long duration = readVarint(stream, payloadEnd);
+        if (duration >= 0) {
+          stats.addDuration((long) (duration * nanosPerTick));
+        }
+      }
+    } catch (IOException e) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean onChunkEnd(int chunkIndex, boolean skipped) {
+    MetadataEvent chunkMetadata = metadata;
+    for (Map.Entry<Long, TypeStats> entry : chunkStats.entrySet()) {
+      long typeId = entry.getKey();
+      String name =
+          chunkMetadata != null ? chunkMetadata.getEventTypeNameMap().getType(typeId) : null;
+      boolean durational = chunkMetadata != null && chunkMetadata.isDurational(typeId);
+      TypeStats stats =
+          recordingStats.computeIfAbsent(name != null ? name : UNKNOWN_TYPE, k -> new TypeStats());
+      stats.merge(entry.getValue(), durational);
+    }
+    chunkStats.clear();
+    chunks++;
+    return true;
+  }
+
+  /**
+   * @return the summary of the processed events as JSON
+   */
+  public String toJson() {
+    List<Map.Entry<String, TypeStats>> entries = new ArrayList<>(recordingStats.entrySet());
+    entries.sort((l, r) -> Long.compare(r.getValue().bytes, l.getValue().bytes));
+
+    StringBuilder sb = new StringBuilder(128 + 64 * Math.min(entries.size(), TOP_TYPES));
+    sb.append("{\"chunks\":").append(chunks).append(",\"types\":").append(entries.size());
+    sb.append(",\"events\":[");
+    for (int i = 0; i < entries.size() && i < TOP_TYPES; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      TypeStats stats = entries.get(i).getValue();
+      sb.append("{\"type\":");
+      appendString(sb, entries.get(i).getKey());
+      sb.append(",\"count\":").append(stats.count);
+      sb.append(",\"bytes\":").append(stats.bytes);
+      if (stats.durational) {
+        sb.append(",\"duration_ns\":{\"total\":").append(stats.totalDuration);
+        sb.append(",\"max\":").append(stats.maxDuration);
+        sb.append(",\"histogram\":{");
+        boolean comma = false;
+        for (int bucket = 0; bucket <= BUCKETS; bucket++) {
+          if (stats.histogram[bucket] != 0) {
+            if (comma) {
+              sb.append(',');
+            } else {
+              comma = true;
+            }
+            // buckets are keyed by their upper bound
+            sb.append('"').append(bucket == 0 ? 0 : bucketBound(bucket)).append("\":");
+            sb.append(stats.histogram[bucket]);
+          }
+        }
+        sb.append("}}");
+      }
+      sb.append('}');
+    }
+    sb.append("]}");
+    return sb.toString();
+  }
+
+  /**
+   * Reads a varint the same way as {@linkplain RecordingStream#readVarint()}, stopping at the given
+   * position
+   *
+   * @return the value or -1 if the varint does not end before the limit
+   */
+  private static long readVarint(RecordingStream stream, long limit) throws IOException {
+    long value = 0;
+    for (int i = 0; i < 9 && stream.position() < limit; i++) {
+      int b = stream.read();
+      value |= (long) (b & 0x7F) << (7 * i);
+      if ((b & 0x80) == 0 || i == 8) {
+        return value;
+      }
+    }
+    return -1;
+  }
+
+  private static long bucketBound(int bucket) {
+    return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  private static void appendString(StringBuilder sb, String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+  private static final class TypeStats {
+    long count;
+    long bytes;
+    boolean durational;
+    long totalDuration;
+    long maxDuration;
+    final long[] histogram = new long[BUCKETS + 1];
+
+    void addDuration(long nanos) {
+      if (nanos < 0) {
+        nanos = 0;
+      }
+      histogram[BUCKETS - Long.numberOfLeadingZeros(nanos)]++;
+      totalDuration += nanos;
+      maxDuration = Math.max(maxDuration, nanos);
+    }
+
+    void merge(TypeStats other, boolean withDurations) {
+      count += other.count;
+      bytes += other.bytes;
+      if (withDurations) {
+        durational = true;
+        totalDuration += other.totalDuration;
+        maxDuration = Math.max(maxDuration, other.maxDuration);
+        for (int i = 0; i < histogram.length; i++) {
+          histogram[i] += other.histogram[i];
+        }
+      }
+    }
+  }
+}
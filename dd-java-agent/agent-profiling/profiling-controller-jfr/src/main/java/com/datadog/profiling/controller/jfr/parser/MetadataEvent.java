@@ -20,6 +20,8 @@ public final class MetadataEvent {
   private final NonBlockingHashMapLong<String> eventTypeNameMapBacking =
       new NonBlockingHashMapLong<>(256);
   private final LongMapping<String> eventTypeMap;
+  private final NonBlockingHashMapLong<Boolean> durationalEventTypes =
+      new NonBlockingHashMapLong<>(64);
 
   MetadataEvent(RecordingStream stream) throws IOException {
     size = (int) stream.readVarint();
@@ -43,6 +45,17 @@ public final class MetadataEvent {
     return eventTypeMap;
   }
 
+  /**
+   * Check whether the events of the given type have a duration, ie. their payload starts with the
+   * start time followed by the duration
+   *
+   * @param typeId the event type id
+   * @return {@literal true} if the event type has a duration
+   */
+  public boolean isDurational(long typeId) {
+    return durationalEventTypes.containsKey(typeId);
+  }
+
   private String[] readStringTable(RecordingStream stream) throws IOException {
     int stringCnt = (int) stream.readVarint();
     String[] stringConstants = new String[stringCnt];
@@ -52,10 +65,17 @@ public final class MetadataEvent {
     return stringConstants;
   }
 
-  private void readElements(RecordingStream stream, String[] stringConstants) throws IOException {
+  /**
+   * Process the element and its enclosed elements
+   *
+   * @return the name of the element if it is a 'field' element, {@literal null} otherwise
+   */
+  private String readElements(RecordingStream stream, String[] stringConstants)
+      throws IOException {
     // get the element name
     int stringPtr = (int) stream.readVarint();
     boolean isClassElement = "class".equals(stringConstants[stringPtr]);
+    boolean isFieldElement = "field".equals(stringConstants[stringPtr]);
 
     // process the attributes
     int attrCount = (int) stream.readVarint();
@@ -65,7 +85,7 @@ public final class MetadataEvent {
     for (int i = 0; i < attrCount; i++) {
       int keyPtr = (int) stream.readVarint();
       int valPtr = (int) stream.readVarint();
-      // ignore anything but 'class' elements
+      // ignore anything but 'class' and 'field' elements
       if (isClassElement) {
         if ("superType".equals(stringConstants[keyPtr])) {
           superType = stringConstants[valPtr];
@@ -74,17 +94,29 @@ public final class MetadataEvent {
         } else if ("id".equals(stringConstants[keyPtr])) {
           id = stringConstants[valPtr];
         }
+      } else if (isFieldElement && "name".equals(stringConstants[keyPtr])) {
+        name = stringConstants[valPtr];
       }
     }
     // only event types are currently collected
+    long eventTypeId = -1;
     if (name != null && id != null && "jdk.jfr.Event".equals(superType)) {
-      eventTypeNameMapBacking.put(Long.parseLong(id), name);
+      eventTypeId = Long.parseLong(id);
+      eventTypeNameMapBacking.put(eventTypeId, name);
     }
     // now inspect all the enclosed elements
     int elemCount = (int) stream.readVarint();
+    int fieldIndex = 0;
     for (int i = 0; i < elemCount; i++) {
-      readElements(stream, stringConstants);
+      String fieldName = readElements(stream, stringConstants);
+      if (eventTypeId != -1 && fieldName != null) {
+        // durational events have 'duration' right after 'startTime'
+        if (fieldIndex++ == 1 && "duration".equals(fieldName)) {
+          durationalEventTypes.put(eventTypeId, Boolean.TRUE);
+        }
+      }
     }
+    return isFieldElement ? name : null;
   }
 
   private String readUTF8(RecordingStream stream) throws IOException {
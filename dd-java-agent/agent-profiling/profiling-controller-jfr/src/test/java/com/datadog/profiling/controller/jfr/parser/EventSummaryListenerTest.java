@@ -0,0 +1,116 @@
+package com.datadog.profiling.controller.jfr.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datadog.profiling.controller.jfr.TestJfrRecorder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmc.flightrecorder.writer.api.Recording;
+import org.openjdk.jmc.flightrecorder.writer.api.Recordings;
+import org.openjdk.jmc.flightrecorder.writer.api.Type;
+import org.openjdk.jmc.flightrecorder.writer.api.Types;
+
+class EventSummaryListenerTest {
+
+  @Test
+  void testEmptyRecording() throws Exception {
+    String summary =
+        new String(
+            EventSummaryListener.summarize(new ByteArrayInputStream(new byte[0])),
+            StandardCharsets.UTF_8);
+
+    assertEquals("{\"chunks\":0,\"types\":0,\"events\":[]}", summary);
+  }
+
+  @Test
+  void testSummary() throws Exception {
+    ByteArrayOutputStream recordingStream = new ByteArrayOutputStream();
+    for (int chunk = 0; chunk < 2; chunk++) {
+      try (Recording recording = Recordings.newRecording(recordingStream)) {
+        TestJfrRecorder rec = new TestJfrRecorder(recording);
+        rec.writeEvent(new ParserEvent(10));
+        Type durational =
+            rec.registerType(
+                "datadog.DurationalEvent",
+                "jdk.jfr.Event",
+                b ->
+                    b.addField("startTime", Types.Builtin.LONG)
+                        .addField("duration", Types.Builtin.LONG)
+                        .addField("value", Types.Builtin.INT));
+        for (int i = 1; i <= 3; i++) {
+          long duration = i * 1000L;
+          int value = i;
+          rec.writeEvent(
+              durational.asValue(
+                  p ->
+                      p.putField("startTime", 0L)
+                          .putField("duration", duration)
+                          .putField("value", value)));
+        }
+      }
+    }
+
+    String summary =
+        new String(
+            EventSummaryListener.summarize(new ByteArrayInputStream(recordingStream.toByteArray())),
+            StandardCharsets.UTF_8);
+
+    assertTrue(summary.startsWith("{\"chunks\":2,\"types\":2,"), summary);
+    // only the durational events have a duration histogram
+    assertTrue(
+        Pattern.compile("\\{\"type\":\"datadog\\.ParserEvent\",\"count\":2,\"bytes\":\\d+}")
+            .matcher(summary)
+            .find(),
+        summary);
+    assertTrue(
+        Pattern.compile(
+                "\\{\"type\":\"datadog\\.DurationalEvent\",\"count\":6,\"bytes\":\\d+,"
+                    + "\"duration_ns\":\\{\"total\":\\d+,\"max\":\\d+,\"histogram\":\\{\"\\d+\":\\d+")
+            .matcher(summary)
+            .find(),
+        summary);
+  }
+
+  @Test
+  void testInstantEventWithTrailingFloat() throws Exception {
+    ByteArrayOutputStream recordingStream = new ByteArrayOutputStream();
+    try (Recording recording = Recordings.newRecording(recordingStream)) {
+      TestJfrRecorder rec = new TestJfrRecorder(recording);
+      Type instant =
+          rec.registerType(
+              "datadog.InstantEvent",
+              "jdk.jfr.Event",
+              b ->
+                  b.addField("startTime", Types.Builtin.LONG)
+                      .addField("value", Types.Builtin.FLOAT));
+      // every byte of the float has the continuation bit set, so reading it as a varint would run
+      // past the end of the event
+      float value = Float.intBitsToFloat(0xC0C0C0C0);
+      for (int i = 0; i < 3; i++) {
+        rec.writeEvent(instant.asValue(p -> p.putField("startTime", 0L).putField("value", value)));
+        rec.writeEvent(new ParserEvent(i));
+      }
+    }
+
+    String summary =
+        new String(
+            EventSummaryListener.summarize(new ByteArrayInputStream(recordingStream.toByteArray())),
+            StandardCharsets.UTF_8);
+
+    assertTrue(summary.startsWith("{\"chunks\":1,\"types\":2,"), summary);
+    assertTrue(
+        Pattern.compile("\\{\"type\":\"datadog\\.InstantEvent\",\"count\":3,\"bytes\":\\d+}")
+            .matcher(summary)
+            .find(),
+        summary);
+    assertTrue(
+        Pattern.compile("\\{\"type\":\"datadog\\.ParserEvent\",\"count\":3,\"bytes\":\\d+}")
+            .matcher(summary)
+            .find(),
+        summary);
+  }
+}
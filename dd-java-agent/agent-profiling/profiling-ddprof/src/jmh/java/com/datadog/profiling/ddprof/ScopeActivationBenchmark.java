@@ -0,0 +1,162 @@
+package com.datadog.profiling.ddprof;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.datadog.profiling.controller.OngoingRecording;
+import datadog.trace.api.Stateful;
+import datadog.trace.bootstrap.instrumentation.api.ProfilerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per scope activation of writing the profiler context, with the wallclock profiler on and
+ * off and with the context cache on and off. Each invocation replays what the scope manager does
+ * for a reactive request: the root span is activated, re-activated by an operator, a child span is
+ * activated and closed, and the root span is closed.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+public class ScopeActivationBenchmark {
+
+  private static final String WALL_ON = "-Ddd.profiling.ddprof.wall.enabled=true";
+  private static final String WALL_OFF = "-Ddd.profiling.ddprof.wall.enabled=false";
+  private static final String CACHE_ON = "-Ddd.profiling.ddprof.context.cache.enabled=true";
+  private static final String CACHE_OFF = "-Ddd.profiling.ddprof.context.cache.enabled=false";
+
+  /** Activations per invocation, see {@link #activations(Stateful)} */
+  private static final int ACTIVATIONS = 5;
+
+  private DatadogProfilingIntegration integration;
+  private OngoingRecording recording;
+  private Context root;
+  private Context child;
+
+  @Setup
+  public void setup() {
+    integration = new DatadogProfilingIntegration();
+    recording = DatadogProfiler.newInstance().start();
+    root = new Context(integration, 1, 1, "servlet.request", "GET /users/?");
+    child = new Context(integration, 2, 1, "database.query", "SELECT * FROM users");
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (recording != null) {
+      recording.stop();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ACTIVATIONS)
+  @Fork(value = 1, jvmArgsAppend = {WALL_OFF, CACHE_OFF})
+  public void wallOff() {
+    activations(integration.newScopeState(root));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ACTIVATIONS)
+  @Fork(value = 1, jvmArgsAppend = {WALL_OFF, CACHE_ON})
+  public void wallOffCached() {
+    activations(integration.newScopeState(root));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ACTIVATIONS)
+  @Fork(value = 1, jvmArgsAppend = {WALL_ON, CACHE_OFF})
+  public void wallOn() {
+    activations(integration.newScopeState(root));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ACTIVATIONS)
+  @Fork(value = 1, jvmArgsAppend = {WALL_ON, CACHE_ON})
+  public void wallOnCached() {
+    activations(integration.newScopeState(root));
+  }
+
+  /** Same sequence of calls as the scope stack for the activations and closes of the request */
+  private void activations(Stateful state) {
+    // activate the root span on an empty stack
+    state.activate(root);
+    integration.onAttach();
+    // an operator activates the root span again
+    state.activate(root);
+    // closing it makes the root scope the top of the stack again
+    state.activate(root);
+    state.close();
+    // activate and close a child span
+    state.activate(child);
+    state.activate(root);
+    state.close();
+    // close the root span, the stack is empty
+    integration.onDetach();
+    state.close();
+  }
+
+  private static final class Context implements ProfilerContext {
+    private final long spanId;
+    private final long rootSpanId;
+    private final String operationName;
+    private final String resourceName;
+    private final int encodedOperationName;
+    private final int encodedResourceName;
+
+    Context(
+        DatadogProfilingIntegration integration,
+        long spanId,
+        long rootSpanId,
+        String operationName,
+        String resourceName) {
+      this.spanId = spanId;
+      this.rootSpanId = rootSpanId;
+      this.operationName = operationName;
+      this.resourceName = resourceName;
+      this.encodedOperationName = integration.encodeOperationName(operationName);
+      this.encodedResourceName = integration.encodeResourceName(resourceName);
+    }
+
+    @Override
+    public long getSpanId() {
+      return spanId;
+    }
+
+    @Override
+    public long getRootSpanId() {
+      return rootSpanId;
+    }
+
+    @Override
+    public int getEncodedOperationName() {
+      return encodedOperationName;
+    }
+
+    @Override
+    public CharSequence getOperationName() {
+      return operationName;
+    }
+
+    @Override
+    public int getEncodedResourceName() {
+      return encodedResourceName;
+    }
+
+    @Override
+    public CharSequence getResourceName() {
+      return resourceName;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package com.datadog.profiling.ddprof;
+
+import datadog.trace.api.Platform;
+import datadog.trace.api.Stateful;
+import datadog.trace.bootstrap.instrumentation.api.ProfilerContext;
+import java.util.function.Predicate;
+
+/**
+ * Only writes the parts of the profiler context which differ from what the current thread last
+ * wrote, so activating the span which is already active, as reactive frameworks do on each hop,
+ * costs a thread local lookup. The scope manager re-activates the enclosing scope before a scope
+ * state is closed, so the context is only cleared once the thread has no active scope left.
+ *
+ * <p>The profiler context is native state of the carrier thread, so the cache is bypassed on
+ * virtual threads: one remounted on another carrier would otherwise skip writing a context the new
+ * carrier has never seen. Virtual threads don't notify attach and detach either.
+ */
+final class CachingContextManager implements Stateful {
+
+  /** Writes the profiler context of the current carrier thread */
+  interface ContextWriter {
+    void setSpanContext(long spanId, long rootSpanId);
+
+    void clearSpanContext();
+
+    void setContextValue(int offset, int encoding);
+
+    void clearContextValue(int offset);
+  }
+
+  private final ContextWriter writer;
+  private final int spanNameIndex;
+  private final int resourceNameIndex;
+  private final ThreadLocal<ActiveContext> activeContext;
+
+  CachingContextManager(ContextWriter writer, int spanNameIndex, int resourceNameIndex) {
+    this(writer, spanNameIndex, resourceNameIndex, Platform::isVirtualThread);
+  }
+
+  CachingContextManager(
+      ContextWriter writer,
+      int spanNameIndex,
+      int resourceNameIndex,
+      Predicate<Thread> isVirtualThread) {
+    this.writer = writer;
+    this.spanNameIndex = spanNameIndex;
+    this.resourceNameIndex = resourceNameIndex;
+    this.activeContext =
+        ThreadLocal.withInitial(
+            () -> new ActiveContext(isVirtualThread.test(Thread.currentThread())));
+  }
+
+  @Override
+  public void close() {
+    ActiveContext active = activeContext.get();
+    if (active.virtual) {
+      clearAll();
+    } else if (!active.attached) {
+      active.clear();
+    }
+  }
+
+  @Override
+  public void activate(Object context) {
+    if (context instanceof ProfilerContext) {
+      ProfilerContext profilerContext = (ProfilerContext) context;
+      ActiveContext active = activeContext.get();
+      if (active.virtual) {
+        writeAll(profilerContext);
+      } else {
+        active.set(profilerContext);
+      }
+    }
+  }
+
+  void onAttach() {
+    activeContext.get().attached = true;
+  }
+
+  void onDetach() {
+    activeContext.get().attached = false;
+  }
+
+  /** Clears the profiler context of the current thread, whatever it last wrote */
+  void clearContext() {
+    activeContext.get().reset();
+    clearAll();
+  }
+
+  private void writeAll(ProfilerContext context) {
+    writer.setSpanContext(context.getSpanId(), context.getRootSpanId());
+    writer.setContextValue(spanNameIndex, context.getEncodedOperationName());
+    writer.setContextValue(resourceNameIndex, context.getEncodedResourceName());
+  }
+
+  private void clearAll() {
+    writer.clearSpanContext();
+    writer.clearContextValue(spanNameIndex);
+    writer.clearContextValue(resourceNameIndex);
+  }
+
+  /** The profiler context last written by a thread, zero meaning cleared */
+  private final class ActiveContext {
+    final boolean virtual;
+    boolean attached;
+    private long spanId;
+    private long rootSpanId;
+    private int operationName;
+    private int resourceName;
+
+    ActiveContext(boolean virtual) {
+      this.virtual = virtual;
+    }
+
+    void set(ProfilerContext context) {
+      long spanId = context.getSpanId();
+      long rootSpanId = context.getRootSpanId();
+      if (spanId != this.spanId || rootSpanId != this.rootSpanId) {
+        writer.setSpanContext(spanId, rootSpanId);
+        this.spanId = spanId;
+        this.rootSpanId = rootSpanId;
+      }
+      int operationName = context.getEncodedOperationName();
+      if (operationName != this.operationName) {
+        writer.setContextValue(spanNameIndex, operationName);
+        this.operationName = operationName;
+      }
+      int resourceName = context.getEncodedResourceName();
+      if (resourceName != this.resourceName) {
+        writer.setContextValue(resourceNameIndex, resourceName);
+        this.resourceName = resourceName;
+      }
+    }
+
+    void clear() {
+      if (spanId != 0 || rootSpanId != 0) {
+        writer.clearSpanContext();
+      }
+      if (operationName != 0) {
+        writer.clearContextValue(spanNameIndex);
+      }
+      if (resourceName != 0) {
+        writer.clearContextValue(resourceNameIndex);
+      }
+      reset();
+    }
+
+    void reset() {
+      spanId = 0;
+      rootSpanId = 0;
+      operationName = 0;
+      resourceName = 0;
+    }
+  }
+}
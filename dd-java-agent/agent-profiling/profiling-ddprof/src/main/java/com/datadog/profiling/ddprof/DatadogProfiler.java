@@ -375,7 +375,11 @@ public final class DatadogProfiler {
   }
 
   public QueueTimeTracker newQueueTimeTracker() {
-    return new QueueTimeTracker(this, profiler.getCurrentTicks());
+    return new QueueTimeTracker(this, getCurrentTicks());
+  }
+
+  long getCurrentTicks() {
+    return profiler.getCurrentTicks();
   }
 
   void recordQueueTimeEvent(
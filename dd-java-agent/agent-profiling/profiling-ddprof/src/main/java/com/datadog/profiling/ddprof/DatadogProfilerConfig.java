@@ -8,6 +8,8 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_CONTEXT_ATTRIBU
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_ENABLED;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_INTERVAL;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_ALLOC_INTERVAL_DEFAULT;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_CPU_ENABLED;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_CPU_ENABLED_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_DATADOG_PROFILER_CPU_INTERVAL;
@@ -304,6 +306,17 @@ public class DatadogProfilerConfig {
         configProvider, PROFILING_QUEUEING_TIME_ENABLED, PROFILING_QUEUEING_TIME_ENABLED_DEFAULT);
   }
 
+  public static boolean isContextCacheEnabled() {
+    return isContextCacheEnabled(ConfigProvider.getInstance());
+  }
+
+  public static boolean isContextCacheEnabled(ConfigProvider configProvider) {
+    return getBoolean(
+        configProvider,
+        PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED,
+        PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED_DEFAULT);
+  }
+
   public static String getCStack() {
     return getCStack(ConfigProvider.getInstance());
   }
@@ -28,6 +28,9 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
   private static final boolean IS_PROFILING_QUEUEING_TIME_ENABLED =
       DatadogProfilerConfig.isQueueTimeEnabled();
 
+  private static final boolean IS_CONTEXT_CACHE_ENABLED =
+      DatadogProfilerConfig.isContextCacheEnabled();
+
   private final Stateful contextManager =
       new Stateful() {
         @Override
@@ -48,13 +51,42 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
         }
       };
 
+  private final CachingContextManager cachingContextManager =
+      new CachingContextManager(
+          new CachingContextManager.ContextWriter() {
+            @Override
+            public void setSpanContext(long spanId, long rootSpanId) {
+              DDPROF.setSpanContext(spanId, rootSpanId);
+            }
+
+            @Override
+            public void clearSpanContext() {
+              DDPROF.clearSpanContext();
+            }
+
+            @Override
+            public void setContextValue(int offset, int encoding) {
+              DDPROF.setContextValue(offset, encoding);
+            }
+
+            @Override
+            public void clearContextValue(int offset) {
+              DDPROF.clearContextValue(offset);
+            }
+          },
+          SPAN_NAME_INDEX,
+          RESOURCE_NAME_INDEX);
+
   @Override
   public Stateful newScopeState(ProfilerContext profilerContext) {
-    return contextManager;
+    return IS_CONTEXT_CACHE_ENABLED ? cachingContextManager : contextManager;
   }
 
   @Override
   public void onAttach() {
+    if (IS_CONTEXT_CACHE_ENABLED) {
+      cachingContextManager.onAttach();
+    }
     if (WALLCLOCK_ENABLED) {
       DDPROF.addThread();
     }
@@ -62,6 +94,9 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
 
   @Override
   public void onDetach() {
+    if (IS_CONTEXT_CACHE_ENABLED) {
+      cachingContextManager.onDetach();
+    }
     if (WALLCLOCK_ENABLED) {
       DDPROF.removeThread();
     }
@@ -88,15 +123,22 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
     return 0;
   }
 
+  @Override
+  public boolean isResourceNameEncodingDeferred() {
+    return IS_CONTEXT_CACHE_ENABLED;
+  }
+
   @Override
   public String name() {
     return "ddprof";
   }
 
   public void clearContext() {
-    DDPROF.clearSpanContext();
-    DDPROF.clearContextValue(SPAN_NAME_INDEX);
-    DDPROF.clearContextValue(RESOURCE_NAME_INDEX);
+    if (IS_CONTEXT_CACHE_ENABLED) {
+      cachingContextManager.clearContext();
+    } else {
+      contextManager.close();
+    }
   }
 
   @Override
@@ -134,6 +176,17 @@ public class DatadogProfilingIntegration implements ProfilingContextIntegration
     return Timing.NoOp.INSTANCE;
   }
 
+  @Override
+  public long getQueueingStartTicks() {
+    return IS_PROFILING_QUEUEING_TIME_ENABLED ? DDPROF.getCurrentTicks() : 0L;
+  }
+
+  @Override
+  public void recordQueueingTime(
+      long startTicks, long startMillis, Object task, Class<?> scheduler, Thread origin) {
+    DDPROF.recordQueueTimeEvent(startMillis, startTicks, task, scheduler, origin);
+  }
+
   /**
    * This implementation is actually stateless, so we don't actually need a tracker object, but
    * we'll create a singleton to avoid returning null and risking NPEs elsewhere.
@@ -0,0 +1,185 @@
+package com.datadog.profiling.ddprof;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import datadog.trace.bootstrap.instrumentation.api.ProfilerContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CachingContextManagerTest {
+  private static final int SPAN_NAME_INDEX = 0;
+  private static final int RESOURCE_NAME_INDEX = 1;
+
+  private final RecordingWriter writer = new RecordingWriter();
+
+  @Test
+  void skipsWritesOfUnchangedParts() {
+    CachingContextManager manager = platformThreadManager();
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.activate(new Context(2, 1, 10, 21));
+    assertEquals(
+        Arrays.asList(
+            "setSpanContext(1,1)",
+            "setContextValue(0,10)",
+            "setContextValue(1,20)",
+            "setSpanContext(2,1)",
+            "setContextValue(1,21)"),
+        writer.calls);
+  }
+
+  @Test
+  void keepsContextWhileAttached() {
+    CachingContextManager manager = platformThreadManager();
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.onAttach();
+    manager.activate(new Context(2, 1, 10, 20));
+    // the enclosing scope is re-activated before the child scope state is closed
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.close();
+    assertEquals(
+        Arrays.asList(
+            "setSpanContext(1,1)",
+            "setContextValue(0,10)",
+            "setContextValue(1,20)",
+            "setSpanContext(2,1)",
+            "setSpanContext(1,1)"),
+        writer.calls);
+  }
+
+  @Test
+  void clearsWrittenPartsOnceDetached() {
+    CachingContextManager manager = platformThreadManager();
+    manager.onAttach();
+    manager.activate(new Context(1, 1, 10, 0));
+    manager.onDetach();
+    manager.close();
+    // nothing left to clear
+    manager.close();
+    assertEquals(
+        Arrays.asList(
+            "setSpanContext(1,1)",
+            "setContextValue(0,10)",
+            "clearSpanContext()",
+            "clearContextValue(0)"),
+        writer.calls);
+    writer.calls.clear();
+
+    // everything is written again after the context was cleared
+    manager.activate(new Context(1, 1, 10, 0));
+    assertEquals(Arrays.asList("setSpanContext(1,1)", "setContextValue(0,10)"), writer.calls);
+  }
+
+  @Test
+  void clearContextForgetsCachedContext() {
+    CachingContextManager manager = platformThreadManager();
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.clearContext();
+    manager.activate(new Context(1, 1, 10, 20));
+    assertEquals(
+        Arrays.asList(
+            "setSpanContext(1,1)",
+            "setContextValue(0,10)",
+            "setContextValue(1,20)",
+            "clearSpanContext()",
+            "clearContextValue(0)",
+            "clearContextValue(1)",
+            "setSpanContext(1,1)",
+            "setContextValue(0,10)",
+            "setContextValue(1,20)"),
+        writer.calls);
+  }
+
+  @Test
+  void bypassesCacheOnVirtualThreads() {
+    CachingContextManager manager =
+        new CachingContextManager(writer, SPAN_NAME_INDEX, RESOURCE_NAME_INDEX, t -> true);
+    // a virtual thread may have been remounted on another carrier in between
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.activate(new Context(1, 1, 10, 20));
+    manager.close();
+    List<String> writeAll =
+        Arrays.asList("setSpanContext(1,1)", "setContextValue(0,10)", "setContextValue(1,20)");
+    List<String> expected = new ArrayList<>();
+    expected.addAll(writeAll);
+    expected.addAll(writeAll);
+    Collections.addAll(
+        expected, "clearSpanContext()", "clearContextValue(0)", "clearContextValue(1)");
+    assertEquals(expected, writer.calls);
+  }
+
+  private CachingContextManager platformThreadManager() {
+    return new CachingContextManager(writer, SPAN_NAME_INDEX, RESOURCE_NAME_INDEX, t -> false);
+  }
+
+  private static final class RecordingWriter implements CachingContextManager.ContextWriter {
+    final List<String> calls = new ArrayList<>();
+
+    @Override
+    public void setSpanContext(long spanId, long rootSpanId) {
+      calls.add("setSpanContext(" + spanId + "," + rootSpanId + ")");
+    }
+
+    @Override
+    public void clearSpanContext() {
+      calls.add("clearSpanContext()");
+    }
+
+    @Override
+    public void setContextValue(int offset, int encoding) {
+      calls.add("setContextValue(" + offset + "," + encoding + ")");
+    }
+
+    @Override
+    public void clearContextValue(int offset) {
+      calls.add("clearContextValue(" + offset + ")");
+    }
+  }
+
+  private static final class Context implements ProfilerContext {
+    private final long spanId;
+    private final long rootSpanId;
+    private final int operationName;
+    private final int resourceName;
+
+    Context(long spanId, long rootSpanId, int operationName, int resourceName) {
+      this.spanId = spanId;
+      this.rootSpanId = rootSpanId;
+      this.operationName = operationName;
+      this.resourceName = resourceName;
+    }
+
+    @Override
+    public long getSpanId() {
+      return spanId;
+    }
+
+    @Override
+    public long getRootSpanId() {
+      return rootSpanId;
+    }
+
+    @Override
+    public int getEncodedOperationName() {
+      return operationName;
+    }
+
+    @Override
+    public CharSequence getOperationName() {
+      return null;
+    }
+
+    @Override
+    public int getEncodedResourceName() {
+      return resourceName;
+    }
+
+    @Override
+    public CharSequence getResourceName() {
+      return null;
+    }
+  }
+}
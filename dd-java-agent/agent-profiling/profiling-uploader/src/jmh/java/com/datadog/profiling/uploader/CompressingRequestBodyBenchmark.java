@@ -0,0 +1,173 @@
+package com.datadog.profiling.uploader;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.profiling.RecordingInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Uploads a recording through {@link CompressingRequestBody} to a local fake intake which only
+ * drains the chunked request body. The time per operation divided by {@code recordingMegabytes}
+ * gives the cost per MB of each compression, and running with {@code -prof gc} shows the memory
+ * allocated per upload, which stays bounded as the recording is compressed and sent while read.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class CompressingRequestBodyBenchmark {
+
+  @Param({"off", "lz4", "gzip", "zstd"})
+  String compression;
+
+  @Param({"3"})
+  int compressionLevel;
+
+  @Param({"8", "32"})
+  int recordingMegabytes;
+
+  private CompressionType compressionType;
+  private byte[] recording;
+  private FakeIntake intake;
+  private OkHttpClient client;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long uploadedBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    compressionType = CompressionType.of(compression);
+    recording = syntheticRecording(recordingMegabytes << 20);
+    intake = new FakeIntake();
+    client = new OkHttpClient();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+    intake.close();
+  }
+
+  @Benchmark
+  public int upload(Counters counters) throws IOException {
+    CompressingRequestBody body =
+        new CompressingRequestBody(
+            compressionType,
+            compressionLevel,
+            () -> new RecordingInputStream(new ByteArrayInputStream(recording)));
+    Request request = new Request.Builder().url(intake.url()).post(body).build();
+    try (Response response = client.newCall(request).execute()) {
+      counters.uploadedBytes += body.getWrittenBytes();
+      return response.code();
+    }
+  }
+
+  /**
+   * Event-like records made of a few recurring values and counters, compressing in the same
+   * range as real recordings.
+   */
+  private static byte[] syntheticRecording(int size) {
+    Random random = new Random(42);
+    byte[] data = new byte[size];
+    long timestamp = 0;
+    for (int i = 0; i + 16 <= size; i += 16) {
+      timestamp += random.nextInt(1000);
+      for (int j = 0; j < 8; j++) {
+        data[i + j] = (byte) (timestamp >>> (j * 8));
+      }
+      data[i + 8] = (byte) random.nextInt(16);
+      data[i + 9] = (byte) random.nextInt(64);
+      for (int j = 10; j < 16; j++) {
+        data[i + j] = (byte) random.nextInt(256);
+      }
+    }
+    return data;
+  }
+
+  /** Accepts one connection at a time, drains chunked requests and replies with an empty 200 */
+  private static final class FakeIntake implements Runnable, AutoCloseable {
+    private final ServerSocket serverSocket;
+
+    FakeIntake() throws IOException {
+      serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      Thread thread = new Thread(this, "fake-intake");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    String url() {
+      return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/profiling/v1/input";
+    }
+
+    @Override
+    public void run() {
+      while (!serverSocket.isClosed()) {
+        try (Socket socket = serverSocket.accept()) {
+          BufferedSource source = Okio.buffer(Okio.source(socket));
+          BufferedSink sink = Okio.buffer(Okio.sink(socket));
+          while (drainRequest(source)) {
+            sink.writeUtf8("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+            sink.flush();
+          }
+        } catch (IOException ignored) {
+          // connection closed by the client or the intake shutting down
+        }
+      }
+    }
+
+    private static boolean drainRequest(BufferedSource source) throws IOException {
+      if (source.exhausted()) {
+        return false;
+      }
+      // request line and headers
+      while (!source.readUtf8LineStrict().isEmpty()) {}
+      // chunked body
+      long chunkSize;
+      do {
+        String line = source.readUtf8LineStrict();
+        int extension = line.indexOf(';');
+        chunkSize = Long.parseLong(extension < 0 ? line : line.substring(0, extension), 16);
+        source.skip(chunkSize);
+        source.readUtf8LineStrict();
+      } while (chunkSize > 0);
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+    }
+  }
+}
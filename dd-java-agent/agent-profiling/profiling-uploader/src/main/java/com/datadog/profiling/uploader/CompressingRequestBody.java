@@ -1,6 +1,9 @@
 package com.datadog.profiling.uploader;
 
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import com.github.luben.zstd.util.Native;
 import datadog.trace.api.Platform;
+import datadog.trace.api.config.ProfilingConfig;
 import datadog.trace.api.profiling.RecordingInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -17,12 +20,15 @@ import okhttp3.RequestBody;
 import okio.BufferedSink;
 import okio.Okio;
 import okio.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A specialized {@linkplain RequestBody} subclass performing on-the fly compression of the uploaded
  * data.
  */
 final class CompressingRequestBody extends RequestBody {
+  private static final Logger log = LoggerFactory.getLogger(CompressingRequestBody.class);
 
   /*
    * LZ4 is not available in native image.
@@ -86,6 +92,8 @@ final class CompressingRequestBody extends RequestBody {
   private static final int[] LZ4_MAGIC = new int[] {0x04, 0x22, 0x4D, 0x18};
   private static final int ZIP_MAGIC[] = new int[] {80, 75, 3, 4};
   private static final int GZ_MAGIC[] = new int[] {31, 139};
+  // https://github.com/facebook/zstd/blob/dev/doc/zstd_compression_format.md#zstandard-frames
+  private static final int[] ZSTD_MAGIC = new int[] {0x28, 0xB5, 0x2F, 0xFD};
 
   private final InputStreamSupplier inputStreamSupplier;
   private final OutputStreamMappingFunction outputStreamMapper;
@@ -106,6 +114,20 @@ final class CompressingRequestBody extends RequestBody {
     this(compressionType, inputStreamSupplier, r -> r <= 1, r -> 10);
   }
 
+  /**
+   * Create a new instance configured with 1 retry and constant 10ms backoff delay.
+   *
+   * @param compressionType {@linkplain CompressionType} value
+   * @param compressionLevel compression level, only used by {@linkplain CompressionType#ZSTD}
+   * @param inputStreamSupplier supplier of the data input stream
+   */
+  CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      int compressionLevel,
+      @Nonnull InputStreamSupplier inputStreamSupplier) {
+    this(compressionType, compressionLevel, inputStreamSupplier, r -> r <= 1, r -> 10);
+  }
+
   /**
    * Create a new instance configured with constant 10ms backoff delay.
    *
@@ -133,8 +155,31 @@ final class CompressingRequestBody extends RequestBody {
       @Nonnull InputStreamSupplier inputStreamSupplier,
       @Nonnull RetryPolicy retryPolicy,
       @Nonnull RetryBackoff retryBackoff) {
+    this(
+        compressionType,
+        ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT,
+        inputStreamSupplier,
+        retryPolicy,
+        retryBackoff);
+  }
+
+  /**
+   * Create a new instance.
+   *
+   * @param compressionType {@linkplain CompressionType} value
+   * @param compressionLevel compression level, only used by {@linkplain CompressionType#ZSTD}
+   * @param inputStreamSupplier supplier of the data input stream
+   * @param retryPolicy {@linkplain RetryPolicy} instance
+   * @param retryBackoff {@linkplain RetryBackoff} instance
+   */
+  CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      int compressionLevel,
+      @Nonnull InputStreamSupplier inputStreamSupplier,
+      @Nonnull RetryPolicy retryPolicy,
+      @Nonnull RetryBackoff retryBackoff) {
     this.inputStreamSupplier = inputStreamSupplier;
-    this.outputStreamMapper = getOutputStreamMapper(compressionType);
+    this.outputStreamMapper = getOutputStreamMapper(compressionType, compressionLevel);
     this.retryPolicy = retryPolicy;
     this.retryBackoff = retryBackoff;
   }
@@ -269,7 +314,7 @@ final class CompressingRequestBody extends RequestBody {
    */
   static boolean isCompressed(@Nonnull final InputStream is) throws IOException {
     checkMarkSupported(is);
-    return isGzip(is) || isLz4(is) || isZip(is);
+    return isGzip(is) || isLz4(is) || isZip(is) || isZstd(is);
   }
 
   /**
@@ -323,6 +368,23 @@ final class CompressingRequestBody extends RequestBody {
     }
   }
 
+  /**
+   * Check whether the stream represents Zstandard data
+   *
+   * @param is input stream; must support {@linkplain InputStream#mark(int)}
+   * @return {@literal true} if the stream represents Zstandard data
+   * @throws IOException
+   */
+  static boolean isZstd(@Nonnull final InputStream is) throws IOException {
+    checkMarkSupported(is);
+    is.mark(ZSTD_MAGIC.length);
+    try {
+      return hasMagic(is, ZSTD_MAGIC);
+    } finally {
+      is.reset();
+    }
+  }
+
   private static void checkMarkSupported(@Nonnull final InputStream is) throws IOException {
     if (!is.markSupported()) {
       throw new IOException("Can not check headers on streams not supporting mark() method");
@@ -330,14 +392,21 @@ final class CompressingRequestBody extends RequestBody {
   }
 
   private static OutputStreamMappingFunction getOutputStreamMapper(
-      @Nonnull CompressionType compressionType) {
-    // currently only gzip and off are supported
-    // this needs to be updated once more compression types are added
+      @Nonnull CompressionType compressionType, int compressionLevel) {
+    // only gzip is supported in native image
     compressionType =
         (Platform.isNativeImage() && compressionType != CompressionType.OFF
             ? CompressionType.GZIP
             : compressionType);
+    if (compressionType == CompressionType.ZSTD && !ZstdSupport.AVAILABLE) {
+      log.warn("Zstd compression is not available on this platform. Using LZ4 instead.");
+      compressionType = CompressionType.LZ4;
+    }
     switch (compressionType) {
+      case ZSTD:
+        {
+          return out -> new ZstdOutputStreamNoFinalizer(out, compressionLevel);
+        }
       case GZIP:
         {
           return GZIPOutputStream::new;
@@ -366,6 +435,25 @@ final class CompressingRequestBody extends RequestBody {
         LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
   }
 
+  /**
+   * Loads the zstd native library on first use, as it is only needed by zstd compression. The agent
+   * jar only bundles the natives for linux x86_64 and aarch64, elsewhere the library must be on the
+   * {@code java.library.path}.
+   */
+  private static final class ZstdSupport {
+    static final boolean AVAILABLE = load();
+
+    private static boolean load() {
+      try {
+        Native.load();
+        return true;
+      } catch (Throwable t) {
+        log.debug("Unable to load the zstd native library", t);
+        return false;
+      }
+    }
+  }
+
   private static boolean hasMagic(InputStream is, int[] magic) throws IOException {
     for (int element : magic) {
       int b = is.read();
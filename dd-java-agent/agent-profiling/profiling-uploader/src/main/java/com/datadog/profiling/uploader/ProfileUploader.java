@@ -37,6 +37,7 @@ import datadog.trace.util.AgentThreadFactory;
 import datadog.trace.util.PidHelper;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
@@ -65,6 +66,7 @@ import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +91,8 @@ public final class ProfileUploader {
   static final String V4_EVENT_FILENAME = V4_EVENT_NAME + ".json";
   static final String V4_ATTACHMENT_NAME = "main";
   static final String V4_ATTACHMENT_FILENAME = V4_ATTACHMENT_NAME + ".jfr";
+  static final String V4_SUMMARY_NAME = "summary";
+  static final String V4_SUMMARY_FILENAME = V4_SUMMARY_NAME + ".json";
 
   // Header names and values
   private static final String HEADER_DD_EVP_ORIGIN = "DD-EVP-ORIGIN";
@@ -110,6 +114,30 @@ public final class ProfileUploader {
               + V4_ATTACHMENT_FILENAME
               + "\"");
 
+  private static final Headers V4_SUMMARY_HEADERS =
+      Headers.of(
+          "Content-Disposition",
+          "form-data; name=\""
+              + V4_SUMMARY_NAME
+              + "\"; filename=\""
+              + V4_SUMMARY_FILENAME
+              + "\"");
+
+  private static final byte[] EMPTY_SUMMARY = "{}".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Pre-aggregates a recording into a compact JSON summary which is uploaded alongside the raw
+   * recording
+   */
+  @FunctionalInterface
+  public interface RecordingSummarizer {
+    /**
+     * @param recording the recording stream, it will be closed by the summarizer
+     * @return the summary as UTF-8 encoded JSON
+     */
+    byte[] summarize(InputStream recording) throws IOException;
+  }
+
   private final Config config;
   private final ConfigProvider configProvider;
 
@@ -121,13 +149,26 @@ public final class ProfileUploader {
   private final HttpUrl url;
   private final int terminationTimeout;
   private final CompressionType compressionType;
+  private final int compressionLevel;
+  @Nullable private final RecordingSummarizer summarizer;
 
   private final RecordingDataAdapter jsonAdapter;
 
   private final Duration uploadTimeout;
 
   public ProfileUploader(final Config config, final ConfigProvider configProvider) {
-    this(config, configProvider, new IOLogger(log), TERMINATION_TIMEOUT_SEC);
+    this(config, configProvider, null);
+  }
+
+  /**
+   * @param summarizer optional summarizer of the recordings, the summary is uploaded alongside each
+   *     recording when provided
+   */
+  public ProfileUploader(
+      final Config config,
+      final ConfigProvider configProvider,
+      @Nullable final RecordingSummarizer summarizer) {
+    this(config, configProvider, new IOLogger(log), TERMINATION_TIMEOUT_SEC, summarizer);
   }
 
   /**
@@ -139,10 +180,24 @@ public final class ProfileUploader {
       final ConfigProvider configProvider,
       final IOLogger ioLogger,
       final int terminationTimeout) {
+    this(config, configProvider, ioLogger, terminationTimeout, null);
+  }
+
+  /**
+   * Note that this method is only visible for testing and should not be used from outside this
+   * class.
+   */
+  ProfileUploader(
+      final Config config,
+      final ConfigProvider configProvider,
+      final IOLogger ioLogger,
+      final int terminationTimeout,
+      @Nullable final RecordingSummarizer summarizer) {
     this.config = config;
     this.configProvider = configProvider;
     this.ioLogger = ioLogger;
     this.terminationTimeout = terminationTimeout;
+    this.summarizer = summarizer;
 
     url = HttpUrl.get(config.getFinalProfilingUrl());
     agentless = config.isProfilingAgentless();
@@ -178,7 +233,8 @@ public final class ProfileUploader {
     Pattern quotes = Pattern.compile("\"");
     jsonAdapter =
         new RecordingDataAdapter(
-            quotes.matcher(String.join(",", tagsToList(tagsMap))).replaceAll(""));
+            quotes.matcher(String.join(",", tagsToList(tagsMap))).replaceAll(""),
+            summarizer != null);
     uploadTimeout = Duration.ofSeconds(config.getProfilingUploadTimeout());
 
     // This is the same thing OkHttp Dispatcher is doing except thread naming and daemonization
@@ -205,6 +261,7 @@ public final class ProfileUploader {
             uploadTimeout.toMillis());
 
     compressionType = CompressionType.of(config.getProfilingUploadCompression());
+    compressionLevel = config.getProfilingUploadCompressionLevel();
   }
 
   /**
@@ -406,13 +463,16 @@ public final class ProfileUploader {
     final RequestBody eventBody = RequestBody.create(APPLICATION_JSON, event);
     bodyBuilder.addPart(EVENT_HEADER, eventBody);
     bodyBuilder.addPart(V4_DATA_HEADERS, body);
+    if (summarizer != null) {
+      bodyBuilder.addPart(V4_SUMMARY_HEADERS, new SummaryRequestBody(summarizer, data));
+    }
     return bodyBuilder.build();
   }
 
   private Call makeRequest(@Nonnull final RecordingType type, @Nonnull final RecordingData data) {
 
     final CompressingRequestBody body =
-        new CompressingRequestBody(compressionType, data::getStream);
+        new CompressingRequestBody(compressionType, compressionLevel, data::getStream);
     final RequestBody requestBody = makeRequestBody(data, body);
 
     final Map<String, String> headers = new HashMap<>();
@@ -447,9 +507,11 @@ public final class ProfileUploader {
   private static final class RecordingDataAdapter extends JsonAdapter<RecordingData> {
 
     private final String tags;
+    private final boolean withSummary;
 
-    private RecordingDataAdapter(String tags) {
+    private RecordingDataAdapter(String tags, boolean withSummary) {
       this.tags = tags;
+      this.withSummary = withSummary;
     }
 
     @Nullable
@@ -467,6 +529,9 @@ public final class ProfileUploader {
       writer.name("attachments");
       writer.beginArray();
       writer.value(V4_ATTACHMENT_FILENAME);
+      if (withSummary) {
+        writer.value(V4_SUMMARY_FILENAME);
+      }
       writer.endArray();
       writer.name(V4_PROFILE_TAGS_PARAM);
       writer.value(tags + ",snapshot:" + recordingData.getKind().name().toLowerCase(Locale.ROOT));
@@ -481,4 +546,35 @@ public final class ProfileUploader {
       writer.endObject();
     }
   }
+
+  /**
+   * The recording summary is computed only once the request is being written, off the thread
+   * taking the recording snapshots. A failing summary does not fail the upload of the recording.
+   */
+  private static final class SummaryRequestBody extends RequestBody {
+    private final RecordingSummarizer summarizer;
+    private final RecordingData data;
+
+    private SummaryRequestBody(final RecordingSummarizer summarizer, final RecordingData data) {
+      this.summarizer = summarizer;
+      this.data = data;
+    }
+
+    @Override
+    public MediaType contentType() {
+      return APPLICATION_JSON;
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+      byte[] summary;
+      try {
+        summary = summarizer.summarize(data.getStream());
+      } catch (final IOException | RuntimeException e) {
+        log.debug("Unable to summarize the recording", e);
+        summary = EMPTY_SUMMARY;
+      }
+      sink.write(summary);
+    }
+  }
 }
@@ -5,6 +5,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
 import datadog.trace.api.profiling.RecordingInputStream;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -25,6 +27,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.internal.verification.VerificationModeFactory;
 import org.mockito.stubbing.Answer;
 
@@ -186,6 +189,16 @@ class CompressingRequestBodyTest {
           assertEquals(compressed.length, instance.getWrittenBytes());
           break;
         }
+      case ZSTD:
+        {
+          assertTrue(CompressingRequestBody.isZstd(compressedStream));
+          byte[] uncompressed =
+              IOUtils.toByteArray(new ZstdInputStreamNoFinalizer(compressedStream));
+          assertArrayEquals(recordingData, uncompressed);
+          assertEquals(recordingData.length, instance.getReadBytes());
+          assertEquals(compressed.length, instance.getWrittenBytes());
+          break;
+        }
     }
   }
 
@@ -210,6 +223,11 @@ class CompressingRequestBodyTest {
             compressedStream = new GZIPOutputStream(baos);
             break;
           }
+        case ZSTD:
+          {
+            compressedStream = new ZstdOutputStreamNoFinalizer(baos);
+            break;
+          }
       }
       assertNotNull(compressedStream);
 
@@ -228,6 +246,21 @@ class CompressingRequestBodyTest {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 19})
+  void writeToZstdLevel(int level) throws IOException {
+    CompressingRequestBody instance =
+        new CompressingRequestBody(
+            CompressionType.ZSTD, level, CompressingRequestBodyTest::testRecordingStream);
+
+    byte[] compressed = instanceWriteAsBytes(instance);
+
+    byte[] uncompressed =
+        IOUtils.toByteArray(new ZstdInputStreamNoFinalizer(new ByteArrayInputStream(compressed)));
+    assertArrayEquals(recordingData, uncompressed);
+    assertTrue(compressed.length < recordingData.length);
+  }
+
   private static byte[] instanceWriteAsBytes(CompressingRequestBody instance) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     try (BufferedSink sink = Okio.buffer(Okio.sink(baos))) {
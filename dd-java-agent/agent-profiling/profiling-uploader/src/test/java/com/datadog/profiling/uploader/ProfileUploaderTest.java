@@ -56,6 +56,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Duration;
@@ -359,6 +360,76 @@ public class ProfileUploaderTest {
     assertArrayEquals(expectedBytes, uploadedBytes);
   }
 
+  @Test
+  public void testRecordingSummary() throws Exception {
+    when(config.getProfilingUploadCompression()).thenReturn("off");
+    when(config.getProfilingUploadTimeout()).thenReturn(500000);
+    final byte[] summary = "{\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+    uploader =
+        new ProfileUploader(
+            config,
+            configProvider,
+            recording -> {
+              try (final InputStream in = recording) {
+                assertArrayEquals(
+                    ByteStreams.toByteArray(recordingStream(false)), ByteStreams.toByteArray(in));
+              }
+              return summary;
+            });
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+
+    uploadAndWait(RECORDING_TYPE, mockRecordingData());
+
+    final RecordedRequest recordedRequest = server.takeRequest(5, TimeUnit.SECONDS);
+    final List<FileItem> multiPartItems =
+        FileUpload.parse(
+            recordedRequest.getBody().readByteArray(), recordedRequest.getHeader("Content-Type"));
+    assertEquals(3, multiPartItems.size());
+
+    final FileItem rawJfr = multiPartItems.get(1);
+    assertEquals(ProfileUploader.V4_ATTACHMENT_NAME, rawJfr.getFieldName());
+    assertArrayEquals(ByteStreams.toByteArray(recordingStream(false)), rawJfr.get());
+
+    final FileItem rawSummary = multiPartItems.get(2);
+    assertEquals(ProfileUploader.V4_SUMMARY_NAME, rawSummary.getFieldName());
+    assertEquals(ProfileUploader.V4_SUMMARY_FILENAME, rawSummary.getName());
+    assertEquals("application/json", rawSummary.getContentType());
+    assertArrayEquals(summary, rawSummary.get());
+
+    final JsonNode event = new ObjectMapper().readTree(multiPartItems.get(0).getString());
+    assertEquals(ProfileUploader.V4_ATTACHMENT_FILENAME, event.get("attachments").get(0).asText());
+    assertEquals(ProfileUploader.V4_SUMMARY_FILENAME, event.get("attachments").get(1).asText());
+  }
+
+  @Test
+  public void testRecordingSummaryFailure() throws Exception {
+    when(config.getProfilingUploadCompression()).thenReturn("off");
+    when(config.getProfilingUploadTimeout()).thenReturn(500000);
+    uploader =
+        new ProfileUploader(
+            config,
+            configProvider,
+            recording -> {
+              recording.close();
+              throw new IOException("corrupted recording");
+            });
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+
+    uploadAndWait(RECORDING_TYPE, mockRecordingData());
+
+    final RecordedRequest recordedRequest = server.takeRequest(5, TimeUnit.SECONDS);
+    final List<FileItem> multiPartItems =
+        FileUpload.parse(
+            recordedRequest.getBody().readByteArray(), recordedRequest.getHeader("Content-Type"));
+
+    // the recording is uploaded with an empty summary
+    assertArrayEquals(
+        ByteStreams.toByteArray(recordingStream(false)), multiPartItems.get(1).get());
+    assertEquals("{}", multiPartItems.get(2).getString());
+  }
+
   @Test
   public void testRequestWithContainerId() throws Exception {
     uploader =
@@ -10,6 +10,7 @@ import com.datadog.profiling.controller.ControllerContext;
 import com.datadog.profiling.controller.ProfilingSystem;
 import com.datadog.profiling.controller.UnsupportedEnvironmentException;
 import com.datadog.profiling.controller.jfr.JFRAccess;
+import com.datadog.profiling.controller.jfr.parser.EventSummaryListener;
 import com.datadog.profiling.uploader.ProfileUploader;
 import com.datadog.profiling.utils.Timestamper;
 import datadog.trace.api.Config;
@@ -125,7 +126,13 @@ public class ProfilingAgent {
         String dumpPath = configProvider.getString(ProfilingConfig.PROFILING_DEBUG_DUMP_PATH);
         DataDumper dumper = dumpPath != null ? new DataDumper(Paths.get(dumpPath)) : null;
 
-        uploader = new ProfileUploader(config, configProvider);
+        uploader =
+            new ProfileUploader(
+                config,
+                configProvider,
+                config.isProfilingUploadEventSummaryEnabled()
+                    ? EventSummaryListener::summarize
+                    : null);
 
         final Duration startupDelay = Duration.ofSeconds(config.getProfilingStartDelay());
         final Duration uploadPeriod = Duration.ofSeconds(config.getProfilingUploadPeriod());
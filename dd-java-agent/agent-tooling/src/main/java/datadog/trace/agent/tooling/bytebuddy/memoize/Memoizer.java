@@ -10,12 +10,14 @@ import datadog.trace.agent.tooling.bytebuddy.outline.WithLocation;
 import datadog.trace.api.InstrumenterConfig;
 import datadog.trace.api.cache.DDCache;
 import datadog.trace.api.cache.DDCaches;
+import datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFilter;
 import de.thetaphi.forbiddenapis.SuppressForbidden;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import net.bytebuddy.description.annotation.AnnotationDescription;
 import net.bytebuddy.description.field.FieldDescription;
 import net.bytebuddy.description.method.MethodDescription;
@@ -67,6 +69,13 @@ public final class Memoizer {
   private static final TypeInfoCache<BitSet> memos =
       new TypeInfoCache<>(InstrumenterConfig.get().getResolverMemoPoolSize(), namesAreUnique);
 
+  private static final Pattern IDENTITY_SUFFIX =
+      Pattern.compile("(\\$\\$Lambda[$\\w/.]*)?@[0-9a-f]+");
+
+  // matches declared by types in previous runs, keyed by class-file hash (may be null)
+  private static final PersistedMemos persistedMemos =
+      PersistedMemos.discover(Memoizer::matchersFingerprint);
+
   // local memoized results, used to detect circular references
   static final ThreadLocal<Map<String, BitSet>> localMemosHolder =
       ThreadLocal.withInitial(HashMap::new);
@@ -162,6 +171,11 @@ public final class Memoizer {
         return doMemoize(target, localMemosHolder.get()).get(matcherId);
       }
     }
+
+    @Override
+    public String toString() {
+      return "memoized(" + matcherId + ")";
+    }
   }
 
   static BitSet memoizeHierarchy(TypeDescription type, Map<String, BitSet> localMemos) {
@@ -201,16 +215,19 @@ public final class Memoizer {
         inherit(memoizeHierarchy(intf.asErasure(), localMemos), memo);
       }
       fromTick += (InstrumenterMetrics.tick() - superTick); // adjust to exclude super-type ticks
-      for (AnnotationDescription ann : type.getDeclaredAnnotations()) {
-        record(annotationMatcherIds, ann.getAnnotationType(), memo);
-      }
-      for (FieldDescription field : type.getDeclaredFields()) {
-        record(fieldMatcherIds, field, memo);
-      }
-      for (MethodDescription method : type.getDeclaredMethods()) {
-        record(methodMatcherIds, method, memo);
+      long classFileHash = null != persistedMemos ? classFileHash(type) : 0;
+      if (0 == classFileHash) {
+        recordDeclared(type, memo);
+      } else {
+        // declared matches only depend on the class-file, inherited matches are kept separate
+        BitSet declared = persistedMemos.find(classFileHash);
+        if (null == declared) {
+          declared = new BitSet(matchers.size());
+          recordDeclared(type, declared);
+          persistedMemos.record(classFileHash, declared);
+        }
+        memo.or(declared);
       }
-      record(type.isInterface() ? interfaceMatcherIds : classMatcherIds, type, memo);
     } catch (Throwable e) {
       // we're missing some type information so record the result as partial
       memo.set(isPartial.matcherId);
@@ -247,6 +264,67 @@ public final class Memoizer {
     return memo;
   }
 
+  /** Record positive matches from the type's own name, annotations, fields, and methods. */
+  private static void recordDeclared(TypeDescription type, BitSet memo) {
+    for (AnnotationDescription ann : type.getDeclaredAnnotations()) {
+      record(annotationMatcherIds, ann.getAnnotationType(), memo);
+    }
+    for (FieldDescription field : type.getDeclaredFields()) {
+      record(fieldMatcherIds, field, memo);
+    }
+    for (MethodDescription method : type.getDeclaredMethods()) {
+      record(methodMatcherIds, method, memo);
+    }
+    record(type.isInterface() ? interfaceMatcherIds : classMatcherIds, type, memo);
+  }
+
+  /** Returns the hash of the type's class-file; {@code 0} if the class-file is not available. */
+  private static long classFileHash(TypeDescription type) {
+    if (type instanceof WithLocation) {
+      try {
+        byte[] bytecode = ((WithLocation) type).getBytecode();
+        if (null != bytecode) {
+          return PersistedMemos.classFileHash(bytecode);
+        }
+      } catch (Throwable ignore) {
+        // fall back to recording matches without persisting them
+      }
+    }
+    return 0;
+  }
+
+  /** Identifies the prepared matchers; persisted memos are only valid for the same matchers. */
+  static long matchersFingerprint() {
+    long fingerprint = matchers.size();
+    for (ElementMatcher matcher : matchers) {
+      fingerprint = 31 * fingerprint + matcherKey(matcher).hashCode();
+    }
+    fingerprint = 31 * fingerprint + annotationMatcherIds.hashCode();
+    fingerprint = 31 * fingerprint + fieldMatcherIds.hashCode();
+    fingerprint = 31 * fingerprint + methodMatcherIds.hashCode();
+    fingerprint = 31 * fingerprint + classMatcherIds.hashCode();
+    fingerprint = 31 * fingerprint + interfaceMatcherIds.hashCode();
+    fingerprint = 31 * fingerprint + inheritedMatcherIds.hashCode();
+    // the memos of the HasContextField.Skip matchers depend on the excluded types
+    fingerprint = 31 * fingerprint + ExcludeFilter.fingerprint();
+    return fingerprint;
+  }
+
+  /** Uses the description of the matcher when it has one, else its type. */
+  static String matcherKey(ElementMatcher matcher) {
+    Class<?> matcherClass = matcher.getClass();
+    String matcherKey = matcherClass.getName();
+    try {
+      if (matcherClass.getMethod("toString").getDeclaringClass() != Object.class) {
+        matcherKey = matcher.toString();
+      }
+    } catch (Throwable ignore) {
+      // fall back to the matcher type
+    }
+    // strip details that change on every restart, such as lambda names and identity hashes
+    return IDENTITY_SUFFIX.matcher(matcherKey).replaceAll("");
+  }
+
   /** Any type not recorded as a definite "no-match" is a potential match. */
   static boolean potentialMatch(String name) {
     return !noMatchFilter.contains(name);
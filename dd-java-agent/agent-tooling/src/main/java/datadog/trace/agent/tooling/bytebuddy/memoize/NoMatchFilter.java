@@ -34,6 +34,10 @@ final class NoMatchFilter extends ClassCodeFilter {
   }
 
   static Path discoverNoMatchFile() {
+    return discoverCacheFile("-nomatch.filter");
+  }
+
+  static Path discoverCacheFile(String suffix) {
     String cacheDir = InstrumenterConfig.get().getResolverCacheDir();
     if (null == cacheDir) {
       return null;
@@ -47,10 +51,10 @@ final class NoMatchFilter extends ClassCodeFilter {
             + "/"
             + Config.get().getVersion();
 
-    String noMatchFilterName =
-        UUID.nameUUIDFromBytes(filterKey.getBytes(StandardCharsets.UTF_8)) + "-nomatch.filter";
+    String cacheFileName =
+        UUID.nameUUIDFromBytes(filterKey.getBytes(StandardCharsets.UTF_8)) + suffix;
 
-    return Paths.get(cacheDir, noMatchFilterName);
+    return Paths.get(cacheDir, cacheFileName);
   }
 
   void seedNoMatchFilter(Path noMatchFile) {
@@ -0,0 +1,301 @@
+package datadog.trace.agent.tooling.bytebuddy.memoize;
+
+import static datadog.trace.util.AgentThreadFactory.AGENT_THREAD_GROUP;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import datadog.trace.api.DDTraceApiInfo;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the matches declared by types across restarts, keyed by a hash of their class-file.
+ *
+ * <p>Only matches recorded from the type's own name, modifiers, annotations, fields and methods are
+ * persisted. Matches inherited from super-types are still collected from the hierarchy on startup,
+ * so a changed super-type is picked up even when the class-file of the sub-type is unchanged.
+ *
+ * <p>The file is an open-addressing table of class-file hashes followed by the memo of each slot.
+ * It is memory-mapped on the first lookup and only used when it was written by the same version of
+ * the agent with the same matchers, otherwise it is replaced on shutdown.
+ */
+final class PersistedMemos {
+  private static final Logger log = LoggerFactory.getLogger(PersistedMemos.class);
+
+  private static final int MAGIC = 0x44444d45; // "DDME"
+  private static final int FORMAT_VERSION = 1;
+
+  // magic, format, agent version, matchers fingerprint, words per memo, capacity, entries
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+  private static final int MAX_WORDS_PER_MEMO = 64;
+  private static final int MAX_ENTRIES = 1 << 17;
+
+  private static final long AGENT_VERSION =
+      classFileHash(DDTraceApiInfo.VERSION.getBytes(StandardCharsets.UTF_8));
+
+  private final Path memoFile;
+  private final LongSupplier matchersFingerprint;
+
+  // memos recorded since startup that weren't found in the persisted table
+  private final Map<Long, long[]> recordedMemos = new ConcurrentHashMap<>();
+
+  private volatile Table table;
+
+  PersistedMemos(Path memoFile, LongSupplier matchersFingerprint) {
+    this.memoFile = memoFile;
+    this.matchersFingerprint = matchersFingerprint;
+  }
+
+  static PersistedMemos discover(LongSupplier matchersFingerprint) {
+    Path memoFile = NoMatchFilter.discoverCacheFile("-memos.cache");
+    if (null == memoFile) {
+      return null;
+    }
+    PersistedMemos persistedMemos = new PersistedMemos(memoFile, matchersFingerprint);
+    Runtime.getRuntime().addShutdownHook(persistedMemos.new ShutdownHook());
+    return persistedMemos;
+  }
+
+  /** Returns the persisted memo for the class-file hash; {@code null} if it is not known. */
+  BitSet find(long classFileHash) {
+    long[] words = recordedMemos.get(classFileHash);
+    if (null == words) {
+      words = table().find(classFileHash);
+    }
+    return null != words ? BitSet.valueOf(words) : null;
+  }
+
+  /** Records a memo to be persisted on shutdown. */
+  void record(long classFileHash, BitSet memo) {
+    long[] words = memo.toLongArray();
+    if (words.length <= MAX_WORDS_PER_MEMO && recordedMemos.size() < MAX_ENTRIES) {
+      recordedMemos.put(classFileHash, words);
+    }
+  }
+
+  /** Fast non-cryptographic hash of the class-file; never returns zero. */
+  static long classFileHash(byte[] bytecode) {
+    ByteBuffer buf = ByteBuffer.wrap(bytecode);
+    long hash = 0x9e3779b97f4a7c15L ^ bytecode.length;
+    int i = 0;
+    for (int end = bytecode.length - 7; i < end; i += 8) {
+      hash =
+          Long.rotateLeft(hash ^ (buf.getLong(i) * 0x87c37b91114253d5L), 31)
+              * 0x4cf5ad432745937fL;
+    }
+    for (; i < bytecode.length; i++) {
+      hash = (hash ^ (bytecode[i] & 0xFF)) * 0x100000001b3L;
+    }
+    // final avalanche, as in MurmurHash3
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash != 0 ? hash : 1;
+  }
+
+  private Table table() {
+    Table result = table;
+    if (null == result) {
+      synchronized (this) {
+        result = table;
+        if (null == result) {
+          table = result = load();
+        }
+      }
+    }
+    return result;
+  }
+
+  private Table load() {
+    if (!Files.exists(memoFile)) {
+      return Table.EMPTY;
+    }
+    log.debug("Loading persisted memos from {}", memoFile);
+    try (FileChannel channel = FileChannel.open(memoFile, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("truncated header");
+      }
+      ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT_VERSION) {
+        throw new IOException("unexpected content");
+      }
+      if (buf.getLong(8) != AGENT_VERSION) {
+        throw new IOException("version mismatch");
+      }
+      if (buf.getLong(16) != matchersFingerprint.getAsLong()) {
+        throw new IOException("matchers mismatch");
+      }
+      int wordsPerMemo = buf.getInt(24);
+      int capacity = buf.getInt(28);
+      if (wordsPerMemo < 0
+          || wordsPerMemo > MAX_WORDS_PER_MEMO
+          || capacity <= 0
+          || Integer.bitCount(capacity) != 1
+          || capacity > 2 * MAX_ENTRIES
+          || buf.capacity() != Table.size(capacity, wordsPerMemo)) {
+        throw new IOException("size mismatch");
+      }
+      log.debug("Loaded {} persisted memos from {}", buf.getInt(32), memoFile);
+      return new Table(buf, capacity, wordsPerMemo);
+    } catch (IOException e) {
+      if (log.isDebugEnabled()) {
+        log.info("Unable to load persisted memos from {}", memoFile, e);
+      } else {
+        log.info("Unable to load persisted memos from {}: {}", memoFile, e.getMessage());
+      }
+      return Table.EMPTY;
+    }
+  }
+
+  void persist() {
+    Table existing = table;
+    if (null == existing || recordedMemos.isEmpty()) {
+      return; // no types matched since startup, or all memos were already persisted
+    }
+    log.debug("Persisting memos to {}", memoFile);
+    Map<Long, long[]> memos = new HashMap<>();
+    existing.copyTo(memos, MAX_ENTRIES - recordedMemos.size());
+    memos.putAll(recordedMemos);
+
+    int wordsPerMemo = existing.wordsPerMemo;
+    for (long[] words : memos.values()) {
+      wordsPerMemo = Math.max(wordsPerMemo, words.length);
+    }
+    // keep the table at most half full to limit probing
+    int capacity = Integer.highestOneBit(Math.max(memos.size(), 8) * 4 - 1);
+
+    ByteBuffer buf = ByteBuffer.allocate(Table.size(capacity, wordsPerMemo));
+    buf.putInt(0, MAGIC);
+    buf.putInt(4, FORMAT_VERSION);
+    buf.putLong(8, AGENT_VERSION);
+    buf.putLong(16, matchersFingerprint.getAsLong());
+    buf.putInt(24, wordsPerMemo);
+    buf.putInt(28, capacity);
+    buf.putInt(32, memos.size());
+    for (Map.Entry<Long, long[]> memo : memos.entrySet()) {
+      long key = memo.getKey();
+      int slot = (int) key & (capacity - 1);
+      while (buf.getLong(Table.keyOffset(slot)) != 0) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      buf.putLong(Table.keyOffset(slot), key);
+      int memoOffset = Table.memoOffset(capacity, wordsPerMemo, slot);
+      long[] words = memo.getValue();
+      for (int i = 0; i < words.length; i++) {
+        buf.putLong(memoOffset + i * 8, words[i]);
+      }
+    }
+
+    Path tempFile = null;
+    try {
+      // write to a temporary file first so a concurrent startup never maps a partial table
+      tempFile = Files.createTempFile(memoFile.getParent(), memoFile.getFileName().toString(), "");
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        while (buf.hasRemaining()) {
+          channel.write(buf);
+        }
+      }
+      Files.move(tempFile, memoFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      if (log.isDebugEnabled()) {
+        log.info("Unable to persist memos to {}", memoFile, e);
+      } else {
+        log.info("Unable to persist memos to {}: {}", memoFile, e.getMessage());
+      }
+      if (null != tempFile) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException ignore) {
+        }
+      }
+    }
+  }
+
+  /** Read-only view of the persisted table. */
+  static final class Table {
+    static final Table EMPTY = new Table(null, 0, 0);
+
+    private final ByteBuffer buf;
+    private final int capacity;
+    final int wordsPerMemo;
+
+    Table(ByteBuffer buf, int capacity, int wordsPerMemo) {
+      this.buf = buf;
+      this.capacity = capacity;
+      this.wordsPerMemo = wordsPerMemo;
+    }
+
+    static int size(int capacity, int wordsPerMemo) {
+      return memoOffset(capacity, wordsPerMemo, capacity);
+    }
+
+    static int keyOffset(int slot) {
+      return HEADER_SIZE + slot * 8;
+    }
+
+    static int memoOffset(int capacity, int wordsPerMemo, int slot) {
+      return keyOffset(capacity) + slot * wordsPerMemo * 8;
+    }
+
+    long[] find(long key) {
+      if (capacity == 0) {
+        return null;
+      }
+      int slot = (int) key & (capacity - 1);
+      for (int probes = 0; probes < capacity; probes++) {
+        long candidate = buf.getLong(keyOffset(slot));
+        if (candidate == key) {
+          return words(slot);
+        } else if (candidate == 0) {
+          return null;
+        }
+        slot = (slot + 1) & (capacity - 1);
+      }
+      return null;
+    }
+
+    void copyTo(Map<Long, long[]> memos, int limit) {
+      for (int slot = 0; slot < capacity && memos.size() < limit; slot++) {
+        long key = buf.getLong(keyOffset(slot));
+        if (key != 0) {
+          memos.put(key, words(slot));
+        }
+      }
+    }
+
+    private long[] words(int slot) {
+      long[] words = new long[wordsPerMemo];
+      int memoOffset = memoOffset(capacity, wordsPerMemo, slot);
+      for (int i = 0; i < wordsPerMemo; i++) {
+        words[i] = buf.getLong(memoOffset + i * 8);
+      }
+      return words;
+    }
+  }
+
+  class ShutdownHook extends Thread {
+    ShutdownHook() {
+      super(AGENT_THREAD_GROUP, "dd-PersistedMemos-persist-hook");
+    }
+
+    @Override
+    public void run() {
+      persist();
+    }
+  }
+}
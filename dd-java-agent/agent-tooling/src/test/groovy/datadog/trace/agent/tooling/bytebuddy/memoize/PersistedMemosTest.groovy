@@ -0,0 +1,146 @@
+package datadog.trace.agent.tooling.bytebuddy.memoize
+
+import datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFilter
+import datadog.trace.test.util.DDSpecification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.nameEndsWith
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.nameStartsWith
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedNoneOf
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOneOf
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.notExcludedByName
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFilter.ExcludeType.EXECUTOR
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFilter.ExcludeType.FORK_JOIN_TASK
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.ExcludeFilter.ExcludeType.RUNNABLE
+
+class PersistedMemosTest extends DDSpecification {
+
+  @TempDir
+  Path cacheDir
+
+  def "memos are persisted across restarts"() {
+    setup:
+    def memoFile = cacheDir.resolve("test-memos.cache")
+    def memos = new PersistedMemos(memoFile, { 42L })
+    def fooHash = PersistedMemos.classFileHash("foo".bytes)
+    def barHash = PersistedMemos.classFileHash("bar".bytes)
+
+    when:
+    def unknown = memos.find(fooHash)
+    memos.record(fooHash, BitSet.valueOf([0b1011L, 1L] as long[]))
+    memos.record(barHash, new BitSet())
+    memos.persist()
+
+    then:
+    unknown == null
+    Files.exists(memoFile)
+
+    when: "the memos are loaded after a restart"
+    memos = new PersistedMemos(memoFile, { 42L })
+
+    then:
+    memos.find(fooHash) == BitSet.valueOf([0b1011L, 1L] as long[])
+    memos.find(barHash) == new BitSet()
+    memos.find(PersistedMemos.classFileHash("baz".bytes)) == null
+
+    when: "new memos are merged with the persisted ones"
+    def bazHash = PersistedMemos.classFileHash("baz".bytes)
+    memos.record(bazHash, BitSet.valueOf([4L] as long[]))
+    memos.persist()
+    memos = new PersistedMemos(memoFile, { 42L })
+
+    then:
+    memos.find(fooHash) == BitSet.valueOf([0b1011L, 1L] as long[])
+    memos.find(bazHash) == BitSet.valueOf([4L] as long[])
+  }
+
+  def "memos persisted with different matchers are ignored"() {
+    setup:
+    def memoFile = cacheDir.resolve("test-memos.cache")
+    def memos = new PersistedMemos(memoFile, { 42L })
+    def fooHash = PersistedMemos.classFileHash("foo".bytes)
+    memos.find(fooHash)
+    memos.record(fooHash, BitSet.valueOf([1L] as long[]))
+    memos.persist()
+
+    when:
+    memos = new PersistedMemos(memoFile, { 43L })
+
+    then:
+    memos.find(fooHash) == null
+  }
+
+  def "memos persisted with matchers of different parameters are ignored"() {
+    setup:
+    def memoFile = cacheDir.resolve("test-memos.cache")
+    def memos = new PersistedMemos(memoFile, { Memoizer.matcherKey(matcher).hashCode() as long })
+    def fooHash = PersistedMemos.classFileHash("foo".bytes)
+    memos.find(fooHash)
+    memos.record(fooHash, BitSet.valueOf([1L] as long[]))
+    memos.persist()
+
+    when: "the same matcher is used after a restart"
+    memos = new PersistedMemos(memoFile, { Memoizer.matcherKey(sameMatcher).hashCode() as long })
+
+    then:
+    memos.find(fooHash) == BitSet.valueOf([1L] as long[])
+
+    when: "the matcher parameters have changed"
+    memos = new PersistedMemos(memoFile, { Memoizer.matcherKey(changedMatcher).hashCode() as long })
+
+    then:
+    memos.find(fooHash) == null
+
+    where:
+    matcher                                  | sameMatcher                              | changedMatcher
+    nameStartsWith("com.foo.")               | nameStartsWith("com.foo.")               | nameStartsWith("com.bar.")
+    nameEndsWith("Handler")                  | nameEndsWith("Handler")                  | nameEndsWith("Servlet")
+    namedOneOf("a.Foo", "a.Bar")             | namedOneOf("a.Bar", "a.Foo")             | namedOneOf("a.Foo", "a.Baz")
+    namedNoneOf("a.Foo", "a.Bar")            | namedNoneOf("a.Bar", "a.Foo")            | namedNoneOf("a.Foo")
+    notExcludedByName(RUNNABLE)              | notExcludedByName(RUNNABLE)              | notExcludedByName(EXECUTOR)
+    new HasContextField.Skip(RUNNABLE)       | new HasContextField.Skip(RUNNABLE)       | new HasContextField.Skip(FORK_JOIN_TASK)
+  }
+
+  def "memos persisted with different excluded types are ignored"() {
+    setup:
+    def memoFile = cacheDir.resolve("test-memos.cache")
+    def memos = new PersistedMemos(memoFile, { Memoizer.matchersFingerprint() })
+    def fooHash = PersistedMemos.classFileHash("foo".bytes)
+    memos.find(fooHash)
+    memos.record(fooHash, BitSet.valueOf([1L] as long[]))
+    memos.persist()
+
+    when: "the excluded types have changed after a restart"
+    ExcludeFilter.add([(RUNNABLE): ["com.foo.ExcludedRunnable"]])
+    memos = new PersistedMemos(memoFile, { Memoizer.matchersFingerprint() })
+
+    then:
+    memos.find(fooHash) == null
+  }
+
+  def "corrupt memo files are ignored"() {
+    setup:
+    def memoFile = cacheDir.resolve("test-memos.cache")
+    Files.write(memoFile, content)
+
+    when:
+    def memos = new PersistedMemos(memoFile, { 42L })
+
+    then:
+    memos.find(PersistedMemos.classFileHash("foo".bytes)) == null
+
+    where:
+    content << [new byte[0], new byte[64], "not a memo file, just some text".bytes]
+  }
+
+  def "class-file hashes are never zero"() {
+    expect:
+    PersistedMemos.classFileHash(bytes) != 0
+
+    where:
+    bytes << [new byte[0], new byte[7], new byte[8], new byte[1024]]
+  }
+}
@@ -0,0 +1,137 @@
+package datadog.appsec.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.datadog.appsec.event.data.ObjectIntrospection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of request body DTOs, as deserialized by JSON frameworks, with the current
+ * introspection that caches the fields of each class and with the former reflective one.
+ */
+@Warmup(iterations = 4, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@Fork(value = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Benchmark)
+public class ObjectIntrospectionBenchmark {
+
+  @Param({"1", "10"})
+  int items;
+
+  private Order order;
+
+  @Setup
+  public void setup() {
+    List<Item> lines = new ArrayList<>(items);
+    for (int i = 0; i < items; i++) {
+      lines.add(new Item("sku-" + i, "Item " + i, i + 1, 9.99 * i, Arrays.asList("tag1", "tag2")));
+    }
+    Map<String, String> metadata = new HashMap<>();
+    metadata.put("channel", "web");
+    metadata.put("campaign", "<script>alert(1)</script>");
+    Customer customer =
+        new Customer(
+            42L,
+            "John Doe",
+            "john@example.com",
+            new Address("1 Main Street", "Springfield", "12345", "US"));
+    order = new Order("order-1", customer, lines, metadata);
+  }
+
+  @Benchmark
+  public Object cached() {
+    return ObjectIntrospection.convert(order);
+  }
+
+  @Benchmark
+  public Object reflective() {
+    return ReflectiveObjectIntrospection.convert(order);
+  }
+
+  @SuppressWarnings("unused")
+  static class Entity {
+    private final String id;
+
+    Entity(String id) {
+      this.id = id;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  static class Order extends Entity {
+    private final Customer customer;
+    private final List<Item> items;
+    private final Map<String, String> metadata;
+
+    Order(String id, Customer customer, List<Item> items, Map<String, String> metadata) {
+      super(id);
+      this.customer = customer;
+      this.items = items;
+      this.metadata = metadata;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  static class Customer {
+    private final long id;
+    private final String name;
+    private final String email;
+    private final Address address;
+
+    Customer(long id, String name, String email, Address address) {
+      this.id = id;
+      this.name = name;
+      this.email = email;
+      this.address = address;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  static class Address {
+    private final String street;
+    private final String city;
+    private final String zip;
+    private final String country;
+
+    Address(String street, String city, String zip, String country) {
+      this.street = street;
+      this.city = city;
+      this.zip = zip;
+      this.country = country;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  static class Item extends Entity {
+    private final String name;
+    private final int quantity;
+    private final double price;
+    private final List<String> tags;
+
+    Item(String id, String name, int quantity, double price, List<String> tags) {
+      super(id);
+      this.name = name;
+      this.quantity = quantity;
+      this.price = price;
+      this.tags = tags;
+    }
+  }
+}
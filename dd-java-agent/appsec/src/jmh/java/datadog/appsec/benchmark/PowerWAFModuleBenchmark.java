@@ -0,0 +1,149 @@
+package datadog.appsec.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.datadog.appsec.AppSecModule;
+import com.datadog.appsec.config.AppSecConfigDeserializer;
+import com.datadog.appsec.config.AppSecModuleConfigurer;
+import com.datadog.appsec.config.CurrentAppSecConfig;
+import com.datadog.appsec.config.TraceSegmentPostProcessor;
+import com.datadog.appsec.event.ChangeableFlow;
+import com.datadog.appsec.event.data.CaseInsensitiveMap;
+import com.datadog.appsec.event.data.DataBundle;
+import com.datadog.appsec.event.data.KnownAddresses;
+import com.datadog.appsec.event.data.MapDataBundle;
+import com.datadog.appsec.gateway.AppSecRequestContext;
+import com.datadog.appsec.powerwaf.PowerWAFModule;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full request (method, URI, headers, query and body) through the data callback of the WAF module
+ * with the default rules, either benign or matching several rules, which adds the parsing of the
+ * WAF results to the per-request cost.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 4, time = 2, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 3)
+public class PowerWAFModuleBenchmark {
+
+  static {
+    BenchmarkUtil.disableLogging();
+    BenchmarkUtil.initializePowerwaf();
+  }
+
+  private AppSecModule.DataSubscription callback;
+  private DataBundle benignRequest;
+  private DataBundle maliciousRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    CurrentAppSecConfig config = new CurrentAppSecConfig();
+    try (InputStream stream =
+        getClass().getClassLoader().getResourceAsStream("default_config.json")) {
+      config.setDdConfig(AppSecConfigDeserializer.INSTANCE.deserialize(stream));
+    }
+    PowerWAFModule module = new PowerWAFModule();
+    module.config(
+        new AppSecModuleConfigurer() {
+          @Override
+          public Optional<Object> addSubConfigListener(String key, SubconfigListener listener) {
+            return "waf".equals(key) ? Optional.of(config) : Optional.empty();
+          }
+
+          @Override
+          public void addTraceSegmentPostProcessor(TraceSegmentPostProcessor interceptor) {}
+        });
+    callback = module.getDataSubscriptions().iterator().next();
+
+    benignRequest =
+        request(
+            "/api/orders?page=2&size=20",
+            Collections.singletonMap("page", Collections.singletonList("2")),
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36",
+            "John Doe",
+            "sku-1");
+    maliciousRequest =
+        request(
+            "/api/orders?page=2&size=20&q=%3Cscript%3Ealert(1)%3C%2Fscript%3E",
+            Collections.singletonMap(
+                "q", Collections.singletonList("<script>alert(1)</script>")),
+            "Arachni/v1.0",
+            "' OR 1=1 --",
+            "../../etc/passwd");
+  }
+
+  @Benchmark
+  public Object benign() {
+    return runRequest(benignRequest);
+  }
+
+  @Benchmark
+  public Object malicious() {
+    return runRequest(maliciousRequest);
+  }
+
+  private Object runRequest(DataBundle bundle) {
+    AppSecRequestContext reqCtx = new AppSecRequestContext();
+    ChangeableFlow flow = new ChangeableFlow();
+    try {
+      callback.onDataAvailable(flow, reqCtx, bundle, false);
+    } finally {
+      reqCtx.closeAdditive();
+    }
+    return flow;
+  }
+
+  private static DataBundle request(
+      String uri,
+      Map<String, List<String>> query,
+      String userAgent,
+      String customer,
+      String sku) {
+    CaseInsensitiveMap<List<String>> headers = new CaseInsensitiveMap<>();
+    headers.put("host", Collections.singletonList("localhost:8080"));
+    headers.put("user-agent", Collections.singletonList(userAgent));
+    headers.put("accept", Arrays.asList("application/json", "text/plain"));
+    headers.put("accept-encoding", Collections.singletonList("gzip, deflate, br"));
+    headers.put("content-type", Collections.singletonList("application/json"));
+    headers.put("connection", Collections.singletonList("keep-alive"));
+
+    Map<String, Object> item = new HashMap<>();
+    item.put("sku", sku);
+    item.put("quantity", "2");
+    Map<String, Object> body = new HashMap<>();
+    body.put("customer", customer);
+    body.put("items", Collections.singletonList(item));
+    String rawBody =
+        "{\"customer\":\"" + customer + "\",\"items\":[{\"sku\":\"" + sku + "\",\"quantity\":2}]}";
+
+    return new MapDataBundle.Builder(MapDataBundle.Builder.CAPACITY_6_10)
+        .add(KnownAddresses.REQUEST_METHOD, "POST")
+        .add(KnownAddresses.REQUEST_URI_RAW, uri)
+        .add(KnownAddresses.HEADERS_NO_COOKIES, headers)
+        .add(KnownAddresses.REQUEST_QUERY, query)
+        .add(KnownAddresses.REQUEST_BODY_RAW, rawBody)
+        .add(KnownAddresses.REQUEST_BODY_OBJECT, body)
+        .build();
+  }
+}
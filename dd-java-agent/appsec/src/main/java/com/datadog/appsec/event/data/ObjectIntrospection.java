@@ -1,6 +1,9 @@
 package com.datadog.appsec.event.data;
 
 import datadog.trace.api.Platform;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,6 +19,20 @@ public final class ObjectIntrospection {
 
   private static final Method trySetAccessible;
 
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /** Fields to introspect for each class, computed once per class instead of on every request */
+  private static final ClassValue<FieldAccessor[]> ACCESSORS =
+      new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> type) {
+          return accessorsOf(type);
+        }
+      };
+
+  /** Marks classes with inaccessible fields, which are converted with {@link Object#toString()} */
+  private static final FieldAccessor[] OPAQUE = new FieldAccessor[0];
+
   static {
     // Method AccessibleObject.trySetAccessible introduced in Java 9
     Method method = null;
@@ -71,6 +88,9 @@ public final class ObjectIntrospection {
     if (obj instanceof Map) {
       Map<Object, Object> newMap = new HashMap<>((int) Math.ceil(((Map) obj).size() / .75));
       for (Map.Entry<?, ?> e : ((Map<?, ?>) obj).entrySet()) {
+        if (elemsLeft[0] <= 0) {
+          break;
+        }
         Object key = e.getKey();
         Object newKey = guardedConversion(e.getKey(), depth + 1, elemsLeft);
         if (newKey == null && key != null) {
@@ -111,20 +131,43 @@ public final class ObjectIntrospection {
     }
 
     // else general objects
-    Map<String, Object> newMap = new HashMap<>();
-    List<Field[]> allFields = new ArrayList<>();
+    FieldAccessor[] accessors = ACCESSORS.get(clazz);
+    if (accessors == OPAQUE) {
+      // One of fields is inaccessible, might be it's Strongly Encapsulated Internal class
+      // consider it as integral object without introspection
+      return obj.toString();
+    }
+    Map<String, Object> newMap = new HashMap<>((int) Math.ceil(accessors.length / .75));
+    for (FieldAccessor accessor : accessors) {
+      if (elemsLeft[0] <= 0) {
+        break;
+      }
+      Object value;
+      try {
+        value = (Object) accessor.getter.invokeExact(obj);
+      } catch (Throwable t) {
+        log.error("Unable to get field value", t);
+        continue;
+      }
+      newMap.put(accessor.name, guardedConversion(value, depth + 1, elemsLeft));
+    }
+
+    return newMap;
+  }
+
+  /**
+   * Collects the instance fields of the class and its superclasses, subclass fields first, with a
+   * getter for each one of them.
+   *
+   * @return the accessors of the fields or {@link #OPAQUE} if any of them is not accessible
+   */
+  private static FieldAccessor[] accessorsOf(Class<?> clazz) {
+    List<FieldAccessor> accessors = new ArrayList<>();
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
     for (Class<?> classToLook = clazz;
         classToLook != null && classToLook != Object.class;
         classToLook = classToLook.getSuperclass()) {
-      allFields.add(classToLook.getDeclaredFields());
-    }
-
-    outer:
-    for (Field[] fields : allFields) {
-      for (Field f : fields) {
-        if (elemsLeft[0] <= 0) {
-          break outer;
-        }
+      for (Field f : classToLook.getDeclaredFields()) {
         if (Modifier.isStatic(f.getModifiers())) {
           continue;
         }
@@ -135,22 +178,17 @@ public final class ObjectIntrospection {
         if (name.equals("this$0")) {
           continue;
         }
-
-        if (setAccessible(f)) {
-          try {
-            newMap.put(f.getName(), guardedConversion(f.get(obj), depth + 1, elemsLeft));
-          } catch (IllegalAccessException e) {
-            log.error("Unable to get field value", e);
-          }
-        } else {
-          // One of fields is inaccessible, might be it's Strongly Encapsulated Internal class
-          // consider it as integral object without introspection
-          return obj.toString();
+        if (!setAccessible(f)) {
+          return OPAQUE;
+        }
+        try {
+          accessors.add(new FieldAccessor(name, lookup.unreflectGetter(f).asType(GETTER_TYPE)));
+        } catch (IllegalAccessException e) {
+          log.error("Unable to get field value", e);
         }
       }
     }
-
-    return newMap;
+    return accessors.toArray(new FieldAccessor[0]);
   }
 
   /**
@@ -171,4 +209,14 @@ public final class ObjectIntrospection {
       return false;
     }
   }
+
+  private static final class FieldAccessor {
+    final String name;
+    final MethodHandle getter;
+
+    FieldAccessor(String name, MethodHandle getter) {
+      this.name = name;
+      this.getter = getter;
+    }
+  }
 }
@@ -14,13 +14,7 @@ import com.datadog.appsec.event.data.DataBundle;
 import com.datadog.appsec.event.data.KnownAddresses;
 import com.datadog.appsec.gateway.AppSecRequestContext;
 import com.datadog.appsec.report.AppSecEvent;
-import com.datadog.appsec.report.Parameter;
-import com.datadog.appsec.report.Rule;
-import com.datadog.appsec.report.RuleMatch;
 import com.datadog.appsec.util.StandardizedLogging;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.Moshi;
-import com.squareup.moshi.Types;
 import datadog.appsec.api.blocking.BlockingContentType;
 import datadog.trace.api.Config;
 import datadog.trace.api.ProductActivation;
@@ -37,13 +31,8 @@ import io.sqreen.powerwaf.exception.AbstractPowerwafException;
 import io.sqreen.powerwaf.exception.InvalidRuleSetException;
 import io.sqreen.powerwaf.exception.TimeoutPowerwafException;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.lang.reflect.UndeclaredThrowableException;
-import java.util.ArrayList;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,12 +42,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,12 +57,6 @@ public class PowerWAFModule implements AppSecModule {
   private static final int MAX_ELEMENTS = 150;
   private static final int MAX_STRING_SIZE = 4096;
   private static volatile Powerwaf.Limits LIMITS;
-  private static final Class<?> PROXY_CLASS =
-      Proxy.getProxyClass(PowerWAFModule.class.getClassLoader(), Set.class);
-  private static final Constructor<?> PROXY_CLASS_CONSTRUCTOR;
-
-  private static final JsonAdapter<List<PowerWAFResultData>> RES_JSON_ADAPTER;
-
   private static final Map<String, ActionInfo> DEFAULT_ACTIONS;
 
   private static class ActionInfo {
@@ -104,16 +85,6 @@ public class PowerWAFModule implements AppSecModule {
   }
 
   static {
-    try {
-      PROXY_CLASS_CONSTRUCTOR = PROXY_CLASS.getConstructor(InvocationHandler.class);
-    } catch (NoSuchMethodException e) {
-      throw new UndeclaredThrowableException(e);
-    }
-
-    Moshi moshi = new Moshi.Builder().build();
-    RES_JSON_ADAPTER =
-        moshi.adapter(Types.newParameterizedType(List.class, PowerWAFResultData.class));
-
     Map<String, Object> actionParams = new HashMap<>();
     actionParams.put("status_code", 403);
     actionParams.put("type", "auto");
@@ -530,63 +501,14 @@ public class PowerWAFModule implements AppSecModule {
   }
 
   private Collection<AppSecEvent> buildEvents(Powerwaf.ResultWithData actionWithData) {
-    Collection<PowerWAFResultData> listResults;
+    if (actionWithData.data == null) {
+      return emptyList();
+    }
     try {
-      listResults = RES_JSON_ADAPTER.fromJson(actionWithData.data);
+      return PowerWAFResultParser.parse(actionWithData.data);
     } catch (IOException e) {
       throw new UndeclaredThrowableException(e);
     }
-
-    if (listResults != null && !listResults.isEmpty()) {
-      return listResults.stream()
-          .map(this::buildEvent)
-          .filter(Objects::nonNull)
-          .collect(Collectors.toList());
-    }
-    return emptyList();
-  }
-
-  private AppSecEvent buildEvent(PowerWAFResultData wafResult) {
-
-    if (wafResult == null || wafResult.rule == null || wafResult.rule_matches == null) {
-      log.warn("WAF result is empty: {}", wafResult);
-      return null;
-    }
-
-    List<RuleMatch> ruleMatchList = new ArrayList<>();
-    for (PowerWAFResultData.RuleMatch rule_match : wafResult.rule_matches) {
-
-      List<Parameter> parameterList = new ArrayList<>();
-
-      for (PowerWAFResultData.Parameter parameter : rule_match.parameters) {
-        parameterList.add(
-            new Parameter.Builder()
-                .withAddress(parameter.address)
-                .withKeyPath(parameter.key_path)
-                .withValue(parameter.value)
-                .withHighlight(parameter.highlight)
-                .build());
-      }
-
-      RuleMatch ruleMatch =
-          new RuleMatch.Builder()
-              .withOperator(rule_match.operator)
-              .withOperatorValue(rule_match.operator_value)
-              .withParameters(parameterList)
-              .build();
-
-      ruleMatchList.add(ruleMatch);
-    }
-
-    return new AppSecEvent.Builder()
-        .withRule(
-            new Rule.Builder()
-                .withId(wafResult.rule.id)
-                .withName(wafResult.rule.name)
-                .withTags(wafResult.rule.tags)
-                .build())
-        .withRuleMatches(ruleMatchList)
-        .build();
   }
 
   private static final class DataBundleMapWrapper implements Map<String, Object> {
@@ -603,22 +525,17 @@ public class PowerWAFModule implements AppSecModule {
     @Nonnull
     @Override
     public Set<Entry<String, Object>> entrySet() {
-      try {
-        return (Set<Entry<String, Object>>)
-            PROXY_CLASS_CONSTRUCTOR.newInstance(new SetIteratorInvocationHandler());
-      } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-        throw new UndeclaredThrowableException(e);
-      }
+      return new EntrySet();
     }
 
-    private class SetIteratorInvocationHandler implements InvocationHandler {
+    /**
+     * The iterator hands out a single entry which is updated on each step, so the operations
+     * collecting or comparing entries are not supported.
+     */
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+      @Nonnull
       @Override
-      public Object invoke(Object proxy, Method method, Object[] args) {
-        if (!method.getName().equals("iterator")) {
-          throw new UnsupportedOperationException(
-              "Only supported method is 'iterator'; got " + method.getName());
-        }
-
+      public Iterator<Entry<String, Object>> iterator() {
         final Iterator<Address<?>> addrIterator = dataBundle.getAllAddresses().iterator();
         final MutableEntry entry = new MutableEntry();
 
@@ -648,6 +565,38 @@ public class PowerWAFModule implements AppSecModule {
           }
         };
       }
+
+      @Override
+      public int size() {
+        return dataBundle.size();
+      }
+
+      @Nonnull
+      @Override
+      public Object[] toArray() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Nonnull
+      @Override
+      public <T> T[] toArray(@Nonnull T[] a) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public int hashCode() {
+        throw new UnsupportedOperationException();
+      }
     }
 
     @Override
@@ -0,0 +1,226 @@
+package com.datadog.appsec.powerwaf;
+
+import com.datadog.appsec.report.AppSecEvent;
+import com.datadog.appsec.report.Parameter;
+import com.datadog.appsec.report.Rule;
+import com.datadog.appsec.report.RuleMatch;
+import com.squareup.moshi.JsonReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import okio.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the results returned by the WAF straight into {@link AppSecEvent}s with a streaming JSON
+ * reader, without binding them to intermediate objects first.
+ */
+final class PowerWAFResultParser {
+  private static final Logger log = LoggerFactory.getLogger(PowerWAFResultParser.class);
+
+  private static final JsonReader.Options RESULT_FIELDS =
+      JsonReader.Options.of("rule", "rule_matches");
+  private static final JsonReader.Options RULE_FIELDS =
+      JsonReader.Options.of("id", "name", "tags");
+  private static final JsonReader.Options RULE_MATCH_FIELDS =
+      JsonReader.Options.of("operator", "operator_value", "parameters");
+  private static final JsonReader.Options PARAMETER_FIELDS =
+      JsonReader.Options.of("address", "key_path", "value", "highlight");
+
+  private PowerWAFResultParser() {}
+
+  static List<AppSecEvent> parse(String json) throws IOException {
+    JsonReader reader = JsonReader.of(new Buffer().writeUtf8(json));
+    if (reader.peek() == JsonReader.Token.NULL) {
+      reader.nextNull();
+      return Collections.emptyList();
+    }
+    List<AppSecEvent> events = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      AppSecEvent event = readEvent(reader);
+      if (event != null) {
+        events.add(event);
+      }
+    }
+    reader.endArray();
+    return events;
+  }
+
+  private static AppSecEvent readEvent(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      reader.nextNull();
+      log.warn("WAF result is empty: null");
+      return null;
+    }
+    Rule rule = null;
+    List<RuleMatch> ruleMatches = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(RESULT_FIELDS)) {
+        case 0:
+          rule = readRule(reader);
+          break;
+        case 1:
+          ruleMatches = readRuleMatches(reader);
+          break;
+        default:
+          reader.skipName();
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (rule == null || ruleMatches == null) {
+      log.warn("WAF result is empty: rule={}, rule_matches={}", rule, ruleMatches);
+      return null;
+    }
+    return new AppSecEvent.Builder().withRule(rule).withRuleMatches(ruleMatches).build();
+  }
+
+  private static Rule readRule(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    Rule.Builder builder = new Rule.Builder();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.selectName(RULE_FIELDS)) {
+        case 0:
+          builder.withId(readString(reader));
+          break;
+        case 1:
+          builder.withName(readString(reader));
+          break;
+        case 2:
+          builder.withTags(readTags(reader));
+          break;
+        default:
+          reader.skipName();
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return builder.build();
+  }
+
+  private static Map<String, String> readTags(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    Map<String, String> tags = new LinkedHashMap<>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      tags.put(reader.nextName(), readString(reader));
+    }
+    reader.endObject();
+    return tags;
+  }
+
+  private static List<RuleMatch> readRuleMatches(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      RuleMatch.Builder builder = new RuleMatch.Builder();
+      List<Parameter> parameters = Collections.emptyList();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.selectName(RULE_MATCH_FIELDS)) {
+          case 0:
+            builder.withOperator(readString(reader));
+            break;
+          case 1:
+            builder.withOperatorValue(readString(reader));
+            break;
+          case 2:
+            parameters = readParameters(reader);
+            break;
+          default:
+            reader.skipName();
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      ruleMatches.add(builder.withParameters(parameters).build());
+    }
+    reader.endArray();
+    return ruleMatches;
+  }
+
+  private static List<Parameter> readParameters(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      reader.nextNull();
+      return Collections.emptyList();
+    }
+    List<Parameter> parameters = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      Parameter.Builder builder = new Parameter.Builder();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.selectName(PARAMETER_FIELDS)) {
+          case 0:
+            builder.withAddress(readString(reader));
+            break;
+          case 1:
+            builder.withKeyPath(readKeyPath(reader));
+            break;
+          case 2:
+            builder.withValue(readString(reader));
+            break;
+          case 3:
+            builder.withHighlight(readStrings(reader));
+            break;
+          default:
+            reader.skipName();
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      parameters.add(builder.build());
+    }
+    reader.endArray();
+    return parameters;
+  }
+
+  /** Key paths mix map keys and list indexes, which are read as doubles like in generic JSON */
+  private static List<Object> readKeyPath(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    List<Object> keyPath = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      keyPath.add(reader.readJsonValue());
+    }
+    reader.endArray();
+    return keyPath;
+  }
+
+  private static List<String> readStrings(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    List<String> strings = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      strings.add(readString(reader));
+    }
+    reader.endArray();
+    return strings;
+  }
+
+  private static String readString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonReader.Token.NULL) {
+      return reader.nextNull();
+    }
+    return reader.nextString();
+  }
+}
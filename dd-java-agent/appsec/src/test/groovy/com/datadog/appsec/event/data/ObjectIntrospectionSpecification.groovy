@@ -73,6 +73,33 @@ class ObjectIntrospectionSpecification extends Specification {
     convert(new ClassToBeConvertedExt()) == [c: 'd', a: 'b', l: ['1', '2']]
   }
 
+  @SuppressWarnings('UnusedPrivateField')
+  static class ClassWithPrimitives {
+    private int i = 1
+    private long l = 2L
+    private double d = 0.5
+  }
+
+  void 'objects of the same class are converted consistently'() {
+    expect:
+    3.times {
+      assert convert(new ClassWithPrimitives()) == [i: '1', l: '2', d: '0.5']
+      assert convert([new ClassToBeConvertedExt(), new ClassToBeConverted()]) == [[c: 'd', a: 'b', l: ['1', '2']], [a: 'b', l: ['1', '2']]]
+    }
+  }
+
+  void 'max number of elements is honored for objects'() {
+    setup:
+    def objects = (1..200).collect { new ClassToBeConverted() }
+
+    when:
+    def converted = convert(objects)
+
+    then: 'each object takes 5 elements: itself, its 2 fields and the 2 items of the list'
+    converted.size() == 51
+    converted.take(50).every { it == [a: 'b', l: ['1', '2']] }
+  }
+
   void 'max number of elements is honored'() {
     setup:
     def m = [:]
@@ -0,0 +1,76 @@
+package com.datadog.appsec.powerwaf
+
+import datadog.trace.test.util.DDSpecification
+
+class PowerWAFResultParserSpecification extends DDSpecification {
+
+  void 'results are parsed into events'() {
+    setup:
+    def json = '''[{
+      "rule": {"id": "crs-913-110", "name": "Found request header associated with Acunetix security scanner",
+               "tags": {"type": "security_scanner", "category": "attack_attempt"}, "on_match": []},
+      "rule_matches": [{
+        "operator": "match_regex", "operator_value": "acunetix",
+        "parameters": [{
+          "address": "server.request.headers.no_cookies", "key_path": ["user-agent", 0],
+          "value": "Acunetix", "highlight": ["acunetix"]
+        }]
+      }],
+      "span_id": 0
+    }]'''
+
+    when:
+    def events = PowerWAFResultParser.parse(json)
+
+    then:
+    events.size() == 1
+    with(events[0]) {
+      rule.id == 'crs-913-110'
+      rule.name == 'Found request header associated with Acunetix security scanner'
+      rule.tags == [type: 'security_scanner', category: 'attack_attempt']
+      ruleMatches.size() == 1
+      ruleMatches[0].operator == 'match_regex'
+      ruleMatches[0].operatorValue == 'acunetix'
+      ruleMatches[0].parameters.size() == 1
+      with(ruleMatches[0].parameters[0]) {
+        address == 'server.request.headers.no_cookies'
+        keyPath == ['user-agent', 0.0d]
+        value == 'Acunetix'
+        highlight == ['acunetix']
+      }
+    }
+  }
+
+  void 'incomplete results are skipped'() {
+    expect:
+    PowerWAFResultParser.parse(json).isEmpty()
+
+    where:
+    json << [
+      'null',
+      '[]',
+      '[null]',
+      '[{}]',
+      '[{"rule": null, "rule_matches": []}]',
+      '[{"rule": {"id": "a"}}]',
+    ]
+  }
+
+  void 'null values are kept'() {
+    setup:
+    def json = '''[{
+      "rule": {"id": "a", "name": null, "tags": null},
+      "rule_matches": [{"operator": "phrase_match", "operator_value": null, "parameters": null}]
+    }]'''
+
+    when:
+    def events = PowerWAFResultParser.parse(json)
+
+    then:
+    events.size() == 1
+    events[0].rule.name == null
+    events[0].rule.tags == null
+    events[0].ruleMatches[0].operatorValue == null
+    events[0].ruleMatches[0].parameters.isEmpty()
+  }
+}
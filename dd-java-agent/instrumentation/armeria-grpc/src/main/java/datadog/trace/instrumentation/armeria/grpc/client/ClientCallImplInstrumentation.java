@@ -116,7 +116,7 @@ public final class ClientCallImplInstrumentation extends InstrumenterModule.Trac
         span = InstrumentationContext.get(ClientCall.class, AgentSpan.class).get(call);
         if (null != span) {
           propagate().inject(span, headers, SETTER);
-          propagate().injectPathwayContext(span, headers, SETTER, CLIENT_PATHWAY_EDGE_TAGS);
+          propagate().injectPathwayContext(span, headers, SETTER, CLIENT_PATHWAY_EDGE_TAGS, 0, 0);
           return activateSpan(span);
         }
       }
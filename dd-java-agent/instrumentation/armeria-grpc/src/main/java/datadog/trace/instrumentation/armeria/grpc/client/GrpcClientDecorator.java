@@ -11,6 +11,7 @@ import datadog.trace.api.cache.DDCache;
 import datadog.trace.api.cache.DDCaches;
 import datadog.trace.api.naming.SpanNaming;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.bootstrap.instrumentation.api.InternalSpanTypes;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
@@ -36,8 +37,8 @@ public class GrpcClientDecorator extends ClientDecorator {
     return result;
   }
 
-  public static final LinkedHashMap<String, String> CLIENT_PATHWAY_EDGE_TAGS =
-      createClientPathwaySortedTags();
+  public static final CheckpointTemplate CLIENT_PATHWAY_EDGE_TAGS =
+      CheckpointTemplate.of(createClientPathwaySortedTags());
 
   public static final GrpcClientDecorator DECORATE = new GrpcClientDecorator();
 
@@ -9,6 +9,7 @@ import datadog.trace.api.cache.DDCache;
 import datadog.trace.api.cache.DDCaches;
 import datadog.trace.api.naming.SpanNaming;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.bootstrap.instrumentation.api.InternalSpanTypes;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.bootstrap.instrumentation.decorator.ServerDecorator;
@@ -37,8 +38,8 @@ public class GrpcServerDecorator extends ServerDecorator {
     return result;
   }
 
-  public static final LinkedHashMap<String, String> SERVER_PATHWAY_EDGE_TAGS =
-      createServerPathwaySortedTags();
+  public static final CheckpointTemplate SERVER_PATHWAY_EDGE_TAGS =
+      CheckpointTemplate.of(createServerPathwaySortedTags());
   public static final GrpcServerDecorator DECORATE = new GrpcServerDecorator();
 
   private static final Function<String, String> NORMALIZE =
@@ -1,4 +1,5 @@
 import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.api.Platform
 import datadog.trace.api.Trace
 import datadog.trace.core.DDSpan
 import spock.lang.Shared
@@ -76,4 +77,50 @@ class VirtualThreadTest extends AgentTestRunner {
     "invokeAny with timeout" | invokeAnyTimeout    | Executors.newVirtualThreadPerTaskExecutor()
      // spotless:on
   }
+
+  def "virtual thread #name"() {
+    setup:
+    def start = method
+
+    new Runnable() {
+        @Override
+        @Trace(operationName = "parent")
+        void run() {
+          activeScope().setAsyncPropagation(true)
+          start(new JavaAsyncChild()).join()
+          // the coerced closure isn't an instrumented task, the virtual thread propagates instead
+          start({ new JavaAsyncChild().run() } as Runnable).join()
+          blockUntilChildSpansFinished(2)
+        }
+      }.run()
+
+    TEST_WRITER.waitForTraces(1)
+    List<DDSpan> trace = TEST_WRITER.get(0)
+
+    expect:
+    TEST_WRITER.size() == 1
+    trace.size() == 3
+    trace.get(0).operationName == "parent"
+    trace.get(1).operationName == "asyncChild"
+    trace.get(1).parentId == trace.get(0).spanId
+    trace.get(2).operationName == "asyncChild"
+    trace.get(2).parentId == trace.get(0).spanId
+
+    where:
+    // spotless:off
+    name                    | method
+    "ofVirtual start"       | { Runnable r -> Thread.ofVirtual().start(r) }
+    "ofVirtual unstarted"   | { Runnable r -> def t = Thread.ofVirtual().unstarted(r); t.start(); t }
+    "ofVirtual factory"     | { Runnable r -> def t = Thread.ofVirtual().factory().newThread(r); t.start(); t }
+    "startVirtualThread"    | { Runnable r -> Thread.startVirtualThread(r) }
+    // spotless:on
+  }
+
+  def "virtual threads are detected"() {
+    expect:
+    Thread.ofVirtual().start({
+      assert Platform.isVirtualThread(Thread.currentThread())
+    } as Runnable).join()
+    !Platform.isVirtualThread(Thread.currentThread())
+  }
 }
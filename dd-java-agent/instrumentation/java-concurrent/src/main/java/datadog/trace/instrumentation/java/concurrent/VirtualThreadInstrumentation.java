@@ -0,0 +1,80 @@
+package datadog.trace.instrumentation.java.concurrent;
+
+import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.named;
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.AdviceUtils.capture;
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.AdviceUtils.endTaskScope;
+import static datadog.trace.bootstrap.instrumentation.java.concurrent.AdviceUtils.startTaskScope;
+import static datadog.trace.instrumentation.java.concurrent.AbstractExecutorInstrumentation.EXEC_NAME;
+import static java.util.Collections.singletonMap;
+import static net.bytebuddy.matcher.ElementMatchers.isConstructor;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+import com.google.auto.service.AutoService;
+import datadog.trace.agent.tooling.Instrumenter;
+import datadog.trace.agent.tooling.InstrumenterModule;
+import datadog.trace.bootstrap.InstrumentationContext;
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.java.concurrent.State;
+import java.util.Map;
+import net.bytebuddy.asm.Advice;
+
+/**
+ * Propagates the active context to virtual threads created with {@code Thread.ofVirtual()} or
+ * {@code Thread.startVirtualThread}. The continuation is stored against the thread's task, so
+ * neither the task nor the thread is wrapped. Tasks from {@code
+ * Executors.newVirtualThreadPerTaskExecutor()} have already been captured by {@link
+ * TaskRunnerInstrumentation}, in which case the capture here is a no-op.
+ */
+@AutoService(InstrumenterModule.class)
+public final class VirtualThreadInstrumentation extends InstrumenterModule.Tracing
+    implements Instrumenter.ForBootstrap, Instrumenter.ForSingleType {
+  public VirtualThreadInstrumentation() {
+    super(EXEC_NAME, "virtual-thread");
+  }
+
+  @Override
+  public String instrumentedType() {
+    return "java.lang.VirtualThread";
+  }
+
+  @Override
+  public Map<String, String> contextStore() {
+    return singletonMap("java.lang.Runnable", State.class.getName());
+  }
+
+  @Override
+  public void methodAdvice(MethodTransformer transformer) {
+    // VirtualThread(Executor scheduler, String name, int characteristics, Runnable task)
+    transformer.applyAdvice(
+        isConstructor().and(takesArgument(3, named("java.lang.Runnable"))),
+        getClass().getName() + "$Construct");
+    // private void run(Runnable task), invoked on the virtual thread when it is first mounted
+    transformer.applyAdvice(
+        isMethod()
+            .and(named("run"))
+            .and(takesArguments(1))
+            .and(takesArgument(0, named("java.lang.Runnable"))),
+        getClass().getName() + "$Run");
+  }
+
+  public static final class Construct {
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void captureScope(@Advice.Argument(3) Runnable task) {
+      capture(InstrumentationContext.get(Runnable.class, State.class), task, true);
+    }
+  }
+
+  public static final class Run {
+    @Advice.OnMethodEnter(suppress = Throwable.class)
+    public static AgentScope activate(@Advice.Argument(0) Runnable task) {
+      return startTaskScope(InstrumentationContext.get(Runnable.class, State.class), task);
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class)
+    public static void close(@Advice.Enter AgentScope scope) {
+      endTaskScope(scope);
+    }
+  }
+}
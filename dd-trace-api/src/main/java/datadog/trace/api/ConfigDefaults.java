@@ -107,6 +107,7 @@ public final class ConfigDefaults {
   public static final int DEFAULT_IAST_MAX_CONCURRENT_REQUESTS = 4;
   public static final int DEFAULT_IAST_VULNERABILITIES_PER_REQUEST = 2;
   public static final int DEFAULT_IAST_REQUEST_SAMPLING = 33;
+  static final boolean DEFAULT_IAST_ADAPTIVE_SAMPLING_ENABLED = false;
   static final Set<String> DEFAULT_IAST_WEAK_HASH_ALGORITHMS =
       new HashSet<>(asList("SHA1", "SHA-1", "MD2", "MD5", "RIPEMD128", "MD4"));
   static final String DEFAULT_IAST_WEAK_CIPHER_ALGORITHMS =
@@ -197,6 +198,7 @@ public final class ConfigDefaults {
 
   static final boolean DEFAULT_DATA_STREAMS_ENABLED = false;
   static final int DEFAULT_DATA_STREAMS_BUCKET_DURATION = 10; // seconds
+  static final int DEFAULT_DATA_STREAMS_INBOX_SIZE = 1024;
 
   static final int DEFAULT_RESOLVER_RESET_INTERVAL = 300; // seconds
 
@@ -224,6 +226,10 @@ public final class ConfigDefaults {
 
   static final long DEFAULT_TRACE_POST_PROCESSING_TIMEOUT = 1000; // 1 second
 
+  static final int DEFAULT_TRACE_SERIALIZATION_SHARDS = 1;
+
+  static final boolean DEFAULT_TRACE_AGENT_COMPRESSION_ENABLED = false;
+
   static final boolean DEFAULT_COUCHBASE_INTERNAL_SPANS_ENABLED = true;
   static final boolean DEFAULT_ELASTICSEARCH_BODY_ENABLED = false;
   static final boolean DEFAULT_ELASTICSEARCH_PARAMS_ENABLED = true;
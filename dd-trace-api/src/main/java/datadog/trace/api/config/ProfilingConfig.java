@@ -35,6 +35,9 @@ public final class ProfilingConfig {
   public static final int PROFILING_UPLOAD_TIMEOUT_DEFAULT = 30;
   public static final String PROFILING_UPLOAD_COMPRESSION = "profiling.upload.compression";
   public static final String PROFILING_UPLOAD_COMPRESSION_DEFAULT = "on";
+  public static final String PROFILING_UPLOAD_COMPRESSION_LEVEL =
+      "profiling.upload.compression.level";
+  public static final int PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT = 3;
   public static final String PROFILING_PROXY_HOST = "profiling.proxy.host";
   public static final String PROFILING_PROXY_PORT = "profiling.proxy.port";
   public static final int PROFILING_PROXY_PORT_DEFAULT = 8080;
@@ -105,6 +108,10 @@ public final class ProfilingConfig {
       "profiling.ddprof.wall.collapsing";
   public static final boolean PROFILING_DATADOG_PROFILER_WALL_COLLAPSING_DEFAULT = false;
 
+  public static final String PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED =
+      "profiling.ddprof.context.cache.enabled";
+  public static final boolean PROFILING_DATADOG_PROFILER_CONTEXT_CACHE_ENABLED_DEFAULT = false;
+
   public static final String PROFILING_DATADOG_PROFILER_WALL_CONTEXT_FILTER =
       "profiling.ddprof.wall.context.filter";
   public static final boolean PROFILING_DATADOG_PROFILER_WALL_CONTEXT_FILTER_DEFAULT = true;
@@ -166,6 +173,9 @@ public final class ProfilingConfig {
   public static final String PROFILING_UPLOAD_SUMMARY_ON_413 = "profiling.upload.summary-on-413";
   public static final boolean PROFILING_UPLOAD_SUMMARY_ON_413_DEFAULT = false;
 
+  public static final String PROFILING_UPLOAD_EVENT_SUMMARY = "profiling.upload.event-summary";
+  public static final boolean PROFILING_UPLOAD_EVENT_SUMMARY_DEFAULT = false;
+
   // Not intended for production use
   public static final String PROFILING_AGENTLESS = "profiling.agentless";
   public static final boolean PROFILING_AGENTLESS_DEFAULT = false;
@@ -75,6 +75,7 @@ public final class TracerConfig {
   public static final String SCOPE_INHERIT_ASYNC_PROPAGATION =
       "trace.scope.inherit.async.propagation";
   public static final String SCOPE_ITERATION_KEEP_ALIVE = "trace.scope.iteration.keep.alive";
+  public static final String SCOPE_RECYCLING_ENABLED = "trace.scope.recycling.enabled";
   public static final String PARTIAL_FLUSH_ENABLED = "trace.partial.flush.enabled";
   public static final String PARTIAL_FLUSH_MIN_SPANS = "trace.partial.flush.min.spans";
   public static final String TRACE_STRICT_WRITES_ENABLED = "trace.strict.writes.enabled";
@@ -135,5 +136,10 @@ public final class TracerConfig {
 
   public static final String TRACE_POST_PROCESSING_TIMEOUT = "trace.post-processing.timeout";
 
+  public static final String TRACE_SERIALIZATION_SHARDS =
+      "trace.experimental.serialization.shards";
+
+  public static final String TRACE_AGENT_COMPRESSION_ENABLED = "trace.agent.compression.enabled";
+
   private TracerConfig() {}
 }
@@ -0,0 +1,71 @@
+package datadog.trace.common.metrics;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.core.util.LRUCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the aggregate table against the {@link LRUCache} it replaced on the aggregator thread,
+ * for key cardinalities both below and well above the table capacity. Run with {@code -prof gc}
+ * to compare allocation rates once the key space no longer fits.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class AggregateTableBenchmark {
+
+  @Param({"2048", "16384"})
+  int maxAggregates;
+
+  @Param({"1000", "10000", "100000"})
+  int distinctKeys;
+
+  MetricKey[] keys;
+  AggregateTable table;
+  LRUCache<MetricKey, AggregateMetric> lruCache;
+  int next;
+
+  @Setup(Level.Trial)
+  public void init() {
+    keys = new MetricKey[distinctKeys];
+    for (int i = 0; i < distinctKeys; i++) {
+      keys[i] =
+          new MetricKey(
+              "GET /benchmark/" + i, "benchmark", "servlet.request", "web", 200 + (i & 3), false);
+    }
+    table = new AggregateTable(maxAggregates, key -> {});
+    lruCache = new LRUCache<>(key -> {}, maxAggregates * 4 / 3, 0.75f, maxAggregates);
+  }
+
+  private MetricKey nextKey() {
+    int index = next;
+    next = index + 1 == keys.length ? 0 : index + 1;
+    return keys[index];
+  }
+
+  @Benchmark
+  public AggregateMetric aggregateTable() {
+    return table.findOrInsert(nextKey());
+  }
+
+  @Benchmark
+  public AggregateMetric lruCache() {
+    return lruCache.computeIfAbsent(nextKey(), k -> new AggregateMetric());
+  }
+}
@@ -0,0 +1,109 @@
+package datadog.trace.common.sampling;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.sampling.SamplingMechanism;
+import datadog.trace.common.writer.ListWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of finding the sampling rule for a root span, checking the rules one by one as the sampler
+ * used to versus the compiled rules. Half of the rules match an exact service, the other half use
+ * service patterns, and the spans are spread over the services so most of them match a rule late
+ * in the list.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class SamplingRulesBenchmark {
+
+  private static final int SPANS = 64;
+
+  @Param({"1", "10", "100"})
+  int rules;
+
+  private CoreTracer tracer;
+  private List<RateSamplingRule> samplingRules;
+  private CompiledSamplingRules compiledRules;
+  private DDSpan[] spans;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void init() {
+    tracer = CoreTracer.builder().writer(new ListWriter()).build();
+    samplingRules = new ArrayList<>(rules);
+    for (int i = 0; i < rules; ++i) {
+      String service = (i & 1) == 0 ? "service-" + i : "pattern-" + i + "-*";
+      samplingRules.add(
+          new RateSamplingRule.TraceSamplingRule(
+              service,
+              "operation-*",
+              "GET /resource/" + i + "/*",
+              Collections.<String, String>emptyMap(),
+              new DeterministicSampler.TraceSampler(0.5),
+              SamplingMechanism.LOCAL_USER_RULE));
+    }
+    compiledRules = new CompiledSamplingRules(samplingRules, 256);
+    spans = new DDSpan[SPANS];
+    for (int i = 0; i < SPANS; ++i) {
+      int rule = rules - 1 - (i % Math.max(1, rules / 4));
+      String service = (rule & 1) == 0 ? "service-" + rule : "pattern-" + rule + "-x";
+      spans[i] =
+          (DDSpan)
+              tracer
+                  .buildSpan("operation-" + i)
+                  .withServiceName(service)
+                  .withResourceName("GET /resource/" + rule + "/item")
+                  .start();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    for (DDSpan span : spans) {
+      span.finish();
+    }
+    tracer.close();
+  }
+
+  private DDSpan nextSpan() {
+    return spans[next++ & (SPANS - 1)];
+  }
+
+  @Benchmark
+  public RateSamplingRule linear() {
+    DDSpan span = nextSpan();
+    for (RateSamplingRule rule : samplingRules) {
+      if (rule.matches(span)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public RateSamplingRule compiled() {
+    return compiledRules.match(nextSpan());
+  }
+}
@@ -0,0 +1,166 @@
+package datadog.trace.common.writer;
+
+import static datadog.trace.api.sampling.PrioritySampling.USER_KEEP;
+import static datadog.trace.common.writer.ddagent.Prioritization.ENSURE_TRACE;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.serialization.FlushingBuffer;
+import datadog.communication.serialization.msgpack.MsgPackWriter;
+import datadog.trace.common.writer.ddagent.TraceMapperV0_4;
+import datadog.trace.core.CoreSpan;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how trace serialization throughput scales with the number of serializer shards. Traces
+ * are published with {@code ENSURE_TRACE} prioritization, which blocks producers when the queues
+ * are full, so producer throughput is bounded by serializer throughput.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class TraceProcessingWorkerBenchmark {
+
+  private static final int TRACE_COUNT = 1024;
+  private static final int SPANS_PER_TRACE = 10;
+
+  @Param({"1", "2", "4", "8"})
+  int shards;
+
+  CoreTracer tracer;
+  TraceProcessingWorker worker;
+  List<List<DDSpan>> traces;
+  AtomicLong serializedBytes;
+
+  @Setup(Level.Trial)
+  public void init() {
+    tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    traces = new ArrayList<>(TRACE_COUNT);
+    for (int i = 0; i < TRACE_COUNT; i++) {
+      DDSpan root =
+          (DDSpan)
+              tracer
+                  .buildSpan("benchmark", "servlet.request")
+                  .withResourceName("GET /benchmark/" + i)
+                  .withTag("http.method", "GET")
+                  .withTag("http.status_code", 200)
+                  .start();
+      List<DDSpan> trace = new ArrayList<>(SPANS_PER_TRACE);
+      trace.add(root);
+      for (int j = 1; j < SPANS_PER_TRACE; j++) {
+        trace.add(
+            (DDSpan)
+                tracer
+                    .buildSpan("benchmark", "database.query")
+                    .asChildOf(root.context())
+                    .withResourceName("SELECT * FROM benchmark WHERE id = ?")
+                    .withTag("db.instance", "benchmark")
+                    .withTag("db.row_count", j)
+                    .start());
+      }
+      traces.add(trace);
+    }
+    serializedBytes = new AtomicLong();
+    List<PayloadDispatcher> dispatchers = new ArrayList<>(shards);
+    for (int i = 0; i < shards; i++) {
+      dispatchers.add(new SerializingDispatcher(serializedBytes));
+    }
+    worker =
+        new TraceProcessingWorker(
+            1 << 14,
+            HealthMetrics.NO_OP,
+            dispatchers,
+            () -> false,
+            ENSURE_TRACE,
+            1,
+            SECONDS,
+            null,
+            null);
+    worker.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    worker.close();
+    tracer.close();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class PublishedSpans {
+    int next;
+    public long spans;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      spans = 0;
+    }
+  }
+
+  @Threads(8)
+  @Benchmark
+  public void publish(PublishedSpans published) {
+    List<DDSpan> trace = traces.get(published.next++ & (TRACE_COUNT - 1));
+    worker.publish(trace.get(0), USER_KEEP, trace);
+    published.spans += trace.size();
+  }
+
+  static final class SerializingDispatcher implements PayloadDispatcher {
+    private final TraceMapperV0_4 mapper = new TraceMapperV0_4();
+    private final MsgPackWriter packer;
+
+    SerializingDispatcher(AtomicLong serializedBytes) {
+      this.packer =
+          new MsgPackWriter(
+              new FlushingBuffer(
+                  mapper.messageBufferSize(),
+                  (messageCount, buffer) -> {
+                    serializedBytes.addAndGet(buffer.remaining());
+                    mapper.reset();
+                  }));
+    }
+
+    @Override
+    public void onDroppedTrace(int spanCount) {}
+
+    @Override
+    public void addTrace(List<? extends CoreSpan<?>> trace) {
+      packer.format(trace, mapper);
+    }
+
+    @Override
+    public void flush() {
+      packer.flush();
+    }
+
+    @Override
+    public Collection<RemoteApi> getApis() {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package datadog.trace.common.writer.ddagent;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.serialization.ByteBufferConsumer;
+import datadog.communication.serialization.FlushingBuffer;
+import datadog.communication.serialization.msgpack.MsgPackWriter;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.common.writer.Payload;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CPU cost of gzipping a serialized trace payload against the bytes it saves on the
+ * wire. Dividing the {@code bytes} counter by the {@code requests} counter gives the size of the
+ * request each variant sends to the agent.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class PayloadCompressionBenchmark {
+
+  @Param({"v04", "v05"})
+  String mapperName;
+
+  @Param({"10", "100"})
+  int traceCount;
+
+  private TraceMapper mapper;
+  private ByteBuffer body;
+  private int messageCount;
+  private CoreTracer tracer;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long bytes;
+    public long requests;
+  }
+
+  @Setup(Level.Trial)
+  public void init() {
+    switch (mapperName) {
+      case "v04":
+        mapper = new TraceMapperV0_4();
+        break;
+      case "v05":
+        mapper = new TraceMapperV0_5();
+        break;
+      default:
+        throw new IllegalArgumentException("Illegal mapper type " + mapperName + ".");
+    }
+    tracer = CoreTracer.builder().strictTraceWrites(true).build();
+    MsgPackWriter writer =
+        new MsgPackWriter(
+            new FlushingBuffer(
+                8 << 20,
+                new ByteBufferConsumer() {
+                  @Override
+                  public void accept(int messageCount, ByteBuffer buffer) {
+                    PayloadCompressionBenchmark.this.messageCount = messageCount;
+                    body = buffer;
+                  }
+                }));
+    for (int i = 0; i < traceCount; ++i) {
+      writer.format(trace(i), mapper);
+    }
+    writer.flush();
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    tracer.close();
+  }
+
+  private List<DDSpan> trace(int id) {
+    AgentSpan root = tracer.buildSpan("servlet.request").start();
+    root.setResourceName("GET /benchmark/" + (id % 10));
+    root.setTag("http.url", "http://localhost:8080/benchmark/" + (id % 10));
+    root.setTag("http.status_code", 200);
+    List<DDSpan> trace = new ArrayList<>();
+    trace.add((DDSpan) root);
+    for (int i = 0; i < 10; ++i) {
+      AgentSpan child = tracer.buildSpan("jdbc.query").asChildOf(root.context()).start();
+      child.setResourceName("SELECT * FROM benchmark WHERE id = ?");
+      child.setTag("db.instance", "benchmark");
+      child.finish();
+      trace.add((DDSpan) child);
+    }
+    root.finish();
+    Collections.reverse(trace);
+    return trace;
+  }
+
+  private Payload payload() {
+    return mapper.newPayload().withBody(messageCount, body.duplicate());
+  }
+
+  private static long write(RequestBody request) throws IOException {
+    Buffer sink = new Buffer();
+    request.writeTo(sink);
+    long size = sink.size();
+    sink.clear();
+    return size;
+  }
+
+  @Benchmark
+  public long uncompressed(Counters counters) throws IOException {
+    long size = write(payload().toRequest());
+    counters.bytes += size;
+    ++counters.requests;
+    return size;
+  }
+
+  @Benchmark
+  public long gzipped(Counters counters) throws IOException {
+    long size = write(payload().toGzippedRequest());
+    counters.bytes += size;
+    ++counters.requests;
+    return size;
+  }
+}
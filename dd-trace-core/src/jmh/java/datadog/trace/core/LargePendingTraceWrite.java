@@ -0,0 +1,100 @@
+package datadog.trace.core;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import datadog.trace.api.DDSpanId;
+import datadog.trace.api.DDTraceId;
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.bootstrap.instrumentation.api.AgentTracer.NoopPathwayContext;
+import java.util.Collections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link PendingTraceWrite} for the very large traces of batch jobs, where thousands of spans are
+ * finished under one root, optionally with partial flushes.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class LargePendingTraceWrite {
+
+  CoreTracer tracer;
+  PendingTrace trace;
+
+  @Param({"5000", "50000"})
+  int spansPerThread;
+
+  @Param({"0", "1000"})
+  int partialFlushMinSpans;
+
+  private DDSpan root;
+  private DDSpan span;
+
+  @Setup(Level.Trial)
+  public void init(TraceCounters counters, Blackhole blackhole) {
+    tracer =
+        CoreTracer.builder()
+            .writer(new BlackholeWriter(blackhole, counters, 0))
+            .strictTraceWrites(false)
+            .partialFlushMinSpans(partialFlushMinSpans)
+            .build();
+    DDTraceId traceId = DDTraceId.ONE;
+    trace = tracer.createTrace(traceId);
+    root = createSpan(trace, traceId, 2, DDSpanId.ZERO);
+    span = createSpan(trace, traceId, 3, 2);
+  }
+
+  private static DDSpan createSpan(PendingTrace trace, DDTraceId traceId, long spanId, long parentId) {
+    return DDSpan.create(
+        "benchmark",
+        System.currentTimeMillis() * 1000,
+        new DDSpanContext(
+            traceId,
+            spanId,
+            parentId,
+            null,
+            "service",
+            "operation",
+            "resource",
+            PrioritySampling.SAMPLER_KEEP,
+            null,
+            Collections.<String, String>emptyMap(),
+            false,
+            "type",
+            0,
+            trace,
+            null,
+            null,
+            NoopPathwayContext.INSTANCE,
+            false,
+            null),
+        null);
+  }
+
+  @Threads(4)
+  @Benchmark
+  public void writeLargeTrace() {
+    trace.registerSpan(root);
+    for (int i = 0; i < spansPerThread; ++i) {
+      trace.registerSpan(span);
+      trace.onPublish(span);
+    }
+    trace.onPublish(root);
+  }
+}
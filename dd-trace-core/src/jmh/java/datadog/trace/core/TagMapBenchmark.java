@@ -0,0 +1,125 @@
+package datadog.trace.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the span tag store against the synchronized {@link HashMap} it replaced. Run with
+ * {@code -prof gc} to compare allocation rates: one in three tags is a numeric value above the
+ * {@link Long} box cache.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class TagMapBenchmark {
+
+  @Param({"10", "30", "60"})
+  int tagCount;
+
+  String[] keys;
+  String[] values;
+
+  @Setup(Level.Trial)
+  public void init() {
+    keys = new String[tagCount];
+    values = new String[tagCount];
+    for (int i = 0; i < tagCount; i++) {
+      keys[i] = ("tag.key." + i).intern();
+      values[i] = "value-" + i;
+    }
+  }
+
+  @Benchmark
+  public void hashMap(Blackhole blackhole) {
+    Map<String, Object> tags = new HashMap<>(Math.max((tagCount + 1) * 4 / 3, 8));
+    synchronized (tags) {
+      for (int i = 0; i < tagCount; i++) {
+        if (i % 3 == 0) {
+          tags.put(keys[i], 1000L + i);
+        } else {
+          tags.put(keys[i], values[i]);
+        }
+      }
+    }
+    synchronized (tags) {
+      for (Map.Entry<String, Object> entry : tags.entrySet()) {
+        blackhole.consume(entry.getKey());
+        blackhole.consume(entry.getValue());
+      }
+    }
+  }
+
+  @Benchmark
+  public void tagMap(Blackhole blackhole) {
+    TagMap tags = new TagMap(tagCount + 1);
+    synchronized (tags) {
+      for (int i = 0; i < tagCount; i++) {
+        if (i % 3 == 0) {
+          tags.set(keys[i], 1000L + i);
+        } else {
+          tags.set(keys[i], values[i]);
+        }
+      }
+    }
+    synchronized (tags) {
+      tags.visit(new BlackholeVisitor(blackhole));
+    }
+  }
+
+  static final class BlackholeVisitor implements TagMap.Visitor {
+    private final Blackhole blackhole;
+
+    BlackholeVisitor(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void visitObject(String key, Object value) {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void visitInt(String key, int value) {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void visitLong(String key, long value) {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void visitFloat(String key, float value) {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package datadog.trace.core.datastreams;
+
+import static datadog.trace.core.datastreams.TagsProcessor.DIRECTION_IN;
+import static datadog.trace.core.datastreams.TagsProcessor.DIRECTION_OUT;
+import static datadog.trace.core.datastreams.TagsProcessor.DIRECTION_TAG;
+import static datadog.trace.core.datastreams.TagsProcessor.GROUP_TAG;
+import static datadog.trace.core.datastreams.TagsProcessor.TOPIC_TAG;
+import static datadog.trace.core.datastreams.TagsProcessor.TYPE_TAG;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.WellKnownTags;
+import datadog.trace.api.time.SystemTimeSource;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the checkpoints set for each produced and consumed Kafka message, building the sorted
+ * tags for every message as the instrumentations used to versus reusing a registered {@link
+ * CheckpointTemplate}. Producing starts a new pathway for each message, consuming continues one.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class CheckpointBenchmark {
+
+  private static final WellKnownTags WELL_KNOWN_TAGS =
+      new WellKnownTags("runtimeid", "hostname", "env", "service", "version", "java");
+
+  private CheckpointTemplate produceTemplate;
+  private CheckpointTemplate consumeTemplate;
+  private DefaultPathwayContext consumerContext;
+  private Consumer<StatsPoint> pointConsumer;
+
+  @Setup(Level.Trial)
+  public void init(Blackhole blackhole) {
+    produceTemplate = CheckpointTemplate.of(produceTags());
+    consumeTemplate = CheckpointTemplate.of(consumeTags());
+    consumerContext = new DefaultPathwayContext(SystemTimeSource.INSTANCE, WELL_KNOWN_TAGS);
+    pointConsumer = blackhole::consume;
+  }
+
+  private static LinkedHashMap<String, String> produceTags() {
+    LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
+    sortedTags.put(DIRECTION_TAG, DIRECTION_OUT);
+    sortedTags.put(TOPIC_TAG, "orders");
+    sortedTags.put(TYPE_TAG, "kafka");
+    return sortedTags;
+  }
+
+  private static LinkedHashMap<String, String> consumeTags() {
+    LinkedHashMap<String, String> sortedTags = new LinkedHashMap<>();
+    sortedTags.put(DIRECTION_TAG, DIRECTION_IN);
+    sortedTags.put(GROUP_TAG, "billing");
+    sortedTags.put(TOPIC_TAG, "orders");
+    sortedTags.put(TYPE_TAG, "kafka");
+    return sortedTags;
+  }
+
+  @Benchmark
+  public DefaultPathwayContext produceWithTags() {
+    DefaultPathwayContext context =
+        new DefaultPathwayContext(SystemTimeSource.INSTANCE, WELL_KNOWN_TAGS);
+    context.setCheckpoint(produceTags(), pointConsumer, 0, 512);
+    return context;
+  }
+
+  @Benchmark
+  public DefaultPathwayContext produceWithTemplate() {
+    DefaultPathwayContext context =
+        new DefaultPathwayContext(SystemTimeSource.INSTANCE, WELL_KNOWN_TAGS);
+    context.setCheckpoint(produceTemplate, pointConsumer, 0, 512);
+    return context;
+  }
+
+  @Benchmark
+  public long consumeWithTags() {
+    consumerContext.setCheckpoint(consumeTags(), pointConsumer, 0, 512);
+    return consumerContext.getHash();
+  }
+
+  @Benchmark
+  public long consumeWithTemplate() {
+    consumerContext.setCheckpoint(consumeTemplate, pointConsumer, 0, 512);
+    return consumerContext.getHash();
+  }
+}
@@ -0,0 +1,127 @@
+package datadog.trace.core.datastreams;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.DynamicConfig;
+import datadog.trace.api.WellKnownTags;
+import datadog.trace.api.time.SystemTimeSource;
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
+import datadog.trace.common.metrics.EventListener;
+import datadog.trace.common.metrics.Sink;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of stats points added by several messaging threads at once, spread over a few or many
+ * datasets. Points of the same dataset are conflated before reaching the inbox, so the single
+ * consumer thread keeps up with far more producers than when it received every point.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Threads(8)
+@Fork(value = 1)
+public class DataStreamsInboxBenchmark {
+
+  private static final List<String> EDGE_TAGS =
+      Arrays.asList("direction:in", "group:billing", "topic:orders", "type:kafka");
+
+  @Param({"1", "16", "256"})
+  int datasets;
+
+  DefaultDataStreamsMonitoring dataStreams;
+
+  @Setup(Level.Trial)
+  public void init() {
+    DDAgentFeaturesDiscovery features =
+        new DDAgentFeaturesDiscovery(
+            new OkHttpClient(),
+            Monitoring.DISABLED,
+            HttpUrl.get("http://localhost:8126"),
+            false,
+            false) {
+          @Override
+          public void discoverIfOutdated() {}
+
+          @Override
+          public String getDataStreamsEndpoint() {
+            return "v0.1/pipeline_stats";
+          }
+
+          @Override
+          public boolean supportsDataStreams() {
+            return true;
+          }
+        };
+    DynamicConfig<DynamicConfig.Snapshot> dynamicConfig =
+        DynamicConfig.create().setDataStreamsEnabled(true).apply();
+    dataStreams =
+        new DefaultDataStreamsMonitoring(
+            new NoopSink(),
+            features,
+            SystemTimeSource.INSTANCE,
+            dynamicConfig::captureTraceConfig,
+            new WellKnownTags("runtimeid", "hostname", "env", "service", "version", "java"),
+            data -> {},
+            SECONDS.toNanos(10),
+            1024,
+            HealthMetrics.NO_OP);
+    dataStreams.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    dataStreams.close();
+  }
+
+  @State(Scope.Thread)
+  public static class Producer {
+    int next;
+  }
+
+  @Benchmark
+  public void add(Producer producer) {
+    int dataset = producer.next++ % datasets;
+    dataStreams.add(
+        new StatsPoint(
+            EDGE_TAGS,
+            dataset,
+            0,
+            dataset,
+            SystemTimeSource.INSTANCE.getCurrentTimeNanos(),
+            1_000_000,
+            500_000,
+            512));
+  }
+
+  private static final class NoopSink implements Sink {
+    @Override
+    public void register(EventListener listener) {}
+
+    @Override
+    public void accept(int messageCount, ByteBuffer buffer) {}
+  }
+}
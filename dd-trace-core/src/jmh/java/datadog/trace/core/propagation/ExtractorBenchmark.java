@@ -4,8 +4,6 @@ import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import datadog.trace.api.Config;
-import datadog.trace.api.DDSpanId;
-import datadog.trace.api.DDTraceId;
 import datadog.trace.api.DynamicConfig;
 import datadog.trace.api.Pair;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
@@ -37,27 +35,47 @@ import org.openjdk.jmh.infra.Blackhole;
 @Fork(value = 1)
 @SuppressForbidden
 public class ExtractorBenchmark {
-  @Param({"datadog", "b3", "datadog,b3", "datadog:x-dth"})
+  @Param({
+    "datadog",
+    "b3multi",
+    "b3single",
+    "tracecontext",
+    "datadog,b3multi",
+    "datadog,tracecontext",
+    "datadog:x-dth",
+    "tracecontext:tracestate"
+  })
   String extractPropagationStyles;
 
   List<Pair<String, String>> headers;
   HttpCodec.Extractor extractor;
-  DDTraceId traceId;
-  long spanId;
 
   @Setup(Level.Trial)
   public void setUp() {
     headers = new ArrayList<>();
     // The header strings will be fresh on every iteration, and we have a resetList
     // benchmark as a baseline to compare against
+    // Every style carries the same ids, trace id 12345 and span id 23456
     headers.add(Pair.of(DatadogHttpCodec.TRACE_ID_KEY, "12345"));
     headers.add(Pair.of(DatadogHttpCodec.SPAN_ID_KEY, "23456"));
-    headers.add(Pair.of(B3HttpCodec.TRACE_ID_KEY, "12345")); // HEX
-    headers.add(Pair.of(B3HttpCodec.SPAN_ID_KEY, "23456")); // HEX
+    headers.add(Pair.of(DatadogHttpCodec.SAMPLING_PRIORITY_KEY, "1"));
+    headers.add(Pair.of(B3HttpCodec.TRACE_ID_KEY, "3039")); // HEX
+    headers.add(Pair.of(B3HttpCodec.SPAN_ID_KEY, "5ba0")); // HEX
+    headers.add(Pair.of("b3", "3039-5ba0-1"));
+    headers.add(
+        Pair.of(
+            W3CHttpCodec.TRACE_PARENT_KEY,
+            "00-00000000000000000000000000003039-0000000000005ba0-01"));
+    headers.add(Pair.of("host", "localhost:8080"));
+    headers.add(Pair.of("accept", "*/*"));
+    headers.add(Pair.of("user-agent", "curl/8.4.0"));
+    headers.add(Pair.of("x-forwarded-for", "10.0.0.1"));
     headers.add(Pair.of("some-header-1", "ignored"));
     headers.add(Pair.of("some-header-2", "ignored"));
     headers.add(Pair.of("x-data-header-1", "ignored")); // starts like datadog headers
     headers.add(Pair.of("x-bware-header-1", "ignored")); // starts like b3 headers
+    headers.add(Pair.of("trace-header-1", "ignored")); // starts like w3c headers
+    headers.add(Pair.of("ot-baggage-user", "ignored")); // baggage is extracted
 
     String[] propagationsAndFeatures = extractPropagationStyles.split(",");
     StringBuilder propagations = new StringBuilder();
@@ -78,6 +96,12 @@ public class ExtractorBenchmark {
                 Pair.of(
                     DatadogHttpCodec.DATADOG_TAGS_KEY, "_dd.p.anytag=value,_dd.p.dm=934086a686-4"));
             break;
+          case "tracestate":
+            headers.add(
+                Pair.of(
+                    W3CHttpCodec.TRACE_STATE_KEY,
+                    "dd=s:1;o:rum;t.dm:-4;t.anytag:value,other=vendor-value"));
+            break;
           default:
             System.out.println("Unknown benchmark feature " + feature + ". Will be ignored!");
         }
@@ -91,14 +115,6 @@ public class ExtractorBenchmark {
             .setBaggageMapping(Collections.emptyMap())
             .apply();
     extractor = HttpCodec.createExtractor(Config.get(), dynamicConfig::captureTraceConfig);
-
-    if (extractPropagationStyles.startsWith("datadog")) {
-      traceId = DDTraceId.from("12345");
-      spanId = DDSpanId.from("23456");
-    } else if (extractPropagationStyles.contains("b3")) {
-      traceId = DDTraceId.fromHex("12345");
-      spanId = DDSpanId.fromHex("23456");
-    }
   }
 
   @Benchmark
@@ -108,8 +124,8 @@ public class ExtractorBenchmark {
     ExtractedContext extractedContext = (ExtractedContext) context;
     blackhole.consume(context);
     blackhole.consume(list);
-    assert extractedContext.getTraceId().equals(traceId);
-    assert extractedContext.getSpanId() == spanId;
+    assert extractedContext.getTraceId().toLong() == 12345;
+    assert extractedContext.getSpanId() == 23456;
   }
 
   @Benchmark
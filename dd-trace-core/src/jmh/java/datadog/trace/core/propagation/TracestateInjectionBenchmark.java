@@ -0,0 +1,72 @@
+package datadog.trace.core.propagation;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.sampling.PrioritySampling;
+import datadog.trace.api.sampling.SamplingMechanism;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Injection of a W3C tracestate header with a number of list-members from other vendors, after
+ * the Datadog list-member changed or not. Only the Datadog list-member is encoded again, the other
+ * members are copied from the extracted header.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class TracestateInjectionBenchmark {
+
+  /** The number of list-members, including the Datadog list-member. */
+  @Param({"1", "8", "32"})
+  int members;
+
+  PropagationTags.Factory factory;
+  String header;
+  PropagationTags cached;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    factory = PropagationTags.factory();
+    StringBuilder sb = new StringBuilder("dd=s:1;o:rum;t.dm:-4;t.usr.id:baz64");
+    for (int i = 1; i < members; i++) {
+      sb.append(",vendor").append(i).append("=opaque-value-").append(i);
+    }
+    header = sb.toString();
+    cached = factory.fromHeaderValue(PropagationTags.HeaderType.W3C, header);
+    cached.headerValue(PropagationTags.HeaderType.W3C);
+  }
+
+  @Benchmark
+  public void extractInject(Blackhole blackhole) {
+    PropagationTags pt = factory.fromHeaderValue(PropagationTags.HeaderType.W3C, header);
+    blackhole.consume(pt.headerValue(PropagationTags.HeaderType.W3C));
+  }
+
+  @Benchmark
+  public void extractChangeSamplingInject(Blackhole blackhole) {
+    PropagationTags pt = factory.fromHeaderValue(PropagationTags.HeaderType.W3C, header);
+    pt.updateTraceSamplingPriority(PrioritySampling.USER_KEEP, SamplingMechanism.EXTERNAL_OVERRIDE);
+    blackhole.consume(pt.headerValue(PropagationTags.HeaderType.W3C));
+  }
+
+  @Benchmark
+  public String injectCached() {
+    return cached.headerValue(PropagationTags.HeaderType.W3C);
+  }
+}
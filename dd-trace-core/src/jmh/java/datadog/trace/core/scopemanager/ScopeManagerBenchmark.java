@@ -0,0 +1,124 @@
+package datadog.trace.core.scopemanager;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
+import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
+import datadog.trace.common.writer.ListWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.monitor.HealthMetrics;
+import org.jctools.queues.SpscArrayQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Activation and close costs with and without scope recycling, for nested activations on one
+ * thread, continuations captured and resumed on the same thread, and continuations handed over to
+ * another thread. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Group)
+@Warmup(iterations = 3, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 3, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class ScopeManagerBenchmark {
+
+  @Param({"false", "true"})
+  boolean recycling;
+
+  @Param({"1", "4"})
+  int depth;
+
+  private CoreTracer tracer;
+  private ContinuableScopeManager scopeManager;
+  private AgentSpan[] spans;
+  private AgentScope[] scopes;
+  private SpscArrayQueue<AgentScope.Continuation> handoff;
+
+  @Setup(Level.Trial)
+  public void init() {
+    tracer = CoreTracer.builder().writer(new ListWriter()).strictTraceWrites(true).build();
+    scopeManager =
+        new ContinuableScopeManager(
+            0,
+            false,
+            true,
+            recycling,
+            ProfilingContextIntegration.NoOp.INSTANCE,
+            HealthMetrics.NO_OP);
+    spans = new AgentSpan[depth];
+    for (int i = 0; i < depth; ++i) {
+      spans[i] = tracer.buildSpan("benchmark").start();
+    }
+    scopes = new AgentScope[depth];
+    handoff = new SpscArrayQueue<>(1024);
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    AgentScope.Continuation continuation;
+    while ((continuation = handoff.poll()) != null) {
+      continuation.cancel();
+    }
+    tracer.close();
+  }
+
+  @Benchmark
+  @Group("nested")
+  public void nestedActivation() {
+    for (int i = 0; i < depth; ++i) {
+      scopes[i] = scopeManager.activate(spans[i], ScopeSource.INSTRUMENTATION);
+    }
+    for (int i = depth - 1; i >= 0; --i) {
+      scopes[i].close();
+    }
+  }
+
+  @Benchmark
+  @Group("continuation")
+  public void captureAndResume() {
+    AgentScope scope = scopeManager.activate(spans[0], ScopeSource.INSTRUMENTATION, true);
+    AgentScope.Continuation continuation = scope.capture();
+    scope.close();
+    continuation.activate().close();
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public void capture() {
+    AgentScope scope = scopeManager.activate(spans[0], ScopeSource.INSTRUMENTATION, true);
+    AgentScope.Continuation continuation = scope.capture();
+    if (!handoff.offer(continuation)) {
+      continuation.cancel();
+    }
+    scope.close();
+  }
+
+  @Benchmark
+  @Group("handoff")
+  @GroupThreads(1)
+  public void resume() {
+    AgentScope.Continuation continuation = handoff.poll();
+    if (continuation != null) {
+      continuation.activate().close();
+    }
+  }
+}
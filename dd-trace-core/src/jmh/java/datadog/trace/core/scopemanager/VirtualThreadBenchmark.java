@@ -0,0 +1,93 @@
+package datadog.trace.core.scopemanager;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
+import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
+import datadog.trace.common.writer.ListWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Propagates a continuation to each of a million short-lived tasks, either on a fixed pool of
+ * platform threads or on a new virtual thread per task. Each task activates the continuation, so
+ * with virtual threads every task also creates a fresh scope stack. The virtual thread variant
+ * needs Java 21 or later. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class VirtualThreadBenchmark {
+
+  private static final int TASKS = 1_000_000;
+
+  @Param({"platform", "virtual"})
+  String threads;
+
+  private CoreTracer tracer;
+  private ContinuableScopeManager scopeManager;
+  private AgentSpan span;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void init() throws Exception {
+    tracer = CoreTracer.builder().writer(new ListWriter()).strictTraceWrites(true).build();
+    scopeManager =
+        new ContinuableScopeManager(
+            0, false, true, ProfilingContextIntegration.NoOp.INSTANCE, HealthMetrics.NO_OP);
+    span = tracer.buildSpan("benchmark").start();
+    if ("virtual".equals(threads)) {
+      // looked up reflectively as the benchmarks are compiled for Java 8
+      executor =
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } else {
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    executor.shutdownNow();
+    tracer.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TASKS)
+  public void propagate() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(TASKS);
+    try (AgentScope scope = scopeManager.activate(span, ScopeSource.INSTRUMENTATION, true)) {
+      for (int i = 0; i < TASKS; ++i) {
+        AgentScope.Continuation continuation = scope.capture();
+        executor.execute(
+            () -> {
+              continuation.activate().close();
+              done.countDown();
+            });
+      }
+    }
+    done.await();
+  }
+}
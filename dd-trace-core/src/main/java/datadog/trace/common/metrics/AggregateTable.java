@@ -0,0 +1,212 @@
+package datadog.trace.common.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Fixed capacity table of aggregates owned by the {@link Aggregator} thread. Entries are stored
+ * densely in parallel arrays and found through an open addressed index of dense positions, probed
+ * with the key's precomputed hash, so neither lookups nor inserts allocate once the table has
+ * warmed up: the {@link AggregateMetric} of an evicted entry is cleared and reused by the entry
+ * which replaces it.
+ *
+ * <p>When the table is full, an entry is chosen for eviction with the clock algorithm: every hit
+ * marks an entry as referenced, and the clock hand clears referenced marks until it finds an
+ * unreferenced entry. Evicted keys are reported to the {@link EvictionListener}.
+ *
+ * <p>Not thread-safe.
+ */
+final class AggregateTable {
+
+  interface EvictionListener {
+    void onEviction(MetricKey key);
+  }
+
+  private static final int EMPTY = -1;
+
+  private final EvictionListener evictionListener;
+  private final MetricKey[] keys;
+  private final AggregateMetric[] aggregates;
+  private final int[] hashes;
+  private final boolean[] referenced;
+  // dense positions of entries, or EMPTY
+  private final int[] index;
+  private final int mask;
+  private int size;
+  private int hand;
+
+  AggregateTable(int capacity, EvictionListener evictionListener) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.evictionListener = evictionListener;
+    this.keys = new MetricKey[capacity];
+    this.aggregates = new AggregateMetric[capacity];
+    this.hashes = new int[capacity];
+    this.referenced = new boolean[capacity];
+    // keep the load factor of the index at or below one half
+    int indexSize = Integer.highestOneBit(capacity) << 2;
+    this.index = new int[indexSize];
+    this.mask = indexSize - 1;
+    Arrays.fill(index, EMPTY);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int capacity() {
+    return keys.length;
+  }
+
+  MetricKey keyAt(int position) {
+    return keys[position];
+  }
+
+  AggregateMetric aggregateAt(int position) {
+    return aggregates[position];
+  }
+
+  /** @return the aggregate for the key, or null if the key is not present */
+  AggregateMetric get(MetricKey key) {
+    int position = find(key, key.hashCode());
+    return position == EMPTY ? null : aggregates[position];
+  }
+
+  /**
+   * Returns the aggregate for the key, inserting an empty aggregate if the key is not present. If
+   * the table is full, another entry is evicted to make room.
+   */
+  AggregateMetric findOrInsert(MetricKey key) {
+    int hash = key.hashCode();
+    int position = find(key, hash);
+    if (position != EMPTY) {
+      referenced[position] = true;
+      return aggregates[position];
+    }
+    if (size < keys.length) {
+      position = size++;
+      if (null == aggregates[position]) {
+        aggregates[position] = new AggregateMetric();
+      }
+    } else {
+      position = evict();
+    }
+    keys[position] = key;
+    hashes[position] = hash;
+    // new entries survive the next sweep of the clock hand, so the eviction order of keys which
+    // are never hit again is the insertion order
+    referenced[position] = true;
+    insertIndex(hash, position);
+    return aggregates[position];
+  }
+
+  /**
+   * Removes every entry which has had no hits since it was last cleared, reporting the removed keys
+   * to the eviction listener.
+   */
+  void expungeStale() {
+    for (int position = size - 1; position >= 0; --position) {
+      if (aggregates[position].getHitCount() == 0) {
+        MetricKey key = keys[position];
+        removeAt(position);
+        evictionListener.onEviction(key);
+      }
+    }
+  }
+
+  void clear() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(referenced, 0, size, false);
+    for (int i = 0; i < size; ++i) {
+      aggregates[i].clear();
+    }
+    Arrays.fill(index, EMPTY);
+    size = 0;
+    hand = 0;
+  }
+
+  private int evict() {
+    while (referenced[hand]) {
+      referenced[hand] = false;
+      hand = hand + 1 == size ? 0 : hand + 1;
+    }
+    int victim = hand;
+    hand = hand + 1 == size ? 0 : hand + 1;
+    MetricKey evicted = keys[victim];
+    removeIndex(hashes[victim], victim);
+    aggregates[victim].clear();
+    evictionListener.onEviction(evicted);
+    return victim;
+  }
+
+  private void removeAt(int position) {
+    removeIndex(hashes[position], position);
+    int last = size - 1;
+    if (position != last) {
+      // move the last entry into the hole, keeping the aggregate arrays dense
+      AggregateMetric removed = aggregates[position];
+      keys[position] = keys[last];
+      hashes[position] = hashes[last];
+      referenced[position] = referenced[last];
+      aggregates[position] = aggregates[last];
+      aggregates[last] = removed;
+      index[slotOf(hashes[position], last)] = position;
+    }
+    aggregates[last].clear();
+    keys[last] = null;
+    referenced[last] = false;
+    size = last;
+    if (hand >= size) {
+      hand = 0;
+    }
+  }
+
+  private int find(MetricKey key, int hash) {
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      int position = index[slot];
+      if (position == EMPTY) {
+        return EMPTY;
+      }
+      if (hashes[position] == hash && key.equals(keys[position])) {
+        return position;
+      }
+    }
+  }
+
+  private int slotOf(int hash, int position) {
+    int slot = spread(hash) & mask;
+    while (index[slot] != position) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insertIndex(int hash, int position) {
+    int slot = spread(hash) & mask;
+    while (index[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = position;
+  }
+
+  private void removeIndex(int hash, int position) {
+    int hole = slotOf(hash, position);
+    // backward shift deletion, so probe sequences never contain a hole
+    for (int slot = (hole + 1) & mask; index[slot] != EMPTY; slot = (slot + 1) & mask) {
+      int home = spread(hashes[index[slot]]) & mask;
+      if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+        index[hole] = index[slot];
+        hole = slot;
+      }
+    }
+    index[hole] = EMPTY;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
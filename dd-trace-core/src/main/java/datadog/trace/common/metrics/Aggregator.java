@@ -3,9 +3,6 @@ package datadog.trace.common.metrics;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import datadog.trace.common.metrics.SignalItem.StopSignal;
-import datadog.trace.core.util.LRUCache;
-import java.util.Iterator;
-import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -23,7 +20,7 @@ final class Aggregator implements Runnable {
 
   private final Queue<Batch> batchPool;
   private final MpscCompoundQueue<InboxItem> inbox;
-  private final LRUCache<MetricKey, AggregateMetric> aggregates;
+  private final AggregateTable aggregates;
   private final NonBlockingHashMap<MetricKey, Batch> pending;
   private final Set<MetricKey> commonKeys;
   private final MetricWriter writer;
@@ -71,9 +68,7 @@ final class Aggregator implements Runnable {
     this.batchPool = batchPool;
     this.inbox = inbox;
     this.commonKeys = commonKeys;
-    this.aggregates =
-        new LRUCache<>(
-            new CommonKeyCleaner(commonKeys), maxAggregates * 4 / 3, 0.75f, maxAggregates);
+    this.aggregates = new AggregateTable(maxAggregates, new CommonKeyCleaner(commonKeys));
     this.pending = pending;
     this.reportingIntervalNanos = reportingIntervalTimeUnit.toNanos(reportingInterval);
     this.sleepMillis = sleepMillis;
@@ -125,7 +120,7 @@ final class Aggregator implements Runnable {
         MetricKey key = batch.getKey();
         // important that it is still *this* batch pending, must not remove otherwise
         pending.remove(key, batch);
-        AggregateMetric aggregate = aggregates.computeIfAbsent(key, k -> new AggregateMetric());
+        AggregateMetric aggregate = aggregates.findOrInsert(key);
         batch.contributeTo(aggregate);
         dirty = true;
         // return the batch for reuse
@@ -138,13 +133,14 @@ final class Aggregator implements Runnable {
     boolean skipped = true;
     if (dirty) {
       try {
-        expungeStaleAggregates();
+        aggregates.expungeStale();
         if (!aggregates.isEmpty()) {
           skipped = false;
           writer.startBucket(aggregates.size(), when, reportingIntervalNanos);
-          for (Map.Entry<MetricKey, AggregateMetric> aggregate : aggregates.entrySet()) {
-            writer.add(aggregate.getKey(), aggregate.getValue());
-            aggregate.getValue().clear();
+          for (int i = 0; i < aggregates.size(); ++i) {
+            AggregateMetric aggregate = aggregates.aggregateAt(i);
+            writer.add(aggregates.keyAt(i), aggregate);
+            aggregate.clear();
           }
           // note that this may do IO and block
           writer.finishBucket();
@@ -161,24 +157,11 @@ final class Aggregator implements Runnable {
     }
   }
 
-  private void expungeStaleAggregates() {
-    Iterator<Map.Entry<MetricKey, AggregateMetric>> it = aggregates.entrySet().iterator();
-    while (it.hasNext()) {
-      Map.Entry<MetricKey, AggregateMetric> pair = it.next();
-      AggregateMetric metric = pair.getValue();
-      if (metric.getHitCount() == 0) {
-        it.remove();
-        commonKeys.remove(pair.getKey());
-      }
-    }
-  }
-
   private long wallClockTime() {
     return MILLISECONDS.toNanos(System.currentTimeMillis());
   }
 
-  private static final class CommonKeyCleaner
-      implements LRUCache.ExpiryListener<MetricKey, AggregateMetric> {
+  private static final class CommonKeyCleaner implements AggregateTable.EvictionListener {
 
     private final Set<MetricKey> commonKeys;
 
@@ -187,8 +170,8 @@ final class Aggregator implements Runnable {
     }
 
     @Override
-    public void accept(Map.Entry<MetricKey, AggregateMetric> expired) {
-      commonKeys.remove(expired.getKey());
+    public void onEviction(MetricKey key) {
+      commonKeys.remove(key);
     }
   }
 }
@@ -49,6 +49,18 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
 
   private static final CharSequence SYNTHETICS_ORIGIN = "synthetics";
 
+  private static final int RECENT_KEYS_PER_THREAD = 256;
+
+  // direct mapped cache of the keys each thread has recently published,
+  // which spares creating a key per span when looking up pending batches
+  private static final ThreadLocal<MetricKey[]> RECENT_KEYS =
+      new ThreadLocal<MetricKey[]>() {
+        @Override
+        protected MetricKey[] initialValue() {
+          return new MetricKey[RECENT_KEYS_PER_THREAD];
+        }
+      };
+
   private final Set<String> ignoredResources;
   private final Queue<Batch> batchPool;
   private final NonBlockingHashMap<MetricKey, Batch> pending;
@@ -238,14 +250,7 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
   }
 
   private boolean publish(CoreSpan<?> span, boolean isTopLevel) {
-    MetricKey newKey =
-        new MetricKey(
-            span.getResourceName(),
-            SERVICE_NAMES.computeIfAbsent(span.getServiceName(), UTF8_ENCODE),
-            span.getOperationName(),
-            span.getType(),
-            span.getHttpStatusCode(),
-            isSynthetic(span));
+    MetricKey newKey = recentKey(span);
     boolean isNewKey = false;
     MetricKey key = keys.putIfAbsent(newKey, newKey);
     if (null == key) {
@@ -280,6 +285,25 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
     return isNewKey || span.getError() > 0;
   }
 
+  private static MetricKey recentKey(CoreSpan<?> span) {
+    CharSequence resource = span.getResourceName();
+    UTF8BytesString service = SERVICE_NAMES.computeIfAbsent(span.getServiceName(), UTF8_ENCODE);
+    CharSequence operationName = span.getOperationName();
+    CharSequence type = span.getType();
+    int httpStatusCode = span.getHttpStatusCode();
+    boolean synthetic = isSynthetic(span);
+    int hash = MetricKey.hash(resource, service, operationName, type, httpStatusCode, synthetic);
+    MetricKey[] recentKeys = RECENT_KEYS.get();
+    int slot = (hash ^ (hash >>> 16)) & (RECENT_KEYS_PER_THREAD - 1);
+    MetricKey key = recentKeys[slot];
+    if (null == key
+        || !key.matches(hash, resource, service, operationName, type, httpStatusCode, synthetic)) {
+      key = new MetricKey(resource, service, operationName, type, httpStatusCode, synthetic);
+      recentKeys[slot] = key;
+    }
+    return key;
+  }
+
   private static boolean isSynthetic(CoreSpan<?> span) {
     return span.getOrigin() != null && SYNTHETICS_ORIGIN.equals(span.getOrigin().toString());
   }
@@ -100,8 +100,13 @@ public final class OkHttpSink implements Sink, EventListener {
 
   private void sendAsync(int messageCount, ByteBuffer buffer) {
     asyncRequestCounter.getAndIncrement();
+    // the writer resets and reuses the buffer, or hands it back to its pool, as soon as this
+    // returns so the payload has to be copied before it is queued
+    ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+    copy.put(buffer.duplicate());
+    copy.flip();
     if (!enqueuedRequests.offer(
-        prepareRequest(metricsUrl, headers).post(makeRequestBody(buffer.duplicate())).build())) {
+        prepareRequest(metricsUrl, headers).post(makeRequestBody(copy)).build())) {
       log.debug(
           "dropping payload of {} and {}B because sending queue was full",
           messageCount,
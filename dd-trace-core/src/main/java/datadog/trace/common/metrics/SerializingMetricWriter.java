@@ -2,6 +2,7 @@ package datadog.trace.common.metrics;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.communication.serialization.GrowableBuffer;
 import datadog.communication.serialization.WritableFormatter;
 import datadog.communication.serialization.msgpack.MsgPackWriter;
@@ -41,7 +42,7 @@ public final class SerializingMetricWriter implements MetricWriter {
 
   public SerializingMetricWriter(WellKnownTags wellKnownTags, Sink sink, int initialCapacity) {
     this.wellKnownTags = wellKnownTags;
-    this.buffer = new GrowableBuffer(initialCapacity);
+    this.buffer = new GrowableBuffer(initialCapacity, ByteBufferPool.SHARED);
     this.writer = new MsgPackWriter(buffer);
     this.sink = sink;
   }
@@ -0,0 +1,157 @@
+package datadog.trace.common.sampling;
+
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
+import datadog.trace.core.CoreSpan;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Finds the first {@link RateSamplingRule} which matches a span. Rules are indexed by exact service
+ * name, so a lookup only considers rules for the span's service plus rules which match services by
+ * pattern. The rules whose service, operation and resource conditions match are then cached by
+ * name, so repeated lookups for the same names only check the remaining conditions (tags) of those
+ * candidates, in rule order.
+ *
+ * <p>The rules never change, when remote configuration changes the sampling rules a new sampler is
+ * built along with a new cache.
+ */
+final class CompiledSamplingRules {
+
+  private static final int[] NO_CANDIDATES = new int[0];
+
+  private final RateSamplingRule[] rules;
+  private final Map<String, int[]> rulesByExactService;
+  private final int[] rulesForAnyService;
+  private final DDCache<Names, int[]> candidatesByNames;
+  private final Function<Names, int[]> findCandidates = this::findCandidates;
+
+  CompiledSamplingRules(List<RateSamplingRule> samplingRules, int cacheSize) {
+    this.rules = samplingRules.toArray(new RateSamplingRule[0]);
+    Map<String, List<Integer>> byService = new HashMap<>();
+    List<Integer> anyService = new ArrayList<>();
+    for (int i = 0; i < rules.length; ++i) {
+      String exactService = rules[i].exactService();
+      if (null != exactService) {
+        byService.computeIfAbsent(exactService, k -> new ArrayList<>()).add(i);
+      } else {
+        anyService.add(i);
+      }
+    }
+    this.rulesByExactService = new HashMap<>(byService.size() * 2);
+    for (Map.Entry<String, List<Integer>> entry : byService.entrySet()) {
+      rulesByExactService.put(entry.getKey(), toArray(entry.getValue()));
+    }
+    this.rulesForAnyService = toArray(anyService);
+    this.candidatesByNames = DDCaches.newFixedSizeCache(cacheSize);
+  }
+
+  /** @return the first rule which matches the span, or {@code null} if there are none */
+  <T extends CoreSpan<T>> RateSamplingRule match(T span) {
+    if (rules.length == 0) {
+      return null;
+    }
+    int[] candidates =
+        candidatesByNames.computeIfAbsent(
+            new Names(span.getServiceName(), span.getOperationName(), span.getResourceName()),
+            findCandidates);
+    for (int index : candidates) {
+      RateSamplingRule rule = rules[index];
+      if (rule.matchesRemainder(span)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the indices of the rules whose names match, in rule order, up to the first rule which
+   *     needs nothing else to match
+   */
+  private int[] findCandidates(Names names) {
+    int[] sameService =
+        null != names.service
+            ? rulesByExactService.get(names.service.toLowerCase(Locale.ROOT))
+            : null;
+    if (null == sameService) {
+      sameService = NO_CANDIDATES;
+    }
+    int[] candidates = new int[sameService.length + rulesForAnyService.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < sameService.length || j < rulesForAnyService.length) {
+      // merge both lists to preserve the order the rules were declared in
+      int index =
+          j == rulesForAnyService.length
+                  || (i < sameService.length && sameService[i] < rulesForAnyService[j])
+              ? sameService[i++]
+              : rulesForAnyService[j++];
+      RateSamplingRule rule = rules[index];
+      if (rule.matchesNames(names.service, names.operation, names.resource)) {
+        candidates[count++] = index;
+        if (rule.matchesNamesOnly()) {
+          break; // later rules can never be reached
+        }
+      }
+    }
+    if (count == 0) {
+      return NO_CANDIDATES;
+    }
+    if (count == candidates.length) {
+      return candidates;
+    }
+    int[] trimmed = new int[count];
+    System.arraycopy(candidates, 0, trimmed, 0, count);
+    return trimmed;
+  }
+
+  private static int[] toArray(List<Integer> indices) {
+    int[] array = new int[indices.size()];
+    for (int i = 0; i < array.length; ++i) {
+      array[i] = indices.get(i);
+    }
+    return array;
+  }
+
+  static final class Names {
+    final String service;
+    final String operation;
+    final String resource;
+    private final int hash;
+
+    Names(String service, CharSequence operation, CharSequence resource) {
+      this.service = service;
+      this.operation = null != operation ? operation.toString() : null;
+      this.resource = null != resource ? resource.toString() : null;
+      this.hash =
+          31 * (31 * Objects.hashCode(this.service) + Objects.hashCode(this.operation))
+              + Objects.hashCode(this.resource);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Names)) {
+        return false;
+      }
+      Names that = (Names) o;
+      return hash == that.hash
+          && Objects.equals(service, that.service)
+          && Objects.equals(operation, that.operation)
+          && Objects.equals(resource, that.resource);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
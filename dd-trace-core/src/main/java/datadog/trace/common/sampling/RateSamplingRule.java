@@ -6,6 +6,7 @@ import datadog.trace.core.util.Matcher;
 import datadog.trace.core.util.Matchers;
 import datadog.trace.core.util.SimpleRateLimiter;
 import datadog.trace.core.util.TagsMatcher;
+import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -25,6 +26,30 @@ public abstract class RateSamplingRule {
 
   public abstract <T extends CoreSpan<T>> boolean matches(T span);
 
+  /**
+   * Matches the part of the rule which only depends on the service, operation and resource names,
+   * so {@link CompiledSamplingRules} can cache the outcome. The rest of the rule is matched by
+   * {@link #matchesRemainder}.
+   */
+  boolean matchesNames(String service, CharSequence operation, CharSequence resource) {
+    return true;
+  }
+
+  /** Matches the part of the rule which isn't covered by {@link #matchesNames}. */
+  <T extends CoreSpan<T>> boolean matchesRemainder(T span) {
+    return matches(span);
+  }
+
+  /** @return whether {@link #matchesRemainder} always matches */
+  boolean matchesNamesOnly() {
+    return false;
+  }
+
+  /** @return the lower-cased service name if the rule only matches that exact service */
+  String exactService() {
+    return null;
+  }
+
   public <T extends CoreSpan<T>> boolean sample(final T span) {
     return sampler.sample(span);
   }
@@ -46,6 +71,16 @@ public abstract class RateSamplingRule {
     public <T extends CoreSpan<T>> boolean matches(final T span) {
       return true;
     }
+
+    @Override
+    <T extends CoreSpan<T>> boolean matchesRemainder(final T span) {
+      return true;
+    }
+
+    @Override
+    boolean matchesNamesOnly() {
+      return true;
+    }
   }
 
   public abstract static class PatternMatchSamplingRule extends RateSamplingRule {
@@ -58,7 +93,10 @@ public abstract class RateSamplingRule {
 
     @Override
     public <T extends CoreSpan<T>> boolean matches(final T span) {
-      final CharSequence relevantString = getRelevantString(span);
+      return matchesPattern(getRelevantString(span));
+    }
+
+    final boolean matchesPattern(final CharSequence relevantString) {
       return relevantString != null && pattern.matcher(relevantString).matches();
     }
 
@@ -74,6 +112,21 @@ public abstract class RateSamplingRule {
     protected <T extends CoreSpan<T>> String getRelevantString(final T span) {
       return span.getServiceName();
     }
+
+    @Override
+    boolean matchesNames(String service, CharSequence operation, CharSequence resource) {
+      return matchesPattern(service);
+    }
+
+    @Override
+    <T extends CoreSpan<T>> boolean matchesRemainder(final T span) {
+      return true;
+    }
+
+    @Override
+    boolean matchesNamesOnly() {
+      return true;
+    }
   }
 
   public static class OperationSamplingRule extends PatternMatchSamplingRule {
@@ -85,6 +138,21 @@ public abstract class RateSamplingRule {
     protected <T extends CoreSpan<T>> CharSequence getRelevantString(final T span) {
       return span.getOperationName();
     }
+
+    @Override
+    boolean matchesNames(String service, CharSequence operation, CharSequence resource) {
+      return matchesPattern(operation);
+    }
+
+    @Override
+    <T extends CoreSpan<T>> boolean matchesRemainder(final T span) {
+      return true;
+    }
+
+    @Override
+    boolean matchesNamesOnly() {
+      return true;
+    }
   }
 
   public static final class TraceSamplingRule extends RateSamplingRule {
@@ -92,6 +160,7 @@ public abstract class RateSamplingRule {
     private final Matcher operationMatcher;
     private final Matcher resourceMatcher;
     private final TagsMatcher tagsMatcher;
+    private final String exactService;
 
     public TraceSamplingRule(
         final String serviceGlob,
@@ -106,6 +175,10 @@ public abstract class RateSamplingRule {
       operationMatcher = Matchers.compileGlob(operationGlob);
       resourceMatcher = Matchers.compileGlob(resourceGlob);
       tagsMatcher = TagsMatcher.create(tags);
+      exactService =
+          serviceGlob != null && Matchers.isExact(serviceGlob)
+              ? serviceGlob.toLowerCase(Locale.ROOT)
+              : null;
     }
 
     @Override
@@ -115,6 +188,28 @@ public abstract class RateSamplingRule {
           && Matchers.matches(resourceMatcher, span.getResourceName())
           && tagsMatcher.matches(span);
     }
+
+    @Override
+    boolean matchesNames(String service, CharSequence operation, CharSequence resource) {
+      return Matchers.matches(serviceMatcher, service)
+          && Matchers.matches(operationMatcher, operation)
+          && Matchers.matches(resourceMatcher, resource);
+    }
+
+    @Override
+    <T extends CoreSpan<T>> boolean matchesRemainder(T span) {
+      return tagsMatcher.matches(span);
+    }
+
+    @Override
+    boolean matchesNamesOnly() {
+      return tagsMatcher.isEmpty();
+    }
+
+    @Override
+    String exactService() {
+      return exactService;
+    }
   }
 
   public static final class SpanSamplingRule extends RateSamplingRule {
@@ -14,6 +14,8 @@ import datadog.trace.common.writer.ddagent.DDAgentApi;
 import datadog.trace.common.writer.ddagent.DDAgentMapperDiscovery;
 import datadog.trace.common.writer.ddagent.Prioritization;
 import datadog.trace.core.monitor.HealthMetrics;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -40,6 +42,8 @@ public class DDAgentWriter extends RemoteWriter {
     boolean traceAgentV05Enabled = Config.get().isTraceAgentV05Enabled();
     boolean metricsReportingEnabled = Config.get().isTracerMetricsEnabled();
     boolean alwaysFlush = false;
+    int serializationShards = Config.get().getTraceSerializationShards();
+    boolean compressionEnabled = Config.get().isTraceAgentCompressionEnabled();
 
     private DDAgentApi agentApi;
     private Prioritization prioritization;
@@ -121,6 +125,16 @@ public class DDAgentWriter extends RemoteWriter {
       return this;
     }
 
+    public DDAgentWriterBuilder serializationShards(int serializationShards) {
+      this.serializationShards = serializationShards;
+      return this;
+    }
+
+    public DDAgentWriterBuilder compressionEnabled(boolean compressionEnabled) {
+      this.compressionEnabled = compressionEnabled;
+      return this;
+    }
+
     public DDAgentWriterBuilder spanSamplingRules(SingleSpanSampler singleSpanSampler) {
       this.singleSpanSampler = singleSpanSampler;
       return this;
@@ -139,17 +153,28 @@ public class DDAgentWriter extends RemoteWriter {
       }
       if (null == agentApi) {
         agentApi =
-            new DDAgentApi(client, agentUrl, featureDiscovery, monitoring, metricsReportingEnabled);
+            new DDAgentApi(
+                client,
+                agentUrl,
+                featureDiscovery,
+                monitoring,
+                metricsReportingEnabled,
+                compressionEnabled);
       }
 
-      final DDAgentMapperDiscovery mapperDiscovery = new DDAgentMapperDiscovery(featureDiscovery);
-      final PayloadDispatcher dispatcher =
-          new PayloadDispatcherImpl(mapperDiscovery, agentApi, healthMetrics, monitoring);
+      // each serializer shard needs its own mapper, since mappers are stateful
+      final List<PayloadDispatcher> dispatchers = new ArrayList<>(serializationShards);
+      for (int i = 0; i < Math.max(serializationShards, 1); i++) {
+        dispatchers.add(
+            new PayloadDispatcherImpl(
+                new DDAgentMapperDiscovery(featureDiscovery), agentApi, healthMetrics, monitoring));
+      }
+      final PayloadDispatcher dispatcher = dispatchers.get(0);
       final TraceProcessingWorker traceProcessingWorker =
           new TraceProcessingWorker(
               traceBufferSize,
               healthMetrics,
-              dispatcher,
+              dispatchers,
               featureDiscovery,
               null == prioritization ? FAST_LANE : prioritization,
               flushIntervalMilliseconds,
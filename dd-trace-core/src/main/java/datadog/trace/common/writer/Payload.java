@@ -1,5 +1,6 @@
 package datadog.trace.common.writer;
 
+import static datadog.communication.http.OkHttpUtils.gzippedRequestBodyOf;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.ARRAY16;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.ARRAY32;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.FIXARRAY;
@@ -57,6 +58,11 @@ public abstract class Payload {
 
   public abstract RequestBody toRequest();
 
+  /** @return a request body which gzips the payload as it is written */
+  public RequestBody toGzippedRequest() {
+    return gzippedRequestBodyOf(toRequest());
+  }
+
   protected int msgpackArrayHeaderSize(int count) {
     if (count < 0x10) {
       return 1;
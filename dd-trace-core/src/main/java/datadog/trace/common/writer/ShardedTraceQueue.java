@@ -0,0 +1,113 @@
+package datadog.trace.common.writer;
+
+import datadog.trace.api.DDTraceId;
+import datadog.trace.core.CoreSpan;
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Routes traces to one of several serializer queues by trace id, so that {@link
+ * datadog.trace.common.writer.ddagent.PrioritizationStrategy} and {@link SpanSamplingWorker} can
+ * publish to sharded serializers without knowing about them. Anything which isn't a trace goes to
+ * the first shard.
+ */
+final class ShardedTraceQueue extends AbstractQueue<Object> {
+
+  private final List<? extends Queue<Object>> shards;
+
+  ShardedTraceQueue(List<? extends Queue<Object>> shards) {
+    this.shards = shards;
+  }
+
+  static int shardOf(Object event, int shardCount) {
+    if (event instanceof List) {
+      List<?> trace = (List<?>) event;
+      if (!trace.isEmpty() && trace.get(0) instanceof CoreSpan) {
+        DDTraceId traceId = ((CoreSpan<?>) trace.get(0)).getTraceId();
+        if (null != traceId) {
+          long id = traceId.toLong();
+          return ((int) (id ^ (id >>> 32)) & Integer.MAX_VALUE) % shardCount;
+        }
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public boolean offer(Object event) {
+    return shards.get(shardOf(event, shards.size())).offer(event);
+  }
+
+  @Override
+  public Object poll() {
+    for (Queue<Object> shard : shards) {
+      Object event = shard.poll();
+      if (null != event) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Object peek() {
+    for (Queue<Object> shard : shards) {
+      Object event = shard.peek();
+      if (null != event) {
+        return event;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Queue<Object> shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (Queue<Object> shard : shards) {
+      if (!shard.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Weakly consistent: iterates over each shard in turn, as the shard's own iterator does. */
+  @Override
+  public Iterator<Object> iterator() {
+    return new Iterator<Object>() {
+      private final Iterator<? extends Queue<Object>> remainingShards = shards.iterator();
+      private Iterator<Object> shardIterator = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!shardIterator.hasNext()) {
+          if (!remainingShards.hasNext()) {
+            return false;
+          }
+          shardIterator = remainingShards.next().iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public Object next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return shardIterator.next();
+      }
+    };
+  }
+}
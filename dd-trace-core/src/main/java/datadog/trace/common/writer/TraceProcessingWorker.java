@@ -17,7 +17,9 @@ import datadog.trace.core.DDSpanContext;
 import datadog.trace.core.monitor.HealthMetrics;
 import datadog.trace.core.postprocessor.SpanPostProcessor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
@@ -32,16 +34,19 @@ import org.slf4j.LoggerFactory;
  *
  * <p>publishing to the buffer will not block the calling thread, but instead will return false if
  * the buffer is full. This is to avoid impacting an application thread.
+ *
+ * <p>When constructed with more than one dispatcher, serialization is sharded: each dispatcher gets
+ * its own queues and serializer thread, and traces are routed to a shard by trace id.
  */
 public class TraceProcessingWorker implements AutoCloseable {
 
   private static final Logger log = LoggerFactory.getLogger(TraceProcessingWorker.class);
 
   private final PrioritizationStrategy prioritizationStrategy;
-  private final MpscBlockingConsumerArrayQueue<Object> primaryQueue;
-  private final MpscBlockingConsumerArrayQueue<Object> secondaryQueue;
-  private final TraceSerializingHandler serializingHandler;
-  private final Thread serializerThread;
+  private final Queue<Object> primaryQueue;
+  private final Queue<Object> secondaryQueue;
+  private final List<MpscBlockingConsumerArrayQueue<Object>> primaryShards;
+  private final List<Thread> serializerThreads;
   private final int capacity;
 
   private final SpanSamplingWorker spanSamplingWorker;
@@ -56,9 +61,44 @@ public class TraceProcessingWorker implements AutoCloseable {
       final TimeUnit timeUnit,
       final SingleSpanSampler singleSpanSampler,
       final SpanPostProcessor spanPostProcessor) {
+    this(
+        capacity,
+        healthMetrics,
+        Collections.singletonList(dispatcher),
+        droppingPolicy,
+        prioritization,
+        flushInterval,
+        timeUnit,
+        singleSpanSampler,
+        spanPostProcessor);
+  }
+
+  public TraceProcessingWorker(
+      final int capacity,
+      final HealthMetrics healthMetrics,
+      final List<? extends PayloadDispatcher> dispatchers,
+      final DroppingPolicy droppingPolicy,
+      final Prioritization prioritization,
+      final long flushInterval,
+      final TimeUnit timeUnit,
+      final SingleSpanSampler singleSpanSampler,
+      final SpanPostProcessor spanPostProcessor) {
     this.capacity = capacity;
-    this.primaryQueue = createQueue(capacity);
-    this.secondaryQueue = createQueue(capacity);
+    final int shardCount = dispatchers.size();
+    final int shardCapacity = shardCount == 1 ? capacity : Math.max(capacity / shardCount, 16);
+    this.primaryShards = new ArrayList<>(shardCount);
+    List<MpscBlockingConsumerArrayQueue<Object>> secondaryShards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      primaryShards.add(createQueue(shardCapacity));
+      secondaryShards.add(createQueue(shardCapacity));
+    }
+    if (shardCount == 1) {
+      this.primaryQueue = primaryShards.get(0);
+      this.secondaryQueue = secondaryShards.get(0);
+    } else {
+      this.primaryQueue = new ShardedTraceQueue(primaryShards);
+      this.secondaryQueue = new ShardedTraceQueue(secondaryShards);
+    }
     this.spanSamplingWorker =
         SpanSamplingWorker.build(
             capacity,
@@ -75,39 +115,54 @@ public class TraceProcessingWorker implements AutoCloseable {
             droppingPolicy);
 
     boolean runAsDaemon = !Config.get().isCiVisibilityEnabled();
-    this.serializingHandler =
-        runAsDaemon
-            ? new DaemonTraceSerializingHandler(
-                primaryQueue,
-                secondaryQueue,
-                healthMetrics,
-                dispatcher,
-                flushInterval,
-                timeUnit,
-                spanPostProcessor)
-            : new NonDaemonTraceSerializingHandler(
-                primaryQueue,
-                secondaryQueue,
-                healthMetrics,
-                dispatcher,
-                flushInterval,
-                timeUnit,
-                spanPostProcessor);
-    this.serializerThread = newAgentThread(TRACE_PROCESSOR, serializingHandler, runAsDaemon);
+    this.serializerThreads = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      TraceSerializingHandler serializingHandler =
+          runAsDaemon
+              ? new DaemonTraceSerializingHandler(
+                  primaryShards.get(i),
+                  secondaryShards.get(i),
+                  healthMetrics,
+                  dispatchers.get(i),
+                  flushInterval,
+                  timeUnit,
+                  spanPostProcessor)
+              : new NonDaemonTraceSerializingHandler(
+                  primaryShards.get(i),
+                  secondaryShards.get(i),
+                  healthMetrics,
+                  dispatchers.get(i),
+                  flushInterval,
+                  timeUnit,
+                  spanPostProcessor);
+      serializerThreads.add(
+          newAgentThread(
+              TRACE_PROCESSOR,
+              shardCount == 1 ? null : "-" + i,
+              serializingHandler,
+              runAsDaemon));
+    }
   }
 
   public void start() {
-    this.serializerThread.start();
+    for (Thread serializerThread : serializerThreads) {
+      serializerThread.start();
+    }
     this.spanSamplingWorker.start();
   }
 
   public boolean flush(long timeout, TimeUnit timeUnit) {
-    CountDownLatch latch = new CountDownLatch(1);
+    // every shard must flush before the flush is complete
+    CountDownLatch latch = new CountDownLatch(primaryShards.size());
     FlushEvent flush = new FlushEvent(latch);
-    boolean offered;
-    do {
-      offered = primaryQueue.offer(flush);
-    } while (!offered && serializerThread.isAlive());
+    for (int i = 0; i < primaryShards.size(); i++) {
+      Queue<Object> shard = primaryShards.get(i);
+      Thread serializerThread = serializerThreads.get(i);
+      boolean offered;
+      do {
+        offered = shard.offer(flush);
+      } while (!offered && serializerThread.isAlive());
+    }
     try {
       return latch.await(timeout, timeUnit);
     } catch (InterruptedException e) {
@@ -119,10 +174,14 @@ public class TraceProcessingWorker implements AutoCloseable {
   @Override
   public void close() {
     spanSamplingWorker.close();
-    serializerThread.interrupt();
-    try {
-      serializerThread.join(THREAD_JOIN_TIMOUT_MS);
-    } catch (InterruptedException ignored) {
+    for (Thread serializerThread : serializerThreads) {
+      serializerThread.interrupt();
+    }
+    for (Thread serializerThread : serializerThreads) {
+      try {
+        serializerThread.join(THREAD_JOIN_TIMOUT_MS);
+      } catch (InterruptedException ignored) {
+      }
     }
   }
 
@@ -137,7 +196,11 @@ public class TraceProcessingWorker implements AutoCloseable {
 
   public long getRemainingCapacity() {
     // only advertise primary capacity (partly to keep test which aims to saturate the queue happy)
-    return primaryQueue.remainingCapacity();
+    long remainingCapacity = 0;
+    for (MpscBlockingConsumerArrayQueue<Object> shard : primaryShards) {
+      remainingCapacity += shard.remainingCapacity();
+    }
+    return remainingCapacity;
   }
 
   private static MpscBlockingConsumerArrayQueue<Object> createQueue(int capacity) {
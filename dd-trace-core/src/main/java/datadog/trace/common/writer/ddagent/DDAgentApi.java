@@ -14,18 +14,20 @@ import datadog.trace.common.writer.RemoteApi;
 import datadog.trace.common.writer.RemoteResponseListener;
 import datadog.trace.core.DDTraceCoreInfo;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** The API pointing to a DD agent */
+/**
+ * The API pointing to a DD agent. It is shared by the serialization shards, so it can send
+ * payloads from several threads at once.
+ */
 public class DDAgentApi extends RemoteApi {
 
   public static final String DATADOG_META_TRACER_VERSION = "Datadog-Meta-Tracer-Version";
@@ -40,8 +42,11 @@ public class DDAgentApi extends RemoteApi {
   private static final String DATADOG_DROPPED_TRACE_COUNT = "Datadog-Client-Dropped-P0-Traces";
   private static final String DATADOG_DROPPED_SPAN_COUNT = "Datadog-Client-Dropped-P0-Spans";
   private static final String DATADOG_AGENT_STATE = "Datadog-Agent-State";
+  private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+  private static final String GZIP_CONTENT_TYPE = "gzip";
 
-  private final List<RemoteResponseListener> responseListeners = new ArrayList<>();
+  private final CopyOnWriteArrayList<RemoteResponseListener> responseListeners =
+      new CopyOnWriteArrayList<>();
   private final boolean metricsEnabled;
 
   private final Recording sendPayloadTimer;
@@ -67,7 +72,17 @@ public class DDAgentApi extends RemoteApi {
       DDAgentFeaturesDiscovery featuresDiscovery,
       Monitoring monitoring,
       boolean metricsEnabled) {
-    super(false);
+    this(client, agentUrl, featuresDiscovery, monitoring, metricsEnabled, false);
+  }
+
+  public DDAgentApi(
+      OkHttpClient client,
+      HttpUrl agentUrl,
+      DDAgentFeaturesDiscovery featuresDiscovery,
+      Monitoring monitoring,
+      boolean metricsEnabled,
+      boolean compressionEnabled) {
+    super(compressionEnabled);
     this.featuresDiscovery = featuresDiscovery;
     this.agentUrl = agentUrl;
     this.httpClient = client;
@@ -75,15 +90,13 @@ public class DDAgentApi extends RemoteApi {
     this.agentErrorCounter = monitoring.newCounter("trace.agent.error.counter");
     this.metricsEnabled = metricsEnabled;
 
-    this.headers = new HashMap<>();
+    this.headers = new ConcurrentHashMap<>();
     this.headers.put(DATADOG_CLIENT_COMPUTED_TOP_LEVEL, "true");
     this.headers.put(DATADOG_META_TRACER_VERSION, DDTraceCoreInfo.VERSION);
   }
 
   public void addResponseListener(final RemoteResponseListener listener) {
-    if (!responseListeners.contains(listener)) {
-      responseListeners.add(listener);
-    }
+    responseListeners.addIfAbsent(listener);
   }
 
   public Response sendSerializedTraces(final Payload payload) {
@@ -100,19 +113,25 @@ public class DDAgentApi extends RemoteApi {
     }
 
     HttpUrl tracesUrl = agentUrl.resolve(tracesEndpoint);
+    // only compress once the agent has said it can decompress
+    boolean gzip = isCompressionEnabled() && featuresDiscovery.supportsGzipTraces();
     try {
+      final Request.Builder builder = prepareRequest(tracesUrl, headers);
+      if (gzip) {
+        builder.addHeader(CONTENT_ENCODING_HEADER, GZIP_CONTENT_TYPE);
+      }
       final Request request =
-          prepareRequest(tracesUrl, headers)
+          builder
               .addHeader(X_DATADOG_TRACE_COUNT, Integer.toString(payload.traceCount()))
               .addHeader(DATADOG_DROPPED_TRACE_COUNT, Long.toString(payload.droppedTraces()))
               .addHeader(DATADOG_DROPPED_SPAN_COUNT, Long.toString(payload.droppedSpans()))
               .addHeader(
                   DATADOG_CLIENT_COMPUTED_STATS,
                   metricsEnabled && featuresDiscovery.supportsMetrics() ? "true" : "")
-              .put(payload.toRequest())
+              .put(gzip ? payload.toGzippedRequest() : payload.toRequest())
               .build();
-      this.totalTraces += payload.traceCount();
-      this.receivedTraces += payload.traceCount();
+      this.totalTraces.addAndGet(payload.traceCount());
+      this.receivedTraces.addAndGet(payload.traceCount());
       try (final Recording recording = sendPayloadTimer.start();
           final okhttp3.Response response = httpClient.newCall(request).execute()) {
         handleAgentChange(response.header(DATADOG_AGENT_STATE));
@@ -146,9 +165,13 @@ public class DDAgentApi extends RemoteApi {
   }
 
   private void handleAgentChange(String state) {
-    String previous = featuresDiscovery.state();
-    if (!Objects.equals(state, previous)) {
-      featuresDiscovery.discover();
+    if (!Objects.equals(state, featuresDiscovery.state())) {
+      // discovery holds the same lock, so only the first shard to see the change rediscovers
+      synchronized (featuresDiscovery) {
+        if (!Objects.equals(state, featuresDiscovery.state())) {
+          featuresDiscovery.discover();
+        }
+      }
     }
   }
 
@@ -1,7 +1,9 @@
 package datadog.trace.common.writer.ddagent;
 
+import static datadog.communication.http.OkHttpUtils.gzippedMsgpackRequestBodyOf;
 import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
 
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.communication.serialization.Codec;
 import datadog.communication.serialization.GrowableBuffer;
 import datadog.communication.serialization.Writable;
@@ -13,6 +15,7 @@ import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
 import datadog.trace.core.PendingTrace;
+import datadog.trace.core.TagMap;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
@@ -33,10 +36,17 @@ public final class TraceMapperV0_4 implements TraceMapper {
     this(5 << 20);
   }
 
-  private static final class MetaWriter implements MetadataConsumer {
+  private static final class MetaWriter implements MetadataConsumer, TagMap.Visitor {
+
+    private static final int COUNT_TAGS = 0;
+    private static final int WRITE_METRICS = 1;
+    private static final int WRITE_META = 2;
 
     private Writable writable;
     private boolean writeSamplingPriority;
+    private int tagsPass;
+    private int metricTags;
+    private int flatMetaTags;
 
     MetaWriter withWritable(Writable writable) {
       this.writable = writable;
@@ -50,9 +60,15 @@ public final class TraceMapperV0_4 implements TraceMapper {
 
     @Override
     public void accept(Metadata metadata) {
+      tagsPass = COUNT_TAGS;
+      metricTags = 0;
+      flatMetaTags = 0;
+      TagMap.visit(metadata.getTags(), this);
       int metaSize =
           metadata.getBaggage().size()
               + metadata.getTags().size()
+              - metricTags
+              + flatMetaTags
               + (null == metadata.getHttpStatusCode() ? 0 : 1)
               + (null == metadata.getOrigin() ? 0 : 1)
               + 1;
@@ -61,18 +77,8 @@ public final class TraceMapperV0_4 implements TraceMapper {
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
               + (metadata.longRunningVersion() != 0 ? 1 : 0)
+              + metricTags
               + 1;
-      for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
-        Object value = tag.getValue();
-        if (value instanceof Number) {
-          ++metricsSize;
-          --metaSize;
-        } else if (value instanceof Map) {
-          // Compute size based on amount of elements in tree
-          --metaSize;
-          metaSize += getFlatMapSize((Map) value);
-        }
-      }
       writable.writeUTF8(METRICS);
       writable.startMap(metricsSize);
       if (writeSamplingPriority && metadata.hasSamplingPriority()) {
@@ -98,12 +104,8 @@ public final class TraceMapperV0_4 implements TraceMapper {
       }
       writable.writeUTF8(THREAD_ID);
       writable.writeLong(metadata.getThreadId());
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (entry.getValue() instanceof Number) {
-          writable.writeString(entry.getKey(), null);
-          writable.writeObject(entry.getValue(), null);
-        }
-      }
+      tagsPass = WRITE_METRICS;
+      TagMap.visit(metadata.getTags(), this);
 
       writable.writeUTF8(META);
       writable.startMap(metaSize);
@@ -124,16 +126,75 @@ public final class TraceMapperV0_4 implements TraceMapper {
         writable.writeUTF8(ORIGIN_KEY);
         writable.writeString(metadata.getOrigin(), null);
       }
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        String key = entry.getKey();
-        Object value = entry.getValue();
-        if (value instanceof Map) {
-          // Write map as flat map
-          writeFlatMap(key, (Map) value);
-        } else if (!(value instanceof Number)) {
-          writable.writeString(entry.getKey(), null);
-          writable.writeObjectString(entry.getValue(), null);
-        }
+      tagsPass = WRITE_META;
+      TagMap.visit(metadata.getTags(), this);
+    }
+
+    @Override
+    public void visitObject(String key, Object value) {
+      switch (tagsPass) {
+        case COUNT_TAGS:
+          if (value instanceof Number) {
+            ++metricTags;
+          } else if (value instanceof Map) {
+            // Compute size based on amount of elements in tree
+            flatMetaTags += getFlatMapSize((Map) value) - 1;
+          }
+          break;
+        case WRITE_METRICS:
+          if (value instanceof Number) {
+            writable.writeString(key, null);
+            writable.writeObject(value, null);
+          }
+          break;
+        default:
+          if (value instanceof Map) {
+            // Write map as flat map
+            writeFlatMap(key, (Map) value);
+          } else if (!(value instanceof Number)) {
+            writable.writeString(key, null);
+            writable.writeObjectString(value, null);
+          }
+      }
+    }
+
+    @Override
+    public void visitInt(String key, int value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writable.writeString(key, null);
+        writable.writeInt(value);
+      }
+    }
+
+    @Override
+    public void visitLong(String key, long value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writable.writeString(key, null);
+        writable.writeLong(value);
+      }
+    }
+
+    @Override
+    public void visitFloat(String key, float value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writable.writeString(key, null);
+        writable.writeFloat(value);
+      }
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writable.writeString(key, null);
+        writable.writeDouble(value);
       }
     }
 
@@ -196,6 +257,9 @@ public final class TraceMapperV0_4 implements TraceMapper {
     private static final int BUFFER_SIZE = 1 << 10;
 
     private Writable writable;
+    // reused across spans, values are copied out of the buffer as soon as they are serialized
+    private GrowableBuffer buffer;
+    private MsgPackWriter valueWriter;
 
     MetaStructWriter withWritable(final Writable writable) {
       this.writable = writable;
@@ -205,10 +269,12 @@ public final class TraceMapperV0_4 implements TraceMapper {
     public void write(final Map<String, Object> metaStruct) {
       writable.writeUTF8(META_STRUCT);
       writable.startMap(metaStruct.size());
-      final GrowableBuffer buffer = new GrowableBuffer(BUFFER_SIZE);
-      final MsgPackWriter metaStructWriter = new MsgPackWriter(Codec.INSTANCE, buffer);
+      if (null == buffer) {
+        buffer = new GrowableBuffer(BUFFER_SIZE, ByteBufferPool.SHARED);
+        valueWriter = new MsgPackWriter(Codec.INSTANCE, buffer);
+      }
       for (Map.Entry<String, Object> entry : metaStruct.entrySet()) {
-        writeMetaStructEntry(metaStructWriter, buffer, entry.getKey(), entry.getValue());
+        writeMetaStructEntry(valueWriter, buffer, entry.getKey(), entry.getValue());
       }
     }
 
@@ -321,5 +387,10 @@ public final class TraceMapperV0_4 implements TraceMapper {
     public RequestBody toRequest() {
       return msgpackRequestBodyOf(Arrays.asList(msgpackArrayHeader(traceCount()), body));
     }
+
+    @Override
+    public RequestBody toGzippedRequest() {
+      return gzippedMsgpackRequestBodyOf(Arrays.asList(msgpackArrayHeader(traceCount()), body));
+    }
   }
 }
@@ -1,7 +1,9 @@
 package datadog.trace.common.writer.ddagent;
 
+import static datadog.communication.http.OkHttpUtils.gzippedMsgpackRequestBodyOf;
 import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
 
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.communication.serialization.GrowableBuffer;
 import datadog.communication.serialization.Mapper;
 import datadog.communication.serialization.Writable;
@@ -14,6 +16,7 @@ import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
 import datadog.trace.core.PendingTrace;
+import datadog.trace.core.TagMap;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
@@ -40,7 +43,7 @@ public final class TraceMapperV0_5 implements TraceMapper {
   public TraceMapperV0_5(int dictionarySize, int bufferSize) {
     // growable buffer is implicitly bounded by the fixed size buffer
     // the messages themselves are written into
-    this.dictionary = new GrowableBuffer(bufferSize);
+    this.dictionary = new GrowableBuffer(bufferSize, ByteBufferPool.SHARED);
     this.dictionaryWriter = new MsgPackWriter(dictionary);
     this.size = bufferSize;
     reset();
@@ -165,6 +168,11 @@ public final class TraceMapperV0_5 implements TraceMapper {
       return msgpackRequestBodyOf(toList());
     }
 
+    @Override
+    public RequestBody toGzippedRequest() {
+      return gzippedMsgpackRequestBodyOf(toList());
+    }
+
     private List<ByteBuffer> toList() {
       return Arrays.asList(
           // msgpack array header with 2 elements (FIXARRAY | 2)
@@ -176,10 +184,17 @@ public final class TraceMapperV0_5 implements TraceMapper {
     }
   }
 
-  private final class MetaWriter implements MetadataConsumer {
+  private final class MetaWriter implements MetadataConsumer, TagMap.Visitor {
+
+    private static final int COUNT_TAGS = 0;
+    private static final int WRITE_METRICS = 1;
+    private static final int WRITE_META = 2;
 
     private Writable writable;
     private boolean writeSamplingPriority;
+    private int tagsPass;
+    private int metricTags;
+    private int flatMetaTags;
 
     MetaWriter withWritable(final Writable writable) {
       this.writable = writable;
@@ -193,9 +208,15 @@ public final class TraceMapperV0_5 implements TraceMapper {
 
     @Override
     public void accept(Metadata metadata) {
+      tagsPass = COUNT_TAGS;
+      metricTags = 0;
+      flatMetaTags = 0;
+      TagMap.visit(metadata.getTags(), this);
       int metaSize =
           metadata.getBaggage().size()
               + metadata.getTags().size()
+              - metricTags
+              + flatMetaTags
               + (null == metadata.getHttpStatusCode() ? 0 : 1)
               + (null == metadata.getOrigin() ? 0 : 1)
               + 1;
@@ -204,18 +225,8 @@ public final class TraceMapperV0_5 implements TraceMapper {
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
               + (metadata.longRunningVersion() != 0 ? 1 : 0)
+              + metricTags
               + 1;
-      for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
-        Object value = tag.getValue();
-        if (value instanceof Number) {
-          ++metricsSize;
-          --metaSize;
-        } else if (value instanceof Map) {
-          // Compute size based on amount of elements in tree
-          --metaSize;
-          metaSize += getFlatMapSize((Map) value);
-        }
-      }
       writable.startMap(metaSize);
       // we don't need to deduplicate any overlap between tags and baggage here
       // since they will be accumulated into maps in the same order downstream,
@@ -234,17 +245,8 @@ public final class TraceMapperV0_5 implements TraceMapper {
         writeDictionaryEncoded(writable, ORIGIN_KEY);
         writeDictionaryEncoded(writable, metadata.getOrigin());
       }
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        String key = entry.getKey();
-        Object value = entry.getValue();
-        if (value instanceof Map) {
-          // Write map as flat map
-          writeFlatMap(key, (Map) value);
-        } else if (!(value instanceof Number)) {
-          writeDictionaryEncoded(writable, key);
-          writeDictionaryEncoded(writable, value);
-        }
-      }
+      tagsPass = WRITE_META;
+      TagMap.visit(metadata.getTags(), this);
       writable.startMap(metricsSize);
       if (writeSamplingPriority && metadata.hasSamplingPriority()) {
         writeDictionaryEncoded(writable, SAMPLING_PRIORITY_KEY);
@@ -269,11 +271,75 @@ public final class TraceMapperV0_5 implements TraceMapper {
       }
       writeDictionaryEncoded(writable, THREAD_ID);
       writable.writeLong(metadata.getThreadId());
-      for (Map.Entry<String, Object> entry : metadata.getTags().entrySet()) {
-        if (entry.getValue() instanceof Number) {
-          writeDictionaryEncoded(writable, entry.getKey());
-          writable.writeObject(entry.getValue(), null);
-        }
+      tagsPass = WRITE_METRICS;
+      TagMap.visit(metadata.getTags(), this);
+    }
+
+    @Override
+    public void visitObject(String key, Object value) {
+      switch (tagsPass) {
+        case COUNT_TAGS:
+          if (value instanceof Number) {
+            ++metricTags;
+          } else if (value instanceof Map) {
+            // Compute size based on amount of elements in tree
+            flatMetaTags += getFlatMapSize((Map) value) - 1;
+          }
+          break;
+        case WRITE_METRICS:
+          if (value instanceof Number) {
+            writeDictionaryEncoded(writable, key);
+            writable.writeObject(value, null);
+          }
+          break;
+        default:
+          if (value instanceof Map) {
+            // Write map as flat map
+            writeFlatMap(key, (Map) value);
+          } else if (!(value instanceof Number)) {
+            writeDictionaryEncoded(writable, key);
+            writeDictionaryEncoded(writable, value);
+          }
+      }
+    }
+
+    @Override
+    public void visitInt(String key, int value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writeDictionaryEncoded(writable, key);
+        writable.writeInt(value);
+      }
+    }
+
+    @Override
+    public void visitLong(String key, long value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writeDictionaryEncoded(writable, key);
+        writable.writeLong(value);
+      }
+    }
+
+    @Override
+    public void visitFloat(String key, float value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writeDictionaryEncoded(writable, key);
+        writable.writeFloat(value);
+      }
+    }
+
+    @Override
+    public void visitDouble(String key, double value) {
+      if (tagsPass == COUNT_TAGS) {
+        ++metricTags;
+      } else if (tagsPass == WRITE_METRICS) {
+        writeDictionaryEncoded(writable, key);
+        writable.writeDouble(value);
       }
     }
 
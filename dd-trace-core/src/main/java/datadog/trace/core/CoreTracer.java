@@ -18,6 +18,7 @@ import datadog.communication.ddagent.ExternalAgentLauncher;
 import datadog.communication.ddagent.SharedCommunicationObjects;
 import datadog.communication.monitor.Monitoring;
 import datadog.communication.monitor.Recording;
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.trace.api.Config;
 import datadog.trace.api.DDSpanId;
 import datadog.trace.api.DDTraceId;
@@ -612,7 +613,7 @@ public class CoreTracer implements AgentTracer.TracerAPI {
             : Monitoring.DISABLED;
     healthMetrics =
         config.isHealthMetricsEnabled()
-            ? new TracerHealthMetrics(this.statsDClient)
+            ? new TracerHealthMetrics(this.statsDClient, ByteBufferPool.SHARED)
             : HealthMetrics.NO_OP;
     healthMetrics.start();
     performanceMonitoring =
@@ -627,6 +628,7 @@ public class CoreTracer implements AgentTracer.TracerAPI {
               config.getScopeDepthLimit(),
               config.isScopeStrictMode(),
               config.isScopeInheritAsyncPropagation(),
+              config.isScopeRecyclingEnabled(),
               profilingContextIntegration,
               healthMetrics);
     } else {
@@ -683,7 +685,11 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     if (dataStreamsMonitoring == null) {
       this.dataStreamsMonitoring =
           new DefaultDataStreamsMonitoring(
-              config, sharedCommunicationObjects, this.timeSource, this::captureTraceConfig);
+              config,
+              sharedCommunicationObjects,
+              this.timeSource,
+              this::captureTraceConfig,
+              healthMetrics);
     } else {
       this.dataStreamsMonitoring = dataStreamsMonitoring;
     }
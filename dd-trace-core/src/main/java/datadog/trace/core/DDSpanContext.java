@@ -92,8 +92,10 @@ public class DDSpanContext
    * threads, they will rarely, if ever, be read and modified concurrently by multiple threads but
    * rather read and accessed in a serial fashion on thread after thread. The synchronization can
    * then be wrapped around bulk operations to minimize the costly atomic operations.
+   *
+   * <p>Numeric tags set through the primitive setters are stored unboxed, see {@link TagMap}.
    */
-  private final Map<String, Object> unsafeTags;
+  private final TagMap unsafeTags;
 
   /** The service name is required, otherwise the span are dropped by the agent */
   private volatile String serviceName;
@@ -141,6 +143,9 @@ public class DDSpanContext
   private final boolean injectBaggageAsTags;
   private volatile int encodedOperationName;
   private volatile int encodedResourceName;
+  private final boolean deferResourceNameEncoding;
+  /** The resource name {@link #encodedResourceName} was encoded from, when encoding is deferred */
+  private volatile CharSequence encodedResourceNameSource;
   private volatile boolean requiresPostProcessing;
 
   /**
@@ -333,16 +338,15 @@ public class DDSpanContext
     assert pathwayContext != null;
     this.pathwayContext = pathwayContext;
 
-    // The +1 is the magic number from the tags below that we set at the end,
-    // and "* 4 / 3" is to make sure that we don't resize immediately
-    final int capacity = Math.max((tagsSize <= 0 ? 3 : (tagsSize + 1)) * 4 / 3, 8);
-    this.unsafeTags = new HashMap<>(capacity);
+    // The +1 is the magic number from the tags below that we set at the end
+    this.unsafeTags = new TagMap(tagsSize <= 0 ? 3 : (tagsSize + 1));
     // must set this before setting the service and resource names below
     this.profilingContextIntegration = profilingContextIntegration;
     // as fast as we can try to make this operation, we still might need to activate/deactivate
     // contexts at alarming rates in unpredictable async applications, so we'll try
     // to get away with doing this just once per span
     this.encodedOperationName = profilingContextIntegration.encodeOperationName(operationName);
+    this.deferResourceNameEncoding = profilingContextIntegration.isResourceNameEncodingDeferred();
 
     setServiceName(serviceName);
     this.operationName = operationName;
@@ -396,6 +400,15 @@ public class DDSpanContext
 
   @Override
   public int getEncodedResourceName() {
+    if (deferResourceNameEncoding) {
+      // the resource name is usually set several times while the span is built, so it is only
+      // encoded once it is needed, and again only if it has changed in the meantime
+      final CharSequence resourceName = this.resourceName;
+      if (resourceName != null && resourceName != encodedResourceNameSource) {
+        encodedResourceName = profilingContextIntegration.encodeResourceName(resourceName);
+        encodedResourceNameSource = resourceName;
+      }
+    }
     return encodedResourceName;
   }
 
@@ -428,7 +441,9 @@ public class DDSpanContext
     if (priority >= this.resourceNamePriority) {
       this.resourceNamePriority = priority;
       this.resourceName = resourceName;
-      this.encodedResourceName = profilingContextIntegration.encodeResourceName(resourceName);
+      if (!deferResourceNameEncoding) {
+        this.encodedResourceName = profilingContextIntegration.encodeResourceName(resourceName);
+      }
     }
   }
 
@@ -573,9 +588,9 @@ public class DDSpanContext
   public void setSpanSamplingPriority(double rate, int limit) {
     synchronized (unsafeTags) {
       unsafeSetTag(SPAN_SAMPLING_MECHANISM_TAG, SamplingMechanism.SPAN_SAMPLING_RATE);
-      unsafeSetTag(SPAN_SAMPLING_RULE_RATE_TAG, rate);
+      unsafeTags.set(SPAN_SAMPLING_RULE_RATE_TAG, rate);
       if (limit != Integer.MAX_VALUE) {
-        unsafeSetTag(SPAN_SAMPLING_MAX_PER_SECOND_TAG, limit);
+        unsafeTags.set(SPAN_SAMPLING_MAX_PER_SECOND_TAG, limit);
       }
     }
   }
@@ -695,6 +710,30 @@ public class DDSpanContext
     }
   }
 
+  public void setMetric(final CharSequence key, final int value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final long value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final float value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final double value) {
+    synchronized (unsafeTags) {
+      unsafeTags.set(key.toString(), value);
+    }
+  }
+
   /**
    * Sets a tag to the span. Tags are not propagated to the children.
    *
@@ -719,6 +758,45 @@ public class DDSpanContext
     }
   }
 
+  public void setTag(final String tag, final int value) {
+    if (null == tag) {
+      return;
+    }
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, Integer.valueOf(value));
+    } else {
+      synchronized (unsafeTags) {
+        unsafeTags.set(tag, value);
+      }
+    }
+  }
+
+  public void setTag(final String tag, final long value) {
+    if (null == tag) {
+      return;
+    }
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, Long.valueOf(value));
+    } else {
+      synchronized (unsafeTags) {
+        unsafeTags.set(tag, value);
+      }
+    }
+  }
+
+  public void setTag(final String tag, final double value) {
+    if (null == tag) {
+      return;
+    }
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, Double.valueOf(value));
+    } else {
+      synchronized (unsafeTags) {
+        unsafeTags.set(tag, value);
+      }
+    }
+  }
+
   void setAllTags(final Map<String, ?> map) {
     if (map == null || map.isEmpty()) {
       return;
@@ -735,7 +813,7 @@ public class DDSpanContext
   }
 
   void unsafeSetTag(final String tag, final Object value) {
-    unsafeTags.put(tag, value);
+    unsafeTags.set(tag, value);
   }
 
   Object getTag(final String key) {
@@ -770,15 +848,15 @@ public class DDSpanContext
 
   public Map<String, Object> getTags() {
     synchronized (unsafeTags) {
-      Map<String, Object> tags = new HashMap<>(unsafeTags);
-      tags.put(DDTags.THREAD_ID, threadId);
+      TagMap tags = unsafeTags.copy();
+      tags.set(DDTags.THREAD_ID, threadId);
       // maintain previously observable type of the thread name :|
       tags.put(DDTags.THREAD_NAME, threadName.toString());
       if (samplingPriority != PrioritySampling.UNSET) {
-        tags.put(SAMPLE_RATE_KEY, samplingPriority);
+        tags.set(SAMPLE_RATE_KEY, samplingPriority);
       }
       if (httpStatusCode != 0) {
-        tags.put(Tags.HTTP_STATUS, (int) httpStatusCode);
+        tags.set(Tags.HTTP_STATUS, (int) httpStatusCode);
       }
       // maintain previously observable type of http url :|
       Object value = tags.get(Tags.HTTP_URL);
@@ -11,7 +11,6 @@ import datadog.trace.core.CoreTracer.ConfigSnapshot;
 import datadog.trace.core.monitor.HealthMetrics;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
@@ -97,8 +96,10 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
    * Contains finished spans. If the long-running trace feature is enabled it also contains running
    * spans that can be written.
    */
-  private final ConcurrentLinkedDeque<DDSpan> spans;
+  private final SpanAccumulator spans;
 
+  // only maintained when the long-running trace feature is enabled, otherwise spans holds exactly
+  // the completed spans which haven't been written yet
   private volatile int completedSpanCount = 0;
   private static final AtomicIntegerFieldUpdater<PendingTrace> COMPLETED_SPAN_COUNT =
       AtomicIntegerFieldUpdater.newUpdater(PendingTrace.class, "completedSpanCount");
@@ -158,7 +159,7 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
     this.traceConfig = traceConfig != null ? traceConfig : tracer.captureTraceConfig();
     this.strictTraceWrites = strictTraceWrites;
     this.healthMetrics = healthMetrics;
-    this.spans = new ConcurrentLinkedDeque<>();
+    this.spans = new SpanAccumulator();
   }
 
   CoreTracer getTracer() {
@@ -196,6 +197,11 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
     lastReferenced = timeSource.getNanoTicks();
   }
 
+  @Override
+  public long lastReferencedNanoTicks() {
+    return lastReferenced;
+  }
+
   @Override
   public boolean lastReferencedNanosAgo(long nanos) {
     long currentNanoTicks = timeSource.getNanoTicks();
@@ -208,7 +214,7 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
     PENDING_REFERENCE_COUNT.incrementAndGet(this);
     healthMetrics.onCreateSpan();
     if (pendingTraceBuffer.longRunningSpansEnabled()) {
-      spans.addFirst(span);
+      spans.add(span);
       trackRunningTrace(span);
     }
   }
@@ -241,18 +247,19 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
   }
 
   boolean empty() {
-    return 0 >= COMPLETED_SPAN_COUNT.get(this) + PENDING_REFERENCE_COUNT.get(this);
+    return 0 >= size() + PENDING_REFERENCE_COUNT.get(this);
   }
 
   PublishState onPublish(final DDSpan span) {
     if (!pendingTraceBuffer.longRunningSpansEnabled()) {
-      spans.addFirst(span);
+      spans.add(span);
+    } else {
+      // There is a benign race here where the span can get written out by a writer in progress
+      // before the count has been incremented. It's being taken care of in the internal write
+      // method.
+      COMPLETED_SPAN_COUNT.incrementAndGet(this);
     }
-    // There is a benign race here where the span added above can get written out by a writer in
-    // progress before the count has been incremented. It's being taken care of in the internal
-    // write method.
     healthMetrics.onFinishSpan();
-    COMPLETED_SPAN_COUNT.incrementAndGet(this);
     final DDSpan rootSpan = getRootSpan();
     if (span == rootSpan) {
       tracer.onRootSpanPublished(rootSpan);
@@ -372,7 +379,9 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
           }
         }
         if (!trace.isEmpty()) {
-          COMPLETED_SPAN_COUNT.addAndGet(this, -completedSpans);
+          if (pendingTraceBuffer.longRunningSpansEnabled()) {
+            COMPLETED_SPAN_COUNT.addAndGet(this, -completedSpans);
+          }
           tracer.write(trace);
           healthMetrics.onCreateTrace();
           return completedSpans;
@@ -383,45 +392,42 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
   }
 
   public int enqueueSpansToWrite(List<DDSpan> trace, boolean writeRunningSpans) {
-    int completedSpans = 0;
-    boolean runningSpanSeen = false;
-    long firstRunningSpanID = 0;
     long nowNano = 0;
     if (writeRunningSpans) {
       nowNano = getCurrentTimeNano();
       setLastWriteTime(nowNano);
     }
 
-    DDSpan span = spans.pollFirst();
-    while (null != span) {
-      if (runningSpanSeen && span.getSpanId() == firstRunningSpanID) {
-        // we iterated on all spans as we circled back to the first running span
-        spans.addFirst(span);
-        break;
-      }
+    int start = trace.size();
+    spans.drain(trace);
+    int end = trace.size();
+
+    // running spans are only present when the long-running trace feature is enabled
+    int completedSpans = 0;
+    int kept = start;
+    for (int i = start; i < end; ++i) {
+      DDSpan span = trace.get(i);
       if (span.isFinished()) {
-        trace.add(span);
+        trace.set(kept++, span);
         completedSpans++;
       } else {
-        // keep the running span in the list
+        // keep the running span for the next write
         spans.add(span);
-        if (!runningSpanSeen) {
-          runningSpanSeen = true;
-          firstRunningSpanID = span.getSpanId();
-        }
         if (writeRunningSpans) {
           span.setLongRunningVersion(
               (int) TimeUnit.NANOSECONDS.toMillis(nowNano - span.getStartTime()));
-          trace.add(span);
+          trace.set(kept++, span);
         }
       }
-      span = spans.pollFirst();
+    }
+    if (kept < end) {
+      trace.subList(kept, end).clear();
     }
     return completedSpans;
   }
 
   public int size() {
-    return completedSpanCount;
+    return pendingTraceBuffer.longRunningSpansEnabled() ? completedSpanCount : spans.size();
   }
 
   public void beginEndToEnd() {
@@ -8,6 +8,7 @@ import datadog.communication.ddagent.SharedCommunicationObjects;
 import datadog.trace.api.Config;
 import datadog.trace.api.time.TimeSource;
 import datadog.trace.core.monitor.HealthMetrics;
+import datadog.trace.core.util.TimingWheel;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.jctools.queues.MessagePassingQueue;
@@ -27,6 +28,15 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
 
     boolean lastReferencedNanosAgo(long nanos);
 
+    /**
+     * @return the nano ticks at which the element was last referenced, or {@link Long#MIN_VALUE}
+     *     if it doesn't track this, in which case it is checked again a full send delay after it
+     *     was last seen to be active
+     */
+    default long lastReferencedNanoTicks() {
+      return Long.MIN_VALUE;
+    }
+
     void write();
 
     DDSpan getRootSpan();
@@ -45,12 +55,16 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
 
   private static class DelayingPendingTraceBuffer extends PendingTraceBuffer {
     private static final long FORCE_SEND_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+    private static final long FORCE_SEND_DELAY_NS = TimeUnit.SECONDS.toNanos(5);
     private static final long SEND_DELAY_NS = TimeUnit.MILLISECONDS.toNanos(500);
-    private static final long SLEEP_TIME_MS = 100;
+    private static final long TICK_NS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LONG_RUNNING_POLL_NS = TimeUnit.SECONDS.toNanos(1);
 
+    // hands traces over to the worker, which holds them in the timing wheel until they are due
     private final MpscBlockingConsumerArrayQueue<Element> queue;
     private final Thread worker;
     private final TimeSource timeSource;
+    private final HealthMetrics healthMetrics;
 
     private volatile boolean closed = false;
     private final AtomicInteger flushCounter = new AtomicInteger(0);
@@ -162,61 +176,108 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
       }
     }
 
-    private final class Worker implements Runnable {
+    private final class Worker implements Runnable, TimingWheel.Expiry<Element> {
+
+      // only accessed by the worker thread, the attachment is when the element was first buffered
+      private final TimingWheel<Element> wheel =
+          new TimingWheel<>(TICK_NS, timeSource.getNanoTicks());
+
+      private final TimingWheel.Expiry<Element> flushWrite =
+          (pendingTrace, bufferedAt) -> {
+            pendingTrace.setEnqueued(false);
+            write(pendingTrace, bufferedAt, timeSource.getNanoTicks());
+          };
 
       @Override
       public void run() {
         try {
           while (!closed && !Thread.currentThread().isInterrupted()) {
+            long now = timeSource.getNanoTicks();
+            wheel.advance(now, this);
+            healthMetrics.onPendingTraceBufferOccupancy(wheel.size() + queue.size());
 
-            Element pendingTrace = null;
+            // sleep until the next trace is due, unless another one arrives first
+            long timeout = wheel.nextExpiryNanos();
+            timeout = timeout == Long.MAX_VALUE ? timeout : Math.max(timeout - now, 0);
             if (longRunningSpansEnabled()) {
-              pendingTrace = queue.poll(1, TimeUnit.SECONDS);
-              runningTracesTracker.flushAndCompact(timeSource.getCurrentTimeMillis());
-              if (pendingTrace == null) {
-                continue;
-              }
-            } else {
+              timeout = Math.min(timeout, LONG_RUNNING_POLL_NS);
+            }
+            Element pendingTrace;
+            if (timeout == Long.MAX_VALUE) {
               pendingTrace = queue.take(); // block until available;
+            } else {
+              pendingTrace = queue.poll(timeout, TimeUnit.NANOSECONDS);
+            }
+            if (longRunningSpansEnabled()) {
+              runningTracesTracker.flushAndCompact(timeSource.getCurrentTimeMillis());
+            }
+            if (pendingTrace == null) {
+              continue;
             }
 
             if (pendingTrace instanceof FlushElement) {
               // Since this is an MPSC queue, the drain needs to be called on the consumer thread
               queue.drain(WriteDrain.WRITE_DRAIN);
+              wheel.drain(flushWrite);
               flushCounter.incrementAndGet();
               continue;
             }
 
-            // The element is no longer in the queue
-            pendingTrace.setEnqueued(false);
+            now = timeSource.getNanoTicks();
+            process(pendingTrace, now, now);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
 
-            if (longRunningSpansEnabled()) {
-              if (runningTracesTracker.add(pendingTrace)) {
-                continue;
-              }
-            }
+      @Override
+      public void onExpiry(Element pendingTrace, long bufferedAt) {
+        process(pendingTrace, bufferedAt, timeSource.getNanoTicks());
+      }
 
-            long oldestFinishedTime = pendingTrace.oldestFinishedTime();
-            long finishTimestampMillis = TimeUnit.NANOSECONDS.toMillis(oldestFinishedTime);
-            if (finishTimestampMillis <= timeSource.getCurrentTimeMillis() - FORCE_SEND_DELAY_MS) {
-              // Root span is getting old. Send the trace to avoid being discarded by agent.
-              pendingTrace.write();
-              continue;
-            }
+      private void process(Element pendingTrace, long bufferedAt, long now) {
+        // The element is no longer buffered
+        pendingTrace.setEnqueued(false);
 
-            if (pendingTrace.lastReferencedNanosAgo(SEND_DELAY_NS)) {
-              // Trace has been unmodified long enough, go ahead and write whatever is finished.
-              pendingTrace.write();
-            } else {
-              // Trace is too new.  Requeue it and sleep to avoid a hot loop.
-              enqueue(pendingTrace);
-              Thread.sleep(SLEEP_TIME_MS);
-            }
+        if (longRunningSpansEnabled()) {
+          if (runningTracesTracker.add(pendingTrace)) {
+            return;
           }
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
+        }
+
+        long oldestFinishedTime = pendingTrace.oldestFinishedTime();
+        long finishTimestampMillis = TimeUnit.NANOSECONDS.toMillis(oldestFinishedTime);
+        if (finishTimestampMillis <= timeSource.getCurrentTimeMillis() - FORCE_SEND_DELAY_MS) {
+          // Root span is getting old. Send the trace to avoid being discarded by agent.
+          write(pendingTrace, bufferedAt, now);
+          return;
+        }
+
+        if (pendingTrace.lastReferencedNanosAgo(SEND_DELAY_NS)) {
+          // Trace has been unmodified long enough, go ahead and write whatever is finished.
+          write(pendingTrace, bufferedAt, now);
+        } else if (pendingTrace.setEnqueued(true)) {
+          // Trace is too new, check it again once it could have been idle for long enough.
+          // If it couldn't be marked as enqueued, it has been enqueued again concurrently
+          // and will be processed when it arrives.
+          long lastReferenced = pendingTrace.lastReferencedNanoTicks();
+          long deadline =
+              (lastReferenced == Long.MIN_VALUE ? now : lastReferenced) + SEND_DELAY_NS + 1;
+          if (oldestFinishedTime != Long.MAX_VALUE) {
+            // don't wait past the point the trace must be force sent
+            long forceSendIn =
+                oldestFinishedTime + FORCE_SEND_DELAY_NS - timeSource.getCurrentTimeNanos();
+            deadline = Math.min(deadline, now + forceSendIn);
+          }
+          wheel.schedule(pendingTrace, deadline, bufferedAt);
         }
       }
+
+      private void write(Element pendingTrace, long bufferedAt, long now) {
+        healthMetrics.onPendingTraceBufferWrite(now - bufferedAt);
+        pendingTrace.write();
+      }
     }
 
     public DelayingPendingTraceBuffer(
@@ -226,8 +287,9 @@ public abstract class PendingTraceBuffer implements AutoCloseable {
         SharedCommunicationObjects sharedCommunicationObjects,
         HealthMetrics healthMetrics) {
       this.queue = new MpscBlockingConsumerArrayQueue<>(bufferSize);
-      this.worker = newAgentThread(TRACE_MONITOR, new Worker());
       this.timeSource = timeSource;
+      this.healthMetrics = null == healthMetrics ? HealthMetrics.NO_OP : healthMetrics;
+      this.worker = newAgentThread(TRACE_MONITOR, new Worker());
       boolean runningSpansEnabled = config.isLongRunningTraceEnabled();
       this.runningTracesTracker =
           runningSpansEnabled
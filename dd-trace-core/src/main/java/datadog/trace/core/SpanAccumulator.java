@@ -0,0 +1,198 @@
+package datadog.trace.core;
+
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Collects the spans of a {@link PendingTrace} in a chain of append-only chunks. Adding a span
+ * claims a slot with a single atomic increment on the current chunk and publishes the span with an
+ * ordered store, so no node is allocated per span. Chunks start small and double in size, so small
+ * traces stay cheap while very large traces need few chunks.
+ *
+ * <p>Any thread can add spans, but only one thread at a time may {@link #drain} them. Draining
+ * resumes from where the previous drain stopped, so repeated partial flushes of a large trace only
+ * visit the spans added since the last flush. A slot which has been claimed but not yet published
+ * ends the drain, the spans after it are left for the next one.
+ */
+final class SpanAccumulator extends AbstractCollection<DDSpan> {
+
+  private static final int FIRST_CHUNK_SIZE = 8;
+  private static final int MAX_CHUNK_SIZE = 1024;
+
+  private static final AtomicReferenceFieldUpdater<SpanAccumulator, Chunk> TAIL =
+      AtomicReferenceFieldUpdater.newUpdater(SpanAccumulator.class, Chunk.class, "tail");
+
+  // only moved by the draining thread
+  private volatile Chunk head;
+  private volatile Chunk tail;
+  private volatile long drainedCount;
+
+  SpanAccumulator() {
+    this.head = this.tail = new Chunk(0, FIRST_CHUNK_SIZE);
+  }
+
+  @Override
+  public boolean add(DDSpan span) {
+    Chunk chunk = tail;
+    for (; ; ) {
+      int index = chunk.claim();
+      if (index < chunk.length()) {
+        chunk.lazySet(index, span);
+        return true;
+      }
+      chunk = nextChunk(chunk);
+    }
+  }
+
+  private Chunk nextChunk(Chunk chunk) {
+    Chunk next = chunk.next;
+    if (null == next) {
+      Chunk created =
+          new Chunk(chunk.base + chunk.length(), Math.min(MAX_CHUNK_SIZE, chunk.length() << 1));
+      next = Chunk.NEXT.compareAndSet(chunk, null, created) ? created : chunk.next;
+    }
+    TAIL.compareAndSet(this, chunk, next);
+    return next;
+  }
+
+  /**
+   * @return the number of spans added but not yet drained, which may include spans whose slots are
+   *     claimed but not yet published
+   */
+  @Override
+  public int size() {
+    // read the drained count first, so it cannot overtake the added count read after it
+    long drained = drainedCount;
+    Chunk chunk = tail;
+    return (int) (chunk.base + Math.min(chunk.claimed, chunk.length()) - drained);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() <= 0;
+  }
+
+  /**
+   * Moves the published spans to the list, most recently added first. Callers must ensure only one
+   * thread drains at a time.
+   *
+   * @return the number of spans moved
+   */
+  int drain(List<DDSpan> into) {
+    int start = into.size();
+    Chunk chunk = head;
+    for (; ; ) {
+      int limit = Math.min(chunk.claimed, chunk.length());
+      int index = chunk.drained;
+      while (index < limit) {
+        DDSpan span = chunk.get(index);
+        if (null == span) {
+          break; // claimed, but not yet published
+        }
+        chunk.lazySet(index, null);
+        into.add(span);
+        ++index;
+      }
+      chunk.drained = index;
+      Chunk next = chunk.next;
+      if (index < chunk.length() || null == next) {
+        break;
+      }
+      chunk = next;
+    }
+    head = chunk;
+    int count = into.size() - start;
+    if (count > 0) {
+      drainedCount += count;
+      Collections.reverse(into.subList(start, into.size()));
+    }
+    return count;
+  }
+
+  /** @return the most recently published span, or {@code null} if there are none */
+  DDSpan peek() {
+    DDSpan latest = null;
+    for (DDSpan span : this) {
+      latest = span;
+    }
+    return latest;
+  }
+
+  /** Weakly consistent iteration over the published spans, in the order they were added. */
+  @Override
+  public Iterator<DDSpan> iterator() {
+    return new Itr(head);
+  }
+
+  private static final class Itr implements Iterator<DDSpan> {
+    private Chunk chunk;
+    private int index;
+    private DDSpan next;
+
+    Itr(Chunk chunk) {
+      this.chunk = chunk;
+      this.index = chunk.drained;
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (null != chunk) {
+        int limit = Math.min(chunk.claimed, chunk.length());
+        while (index < limit) {
+          DDSpan span = chunk.get(index++);
+          if (null != span) {
+            next = span;
+            return;
+          }
+        }
+        chunk = chunk.next;
+        index = 0;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return null != next;
+    }
+
+    @Override
+    public DDSpan next() {
+      DDSpan span = next;
+      if (null == span) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return span;
+    }
+  }
+
+  private static final class Chunk extends AtomicReferenceArray<DDSpan> {
+    static final AtomicIntegerFieldUpdater<Chunk> CLAIMED =
+        AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "claimed");
+    static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT =
+        AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+
+    // sequence number of the first slot across the whole chain
+    final long base;
+    volatile int claimed;
+    volatile Chunk next;
+    // only accessed by the draining thread
+    int drained;
+
+    Chunk(long base, int size) {
+      super(size);
+      this.base = base;
+    }
+
+    int claim() {
+      return CLAIMED.getAndIncrement(this);
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package datadog.trace.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open addressing (linear probing) map used to store span tags.
+ *
+ * <p>Numeric tags set through the primitive setters are stored unboxed and only boxed when read
+ * through the {@link Map} interface. Serializers should use {@link #visit(Map, Visitor)} to read
+ * them without boxing. Tag keys are almost always constants, so keys are compared by reference
+ * before falling back to {@link String#equals(Object)}.
+ *
+ * <p>This class is not thread-safe, access must be guarded by the owner. Setting a {@code null}
+ * value removes the tag.
+ */
+public final class TagMap extends AbstractMap<String, Object> {
+
+  /** Receives tags without boxing primitive values. */
+  public interface Visitor {
+    void visitObject(String key, Object value);
+
+    void visitInt(String key, int value);
+
+    void visitLong(String key, long value);
+
+    void visitFloat(String key, float value);
+
+    void visitDouble(String key, double value);
+  }
+
+  private static final byte OBJECT = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte FLOAT = 3;
+  private static final byte DOUBLE = 4;
+
+  private static final int MIN_CAPACITY = 8;
+
+  private String[] keys;
+  private Object[] values;
+  private long[] primitives;
+  private byte[] types;
+  private int size;
+  private int threshold;
+
+  public TagMap() {
+    this(MIN_CAPACITY);
+  }
+
+  public TagMap(int expectedSize) {
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  private TagMap(TagMap other) {
+    this.keys = other.keys.clone();
+    this.values = other.values.clone();
+    this.primitives = other.primitives.clone();
+    this.types = other.types.clone();
+    this.size = other.size;
+    this.threshold = other.threshold;
+  }
+
+  /** Visits each tag, dispatching unboxed values when {@code tags} is a {@link TagMap}. */
+  public static void visit(Map<String, Object> tags, Visitor visitor) {
+    if (tags instanceof TagMap) {
+      ((TagMap) tags).visit(visitor);
+    } else {
+      for (Map.Entry<String, Object> entry : tags.entrySet()) {
+        visitor.visitObject(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  public void visit(Visitor visitor) {
+    final String[] keys = this.keys;
+    for (int i = 0; i < keys.length; i++) {
+      String key = keys[i];
+      if (null != key) {
+        switch (types[i]) {
+          case INT:
+            visitor.visitInt(key, (int) primitives[i]);
+            break;
+          case LONG:
+            visitor.visitLong(key, primitives[i]);
+            break;
+          case FLOAT:
+            visitor.visitFloat(key, Float.intBitsToFloat((int) primitives[i]));
+            break;
+          case DOUBLE:
+            visitor.visitDouble(key, Double.longBitsToDouble(primitives[i]));
+            break;
+          default:
+            visitor.visitObject(key, values[i]);
+        }
+      }
+    }
+  }
+
+  /** @return a copy of this map, sharing no mutable state with it */
+  public TagMap copy() {
+    return new TagMap(this);
+  }
+
+  public void set(String key, Object value) {
+    if (null == value) {
+      remove(key);
+    } else {
+      int i = insert(key);
+      values[i] = value;
+      primitives[i] = 0;
+      types[i] = OBJECT;
+    }
+  }
+
+  public void set(String key, int value) {
+    setPrimitive(key, value, INT);
+  }
+
+  public void set(String key, long value) {
+    setPrimitive(key, value, LONG);
+  }
+
+  public void set(String key, float value) {
+    setPrimitive(key, Float.floatToRawIntBits(value), FLOAT);
+  }
+
+  public void set(String key, double value) {
+    setPrimitive(key, Double.doubleToRawLongBits(value), DOUBLE);
+  }
+
+  private void setPrimitive(String key, long bits, byte type) {
+    int i = insert(key);
+    values[i] = null;
+    primitives[i] = bits;
+    types[i] = type;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int i = indexOf(key);
+    Object previous = i < 0 ? null : valueAt(i);
+    set(key, value);
+    return previous;
+  }
+
+  @Override
+  public Object get(Object key) {
+    int i = indexOf(key);
+    return i < 0 ? null : valueAt(i);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    Object previous = valueAt(i);
+    removeAt(i);
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    Arrays.fill(primitives, 0);
+    Arrays.fill(types, OBJECT);
+    size = 0;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new EntrySet();
+  }
+
+  private Object valueAt(int i) {
+    switch (types[i]) {
+      case INT:
+        return (int) primitives[i];
+      case LONG:
+        return primitives[i];
+      case FLOAT:
+        return Float.intBitsToFloat((int) primitives[i]);
+      case DOUBLE:
+        return Double.longBitsToDouble(primitives[i]);
+      default:
+        return values[i];
+    }
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof String)) {
+      return -1;
+    }
+    final String[] keys = this.keys;
+    final int mask = keys.length - 1;
+    int i = hash(key) & mask;
+    String k;
+    while (null != (k = keys[i])) {
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int insert(String key) {
+    if (null == key) {
+      throw new NullPointerException("tag key");
+    }
+    final String[] keys = this.keys;
+    final int mask = keys.length - 1;
+    int i = hash(key) & mask;
+    String k;
+    while (null != (k = keys[i])) {
+      if (k == key || k.equals(key)) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    if (size >= threshold) {
+      resize();
+      return insert(key);
+    }
+    keys[i] = key;
+    ++size;
+    return i;
+  }
+
+  /** Backward shift deletion, keeps probe sequences intact without tombstones. */
+  private void removeAt(int i) {
+    final String[] keys = this.keys;
+    final int mask = keys.length - 1;
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      String k = keys[j];
+      if (null == k) {
+        break;
+      }
+      int home = hash(k) & mask;
+      // the entry at j can only move to i if its home slot isn't cyclically within (i, j]
+      if (i < j ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = k;
+        values[i] = values[j];
+        primitives[i] = primitives[j];
+        types[i] = types[j];
+        i = j;
+      }
+    }
+    keys[i] = null;
+    values[i] = null;
+    primitives[i] = 0;
+    types[i] = OBJECT;
+    --size;
+  }
+
+  private void resize() {
+    final String[] oldKeys = keys;
+    final Object[] oldValues = values;
+    final long[] oldPrimitives = primitives;
+    final byte[] oldTypes = types;
+    allocate(oldKeys.length << 1);
+    final int mask = keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      String key = oldKeys[j];
+      if (null != key) {
+        int i = hash(key) & mask;
+        while (null != keys[i]) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = oldValues[j];
+        primitives[i] = oldPrimitives[j];
+        types[i] = oldTypes[j];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new String[capacity];
+    values = new Object[capacity];
+    primitives = new long[capacity];
+    types = new byte[capacity];
+    // keep the load factor at 2/3 so probe sequences stay short
+    threshold = capacity * 2 / 3;
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * 2 / 3 < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      TagMap.this.clear();
+    }
+  }
+
+  /**
+   * Iteration starts just after an empty slot, so no cluster wraps around the end of iteration.
+   * Backward shift deletion only moves entries which have not been visited yet into the removed
+   * slot, which makes {@link Iterator#remove()} safe as long as the removed slot is revisited.
+   */
+  private final class EntryIterator implements Iterator<Entry<String, Object>> {
+    private final int start;
+    private int offset;
+    private int current = -1;
+
+    EntryIterator() {
+      int empty = 0;
+      while (null != keys[empty]) {
+        ++empty;
+      }
+      this.start = empty;
+      advance();
+    }
+
+    private int slot(int offset) {
+      return (start + offset) & (keys.length - 1);
+    }
+
+    private void advance() {
+      while (offset < keys.length && null == keys[slot(offset)]) {
+        ++offset;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return offset < keys.length;
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = slot(offset++);
+      advance();
+      return new SimpleImmutableEntry<>(keys[current], valueAt(current));
+    }
+
+    @Override
+    public void remove() {
+      if (current < 0) {
+        throw new IllegalStateException();
+      }
+      removeAt(current);
+      // an entry which has not been visited yet may have been shifted into the removed slot
+      offset = (current - start) & (keys.length - 1);
+      current = -1;
+      advance();
+    }
+  }
+}
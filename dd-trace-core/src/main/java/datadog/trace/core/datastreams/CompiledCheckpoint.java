@@ -0,0 +1,120 @@
+package datadog.trace.core.datastreams;
+
+import datadog.trace.api.Config;
+import datadog.trace.api.WellKnownTags;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
+import datadog.trace.util.FNV64Hash;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything a checkpoint needs from its tags: the edge tags reported with the stats point, the
+ * node hash, the direction used for loop protection and the hash of the dataset tags. None of these
+ * depend on the pathway, so they are computed once per {@link CheckpointTemplate}.
+ */
+final class CompiledCheckpoint implements CheckpointTemplate.Compiled {
+
+  private static final Set<String> hashableTagKeys =
+      new HashSet<String>(
+          Arrays.asList(
+              TagsProcessor.GROUP_TAG,
+              TagsProcessor.TYPE_TAG,
+              TagsProcessor.DIRECTION_TAG,
+              TagsProcessor.TOPIC_TAG,
+              TagsProcessor.EXCHANGE_TAG));
+
+  private static final Set<String> dataSetTagKeys =
+      new HashSet<String>(
+          Arrays.asList(TagsProcessor.DATASET_NAME_TAG, TagsProcessor.DATASET_NAMESPACE_TAG));
+
+  private final WellKnownTags wellKnownTags;
+  private final String primaryTag;
+  final List<String> edgeTags;
+  final String direction;
+  final long nodeHash;
+  // hash of the dataset tags, still to be combined with the pathway hash of each checkpoint
+  final long dataSetHash;
+  final String hashSource;
+
+  private CompiledCheckpoint(
+      WellKnownTags wellKnownTags,
+      String primaryTag,
+      List<String> edgeTags,
+      String direction,
+      long nodeHash,
+      long dataSetHash,
+      String hashSource) {
+    this.wellKnownTags = wellKnownTags;
+    this.primaryTag = primaryTag;
+    this.edgeTags = edgeTags;
+    this.direction = direction;
+    this.nodeHash = nodeHash;
+    this.dataSetHash = dataSetHash;
+    this.hashSource = hashSource;
+  }
+
+  /** @return the compiled form of the template, compiling it on first use */
+  static CompiledCheckpoint of(CheckpointTemplate template, WellKnownTags wellKnownTags) {
+    String primaryTag = Config.get().getPrimaryTag();
+    CheckpointTemplate.Compiled compiled = template.getCompiled();
+    if (compiled instanceof CompiledCheckpoint) {
+      CompiledCheckpoint checkpoint = (CompiledCheckpoint) compiled;
+      // the node hash depends on the service and primary tag, which only change in tests
+      if (checkpoint.wellKnownTags == wellKnownTags && checkpoint.primaryTag == primaryTag) {
+        return checkpoint;
+      }
+    }
+    CompiledCheckpoint checkpoint = compile(template.getSortedTags(), wellKnownTags, primaryTag);
+    template.setCompiled(checkpoint);
+    return checkpoint;
+  }
+
+  static CompiledCheckpoint compile(Map<String, String> sortedTags, WellKnownTags wellKnownTags) {
+    return compile(sortedTags, wellKnownTags, Config.get().getPrimaryTag());
+  }
+
+  private static CompiledCheckpoint compile(
+      Map<String, String> sortedTags, WellKnownTags wellKnownTags, String primaryTag) {
+    // So far, each tag key has only one tag value, so we're initializing the capacity to match
+    // the number of tag keys for now. We should revisit this later if it's no longer the case.
+    List<String> edgeTags = new ArrayList<>(sortedTags.size());
+    StringBuilder hashSource = new StringBuilder();
+    hashSource.append(wellKnownTags.getService());
+    hashSource.append(wellKnownTags.getEnv());
+    if (primaryTag != null) {
+      hashSource.append(primaryTag);
+    }
+    DefaultPathwayContext.DataSetHashBuilder dataSetHashBuilder =
+        new DefaultPathwayContext.DataSetHashBuilder();
+    long dataSetHash = 0;
+
+    for (Map.Entry<String, String> entry : sortedTags.entrySet()) {
+      String tag = TagsProcessor.createTag(entry.getKey(), entry.getValue());
+      if (tag == null) {
+        continue;
+      }
+      if (hashableTagKeys.contains(entry.getKey())) {
+        hashSource.append(tag);
+      }
+      if (dataSetTagKeys.contains(entry.getKey())) {
+        dataSetHash = dataSetHashBuilder.addValue(tag);
+      }
+      edgeTags.add(tag);
+    }
+
+    String source = hashSource.toString();
+    return new CompiledCheckpoint(
+        wellKnownTags,
+        primaryTag,
+        Collections.unmodifiableList(edgeTags),
+        sortedTags.get(TagsProcessor.DIRECTION_TAG),
+        FNV64Hash.generateHash(source, FNV64Hash.Version.v1),
+        dataSetHash,
+        source);
+  }
+}
@@ -5,18 +5,21 @@ import static datadog.trace.bootstrap.instrumentation.api.PathwayContext.PROPAGA
 
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
 import java.io.IOException;
 import java.util.LinkedHashMap;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DataStreamContextInjector {
   private static final Logger LOGGER = LoggerFactory.getLogger(DataStreamContextInjector.class);
-  private final DataStreamsMonitoring dataStreamsMonitoring;
+  private final Consumer<StatsPoint> addPoint;
 
   public DataStreamContextInjector(DataStreamsMonitoring dataStreamsMonitoring) {
-    this.dataStreamsMonitoring = dataStreamsMonitoring;
+    this.addPoint = dataStreamsMonitoring::add;
   }
 
   public <C> void injectPathwayContext(
@@ -38,6 +41,22 @@ public class DataStreamContextInjector {
         span, carrier, setter, sortedTags, defaultTimestamp, payloadSizeBytes, true);
   }
 
+  public <C> void injectPathwayContext(
+      AgentSpan span,
+      C carrier,
+      AgentPropagation.Setter<C> setter,
+      CheckpointTemplate template,
+      long defaultTimestamp,
+      long payloadSizeBytes) {
+    PathwayContext pathwayContext = span.context().getPathwayContext();
+    if (pathwayContext == null
+        || (span.traceConfig() != null && !span.traceConfig().isDataStreamsEnabled())) {
+      return;
+    }
+    pathwayContext.setCheckpoint(template, addPoint, defaultTimestamp, payloadSizeBytes);
+    inject(span, pathwayContext, carrier, setter);
+  }
+
   /** Same as injectPathwayContext, but the stats collected in the StatsPoint are not sent. */
   public <C> void injectPathwayContextWithoutSendingStats(
       AgentSpan span,
@@ -62,10 +81,17 @@ public class DataStreamContextInjector {
     }
     pathwayContext.setCheckpoint(
         sortedTags,
-        sendCheckpoint ? dataStreamsMonitoring::add : pathwayContext::saveStats,
+        sendCheckpoint ? addPoint : pathwayContext::saveStats,
         defaultTimestamp,
         payloadSizeBytes);
+    inject(span, pathwayContext, carrier, setter);
+  }
 
+  private static <C> void inject(
+      AgentSpan span,
+      PathwayContext pathwayContext,
+      C carrier,
+      AgentPropagation.Setter<C> setter) {
     boolean injected =
         setter instanceof AgentPropagation.BinarySetter
             ? injectBinaryPathwayContext(
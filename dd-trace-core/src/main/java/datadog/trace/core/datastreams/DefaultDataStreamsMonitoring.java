@@ -22,6 +22,7 @@ import datadog.trace.api.time.TimeSource;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
 import datadog.trace.bootstrap.instrumentation.api.Backlog;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.bootstrap.instrumentation.api.InboxItem;
 import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
 import datadog.trace.bootstrap.instrumentation.api.Schema;
@@ -32,19 +33,21 @@ import datadog.trace.common.metrics.OkHttpSink;
 import datadog.trace.common.metrics.Sink;
 import datadog.trace.core.DDSpan;
 import datadog.trace.core.DDTraceCoreInfo;
+import datadog.trace.core.monitor.HealthMetrics;
 import datadog.trace.core.propagation.HttpCodec;
 import datadog.trace.util.AgentTaskScheduler;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import org.jctools.maps.NonBlockingHashMapLong;
 import org.jctools.queues.MpscBlockingConsumerArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,14 +56,19 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
   private static final Logger log = LoggerFactory.getLogger(DefaultDataStreamsMonitoring.class);
 
   static final long FEATURE_CHECK_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
+  // leaves room for the report and shutdown signals when the inbox size is misconfigured
+  static final int MIN_INBOX_SIZE = 128;
 
   private static final StatsPoint REPORT =
       new StatsPoint(Collections.emptyList(), 0, 0, 0, 0, 0, 0, 0);
   private static final StatsPoint POISON_PILL =
       new StatsPoint(Collections.emptyList(), 0, 0, 0, 0, 0, 0, 0);
 
-  private final Map<Long, StatsBucket> timeToBucket = new HashMap<>();
-  private final BlockingQueue<InboxItem> inbox = new MpscBlockingConsumerArrayQueue<>(1024);
+  private final LongMap<StatsBucket> timeToBucket = new LongMap<>(8);
+  // batches still accepting points, by dataset hash
+  private final NonBlockingHashMapLong<StatsPointBatch> pending = new NonBlockingHashMapLong<>();
+  private final BlockingQueue<InboxItem> inbox;
+  private final HealthMetrics healthMetrics;
   private final DatastreamsPayloadWriter payloadWriter;
   private final DDAgentFeaturesDiscovery features;
   private final TimeSource timeSource;
@@ -68,6 +76,7 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
   private final Supplier<TraceConfig> traceConfigSupplier;
   private final long bucketDurationNanos;
   private final DataStreamContextInjector injector;
+  private final Consumer<StatsPoint> addPoint = this::add;
   private final Thread thread;
   private AgentTaskScheduler.Scheduled<DefaultDataStreamsMonitoring> cancellation;
   private volatile long nextFeatureCheck;
@@ -81,6 +90,20 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
       SharedCommunicationObjects sharedCommunicationObjects,
       TimeSource timeSource,
       Supplier<TraceConfig> traceConfigSupplier) {
+    this(
+        config,
+        sharedCommunicationObjects,
+        timeSource,
+        traceConfigSupplier,
+        HealthMetrics.NO_OP);
+  }
+
+  public DefaultDataStreamsMonitoring(
+      Config config,
+      SharedCommunicationObjects sharedCommunicationObjects,
+      TimeSource timeSource,
+      Supplier<TraceConfig> traceConfigSupplier,
+      HealthMetrics healthMetrics) {
     this(
         new OkHttpSink(
             sharedCommunicationObjects.okHttpClient,
@@ -92,7 +115,8 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
         sharedCommunicationObjects.featuresDiscovery(config),
         timeSource,
         traceConfigSupplier,
-        config);
+        config,
+        healthMetrics);
   }
 
   public DefaultDataStreamsMonitoring(
@@ -101,6 +125,16 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
       TimeSource timeSource,
       Supplier<TraceConfig> traceConfigSupplier,
       Config config) {
+    this(sink, features, timeSource, traceConfigSupplier, config, HealthMetrics.NO_OP);
+  }
+
+  public DefaultDataStreamsMonitoring(
+      Sink sink,
+      DDAgentFeaturesDiscovery features,
+      TimeSource timeSource,
+      Supplier<TraceConfig> traceConfigSupplier,
+      Config config,
+      HealthMetrics healthMetrics) {
     this(
         sink,
         features,
@@ -109,7 +143,9 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
         config.getWellKnownTags(),
         new MsgPackDatastreamsPayloadWriter(
             sink, config.getWellKnownTags(), DDTraceCoreInfo.VERSION, config.getPrimaryTag()),
-        Config.get().getDataStreamsBucketDurationNanoseconds());
+        Config.get().getDataStreamsBucketDurationNanoseconds(),
+        config.getDataStreamsInboxSize(),
+        healthMetrics);
   }
 
   public DefaultDataStreamsMonitoring(
@@ -120,12 +156,36 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
       WellKnownTags wellKnownTags,
       DatastreamsPayloadWriter payloadWriter,
       long bucketDurationNanos) {
+    this(
+        sink,
+        features,
+        timeSource,
+        traceConfigSupplier,
+        wellKnownTags,
+        payloadWriter,
+        bucketDurationNanos,
+        Config.get().getDataStreamsInboxSize(),
+        HealthMetrics.NO_OP);
+  }
+
+  public DefaultDataStreamsMonitoring(
+      Sink sink,
+      DDAgentFeaturesDiscovery features,
+      TimeSource timeSource,
+      Supplier<TraceConfig> traceConfigSupplier,
+      WellKnownTags wellKnownTags,
+      DatastreamsPayloadWriter payloadWriter,
+      long bucketDurationNanos,
+      int inboxSize,
+      HealthMetrics healthMetrics) {
     this.features = features;
     this.timeSource = timeSource;
     this.traceConfigSupplier = traceConfigSupplier;
     this.wellKnownTags = wellKnownTags;
     this.payloadWriter = payloadWriter;
     this.bucketDurationNanos = bucketDurationNanos;
+    this.inbox = new MpscBlockingConsumerArrayQueue<>(Math.max(MIN_INBOX_SIZE, inboxSize));
+    this.healthMetrics = healthMetrics;
     this.injector = new DataStreamContextInjector(this);
 
     thread = newAgentThread(DATA_STREAMS_MONITORING, new InboxProcessor());
@@ -159,7 +219,19 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
   @Override
   public void add(StatsPoint statsPoint) {
     if (thread.isAlive()) {
-      inbox.offer(statsPoint);
+      long bucket = currentBucket(statsPoint.getTimestampNanos());
+      long dataSetHash = statsPoint.getDataSetHash();
+      StatsPointBatch batch = pending.get(dataSetHash);
+      if (null == batch || !batch.add(bucket, statsPoint)) {
+        // the batch is full, taken by the consumer or for another bucket: start a new one
+        batch = new StatsPointBatch(bucket, statsPoint);
+        batch.add(bucket, statsPoint);
+        pending.put(dataSetHash, batch);
+        if (!inbox.offer(batch)) {
+          pending.remove(dataSetHash, batch);
+          healthMetrics.onDataStreamsDrop(batch.drop());
+        }
+      }
     }
   }
 
@@ -221,7 +293,9 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
       }
       tags.add(tag);
     }
-    inbox.offer(new Backlog(tags, value, timeSource.getCurrentTimeNanos()));
+    if (!inbox.offer(new Backlog(tags, value, timeSource.getCurrentTimeNanos()))) {
+      healthMetrics.onDataStreamsDrop(1);
+    }
   }
 
   @Override
@@ -232,7 +306,19 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
       long payloadSizeBytes) {
     PathwayContext pathwayContext = span.context().getPathwayContext();
     if (pathwayContext != null) {
-      pathwayContext.setCheckpoint(sortedTags, this::add, defaultTimestamp, payloadSizeBytes);
+      pathwayContext.setCheckpoint(sortedTags, addPoint, defaultTimestamp, payloadSizeBytes);
+      if (pathwayContext.getHash() != 0) {
+        span.setTag(PATHWAY_HASH, Long.toUnsignedString(pathwayContext.getHash()));
+      }
+    }
+  }
+
+  @Override
+  public void setCheckpoint(
+      AgentSpan span, CheckpointTemplate template, long defaultTimestamp, long payloadSizeBytes) {
+    PathwayContext pathwayContext = span.context().getPathwayContext();
+    if (pathwayContext != null) {
+      pathwayContext.setCheckpoint(template, addPoint, defaultTimestamp, payloadSizeBytes);
       if (pathwayContext.getHash() != 0) {
         span.setTag(PATHWAY_HASH, Long.toUnsignedString(pathwayContext.getHash()));
       }
@@ -317,22 +403,18 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
               flush(Long.MAX_VALUE);
             }
             break;
-          } else if (supportsDataStreams) {
-            if (payload instanceof StatsPoint) {
-              StatsPoint statsPoint = (StatsPoint) payload;
-              Long bucket = currentBucket(statsPoint.getTimestampNanos());
-              StatsBucket statsBucket =
-                  timeToBucket.computeIfAbsent(
-                      bucket, startTime -> new StatsBucket(startTime, bucketDurationNanos));
-              statsBucket.addPoint(statsPoint);
-            } else if (payload instanceof Backlog) {
-              Backlog backlog = (Backlog) payload;
-              Long bucket = currentBucket(backlog.getTimestampNanos());
-              StatsBucket statsBucket =
-                  timeToBucket.computeIfAbsent(
-                      bucket, startTime -> new StatsBucket(startTime, bucketDurationNanos));
-              statsBucket.addBacklog(backlog);
+          } else if (payload instanceof StatsPointBatch) {
+            StatsPointBatch batch = (StatsPointBatch) payload;
+            // a newer batch may already have replaced this one, which must stay pending
+            pending.remove(batch.getDataSetHash(), batch);
+            if (supportsDataStreams) {
+              getStatsBucket(batch.getBucketStartNanos()).addBatch(batch);
+            } else {
+              batch.drop();
             }
+          } else if (supportsDataStreams && payload instanceof Backlog) {
+            Backlog backlog = (Backlog) payload;
+            getStatsBucket(backlog.getTimestampNanos()).addBacklog(backlog);
           }
         } catch (InterruptedException e) {
           currentThread.interrupt();
@@ -347,22 +429,31 @@ public class DefaultDataStreamsMonitoring implements DataStreamsMonitoring, Even
     return timestampNanos - (timestampNanos % bucketDurationNanos);
   }
 
+  private StatsBucket getStatsBucket(long timestampNanos) {
+    long bucket = currentBucket(timestampNanos);
+    StatsBucket statsBucket = timeToBucket.get(bucket);
+    if (null == statsBucket) {
+      statsBucket = new StatsBucket(bucket, bucketDurationNanos);
+      timeToBucket.put(bucket, statsBucket);
+    }
+    return statsBucket;
+  }
+
   private void flush(long timestampNanos) {
     long currentBucket = currentBucket(timestampNanos);
 
     List<StatsBucket> includedBuckets = new ArrayList<>();
-    Iterator<Map.Entry<Long, StatsBucket>> mapIterator = timeToBucket.entrySet().iterator();
-
-    while (mapIterator.hasNext()) {
-      Map.Entry<Long, StatsBucket> entry = mapIterator.next();
-
-      if (entry.getKey() < currentBucket) {
-        mapIterator.remove();
-        includedBuckets.add(entry.getValue());
+    for (StatsBucket statsBucket : timeToBucket.values()) {
+      if (statsBucket.getStartTimeNanos() < currentBucket) {
+        includedBuckets.add(statsBucket);
       }
     }
 
     if (!includedBuckets.isEmpty()) {
+      for (StatsBucket statsBucket : includedBuckets) {
+        timeToBucket.remove(statsBucket.getStartTimeNanos());
+      }
+      includedBuckets.sort(Comparator.comparingLong(StatsBucket::getStartTimeNanos));
       log.debug("Flushing {} buckets", includedBuckets.size());
       payloadWriter.writePayload(includedBuckets);
     }
@@ -7,36 +7,25 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import com.datadoghq.sketch.ddsketch.encoding.ByteArrayInput;
 import com.datadoghq.sketch.ddsketch.encoding.GrowingByteArrayOutput;
 import com.datadoghq.sketch.ddsketch.encoding.VarEncodingHelper;
-import datadog.trace.api.Config;
 import datadog.trace.api.WellKnownTags;
 import datadog.trace.api.time.TimeSource;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.bootstrap.instrumentation.api.PathwayContext;
 import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
 import datadog.trace.util.FNV64Hash;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DefaultPathwayContext implements PathwayContext {
   private static final Logger log = LoggerFactory.getLogger(DefaultPathwayContext.class);
-  private final Lock lock = new ReentrantLock();
   private final WellKnownTags wellKnownTags;
   private final TimeSource timeSource;
-  private final GrowingByteArrayOutput outputBuffer =
-      GrowingByteArrayOutput.withInitialCapacity(20);
 
   // pathwayStartNanos is nanoseconds since epoch
   // Nano ticks is necessary because time differences should use a monotonically increasing clock
@@ -52,19 +41,6 @@ public class DefaultPathwayContext implements PathwayContext {
   private long closestOppositeDirectionHash;
   private String previousDirection;
 
-  private static final Set<String> hashableTagKeys =
-      new HashSet<String>(
-          Arrays.asList(
-              TagsProcessor.GROUP_TAG,
-              TagsProcessor.TYPE_TAG,
-              TagsProcessor.DIRECTION_TAG,
-              TagsProcessor.TOPIC_TAG,
-              TagsProcessor.EXCHANGE_TAG));
-
-  private static final Set<String> dataSetTagKeys =
-      new HashSet<String>(
-          Arrays.asList(TagsProcessor.DATASET_NAME_TAG, TagsProcessor.DATASET_NAMESPACE_TAG));
-
   public DefaultPathwayContext(TimeSource timeSource, WellKnownTags wellKnownTags) {
     this.timeSource = timeSource;
     this.wellKnownTags = wellKnownTags;
@@ -117,16 +93,35 @@ public class DefaultPathwayContext implements PathwayContext {
       Consumer<StatsPoint> pointConsumer,
       long defaultTimestamp,
       long payloadSizeBytes) {
+    setCheckpoint(
+        CompiledCheckpoint.compile(sortedTags, wellKnownTags),
+        pointConsumer,
+        defaultTimestamp,
+        payloadSizeBytes);
+  }
+
+  @Override
+  public void setCheckpoint(
+      CheckpointTemplate template,
+      Consumer<StatsPoint> pointConsumer,
+      long defaultTimestamp,
+      long payloadSizeBytes) {
+    setCheckpoint(
+        CompiledCheckpoint.of(template, wellKnownTags),
+        pointConsumer,
+        defaultTimestamp,
+        payloadSizeBytes);
+  }
+
+  private void setCheckpoint(
+      CompiledCheckpoint checkpoint,
+      Consumer<StatsPoint> pointConsumer,
+      long defaultTimestamp,
+      long payloadSizeBytes) {
     long startNanos = timeSource.getCurrentTimeNanos();
     long nanoTicks = timeSource.getNanoTicks();
-    lock.lock();
-    try {
-      // So far, each tag key has only one tag value, so we're initializing the capacity to match
-      // the number of tag keys for now. We should revisit this later if it's no longer the case.
-      List<String> allTags = new ArrayList<>(sortedTags.size());
-      PathwayHashBuilder pathwayHashBuilder = new PathwayHashBuilder(wellKnownTags);
-      DataSetHashBuilder dataSetHashBuilder = new DataSetHashBuilder();
-
+    StatsPoint point;
+    synchronized (this) {
       if (!started) {
         if (defaultTimestamp == 0) {
           pathwayStartNanos = startNanos;
@@ -145,26 +140,11 @@ public class DefaultPathwayContext implements PathwayContext {
         log.debug("Started {}", this);
       }
 
-      for (Map.Entry<String, String> entry : sortedTags.entrySet()) {
-        String tag = TagsProcessor.createTag(entry.getKey(), entry.getValue());
-        if (tag == null) {
-          continue;
-        }
-        if (hashableTagKeys.contains(entry.getKey())) {
-          pathwayHashBuilder.addTag(tag);
-        }
-        if (dataSetTagKeys.contains(entry.getKey())) {
-          dataSetHashBuilder.addValue(tag);
-        }
-        allTags.add(tag);
-      }
-
-      long nodeHash = generateNodeHash(pathwayHashBuilder);
       // loop protection - a node should not be chosen as parent
       // for a sequential node with the same direction, as this
       // will cause a `cardinality explosion` for hash / parentHash tag values
-      if (sortedTags.containsKey(TagsProcessor.DIRECTION_TAG)) {
-        String direction = sortedTags.get(TagsProcessor.DIRECTION_TAG);
+      String direction = checkpoint.direction;
+      if (direction != null) {
         if (direction.equals(previousDirection)) {
           hash = closestOppositeDirectionHash;
         } else {
@@ -173,15 +153,17 @@ public class DefaultPathwayContext implements PathwayContext {
         }
       }
 
-      long newHash = generatePathwayHash(nodeHash, hash);
-      long dataSetHash = dataSetHashBuilder.addValue(String.valueOf(newHash));
+      long newHash = generatePathwayHash(checkpoint.nodeHash, hash);
+      // same as folding String.valueOf(newHash) into the DataSetHashBuilder of the dataset tags
+      long dataSetHash =
+          FNV64Hash.generateDecimalHash(checkpoint.dataSetHash, newHash, FNV64Hash.Version.v1);
 
       long pathwayLatencyNano = nanoTicks - pathwayStartNanoTicks;
       long edgeLatencyNano = nanoTicks - edgeStartNanoTicks;
 
-      StatsPoint point =
+      point =
           new StatsPoint(
-              allTags,
+              checkpoint.edgeTags,
               newHash,
               hash,
               dataSetHash,
@@ -191,12 +173,9 @@ public class DefaultPathwayContext implements PathwayContext {
               payloadSizeBytes);
       edgeStartNanoTicks = nanoTicks;
       hash = newHash;
-
-      pointConsumer.accept(point);
-      log.debug("Checkpoint set {}, hash source: {}", this, pathwayHashBuilder);
-    } finally {
-      lock.unlock();
     }
+    pointConsumer.accept(point);
+    log.debug("Checkpoint set {}, hash source: {}", this, checkpoint.hashSource);
   }
 
   @Override
@@ -210,28 +189,23 @@ public class DefaultPathwayContext implements PathwayContext {
   }
 
   @Override
-  public byte[] encode() throws IOException {
-    lock.lock();
-    try {
-      if (!started) {
-        throw new IllegalStateException("Context must be started to encode");
-      }
+  public synchronized byte[] encode() throws IOException {
+    if (!started) {
+      throw new IllegalStateException("Context must be started to encode");
+    }
 
-      outputBuffer.clear();
-      outputBuffer.writeLongLE(hash);
+    GrowingByteArrayOutput outputBuffer = GrowingByteArrayOutput.withInitialCapacity(20);
+    outputBuffer.writeLongLE(hash);
 
-      long pathwayStartMillis = TimeUnit.NANOSECONDS.toMillis(pathwayStartNanos);
-      VarEncodingHelper.encodeSignedVarLong(outputBuffer, pathwayStartMillis);
+    long pathwayStartMillis = TimeUnit.NANOSECONDS.toMillis(pathwayStartNanos);
+    VarEncodingHelper.encodeSignedVarLong(outputBuffer, pathwayStartMillis);
 
-      long edgeStartMillis =
-          pathwayStartMillis
-              + TimeUnit.NANOSECONDS.toMillis(edgeStartNanoTicks - pathwayStartNanoTicks);
+    long edgeStartMillis =
+        pathwayStartMillis
+            + TimeUnit.NANOSECONDS.toMillis(edgeStartNanoTicks - pathwayStartNanoTicks);
 
-      VarEncodingHelper.encodeSignedVarLong(outputBuffer, edgeStartMillis);
-      return Base64.getEncoder().encode(outputBuffer.trimmedCopy());
-    } finally {
-      lock.unlock();
-    }
+    VarEncodingHelper.encodeSignedVarLong(outputBuffer, edgeStartMillis);
+    return Base64.getEncoder().encode(outputBuffer.trimmedCopy());
   }
 
   @Override
@@ -244,26 +218,21 @@ public class DefaultPathwayContext implements PathwayContext {
   }
 
   @Override
-  public String toString() {
-    lock.lock();
-    try {
-      if (started) {
-        return "PathwayContext[ Hash "
-            + Long.toUnsignedString(hash)
-            + ", Start: "
-            + pathwayStartNanos
-            + ", StartTicks: "
-            + pathwayStartNanoTicks
-            + ", Edge Start Ticks: "
-            + edgeStartNanoTicks
-            + ", objectHashcode:"
-            + hashCode()
-            + "]";
-      } else {
-        return "PathwayContext [Not Started]";
-      }
-    } finally {
-      lock.unlock();
+  public synchronized String toString() {
+    if (started) {
+      return "PathwayContext[ Hash "
+          + Long.toUnsignedString(hash)
+          + ", Start: "
+          + pathwayStartNanos
+          + ", StartTicks: "
+          + pathwayStartNanoTicks
+          + ", Edge Start Ticks: "
+          + edgeStartNanoTicks
+          + ", objectHashcode:"
+          + hashCode()
+          + "]";
+    } else {
+      return "PathwayContext [Not Started]";
     }
   }
 
@@ -407,48 +376,8 @@ public class DefaultPathwayContext implements PathwayContext {
     }
   }
 
-  private static class PathwayHashBuilder {
-    private final StringBuilder builder;
-
-    public PathwayHashBuilder(WellKnownTags wellKnownTags) {
-      builder = new StringBuilder();
-      builder.append(wellKnownTags.getService());
-      builder.append(wellKnownTags.getEnv());
-
-      String primaryTag = Config.get().getPrimaryTag();
-      if (primaryTag != null) {
-        builder.append(primaryTag);
-      }
-    }
-
-    public void addTag(String tag) {
-      builder.append(tag);
-    }
-
-    public long generateHash() {
-      return FNV64Hash.generateHash(builder.toString(), FNV64Hash.Version.v1);
-    }
-
-    @Override
-    public String toString() {
-      return builder.toString();
-    }
-  }
-
-  private long generateNodeHash(PathwayHashBuilder pathwayHashBuilder) {
-    return pathwayHashBuilder.generateHash();
-  }
-
-  private long generatePathwayHash(long nodeHash, long parentHash) {
-    lock.lock();
-    try {
-      outputBuffer.clear();
-      outputBuffer.writeLongLE(nodeHash);
-      outputBuffer.writeLongLE(parentHash);
-
-      return FNV64Hash.generateHash(outputBuffer.backingArray(), 0, 16, FNV64Hash.Version.v1);
-    } finally {
-      lock.unlock();
-    }
+  private static long generatePathwayHash(long nodeHash, long parentHash) {
+    // hash of the little-endian bytes of both hashes
+    return FNV64Hash.generateHash(nodeHash, parentHash, FNV64Hash.Version.v1);
   }
 }
@@ -0,0 +1,171 @@
+package datadog.trace.core.datastreams;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Open addressing map from primitive {@code long} keys to non-null values, so the data streams
+ * consumer thread can look up buckets and groups by timestamp or hash without boxing the keys.
+ * Collisions are resolved with linear probing and removals shift the following entries back, so
+ * there are no tombstones. Not thread-safe.
+ */
+final class LongMap<V> {
+  private static final long MIX = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private Object[] values;
+  private int shift;
+  private int mask;
+  private int size;
+
+  LongMap(int expectedSize) {
+    int capacity = 8;
+    while (capacity * 3 < expectedSize * 4) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(long key) {
+    for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+    }
+    return null;
+  }
+
+  /** @return the value previously mapped to the key, or {@code null} */
+  @SuppressWarnings("unchecked")
+  V put(long key, V value) {
+    int slot = slot(key);
+    for (; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 4 > values.length * 3) {
+      resize(values.length << 1);
+    }
+    return null;
+  }
+
+  /** @return the value removed from the map, or {@code null} if the key was absent */
+  @SuppressWarnings("unchecked")
+  V remove(long key) {
+    for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        V removed = (V) values[slot];
+        removeAt(slot);
+        return removed;
+      }
+    }
+    return null;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+
+  /** @return a read-only view of the values, invalidated by any later modification */
+  Collection<V> values() {
+    return new Values();
+  }
+
+  private int slot(long key) {
+    return (int) ((key * MIX) >>> shift);
+  }
+
+  private void removeAt(int slot) {
+    int gap = slot;
+    for (int i = (slot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+      // the entry can fill the gap if the gap lies between its home slot and its current slot
+      if (((i - slot(keys[i])) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = keys[i];
+        values[gap] = values[i];
+        gap = i;
+      }
+    }
+    values[gap] = null;
+    --size;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    shift = Long.numberOfLeadingZeros(capacity) + 1;
+    mask = capacity - 1;
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldValues.length; ++i) {
+      if (oldValues[i] != null) {
+        int slot = slot(oldKeys[i]);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private final class Values extends AbstractCollection<V> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+      return new Iterator<V>() {
+        private int next = advance(0);
+
+        private int advance(int slot) {
+          while (slot < values.length && values[slot] == null) {
+            ++slot;
+          }
+          return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+          if (next >= values.length) {
+            throw new NoSuchElementException();
+          }
+          V value = (V) values[next];
+          next = advance(next + 1);
+          return value;
+        }
+      };
+    }
+  }
+}
@@ -2,6 +2,7 @@ package datadog.trace.core.datastreams;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.communication.serialization.GrowableBuffer;
 import datadog.communication.serialization.Writable;
 import datadog.communication.serialization.WritableFormatter;
@@ -43,7 +44,7 @@ public class MsgPackDatastreamsPayloadWriter implements DatastreamsPayloadWriter
 
   public MsgPackDatastreamsPayloadWriter(
       Sink sink, WellKnownTags wellKnownTags, String tracerVersion, String primaryTag) {
-    buffer = new GrowableBuffer(INITIAL_CAPACITY);
+    buffer = new GrowableBuffer(INITIAL_CAPACITY, ByteBufferPool.SHARED);
     writer = new MsgPackWriter(buffer);
     this.sink = sink;
     this.wellKnownTags = wellKnownTags;
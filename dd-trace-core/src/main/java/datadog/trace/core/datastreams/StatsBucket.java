@@ -10,7 +10,7 @@ import java.util.Map;
 public class StatsBucket {
   private final long startTimeNanos;
   private final long bucketDurationNanos;
-  private final Map<Long, StatsGroup> hashToGroup = new HashMap<>();
+  private final LongMap<StatsGroup> hashToGroup = new LongMap<>(16);
   private final Map<List<String>, Long> backlogs = new HashMap<>();
 
   public StatsBucket(long startTimeNanos, long bucketDurationNanos) {
@@ -39,6 +39,15 @@ public class StatsBucket {
         statsPoint.getPayloadSizeBytes());
   }
 
+  void addBatch(StatsPointBatch batch) {
+    StatsGroup statsGroup = hashToGroup.get(batch.getDataSetHash());
+    if (statsGroup == null) {
+      statsGroup = new StatsGroup(batch.getEdgeTags(), batch.getHash(), batch.getParentHash());
+      hashToGroup.put(batch.getDataSetHash(), statsGroup);
+    }
+    batch.contributeTo(statsGroup);
+  }
+
   public void addBacklog(Backlog backlog) {
     backlogs.compute(
         backlog.getSortedTags(),
@@ -0,0 +1,113 @@
+package datadog.trace.core.datastreams;
+
+import datadog.trace.bootstrap.instrumentation.api.InboxItem;
+import datadog.trace.bootstrap.instrumentation.api.StatsPoint;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stats points of the same dataset and bucket, conflated by the producing threads so the inbox
+ * carries one item for up to {@link #MAX_BATCH_SIZE} points. Points are added until the batch is
+ * full or the consumer thread has taken it; the consumer then waits for the points still being
+ * written before merging them into the stats group.
+ */
+final class StatsPointBatch implements InboxItem {
+  static final int MAX_BATCH_SIZE = 64;
+
+  private static final AtomicIntegerFieldUpdater<StatsPointBatch> COUNT =
+      AtomicIntegerFieldUpdater.newUpdater(StatsPointBatch.class, "count");
+  private static final AtomicIntegerFieldUpdater<StatsPointBatch> COMMITTED =
+      AtomicIntegerFieldUpdater.newUpdater(StatsPointBatch.class, "committed");
+
+  /**
+   * This counter has two states:
+   *
+   * <ol>
+   *   <li>negative: the batch has been used, must not add values
+   *   <li>otherwise: the number of values added to the batch
+   * </ol>
+   */
+  private volatile int count = 0;
+
+  /** incremented when a value is committed */
+  private volatile int committed = 0;
+
+  // pathway latency, edge latency and payload size of each point
+  private final AtomicLongArray points = new AtomicLongArray(MAX_BATCH_SIZE * 3);
+
+  private final long bucketStartNanos;
+  private final List<String> edgeTags;
+  private final long hash;
+  private final long parentHash;
+  private final long dataSetHash;
+
+  StatsPointBatch(long bucketStartNanos, StatsPoint first) {
+    this.bucketStartNanos = bucketStartNanos;
+    this.edgeTags = first.getEdgeTags();
+    this.hash = first.getHash();
+    this.parentHash = first.getParentHash();
+    this.dataSetHash = first.getDataSetHash();
+  }
+
+  /** @return false if the point belongs to another bucket, or the batch is full or used */
+  boolean add(long bucketStartNanos, StatsPoint statsPoint) {
+    if (bucketStartNanos != this.bucketStartNanos) {
+      return false;
+    }
+    int position = COUNT.getAndIncrement(this);
+    if (position >= 0 && position < MAX_BATCH_SIZE) {
+      int offset = position * 3;
+      points.lazySet(offset, statsPoint.getPathwayLatencyNano());
+      points.lazySet(offset + 1, statsPoint.getEdgeLatencyNano());
+      points.lazySet(offset + 2, statsPoint.getPayloadSizeBytes());
+      COMMITTED.getAndIncrement(this);
+      return true;
+    }
+    return false;
+  }
+
+  /** Marks the batch as used and merges its points into the group. */
+  void contributeTo(StatsGroup group) {
+    int count = Math.min(COUNT.getAndSet(this, Integer.MIN_VALUE), MAX_BATCH_SIZE);
+    if (count >= 0) {
+      // wait for the producers still writing their points
+      while (committed != count) {
+        Thread.yield();
+      }
+      for (int offset = 0; offset < count * 3; offset += 3) {
+        group.add(points.get(offset), points.get(offset + 1), points.get(offset + 2));
+      }
+    }
+  }
+
+  /**
+   * Marks the batch as used without reading its points.
+   *
+   * @return the number of points lost
+   */
+  int drop() {
+    int count = COUNT.getAndSet(this, Integer.MIN_VALUE);
+    return count < 0 ? 0 : Math.min(count, MAX_BATCH_SIZE);
+  }
+
+  long getBucketStartNanos() {
+    return bucketStartNanos;
+  }
+
+  List<String> getEdgeTags() {
+    return edgeTags;
+  }
+
+  long getHash() {
+    return hash;
+  }
+
+  long getParentHash() {
+    return parentHash;
+  }
+
+  long getDataSetHash() {
+    return dataSetHash;
+  }
+}
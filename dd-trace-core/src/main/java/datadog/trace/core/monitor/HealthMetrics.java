@@ -73,6 +73,12 @@ public abstract class HealthMetrics implements AutoCloseable {
 
   public void onLongRunningUpdate(final int dropped, final int write, final int expired) {}
 
+  public void onPendingTraceBufferOccupancy(final int occupancy) {}
+
+  public void onPendingTraceBufferWrite(final long dwellTimeNanos) {}
+
+  public void onDataStreamsDrop(final int points) {}
+
   /** @return Human-readable summary of the current health metrics. */
   public String summary() {
     return "";
@@ -9,6 +9,7 @@ import static datadog.trace.bootstrap.instrumentation.api.Tags.SPAN_KIND;
 import static datadog.trace.bootstrap.instrumentation.api.Tags.SPAN_KIND_CLIENT;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import datadog.communication.serialization.ByteBufferPool;
 import datadog.trace.api.StatsDClient;
 import datadog.trace.api.cache.RadixTreeCache;
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
@@ -133,9 +134,20 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
   private final FixedSizeStripedLongCounter longRunningTracesExpired =
       CountersFactory.createFixedSizeStripedCounter(8);
 
+  private final FixedSizeStripedLongCounter pendingBufferWrites =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter pendingBufferDwellMillis =
+      CountersFactory.createFixedSizeStripedCounter(8);
+  // only written by the pending trace buffer's worker thread
+  private volatile int pendingBufferOccupancy;
+
+  private final FixedSizeStripedLongCounter dataStreamsDropped =
+      CountersFactory.createFixedSizeStripedCounter(8);
+
   private final StatsDClient statsd;
   private final long interval;
   private final TimeUnit units;
+  private final ByteBufferPool bufferPool;
 
   @Override
   public void start() {
@@ -150,10 +162,24 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
     this(statsd, 30, SECONDS);
   }
 
+  public TracerHealthMetrics(final StatsDClient statsd, final ByteBufferPool bufferPool) {
+    this(statsd, 30, SECONDS, bufferPool);
+  }
+
   public TracerHealthMetrics(final StatsDClient statsd, long interval, TimeUnit units) {
+    this(statsd, interval, units, null);
+  }
+
+  /**
+   * @param bufferPool the serialization buffer pool to report hits and misses for, or {@code
+   *     null}
+   */
+  public TracerHealthMetrics(
+      final StatsDClient statsd, long interval, TimeUnit units, ByteBufferPool bufferPool) {
     this.statsd = statsd;
     this.interval = interval;
     this.units = units;
+    this.bufferPool = bufferPool;
   }
 
   @Override
@@ -338,6 +364,22 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
     longRunningTracesExpired.inc(expired);
   }
 
+  @Override
+  public void onPendingTraceBufferOccupancy(final int occupancy) {
+    pendingBufferOccupancy = occupancy;
+  }
+
+  @Override
+  public void onPendingTraceBufferWrite(final long dwellTimeNanos) {
+    pendingBufferWrites.inc();
+    pendingBufferDwellMillis.inc(TimeUnit.NANOSECONDS.toMillis(dwellTimeNanos));
+  }
+
+  @Override
+  public void onDataStreamsDrop(final int points) {
+    dataStreamsDropped.inc(points);
+  }
+
   private void onSendAttempt(
       final int traceCount, final int sizeInBytes, final RemoteApi.Response response) {
     apiRequests.inc();
@@ -378,7 +420,8 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
     private static final String[] UNSET_TAG = new String[] {"priority:unset"};
     private static final String[] SINGLE_SPAN_SAMPLER = new String[] {"sampler:single-span"};
 
-    private final long[] previousCounts = new long[43];
+    private final long[] previousCounts = new long[48];
+    private int previousPendingBufferOccupancy;
     private int countIndex;
 
     @Override
@@ -489,6 +532,27 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
         reportIfChanged(
             target.statsd, "long-running.expired", target.longRunningTracesExpired, NO_TAGS);
 
+        reportIfChanged(target.statsd, "pending.write", target.pendingBufferWrites, NO_TAGS);
+        reportIfChanged(
+            target.statsd, "pending.dwell_time.ms", target.pendingBufferDwellMillis, NO_TAGS);
+        int occupancy = target.pendingBufferOccupancy;
+        if (occupancy != previousPendingBufferOccupancy) {
+          target.statsd.gauge("pending.occupancy", occupancy, NO_TAGS);
+          previousPendingBufferOccupancy = occupancy;
+        }
+
+        reportIfChanged(target.statsd, "datastreams.dropped", target.dataStreamsDropped, NO_TAGS);
+
+        if (null != target.bufferPool) {
+          reportIfChanged(
+              target.statsd, "serialization.buffer_pool.hit", target.bufferPool.hits(), NO_TAGS);
+          reportIfChanged(
+              target.statsd,
+              "serialization.buffer_pool.miss",
+              target.bufferPool.misses(),
+              NO_TAGS);
+        }
+
       } catch (ArrayIndexOutOfBoundsException e) {
         log.warn(
             "previousCounts array needs resizing to at least {}, was {}",
@@ -502,7 +566,11 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
         String aspect,
         FixedSizeStripedLongCounter counter,
         String[] tags) {
-      long count = counter.get();
+      reportIfChanged(statsDClient, aspect, counter.get(), tags);
+    }
+
+    private void reportIfChanged(
+        StatsDClient statsDClient, String aspect, long count, String[] tags) {
       long delta = count - previousCounts[++countIndex];
       if (delta > 0) {
         statsDClient.count(aspect, delta, tags);
@@ -607,6 +675,23 @@ public class TracerHealthMetrics extends HealthMetrics implements AutoCloseable
         + "\nlongRunningTracesDropped="
         + longRunningTracesDropped.get()
         + "\nlongRunningTracesExpired="
-        + longRunningTracesExpired.get();
+        + longRunningTracesExpired.get()
+        + "\n"
+        + "\npendingBufferWrites="
+        + pendingBufferWrites.get()
+        + "\npendingBufferDwellMillis="
+        + pendingBufferDwellMillis.get()
+        + "\npendingBufferOccupancy="
+        + pendingBufferOccupancy
+        + "\n"
+        + "\ndataStreamsDropped="
+        + dataStreamsDropped.get()
+        + (null == bufferPool
+            ? ""
+            : "\n"
+                + "\nbufferPoolHits="
+                + bufferPool.hits()
+                + "\nbufferPoolMisses="
+                + bufferPool.misses());
   }
 }
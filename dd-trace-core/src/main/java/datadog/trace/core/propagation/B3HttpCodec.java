@@ -211,6 +211,16 @@ class B3HttpCodec {
   }
 
   private static final class B3MultiContextInterpreter extends B3BaseContextInterpreter {
+    private static final int TRACE_ID = 0;
+    private static final int SPAN_ID = 1;
+    private static final int SAMPLING_PRIORITY = 2;
+
+    private static final HeaderClassifier HEADERS =
+        commonHeaders()
+            .add(TRACE_ID_KEY, TRACE_ID)
+            .add(SPAN_ID_KEY, SPAN_ID)
+            .add(SAMPLING_PRIORITY_KEY, SAMPLING_PRIORITY);
+
     private B3MultiContextInterpreter(Config config) {
       super(config);
     }
@@ -229,35 +239,23 @@ class B3HttpCodec {
         log.debug("Header: {}", key);
       }
       try {
-        char first = Character.toLowerCase(key.charAt(0));
-        switch (first) {
-          case 'x':
-            if (TRACE_ID_KEY.equalsIgnoreCase(key)) {
-              setTraceId(firstHeaderValue(value));
-              return true;
-            } else if (SPAN_ID_KEY.equalsIgnoreCase(key)) {
-              setSpanId(firstHeaderValue(value));
-              return true;
-            } else if (SAMPLING_PRIORITY_KEY.equalsIgnoreCase(key)) {
-              samplingPriority = convertSamplingPriority(firstHeaderValue(value));
-              return true;
-            } else if (handledXForwarding(key, value)) {
-              return true;
-            }
-            break;
-          case 'f':
-            if (handledForwarding(key, value)) {
-              return true;
-            }
-            break;
-          case 'u':
-            if (handledUserAgent(key, value)) {
+        int classification = HEADERS.classify(key);
+        switch (classification) {
+          case TRACE_ID:
+            setTraceId(firstHeaderValue(value));
+            return true;
+          case SPAN_ID:
+            setSpanId(firstHeaderValue(value));
+            return true;
+          case SAMPLING_PRIORITY:
+            samplingPriority = convertSamplingPriority(firstHeaderValue(value), 0);
+            return true;
+          default:
+            if (handledCommonHeader(classification, key, value)) {
               return true;
             }
-            break;
-          default:
         }
-        if (handledIpHeaders(key, value)) {
+        if (handledCustomIpHeader(key, value)) {
           return true;
         }
         handleTags(key, value);
@@ -271,6 +269,8 @@ class B3HttpCodec {
   }
 
   private static final class B3SingleContextInterpreter extends B3BaseContextInterpreter {
+    private static final HeaderClassifier HEADERS = commonHeaders();
+
     public B3SingleContextInterpreter(Config config) {
       super(config);
     }
@@ -291,27 +291,10 @@ class B3HttpCodec {
         }
         if (B3_KEY.equals(key)) {
           return extractB3(firstHeaderValue(value));
-        } else {
-          char first = Character.toLowerCase(key.charAt(0));
-          switch (first) {
-            case 'x':
-              if (handledXForwarding(key, value)) {
-                return true;
-              }
-              break;
-            case 'f':
-              if (handledForwarding(key, value)) {
-                return true;
-              }
-              break;
-            case 'u':
-              if (handledUserAgent(key, value)) {
-                return true;
-              }
-              break;
-          }
+        } else if (handledCommonHeader(HEADERS.classify(key), key, value)) {
+          return true;
         }
-        if (handledIpHeaders(key, value)) {
+        if (handledCustomIpHeader(key, value)) {
           return true;
         }
         handleTags(key, value);
@@ -325,10 +308,10 @@ class B3HttpCodec {
 
     private boolean extractB3(final String firstValue) {
       if (firstValue.length() == 1) {
-        samplingPriority = convertSamplingPriority(firstValue);
+        samplingPriority = convertSamplingPriority(firstValue, 0);
       } else {
-        final int firstIndex = firstValue.indexOf("-");
-        final int secondIndex = firstValue.indexOf("-", firstIndex + 1);
+        final int firstIndex = firstValue.indexOf('-');
+        final int secondIndex = firstValue.indexOf('-', firstIndex + 1);
         if (firstIndex != -1) {
           final String b3TraceId = firstValue.substring(0, firstIndex);
           if (!setTraceId(b3TraceId)) {
@@ -341,16 +324,16 @@ class B3HttpCodec {
         } else {
           final String b3SpanId = firstValue.substring(firstIndex + 1, secondIndex);
           setSpanId(b3SpanId);
-          final String b3SamplingId = firstValue.substring(secondIndex + 1);
-          samplingPriority = convertSamplingPriority(b3SamplingId);
+          samplingPriority = convertSamplingPriority(firstValue, secondIndex + 1);
         }
       }
       return true;
     }
   }
 
-  private static int convertSamplingPriority(final String samplingPriority) {
-    return "1".equals(samplingPriority)
+  /** Reads the sampling flag starting at {@code start} without extracting it first. */
+  private static int convertSamplingPriority(final String value, final int start) {
+    return value.length() == start + 1 && value.charAt(start) == '1'
         ? PrioritySampling.SAMPLER_KEEP
         : PrioritySampling.SAMPLER_DROP;
   }
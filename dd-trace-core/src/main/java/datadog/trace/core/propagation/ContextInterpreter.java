@@ -59,6 +59,25 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
   private final boolean requestHeaderTagsCommaAllowed;
 
   protected static final boolean LOG_EXTRACT_HEADER_NAMES = Config.get().isLogExtractHeaderNames();
+
+  // classifications of the headers collected for every style, styles number their own from zero
+  private static final int FORWARDED = 1000;
+  private static final int FORWARDED_FOR = 1001;
+  private static final int X_FORWARDED_PROTO = 1002;
+  private static final int X_FORWARDED_HOST = 1003;
+  private static final int X_FORWARDED_FOR = 1004;
+  private static final int X_FORWARDED_PORT = 1005;
+  private static final int X_FORWARDED = 1006;
+  private static final int USER_AGENT = 1007;
+  // the client IP headers come last, the custom client IP header takes precedence over them
+  private static final int X_CLUSTER_CLIENT_IP = 1008;
+  private static final int X_REAL_IP = 1009;
+  private static final int X_CLIENT_IP = 1010;
+  private static final int TRUE_CLIENT_IP = 1011;
+  private static final int FASTLY_CLIENT_IP = 1012;
+  private static final int CF_CONNECTING_IP = 1013;
+  private static final int CF_CONNECTING_IP_V6 = 1014;
+
   private static final DDCache<String, String> CACHE = DDCaches.newFixedSizeCache(64);
 
   protected static String toLowerCase(String key) {
@@ -80,6 +99,102 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
    */
   public abstract TracePropagationStyle style();
 
+  /** @return a classifier of the headers collected for every style, to add the style ones to */
+  protected static HeaderClassifier commonHeaders() {
+    return new HeaderClassifier()
+        .add(FORWARDED_KEY, FORWARDED)
+        .add(FORWARDED_FOR_KEY, FORWARDED_FOR)
+        .add(X_FORWARDED_PROTO_KEY, X_FORWARDED_PROTO)
+        .add(X_FORWARDED_HOST_KEY, X_FORWARDED_HOST)
+        .add(X_FORWARDED_FOR_KEY, X_FORWARDED_FOR)
+        .add(X_FORWARDED_PORT_KEY, X_FORWARDED_PORT)
+        .add(X_FORWARDED_KEY, X_FORWARDED)
+        .add(USER_AGENT_KEY, USER_AGENT)
+        .add(X_CLUSTER_CLIENT_IP_KEY, X_CLUSTER_CLIENT_IP)
+        .add(X_REAL_IP_KEY, X_REAL_IP)
+        .add(X_CLIENT_IP_KEY, X_CLIENT_IP)
+        .add(TRUE_CLIENT_IP_KEY, TRUE_CLIENT_IP)
+        .add(FASTLY_CLIENT_IP_KEY, FASTLY_CLIENT_IP)
+        .add(CF_CONNECTING_IP_KEY, CF_CONNECTING_IP)
+        .add(CF_CONNECTING_IP_V6_KEY, CF_CONNECTING_IP_V6);
+  }
+
+  /** @return true if the classification is one of the style headers rather than a common one */
+  protected static boolean isStyleHeader(int classification) {
+    return classification >= 0 && classification < FORWARDED;
+  }
+
+  /**
+   * Stores a header classified by {@link #commonHeaders()}, the same way as {@link
+   * #handledForwarding}, {@link #handledXForwarding}, {@link #handledUserAgent} and {@link
+   * #handledIpHeaders} would.
+   *
+   * @return false if the header was not stored and should be handled as any other header
+   */
+  protected final boolean handledCommonHeader(int classification, String key, String value) {
+    if (classification < FORWARDED || value == null) {
+      return false;
+    }
+    if (classification == USER_AGENT) {
+      getHeaders().userAgent = value;
+      return true;
+    }
+    if (classification >= X_CLUSTER_CLIENT_IP && handledCustomIpHeader(key, value)) {
+      return true;
+    }
+    if (!collectIpHeaders) {
+      return false;
+    }
+    TagContext.HttpHeaders headers = getHeaders();
+    switch (classification) {
+      case FORWARDED:
+        headers.forwarded = value;
+        break;
+      case FORWARDED_FOR:
+        headers.forwardedFor = value;
+        break;
+      case X_FORWARDED_PROTO:
+        headers.xForwardedProto = value;
+        break;
+      case X_FORWARDED_HOST:
+        headers.xForwardedHost = value;
+        break;
+      case X_FORWARDED_FOR:
+        headers.xForwardedFor = value;
+        break;
+      case X_FORWARDED_PORT:
+        headers.xForwardedPort = value;
+        break;
+      case X_FORWARDED:
+        headers.xForwarded = value;
+        break;
+      case X_CLUSTER_CLIENT_IP:
+        headers.xClusterClientIp = value;
+        break;
+      case X_REAL_IP:
+        headers.xRealIp = value;
+        break;
+      case X_CLIENT_IP:
+        headers.xClientIp = value;
+        break;
+      case TRUE_CLIENT_IP:
+        headers.trueClientIp = value;
+        break;
+      case FASTLY_CLIENT_IP:
+        headers.fastlyClientIp = value;
+        break;
+      case CF_CONNECTING_IP:
+        headers.cfConnectingIp = value;
+        break;
+      case CF_CONNECTING_IP_V6:
+        headers.cfConnectingIpv6 = value;
+        break;
+      default:
+        return false;
+    }
+    return true;
+  }
+
   protected final boolean handledForwarding(String key, String value) {
     if (value == null || !collectIpHeaders) {
       return false;
@@ -138,8 +253,7 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
       return false;
     }
 
-    if (null != value && customIpHeaderName != null && customIpHeaderName.equalsIgnoreCase(key)) {
-      getHeaders().customIpHeader = value;
+    if (handledCustomIpHeader(key, value)) {
       return true;
     }
 
@@ -182,6 +296,14 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
     return false;
   }
 
+  protected final boolean handledCustomIpHeader(String key, String value) {
+    if (null != value && customIpHeaderName != null && customIpHeaderName.equalsIgnoreCase(key)) {
+      getHeaders().customIpHeader = value;
+      return true;
+    }
+    return false;
+  }
+
   protected final boolean handleTags(String key, String value) {
     if (headerTags.isEmpty() || value == null) {
       return false;
@@ -3,6 +3,7 @@ package datadog.trace.core.propagation;
 import datadog.trace.api.TracePropagationStyle;
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate;
 import datadog.trace.core.DDSpanContext;
 import datadog.trace.core.datastreams.DataStreamContextInjector;
 import java.util.LinkedHashMap;
@@ -83,6 +84,18 @@ public class CorePropagation implements AgentPropagation {
         span, carrier, setter, sortedTags, defaultTimestamp, payloadSizeBytes);
   }
 
+  @Override
+  public <C> void injectPathwayContext(
+      AgentSpan span,
+      C carrier,
+      Setter<C> setter,
+      CheckpointTemplate template,
+      long defaultTimestamp,
+      long payloadSizeBytes) {
+    this.dataStreamContextInjector.injectPathwayContext(
+        span, carrier, setter, template, defaultTimestamp, payloadSizeBytes);
+  }
+
   @Override
   public <C> void injectPathwayContextWithoutSendingStats(
       AgentSpan span, C carrier, Setter<C> setter, LinkedHashMap<String, String> sortedTags) {
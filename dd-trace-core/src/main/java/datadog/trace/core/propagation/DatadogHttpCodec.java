@@ -100,7 +100,19 @@ class DatadogHttpCodec {
     private static final int OT_BAGGAGE = 4;
     private static final int E2E_START = 5;
     private static final int DD_TAGS = 6;
-    private static final int IGNORE = -1;
+    private static final int X_AMZN = 7;
+    private static final int IGNORE = HeaderClassifier.IGNORE;
+
+    private static final HeaderClassifier HEADERS =
+        commonHeaders()
+            .add(TRACE_ID_KEY, TRACE_ID)
+            .add(SPAN_ID_KEY, SPAN_ID)
+            .add(ORIGIN_KEY, ORIGIN)
+            .add(SAMPLING_PRIORITY_KEY, SAMPLING_PRIORITY)
+            .add(E2E_START_KEY, E2E_START)
+            .add(DATADOG_TAGS_KEY, DD_TAGS)
+            .add(X_AMZN_TRACE_ID, X_AMZN)
+            .addPrefix(OT_BAGGAGE_PREFIX, OT_BAGGAGE);
 
     private final boolean isAwsPropagationEnabled;
 
@@ -122,50 +134,18 @@ class DatadogHttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
-      int classification = IGNORE;
-      char first = Character.toLowerCase(key.charAt(0));
-      switch (first) {
-        case 'x':
-          if (TRACE_ID_KEY.equalsIgnoreCase(key)) {
-            classification = TRACE_ID;
-          } else if (SPAN_ID_KEY.equalsIgnoreCase(key)) {
-            classification = SPAN_ID;
-          } else if (SAMPLING_PRIORITY_KEY.equalsIgnoreCase(key)) {
-            classification = SAMPLING_PRIORITY;
-          } else if (ORIGIN_KEY.equalsIgnoreCase(key)) {
-            classification = ORIGIN;
-          } else if (isAwsPropagationEnabled && X_AMZN_TRACE_ID.equalsIgnoreCase(key)) {
-            handleXRayTraceHeader(this, value);
-            return true;
-          } else if (handledXForwarding(key, value)) {
-            return true;
-          } else if (DATADOG_TAGS_KEY.equalsIgnoreCase(key)) {
-            classification = DD_TAGS;
-          }
-          break;
-        case 'f':
-          if (handledForwarding(key, value)) {
-            return true;
-          }
-          break;
-        case 'u':
-          if (handledUserAgent(key, value)) {
-            return true;
-          }
-          break;
-        case 'o':
-          lowerCaseKey = toLowerCase(key);
-          if (E2E_START_KEY.equals(lowerCaseKey)) {
-            classification = E2E_START;
-          } else if (lowerCaseKey.startsWith(OT_BAGGAGE_PREFIX)) {
-            classification = OT_BAGGAGE;
-          }
-          break;
-        default:
+      int classification = HEADERS.classify(key);
+      if (classification == X_AMZN) {
+        if (isAwsPropagationEnabled) {
+          handleXRayTraceHeader(this, value);
+          return true;
+        }
+        classification = IGNORE;
+      } else if (handledCommonHeader(classification, key, value)) {
+        return true;
       }
 
-      if (classification != IGNORE) {
+      if (isStyleHeader(classification)) {
         try {
           if (null != value) {
             switch (classification) {
@@ -193,7 +173,8 @@ class DatadogHttpCodec {
                     baggage = new TreeMap<>();
                   }
                   baggage.put(
-                      lowerCaseKey.substring(OT_BAGGAGE_PREFIX.length()), HttpCodec.decode(value));
+                      toLowerCase(key).substring(OT_BAGGAGE_PREFIX.length()),
+                      HttpCodec.decode(value));
                 }
                 break;
               default:
@@ -205,7 +186,7 @@ class DatadogHttpCodec {
           return false;
         }
       } else {
-        if (handledIpHeaders(key, value)) {
+        if (handledCustomIpHeader(key, value)) {
           return true;
         }
         if (handleTags(key, value)) {
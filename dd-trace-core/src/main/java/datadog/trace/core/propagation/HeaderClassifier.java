@@ -0,0 +1,93 @@
+package datadog.trace.core.propagation;
+
+/**
+ * Case-insensitive automaton over a fixed set of header names, which classifies a header in a
+ * single pass over its name instead of comparing it with every known name in turn. A name added as
+ * a prefix also matches the longer header names starting with it, like {@code ot-baggage-*}, but
+ * an exact name always wins over a prefix.
+ *
+ * <p>The classifier is filled once when the codec is loaded and is read-only afterwards.
+ */
+final class HeaderClassifier {
+  static final int IGNORE = -1;
+
+  private final Node root = new Node();
+
+  HeaderClassifier add(String name, int classification) {
+    insert(name).classification = classification;
+    return this;
+  }
+
+  HeaderClassifier addPrefix(String prefix, int classification) {
+    insert(prefix).prefixClassification = classification;
+    return this;
+  }
+
+  /** @return the classification of the header, or {@link #IGNORE} if it is not known */
+  int classify(String key) {
+    Node node = root;
+    int prefixClassification = IGNORE;
+    for (int i = 0, length = key.length(); i < length; i++) {
+      if (node.prefixClassification != IGNORE) {
+        prefixClassification = node.prefixClassification;
+      }
+      node = node.next(toLowerCase(key.charAt(i)));
+      if (null == node) {
+        return prefixClassification;
+      }
+    }
+    if (node.classification != IGNORE) {
+      return node.classification;
+    }
+    return node.prefixClassification != IGNORE ? node.prefixClassification : prefixClassification;
+  }
+
+  private Node insert(String name) {
+    Node node = root;
+    for (int i = 0; i < name.length(); i++) {
+      node = node.insert(toLowerCase(name.charAt(i)));
+    }
+    return node;
+  }
+
+  private static char toLowerCase(char c) {
+    if (c < 128) {
+      return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    return Character.toLowerCase(c);
+  }
+
+  private static final class Node {
+    // header names are short and branch little, so the transitions are scanned linearly
+    private char[] chars = new char[0];
+    private Node[] nodes = new Node[0];
+    int classification = IGNORE;
+    int prefixClassification = IGNORE;
+
+    Node next(char c) {
+      char[] chars = this.chars;
+      for (int i = 0; i < chars.length; i++) {
+        if (chars[i] == c) {
+          return nodes[i];
+        }
+      }
+      return null;
+    }
+
+    Node insert(char c) {
+      Node node = next(c);
+      if (null == node) {
+        int length = chars.length;
+        char[] newChars = new char[length + 1];
+        Node[] newNodes = new Node[length + 1];
+        System.arraycopy(chars, 0, newChars, 0, length);
+        System.arraycopy(nodes, 0, newNodes, 0, length);
+        newChars[length] = c;
+        newNodes[length] = node = new Node();
+        chars = newChars;
+        nodes = newNodes;
+      }
+      return node;
+    }
+  }
+}
@@ -115,7 +115,13 @@ class W3CHttpCodec {
     private static final int TRACE_STATE = 1;
     private static final int OT_BAGGAGE = 2;
     private static final int E2E_START = 3;
-    private static final int IGNORE = -1;
+
+    private static final HeaderClassifier HEADERS =
+        commonHeaders()
+            .add(TRACE_PARENT_KEY, TRACE_PARENT)
+            .add(TRACE_STATE_KEY, TRACE_STATE)
+            .add(E2E_START_KEY, E2E_START)
+            .addPrefix(OT_BAGGAGE_PREFIX, OT_BAGGAGE);
 
     // We need to delay handling of the tracestate header until after traceparent
     private String tracestateHeader = null;
@@ -145,44 +151,12 @@ class W3CHttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
-      int classification = IGNORE;
-      char first = Character.toLowerCase(key.charAt(0));
-      switch (first) {
-        case 'f':
-          if (handledForwarding(key, value)) {
-            return true;
-          }
-          break;
-        case 'o':
-          lowerCaseKey = toLowerCase(key);
-          if (E2E_START_KEY.equals(lowerCaseKey)) {
-            classification = E2E_START;
-          } else if (lowerCaseKey.startsWith(OT_BAGGAGE_PREFIX)) {
-            classification = OT_BAGGAGE;
-          }
-          break;
-        case 't':
-          if (TRACE_PARENT_KEY.equalsIgnoreCase(key)) {
-            classification = TRACE_PARENT;
-          } else if (TRACE_STATE_KEY.equalsIgnoreCase(key)) {
-            classification = TRACE_STATE;
-          }
-          break;
-        case 'u':
-          if (handledUserAgent(key, value)) {
-            return true;
-          }
-          break;
-        case 'x':
-          if (handledXForwarding(key, value)) {
-            return true;
-          }
-          break;
-        default:
+      int classification = HEADERS.classify(key);
+      if (handledCommonHeader(classification, key, value)) {
+        return true;
       }
 
-      if (classification != IGNORE) {
+      if (isStyleHeader(classification)) {
         try {
           if (null != value) {
             switch (classification) {
@@ -199,7 +173,8 @@ class W3CHttpCodec {
                     baggage = new TreeMap<>();
                   }
                   baggage.put(
-                      lowerCaseKey.substring(OT_BAGGAGE_PREFIX.length()), HttpCodec.decode(value));
+                      toLowerCase(key).substring(OT_BAGGAGE_PREFIX.length()),
+                      HttpCodec.decode(value));
                 }
                 break;
               default:
@@ -211,7 +186,7 @@ class W3CHttpCodec {
           return false;
         }
       } else {
-        if (handledIpHeaders(key, value)) {
+        if (handledCustomIpHeader(key, value)) {
           return true;
         }
         if (handleTags(key, value)) {
@@ -209,7 +209,9 @@ public class PTagsFactory implements PropagationTags.Factory {
             highOrderBits == 0
                 ? null
                 : TagValue.from(LongStringUtils.toHexStringPadded(highOrderBits, 16));
+        // This should invalidate any cached w3c and datadog header
         clearCachedHeader(DATADOG);
+        clearCachedHeader(W3C);
       }
     }
 
@@ -307,6 +309,10 @@ public class PTagsFactory implements PropagationTags.Factory {
 
     @Override
     public void updateW3CTracestate(String tracestate) {
+      if (!Objects.equals(this.tracestate, tracestate)) {
+        // Invalidate any cached w3c header
+        clearCachedHeader(W3C);
+      }
       this.tracestate = tracestate;
     }
 
@@ -47,12 +47,19 @@ public class W3CPTagsCodec extends PTagsCodec {
     int ddMemberValueEnd = -1; // dd member value end position including OWS (exclusive)
     int memberIndex = 0;
     int ddMemberIndex = -1;
+    // The members can be injected back as slices of the original value if they are separated by a
+    // single ',' without optional whitespace, which is what most tracers send
+    boolean membersNormalized = true;
+    int lastMemberStart = -1; // start of the last member allowed next to a new dd member
     while (memberStart < len) {
       if (memberIndex == MAX_MEMBER_COUNT) {
         // TODO should we return one with an error?
         // TODO should we try to pick up the `dd` member anyway?
         return tagsFactory.empty();
       }
+      if (memberIndex == MAX_MEMBER_COUNT - 1) {
+        lastMemberStart = memberStart;
+      }
       if (ddMemberIndex == -1 && value.startsWith(DATADOG_MEMBER_KEY, memberStart)) {
         ddMemberStart = memberStart;
         ddMemberIndex = memberIndex;
@@ -79,12 +86,18 @@ public class W3CPTagsCodec extends PTagsCodec {
         // TODO should we return one with an error?
         return tagsFactory.empty();
       }
+      if (membersNormalized) {
+        membersNormalized =
+            !isOWC(value.charAt(pos - 1))
+                && (memberStart == len ? pos == len : memberStart == pos + 1);
+      }
       memberIndex++;
     }
 
     if (ddMemberIndex == -1) {
       // There was no dd member, so create an empty one with the _suffix_
-      return empty(tagsFactory, value);
+      return empty(
+          tagsFactory, value, firstMemberStart, -1, -1, membersNormalized, lastMemberStart);
     }
 
     List<TagElement> tagPairs = null;
@@ -106,7 +119,14 @@ public class W3CPTagsCodec extends PTagsCodec {
       if (tagKeyEndsAt < 0 || tagKeyEndsAt == ddMemberValueEnd) {
         log.warn("Invalid datadog tags header value: '{}' at {}", value, tagPos);
         // TODO drop parts?
-        return empty(tagsFactory, value, firstMemberStart, ddMemberStart, ddMemberValueEnd);
+        return empty(
+            tagsFactory,
+            value,
+            firstMemberStart,
+            ddMemberStart,
+            ddMemberValueEnd,
+            membersNormalized,
+            lastMemberStart);
       }
       int tagValuePos = tagKeyEndsAt + 1;
       int tagValueEndsAt =
@@ -120,7 +140,14 @@ public class W3CPTagsCodec extends PTagsCodec {
       if (tagValueEndsAt < 0) {
         log.warn("Invalid datadog tags header value: '{}' at {}", value, tagKeyEndsAt);
         // TODO drop parts?
-        return empty(tagsFactory, value, firstMemberStart, ddMemberStart, ddMemberValueEnd);
+        return empty(
+            tagsFactory,
+            value,
+            firstMemberStart,
+            ddMemberStart,
+            ddMemberValueEnd,
+            membersNormalized,
+            lastMemberStart);
       }
       int nextTagPos = tagValueEndsAt + 1;
       if (tagValueEndsAt == ddMemberValueEnd) {
@@ -139,7 +166,14 @@ public class W3CPTagsCodec extends PTagsCodec {
               return tagsFactory.createInvalid(PROPAGATION_ERROR_MALFORMED_TID + tagValue);
             }
             // TODO drop parts?
-            return empty(tagsFactory, value, firstMemberStart, ddMemberStart, ddMemberValueEnd);
+            return empty(
+                tagsFactory,
+                value,
+                firstMemberStart,
+                ddMemberStart,
+                ddMemberValueEnd,
+                membersNormalized,
+                lastMemberStart);
           }
           if (tagKey.equals(DECISION_MAKER_TAG)) {
             decisionMakerTagValue = tagValue;
@@ -182,7 +216,9 @@ public class W3CPTagsCodec extends PTagsCodec {
         firstMemberStart,
         ddMemberStart,
         ddMemberValueEnd,
-        maxUnknownSize);
+        maxUnknownSize,
+        membersNormalized,
+        lastMemberStart);
   }
 
   @Override
@@ -253,7 +289,12 @@ public class W3CPTagsCodec extends PTagsCodec {
       size = 0;
     }
     // Append all other non-Datadog list-members
-    int newSize = cleanUpAndAppendSuffix(sb, ptags, size);
+    int newSize;
+    if (ptags instanceof W3CPTags && ((W3CPTags) ptags).membersNormalized) {
+      newSize = appendMemberSlices(sb, (W3CPTags) ptags, size);
+    } else {
+      newSize = cleanUpAndAppendSuffix(sb, ptags, size);
+    }
     if (newSize != size) {
       // We don't care about the total size in bytes here, but only the fact that we added something
       // that should be returned
@@ -671,8 +712,39 @@ public class W3CPTagsCodec extends PTagsCodec {
     return size;
   }
 
-  private static W3CPTags empty(PTagsFactory factory, String original) {
-    return empty(factory, original, 0, -1, -1);
+  /**
+   * Appends the non-Datadog list-members of a tracestate whose members were found normalized while
+   * parsing. They are copied as the slices before and after the Datadog list-member, without
+   * looking for the member boundaries again.
+   */
+  private static int appendMemberSlices(StringBuilder sb, W3CPTags w3CPTags, int size) {
+    String original = w3CPTags.tracestate;
+    int len = original.length();
+    if (w3CPTags.ddMemberStart == -1) {
+      int end = len;
+      if (size > 0 && w3CPTags.lastMemberStart != -1) {
+        // Leave room for the new Datadog list-member
+        end = w3CPTags.lastMemberStart - 1;
+      }
+      return appendMemberSlice(sb, original, w3CPTags.firstMemberStart, end, size);
+    }
+    // Skip over the Datadog list-member and its trailing ','
+    int ddMemberStart = w3CPTags.ddMemberStart;
+    size = appendMemberSlice(sb, original, w3CPTags.firstMemberStart, ddMemberStart - 1, size);
+    return appendMemberSlice(sb, original, w3CPTags.ddMemberValueEnd + 1, len, size);
+  }
+
+  private static int appendMemberSlice(
+      StringBuilder sb, String original, int start, int end, int size) {
+    if (start >= end) {
+      return size;
+    }
+    if (sb.length() > 0) {
+      sb.append(MEMBER_SEPARATOR);
+      size++;
+    }
+    sb.append(original, start, end);
+    return size + (end - start);
   }
 
   private static W3CPTags empty(
@@ -680,7 +752,9 @@ public class W3CPTagsCodec extends PTagsCodec {
       String original,
       int firstMemberStart,
       int ddMemberStart,
-      int ddMemberValueEnd) {
+      int ddMemberValueEnd,
+      boolean membersNormalized,
+      int lastMemberStart) {
     return new W3CPTags(
         factory,
         null,
@@ -692,7 +766,9 @@ public class W3CPTagsCodec extends PTagsCodec {
         firstMemberStart,
         ddMemberStart,
         ddMemberValueEnd,
-        0);
+        0,
+        membersNormalized,
+        lastMemberStart);
   }
 
   private static class W3CPTags extends PTags {
@@ -710,6 +786,16 @@ public class W3CPTagsCodec extends PTagsCodec {
     private final int ddMemberValueEnd;
 
     private final int maxUnknownSize;
+    /**
+     * Whether the list-members in {@link #tracestate} are separated by a single ',' without
+     * optional whitespace, so the non-Datadog list-members can be injected as slices of it.
+     */
+    private final boolean membersNormalized;
+    /**
+     * The index of the 32nd tracestate list-member in {@link #tracestate}, which has to be dropped
+     * when adding a Datadog list-member, {@code -1} if there are less list-members.
+     */
+    private final int lastMemberStart;
 
     public W3CPTags(
         PTagsFactory factory,
@@ -722,13 +808,17 @@ public class W3CPTagsCodec extends PTagsCodec {
         int firstMemberStart,
         int ddMemberStart,
         int ddMemberValueEnd,
-        int maxUnknownSize) {
+        int maxUnknownSize,
+        boolean membersNormalized,
+        int lastMemberStart) {
       super(factory, tagPairs, decisionMakerTagValue, traceIdTagValue, samplingPriority, origin);
       this.tracestate = original;
       this.firstMemberStart = firstMemberStart;
       this.ddMemberStart = ddMemberStart;
       this.ddMemberValueEnd = ddMemberValueEnd;
       this.maxUnknownSize = maxUnknownSize;
+      this.membersNormalized = membersNormalized;
+      this.lastMemberStart = lastMemberStart;
     }
 
     @Override
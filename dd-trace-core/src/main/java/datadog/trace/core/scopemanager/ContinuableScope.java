@@ -11,14 +11,20 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.annotation.Nonnull;
 
 class ContinuableScope implements AgentScope, AttachableWrapper {
+  /** Set on scopes which can be reused for later activations once they have been closed. */
+  static final byte RECYCLABLE = (byte) 0x80;
+
+  // reference count of a recycled scope which is waiting to be reused
+  private static final short RELEASED = Short.MIN_VALUE;
+
   private final ContinuableScopeManager scopeManager;
 
-  final AgentSpan span; // package-private so scopeManager can access it directly
+  AgentSpan span; // package-private so scopeManager can access it directly
 
   /** Flag to propagate this scope across async boundaries. */
   private boolean isAsyncPropagating;
 
-  private final byte flags;
+  private byte flags;
 
   private short referenceCount = 1;
 
@@ -26,7 +32,7 @@ class ContinuableScope implements AgentScope, AttachableWrapper {
   private static final AtomicReferenceFieldUpdater<ContinuableScope, Object> WRAPPER_FIELD_UPDATER =
       AtomicReferenceFieldUpdater.newUpdater(ContinuableScope.class, Object.class, "wrapper");
 
-  private final Stateful scopeState;
+  private Stateful scopeState;
 
   ContinuableScope(
       final ContinuableScopeManager scopeManager,
@@ -41,9 +47,52 @@ class ContinuableScope implements AgentScope, AttachableWrapper {
     this.scopeState = scopeState;
   }
 
+  /** Reinitializes a scope which was released back to its stack for a new activation. */
+  final void reuse(
+      final AgentSpan span,
+      final byte source,
+      final boolean isAsyncPropagating,
+      final Stateful scopeState) {
+    this.span = span;
+    this.flags = (byte) (source | RECYCLABLE);
+    this.isAsyncPropagating = isAsyncPropagating;
+    this.scopeState = scopeState;
+    this.referenceCount = 1;
+  }
+
+  /**
+   * Marks a closed scope as released so it can be reused, unless it isn't recyclable or something
+   * else may still refer to it through its wrapper.
+   *
+   * @return true if the scope was released
+   */
+  final boolean release() {
+    if ((flags & RECYCLABLE) == 0 || referenceCount != 0 || null != wrapper) {
+      return false;
+    }
+    referenceCount = RELEASED;
+    // don't keep the finished span, and through it its trace, reachable while waiting for reuse
+    span = null;
+    scopeState = null;
+    return true;
+  }
+
   @Override
   public final void close() {
+    if (referenceCount == RELEASED) {
+      // the scope was already closed and is waiting to be reused, so leave it alone
+      ContinuableScopeManager.log.debug("Tried to close {} scope after it was released", this);
+      byte source = source();
+      scopeManager.healthMetrics.onScopeCloseError(source);
+      if (source == ScopeSource.MANUAL.id() && scopeManager.strictMode) {
+        throw new RuntimeException("Tried to close scope after it was released");
+      }
+      return;
+    }
+
     final ScopeStack scopeStack = scopeManager.scopeStack();
+    // the cleanup may release this scope for reuse, which clears its state
+    final Stateful scopeState = this.scopeState;
 
     // fast check first, only perform slower check when there's an inconsistency with the stack
     if (!scopeStack.checkTop(this) && !scopeStack.checkOverdueScopes(this)) {
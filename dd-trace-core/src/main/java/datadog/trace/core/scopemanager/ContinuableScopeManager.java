@@ -7,6 +7,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import datadog.trace.api.Config;
+import datadog.trace.api.Platform;
 import datadog.trace.api.Stateful;
 import datadog.trace.api.scopemanager.ExtendedScopeListener;
 import datadog.trace.api.scopemanager.ScopeListener;
@@ -49,6 +50,7 @@ public final class ContinuableScopeManager implements AgentScopeManager {
   private final ScopeStackThreadLocal tlsScopeStack;
   private final int depthLimit;
   private final boolean inheritAsyncPropagation;
+  private final boolean scopeRecycling;
   final HealthMetrics healthMetrics;
   private final ProfilingContextIntegration profilingContextIntegration;
 
@@ -84,13 +86,40 @@ public final class ContinuableScopeManager implements AgentScopeManager {
       final boolean inheritAsyncPropagation,
       final ProfilingContextIntegration profilingContextIntegration,
       final HealthMetrics healthMetrics) {
+    this(
+        depthLimit,
+        strictMode,
+        inheritAsyncPropagation,
+        false,
+        profilingContextIntegration,
+        healthMetrics);
+  }
+
+  /**
+   * Constructor with optional scope recycling.
+   *
+   * @param depthLimit The maximum scope depth limit, <code>0</code> for unlimited.
+   * @param strictMode Whether check if the closed spans are the active ones or not.
+   * @param inheritAsyncPropagation Whether the next span should inherit the active span
+   *     asyncPropagation flag.
+   * @param scopeRecycling Whether closed scopes are reused for later activations on the same
+   *     thread. Only safe when callers never touch a scope after closing it.
+   */
+  public ContinuableScopeManager(
+      final int depthLimit,
+      final boolean strictMode,
+      final boolean inheritAsyncPropagation,
+      final boolean scopeRecycling,
+      final ProfilingContextIntegration profilingContextIntegration,
+      final HealthMetrics healthMetrics) {
     this.depthLimit = depthLimit == 0 ? Integer.MAX_VALUE : depthLimit;
     this.strictMode = strictMode;
     this.inheritAsyncPropagation = inheritAsyncPropagation;
+    this.scopeRecycling = scopeRecycling;
     this.scopeListeners = new CopyOnWriteArrayList<>();
     this.extendedScopeListeners = new CopyOnWriteArrayList<>();
     this.healthMetrics = healthMetrics;
-    this.tlsScopeStack = new ScopeStackThreadLocal(profilingContextIntegration);
+    this.tlsScopeStack = new ScopeStackThreadLocal(profilingContextIntegration, scopeRecycling);
     this.profilingContextIntegration = profilingContextIntegration;
   }
 
@@ -145,8 +174,7 @@ public final class ContinuableScopeManager implements AgentScopeManager {
                 ? top.isAsyncPropagating()
                 : DEFAULT_ASYNC_PROPAGATING;
 
-    final ContinuableScope scope =
-        new ContinuableScope(this, span, source, asyncPropagation, createScopeState(span));
+    final ContinuableScope scope = newScope(scopeStack, span, source, asyncPropagation);
     scopeStack.push(scope);
     healthMetrics.onActivateScope();
 
@@ -173,12 +201,12 @@ public final class ContinuableScopeManager implements AgentScopeManager {
       return top;
     }
 
-    Stateful scopeState = createScopeState(span);
     final ContinuableScope scope;
     if (continuation != null) {
-      scope = new ContinuingScope(this, span, source, true, continuation, scopeState);
+      scope =
+          new ContinuingScope(this, span, source, true, continuation, createScopeState(span));
     } else {
-      scope = new ContinuableScope(this, span, source, true, scopeState);
+      scope = newScope(scopeStack, span, source, true);
     }
     scopeStack.push(scope);
 
@@ -278,6 +306,25 @@ public final class ContinuableScopeManager implements AgentScopeManager {
     }
   }
 
+  /** Creates a scope for the span, reusing a closed scope from the stack when recycling. */
+  private ContinuableScope newScope(
+      final ScopeStack scopeStack,
+      final AgentSpan span,
+      final byte source,
+      final boolean asyncPropagation) {
+    Stateful scopeState = createScopeState(span);
+    if (!scopeRecycling) {
+      return new ContinuableScope(this, span, source, asyncPropagation, scopeState);
+    }
+    ContinuableScope scope = scopeStack.pollRecycled();
+    if (scope != null) {
+      scope.reuse(span, source, asyncPropagation, scopeState);
+      return scope;
+    }
+    return new ContinuableScope(
+        this, span, (byte) (source | ContinuableScope.RECYCLABLE), asyncPropagation, scopeState);
+  }
+
   private Stateful createScopeState(AgentSpan span) {
     // currently this just manages things the profiler has to do per scope, but could be expanded
     // to encapsulate other scope lifecycle activities
@@ -299,7 +346,8 @@ public final class ContinuableScopeManager implements AgentScopeManager {
 
   private class ContinuableScopeState implements ScopeState {
 
-    private ScopeStack localScopeStack = tlsScopeStack.initialValue();
+    // may be activated on any thread, so always keep the profiler informed
+    private ScopeStack localScopeStack = tlsScopeStack.newScopeStack();
 
     @Override
     public void activate() {
@@ -315,14 +363,26 @@ public final class ContinuableScopeManager implements AgentScopeManager {
   static final class ScopeStackThreadLocal extends ThreadLocal<ScopeStack> {
 
     private final ProfilingContextIntegration profilingContextIntegration;
+    private final boolean scopeRecycling;
 
-    ScopeStackThreadLocal(ProfilingContextIntegration profilingContextIntegration) {
+    ScopeStackThreadLocal(
+        ProfilingContextIntegration profilingContextIntegration, boolean scopeRecycling) {
       this.profilingContextIntegration = profilingContextIntegration;
+      this.scopeRecycling = scopeRecycling;
     }
 
     @Override
     protected ScopeStack initialValue() {
-      return new ScopeStack(profilingContextIntegration);
+      if (Platform.isVirtualThread(Thread.currentThread())) {
+        // virtual threads are too short-lived and numerous to attach and detach the profiler for
+        // each one, individual scopes still set the profiling context when they are activated
+        return new ScopeStack(ProfilingContextIntegration.NoOp.INSTANCE, scopeRecycling);
+      }
+      return newScopeStack();
+    }
+
+    ScopeStack newScopeStack() {
+      return new ScopeStack(profilingContextIntegration, scopeRecycling);
     }
   }
 
@@ -2,24 +2,37 @@ package datadog.trace.core.scopemanager;
 
 import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration;
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
-import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
  * The invariant is that the top of a non-empty stack is always active. Anytime a scope is closed,
  * cleanup() is called to ensure the invariant
  */
 final class ScopeStack {
+  private static final int INITIAL_CAPACITY = 4;
+  private static final int MAX_RECYCLED = 16;
+
+  // most threads, and almost all virtual threads, never nest scopes, so the arrays below are only
+  // allocated when first needed
+  private static final ContinuableScope[] EMPTY = new ContinuableScope[0];
 
   private final ProfilingContextIntegration profilingContextIntegration;
-  private final ArrayDeque<ContinuableScope> stack = new ArrayDeque<>(); // previous scopes
+  private ContinuableScope[] stack = EMPTY; // previous scopes
+  private int size;
+
+  // closed scopes which can be reused for later activations
+  private final boolean recycling;
+  private ContinuableScope[] recycled = EMPTY;
+  private int recycledCount;
 
   ContinuableScope top; // current scope
 
   // set by background task when a root iteration scope remains unclosed for too long
   volatile ContinuableScope overdueRootScope;
 
-  ScopeStack(ProfilingContextIntegration profilingContextIntegration) {
+  ScopeStack(ProfilingContextIntegration profilingContextIntegration, boolean recycling) {
     this.profilingContextIntegration = profilingContextIntegration;
+    this.recycling = recycling;
   }
 
   ContinuableScope active() {
@@ -34,8 +47,9 @@ final class ScopeStack {
     while (curScope != null && !curScope.alive()) {
       // no longer alive -- trigger listener & null out
       curScope.onProperClose();
+      recycle(curScope);
       changedTop = true;
-      curScope = stack.poll();
+      curScope = pop();
     }
     if (curScope != null && curScope == overdueRootScope) {
       // we know this scope is the last on the stack and is overdue
@@ -58,7 +72,10 @@ final class ScopeStack {
   void push(final ContinuableScope scope) {
     scope.beforeActivated();
     if (top != null) {
-      stack.push(top);
+      if (size == stack.length) {
+        stack = Arrays.copyOf(stack, Math.max(INITIAL_CAPACITY, size << 1));
+      }
+      stack[size++] = top;
     } else {
       onBecomeNonEmpty();
     }
@@ -85,7 +102,8 @@ final class ScopeStack {
     top.clearReferences();
     top.span.finishWithEndToEnd();
     // now do the same for any previous iteration scopes ahead of the expected scope
-    for (ContinuableScope scope : stack) {
+    for (int i = size - 1; i >= 0; --i) {
+      ContinuableScope scope = stack[i];
       if (scope.source() != ScopeSource.ITERATION.id()) {
         return expectedScope.equals(scope);
       } else {
@@ -98,15 +116,46 @@ final class ScopeStack {
 
   /** Returns the current depth, including the top scope */
   int depth() {
-    return top != null ? 1 + stack.size() : 0;
+    return top != null ? 1 + size : 0;
   }
 
   // DQH - regrettably needed for pre-existing tests
   void clear() {
-    stack.clear();
+    Arrays.fill(stack, 0, size, null);
+    size = 0;
     top = null;
   }
 
+  /**
+   * @return a closed scope which can be reinitialized for a new activation, or {@code null}
+   */
+  ContinuableScope pollRecycled() {
+    if (recycledCount == 0) {
+      return null;
+    }
+    ContinuableScope scope = recycled[--recycledCount];
+    recycled[recycledCount] = null;
+    return scope;
+  }
+
+  private void recycle(final ContinuableScope scope) {
+    if (recycling && recycledCount < MAX_RECYCLED && scope.release()) {
+      if (recycledCount == recycled.length) {
+        recycled = Arrays.copyOf(recycled, Math.min(MAX_RECYCLED, Math.max(2, recycledCount << 1)));
+      }
+      recycled[recycledCount++] = scope;
+    }
+  }
+
+  private ContinuableScope pop() {
+    if (size == 0) {
+      return null;
+    }
+    ContinuableScope scope = stack[--size];
+    stack[size] = null;
+    return scope;
+  }
+
   /** Notifies profiler that this thread has a context now */
   private void onBecomeNonEmpty() {
     try {
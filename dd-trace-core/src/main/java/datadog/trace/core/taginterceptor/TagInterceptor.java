@@ -125,6 +125,35 @@ public class TagInterceptor {
     }
   }
 
+  /**
+   * @return false if {@link #interceptTag} is guaranteed not to intercept {@code tag}, which allows
+   *     callers to store primitive values without boxing them first
+   */
+  public boolean needsIntercept(String tag) {
+    switch (tag) {
+      case DDTags.RESOURCE_NAME:
+      case Tags.DB_STATEMENT:
+      case DDTags.SERVICE_NAME:
+      case "service":
+      case Tags.PEER_SERVICE:
+      case DDTags.MANUAL_KEEP:
+      case DDTags.MANUAL_DROP:
+      case Tags.SAMPLING_PRIORITY:
+      case InstrumentationTags.SERVLET_CONTEXT:
+      case SPAN_TYPE:
+      case ANALYTICS_SAMPLE_RATE:
+      case Tags.ERROR:
+      case HTTP_STATUS:
+      case HTTP_METHOD:
+      case HTTP_URL:
+      case ORIGIN_KEY:
+      case MEASURED:
+        return true;
+      default:
+        return splitServiceTags.contains(tag);
+    }
+  }
+
   private boolean interceptUrlResourceAsNameRule(DDSpanContext span, String tag, Object value) {
     if (shouldSetUrlResourceAsName) {
       if (HTTP_METHOD.equals(tag)) {
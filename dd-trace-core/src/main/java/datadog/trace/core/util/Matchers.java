@@ -42,7 +42,7 @@ public final class Matchers {
     }
   }
 
-  static boolean isExact(String glob) {
+  public static boolean isExact(String glob) {
     return (glob.indexOf('*') == -1) && (glob.indexOf('?') == -1);
   }
 
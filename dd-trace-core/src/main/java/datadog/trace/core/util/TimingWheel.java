@@ -0,0 +1,195 @@
+package datadog.trace.core.util;
+
+import java.util.Arrays;
+
+/**
+ * A two level hierarchical timing wheel. Elements are scheduled with a deadline, which is rounded
+ * up to a whole tick, and handed to an {@link Expiry} callback once {@link #advance(long, Expiry)}
+ * has been called with a time at or after that tick. Each level has 64 slots: the first level
+ * covers the next 64 ticks and the second the next 4096 ticks. Elements due even later are parked
+ * in the second level until their deadline comes within its range.
+ *
+ * <p>Slots grow with the number of elements scheduled into them, so the wheel has no capacity
+ * limit.
+ *
+ * <p>Not thread-safe.
+ */
+public final class TimingWheel<E> {
+
+  public interface Expiry<E> {
+    /**
+     * @param element the expired element
+     * @param attachment the value the element was scheduled with
+     */
+    void onExpiry(E element, long attachment);
+  }
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final long MAX_DELAY_TICKS = ((long) SLOTS << SLOT_BITS) - 1;
+
+  private final long tickNanos;
+  private final Slot<E>[] inner;
+  private final Slot<E>[] outer;
+  private long currentTick;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  public TimingWheel(long tickNanos, long nowNanos) {
+    if (tickNanos <= 0) {
+      throw new IllegalArgumentException("tick must be positive: " + tickNanos);
+    }
+    this.tickNanos = tickNanos;
+    this.inner = new Slot[SLOTS];
+    this.outer = new Slot[SLOTS];
+    for (int i = 0; i < SLOTS; ++i) {
+      inner[i] = new Slot<>();
+      outer[i] = new Slot<>();
+    }
+    this.currentTick = Math.floorDiv(nowNanos, tickNanos);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Schedules the element to expire at the deadline. Deadlines which have already passed expire on
+   * the next tick.
+   *
+   * @param attachment an arbitrary value passed back to the {@link Expiry} callback
+   */
+  public void schedule(E element, long deadlineNanos, long attachment) {
+    insert(element, deadlineNanos, attachment, currentTick + 1);
+    ++size;
+  }
+
+  /** Expires every element due at or before {@code nowNanos}, in deadline order by tick. */
+  public void advance(long nowNanos, Expiry<? super E> expiry) {
+    long targetTick = Math.floorDiv(nowNanos, tickNanos);
+    while (currentTick < targetTick) {
+      if (size == 0) {
+        currentTick = targetTick;
+        return;
+      }
+      ++currentTick;
+      if ((currentTick & SLOT_MASK) == 0) {
+        cascade(outer[(int) (currentTick >>> SLOT_BITS) & SLOT_MASK]);
+      }
+      Slot<E> slot = inner[(int) currentTick & SLOT_MASK];
+      int expired = slot.size;
+      size -= expired;
+      // rescheduling from the callback never lands in the current slot
+      for (int i = 0; i < expired; ++i) {
+        expiry.onExpiry(slot.element(i), slot.attachments[i]);
+      }
+      slot.clear();
+    }
+  }
+
+  /**
+   * @return the time at which the next element may expire, or {@link Long#MAX_VALUE} if the wheel
+   *     is empty
+   */
+  public long nextExpiryNanos() {
+    if (size == 0) {
+      return Long.MAX_VALUE;
+    }
+    long next = Long.MAX_VALUE;
+    for (long tick = currentTick + 1; tick <= currentTick + SLOT_MASK; ++tick) {
+      if (inner[(int) tick & SLOT_MASK].size > 0) {
+        next = tick;
+        break;
+      }
+    }
+    long block = currentTick >>> SLOT_BITS;
+    for (long b = block + 1; b <= block + SLOTS; ++b) {
+      if (outer[(int) b & SLOT_MASK].size > 0) {
+        next = Math.min(next, b << SLOT_BITS);
+        break;
+      }
+    }
+    return next == Long.MAX_VALUE ? next : next * tickNanos;
+  }
+
+  /** Removes every element from the wheel, passing each to the callback. */
+  public void drain(Expiry<? super E> expiry) {
+    drain(inner, expiry);
+    drain(outer, expiry);
+    size = 0;
+  }
+
+  private void drain(Slot<E>[] slots, Expiry<? super E> expiry) {
+    for (Slot<E> slot : slots) {
+      for (int i = 0; i < slot.size; ++i) {
+        expiry.onExpiry(slot.element(i), slot.attachments[i]);
+      }
+      slot.clear();
+    }
+  }
+
+  private void cascade(Slot<E> slot) {
+    int count = slot.size;
+    if (count == 0) {
+      return;
+    }
+    // the slot may receive parked elements again while they are being redistributed
+    Object[] elements = Arrays.copyOf(slot.elements, count);
+    long[] deadlines = Arrays.copyOf(slot.deadlines, count);
+    long[] attachments = Arrays.copyOf(slot.attachments, count);
+    slot.clear();
+    for (int i = 0; i < count; ++i) {
+      @SuppressWarnings("unchecked")
+      E element = (E) elements[i];
+      insert(element, deadlines[i], attachments[i], currentTick);
+    }
+  }
+
+  private void insert(E element, long deadlineNanos, long attachment, long minTick) {
+    long tick = Math.max(-Math.floorDiv(-deadlineNanos, tickNanos), minTick);
+    long delay = tick - currentTick;
+    if (delay <= SLOT_MASK) {
+      inner[(int) tick & SLOT_MASK].add(element, deadlineNanos, attachment);
+    } else {
+      tick = currentTick + Math.min(delay, MAX_DELAY_TICKS);
+      outer[(int) (tick >>> SLOT_BITS) & SLOT_MASK].add(element, deadlineNanos, attachment);
+    }
+  }
+
+  private static final class Slot<E> {
+    private static final int INITIAL_CAPACITY = 4;
+
+    Object[] elements = new Object[INITIAL_CAPACITY];
+    long[] deadlines = new long[INITIAL_CAPACITY];
+    long[] attachments = new long[INITIAL_CAPACITY];
+    int size;
+
+    void add(E element, long deadline, long attachment) {
+      if (size == elements.length) {
+        int capacity = size << 1;
+        elements = Arrays.copyOf(elements, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        attachments = Arrays.copyOf(attachments, capacity);
+      }
+      elements[size] = element;
+      deadlines[size] = deadline;
+      attachments[size] = attachment;
+      ++size;
+    }
+
+    @SuppressWarnings("unchecked")
+    E element(int index) {
+      return (E) elements[index];
+    }
+
+    void clear() {
+      Arrays.fill(elements, 0, size, null);
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package datadog.trace.common.metrics
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+class AggregateTableTest extends DDSpecification {
+
+  def "returns the same aggregate for equal keys"() {
+    setup:
+    def table = new AggregateTable(10, {})
+
+    when:
+    def first = table.findOrInsert(key(1))
+    def second = table.findOrInsert(key(1))
+
+    then:
+    first.is(second)
+    table.size() == 1
+    table.get(key(1)).is(first)
+    table.get(key(2)) == null
+  }
+
+  def "oldest unreferenced key is evicted when full"() {
+    setup:
+    def evicted = []
+    def table = new AggregateTable(10, { evicted.add(it) })
+
+    when:
+    for (int i = 0; i < 10; ++i) {
+      table.findOrInsert(key(i))
+    }
+
+    then:
+    evicted.isEmpty()
+
+    when: "a new key is inserted into a full table"
+    table.findOrInsert(key(10))
+
+    then:
+    evicted == [key(0)]
+    table.size() == 10
+    table.get(key(0)) == null
+
+    when: "an entry is hit before the clock hand reaches it"
+    table.findOrInsert(key(1))
+    table.findOrInsert(key(11))
+
+    then: "it survives the next eviction"
+    evicted == [key(0), key(2)]
+    table.get(key(1)) != null
+  }
+
+  def "evicted aggregates are cleared before reuse"() {
+    setup:
+    def table = new AggregateTable(1, {})
+    table.findOrInsert(key(0)).recordDurations(2, new AtomicLongArray(1, 2))
+
+    when:
+    def aggregate = table.findOrInsert(key(1))
+
+    then:
+    aggregate.getHitCount() == 0
+    aggregate.getDuration() == 0
+  }
+
+  def "stale entries are expunged and reported"() {
+    setup:
+    def evicted = []
+    def table = new AggregateTable(10, { evicted.add(it) })
+    for (int i = 0; i < 6; ++i) {
+      def aggregate = table.findOrInsert(key(i))
+      if (i % 2 == 0) {
+        aggregate.recordDurations(1, new AtomicLongArray(1))
+      }
+    }
+
+    when:
+    table.expungeStale()
+
+    then:
+    evicted as Set == [key(1), key(3), key(5)] as Set
+    table.size() == 3
+    (0..<table.size()).collect { table.keyAt(it) } as Set == [key(0), key(2), key(4)] as Set
+    [0, 2, 4].every { table.get(key(it)).getHitCount() == 1 }
+  }
+
+  def "behaves like a map under random updates"() {
+    setup:
+    def random = new Random(42)
+    def expected = new HashMap<MetricKey, Integer>()
+    def table = new AggregateTable(64, { expected.remove(it) })
+
+    when:
+    for (int i = 0; i < 10_000; ++i) {
+      def k = key(random.nextInt(200))
+      table.findOrInsert(k).recordDurations(1, new AtomicLongArray(1))
+      expected.merge(k, 1, Integer.&sum)
+      if (random.nextInt(100) == 0) {
+        table.expungeStale()
+        for (int j = 0; j < table.size(); ++j) {
+          table.aggregateAt(j).clear()
+          expected.put(table.keyAt(j), 0)
+        }
+      }
+    }
+
+    then:
+    table.size() == expected.size()
+    expected.every { k, hits -> table.get(k).getHitCount() == hits }
+  }
+
+  def "clear removes all entries"() {
+    setup:
+    def table = new AggregateTable(10, {})
+    for (int i = 0; i < 10; ++i) {
+      table.findOrInsert(key(i))
+    }
+
+    when:
+    table.clear()
+
+    then:
+    table.isEmpty()
+    table.get(key(0)) == null
+  }
+
+  static MetricKey key(int i) {
+    return new MetricKey("resource" + i, "service", "operation", "web", 200, false)
+  }
+}
@@ -1,5 +1,7 @@
 package datadog.trace.common.metrics
 
+import datadog.communication.serialization.ByteBufferPool
+import datadog.communication.serialization.GrowableBuffer
 import datadog.trace.test.util.DDSpecification
 import okhttp3.Call
 import okhttp3.MediaType
@@ -8,6 +10,7 @@ import okhttp3.Protocol
 import okhttp3.Request
 import okhttp3.Response
 import okhttp3.ResponseBody
+import okio.Buffer
 
 import java.nio.ByteBuffer
 import java.util.concurrent.CopyOnWriteArrayList
@@ -94,6 +97,46 @@ class OkHttpSinkTest extends DDSpecification {
     !sink.isInDegradedMode()
   }
 
+  def "payloads sent in async mode are not affected by the reuse of the buffer"() {
+    setup:
+    String agentUrl = "http://localhost:8126"
+    String path = V6_METRICS_ENDPOINT
+    CountDownLatch latch = new CountDownLatch(2)
+    EventListener listener = new BlockingListener(latch)
+    OkHttpClient client = Mock(OkHttpClient)
+    OkHttpSink sink = new OkHttpSink(client, agentUrl, path, true, false, Collections.emptyMap())
+    sink.register(listener)
+    AtomicBoolean first = new AtomicBoolean(true)
+    List<byte[]> payloads = new CopyOnWriteArrayList<>()
+    GrowableBuffer buffer = new GrowableBuffer(1024, new ByteBufferPool(false, 4, 1 << 20))
+
+    when: "a slow response followed by a payload which grew the buffer"
+    sink.accept(1, ByteBuffer.allocate(0))
+    2000.times { buffer.put((byte) 1) }
+    buffer.mark()
+    sink.accept(1, buffer.slice())
+    and: "the buffer is reset and refilled before the payload is sent"
+    buffer.reset()
+    2000.times { buffer.put((byte) 2) }
+    latch.await()
+
+    then:
+    2 * client.newCall(_) >> { Request request ->
+      if (first.compareAndSet(true, false)) {
+        Thread.sleep(1001)
+      } else {
+        Buffer body = new Buffer()
+        request.body().writeTo(body)
+        payloads.add(body.readByteArray())
+      }
+      respond(request, 200)
+    }
+    sink.asyncRequestCount() == 1
+    payloads.size() == 1
+    payloads[0].length == 2000
+    payloads[0].every { it == (byte) 1 }
+  }
+
   def respond(Request request, int code) {
     if (0 == code) {
       return error(request)
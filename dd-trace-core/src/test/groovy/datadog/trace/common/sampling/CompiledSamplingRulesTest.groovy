@@ -0,0 +1,92 @@
+package datadog.trace.common.sampling
+
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.CoreTracer
+import datadog.trace.core.test.DDCoreSpecification
+
+import static datadog.trace.api.sampling.SamplingMechanism.LOCAL_USER_RULE
+
+class CompiledSamplingRulesTest extends DDCoreSpecification {
+
+  CoreTracer tracer
+
+  def setup() {
+    tracer = tracerBuilder().writer(new ListWriter()).build()
+  }
+
+  def cleanup() {
+    tracer.close()
+  }
+
+  def "first matching rule wins for #service #operation #resource #tags"() {
+    setup:
+    def rules = [
+      rule("web", "http.*", null, ["env": "prod"]),
+      rule("*", "*", "GET /health", [:]),
+      rule("WEB", "http.request", null, [:]),
+      rule("db*", null, null, [:]),
+      rule("web", null, null, [:]),
+      new RateSamplingRule.AlwaysMatchesSamplingRule(new DeterministicSampler.TraceSampler(1), LOCAL_USER_RULE)
+    ]
+    def compiled = new CompiledSamplingRules(rules, 16)
+    def span = tracer.buildSpan(operation).withServiceName(service).withResourceName(resource)
+    tags.each { span.withTag(it.key, it.value) }
+    span = span.start()
+
+    when: "the same names are looked up twice, the second time from the cache"
+    def first = compiled.match(span)
+    def second = compiled.match(span)
+
+    then:
+    first.is(rules[expected])
+    second.is(rules[expected])
+
+    cleanup:
+    span.finish()
+
+    where:
+    service | operation      | resource      | tags            | expected
+    "web"   | "http.request" | "GET /"       | ["env": "prod"] | 0
+    "web"   | "http.request" | "GET /"       | ["env": "dev"]  | 2
+    "Web"   | "http.request" | "GET /health" | [:]             | 1
+    "web"   | "grpc.server"  | "GET /"       | [:]             | 4
+    "db-1"  | "query"        | "SELECT"      | [:]             | 3
+    "other" | "query"        | "SELECT"      | [:]             | 5
+  }
+
+  def "tag conditions are checked for each span with the same names"() {
+    setup:
+    def rules = [rule("web", null, null, ["env": "prod"])]
+    def compiled = new CompiledSamplingRules(rules, 16)
+
+    when:
+    def prod = tracer.buildSpan("op").withServiceName("web").withTag("env", "prod").start()
+    def dev = tracer.buildSpan("op").withServiceName("web").withTag("env", "dev").start()
+
+    then:
+    compiled.match(prod).is(rules[0])
+    compiled.match(dev) == null
+    compiled.match(prod).is(rules[0])
+
+    cleanup:
+    prod.finish()
+    dev.finish()
+  }
+
+  def "no rules never match"() {
+    setup:
+    def compiled = new CompiledSamplingRules([], 16)
+    def span = tracer.buildSpan("op").start()
+
+    expect:
+    compiled.match(span) == null
+
+    cleanup:
+    span.finish()
+  }
+
+  static RateSamplingRule rule(String service, String operation, String resource, Map<String, String> tags) {
+    return new RateSamplingRule.TraceSamplingRule(
+      service, operation, resource, tags, new DeterministicSampler.TraceSampler(1), LOCAL_USER_RULE)
+  }
+}
@@ -26,10 +26,13 @@ import spock.lang.Shared
 import spock.lang.Timeout
 
 import java.nio.ByteBuffer
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
 import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.atomic.AtomicReference
+import java.util.zip.GZIPInputStream
 
 import static datadog.trace.agent.test.server.http.TestHttpServer.httpServer
 
@@ -184,6 +187,46 @@ class DDAgentApiTest extends DDCoreSpecification {
     agentVersion << ["v0.3/traces", "v0.4/traces", "v0.4/traces"]
   }
 
+  def "traces are gzipped when enabled and supported by the agent"() {
+    setup:
+    def agent = httpServer {
+      handlers {
+        get("info") {
+          response.status(200).send('{"endpoints":["/' + agentVersion + '"],"gzip_traces":' + agentSupportsGzip + '}')
+        }
+        put(agentVersion) {
+          response.send()
+        }
+      }
+    }
+    HttpUrl agentUrl = HttpUrl.get(agent.address.toString())
+    OkHttpClient httpClient = OkHttpUtils.buildHttpClient(agentUrl, 1000)
+    DDAgentFeaturesDiscovery discovery = new DDAgentFeaturesDiscovery(httpClient, monitoring, agentUrl, true, true)
+    def client = new DDAgentApi(httpClient, agentUrl, discovery, monitoring, false, compressionEnabled)
+    def span = buildSpan(1L, "fakeType", [:])
+    span.finish()
+    def payload = prepareTraces(agentVersion, [[span]])
+
+    expect:
+    client.sendSerializedTraces(payload).success()
+    agent.lastRequest.contentType == "application/msgpack"
+    agent.lastRequest.headers.get("Content-Encoding") == (gzipped ? "gzip" : null)
+    def body = gzipped ? new GZIPInputStream(new ByteArrayInputStream(agent.lastRequest.body)).bytes : agent.lastRequest.body
+    def spans = convertList(agentVersion, body)
+    spans.size() == 1
+    spans[0][0]["span_id"] == 1
+
+    cleanup:
+    agent.close()
+
+    where:
+    agentVersion  | compressionEnabled | agentSupportsGzip | gzipped
+    "v0.4/traces" | true               | true              | true
+    "v0.5/traces" | true               | true              | true
+    "v0.4/traces" | true               | false             | false
+    "v0.4/traces" | false              | true              | false
+  }
+
   def "Api ResponseListeners see 200 responses"() {
     setup:
     def agentResponse = new AtomicReference<Map>(null)
@@ -222,6 +265,39 @@ class DDAgentApiTest extends DDCoreSpecification {
     agentVersion << ["v0.3/traces", "v0.4/traces", "v0.5/traces"]
   }
 
+  def "counters are consistent when several shards send concurrently"() {
+    setup:
+    def agent = newAgent("v0.4/traces")
+    def client = createAgentApi(agent.address.toString())[1]
+    def shards = 4
+    def payloadsPerShard = 50
+    def start = new CountDownLatch(1)
+    def executor = Executors.newFixedThreadPool(shards)
+
+    when:
+    def futures = (1..shards).collect { shard ->
+      executor.submit {
+        start.await()
+        payloadsPerShard.times {
+          client.addResponseListener({ String endpoint, Map responseJson -> } as RemoteResponseListener)
+          assert client.sendSerializedTraces(prepareTraces("v0.4/traces", [[], [], []])).success()
+        }
+      }
+    }
+    start.countDown()
+    futures.each { it.get(10, TimeUnit.SECONDS) }
+
+    then:
+    client.totalTraces.get() == shards * payloadsPerShard * 3
+    client.receivedTraces.get() == shards * payloadsPerShard * 3
+    client.sentTraces.get() == shards * payloadsPerShard * 3
+    client.failedTraces.get() == 0
+
+    cleanup:
+    executor.shutdownNow()
+    agent.close()
+  }
+
   def "Api Downgrades to v3 if v0.4 not available"() {
     setup:
     def v3Agent = httpServer {
@@ -1,5 +1,6 @@
 package datadog.trace.common.writer
 
+import datadog.trace.api.DDTraceId
 import datadog.trace.common.sampling.SingleSpanSampler
 import datadog.trace.common.writer.ddagent.PrioritizationStrategy.PublishResult
 import datadog.trace.core.CoreSpan
@@ -11,6 +12,7 @@ import datadog.trace.core.postprocessor.SpanPostProcessor
 import datadog.trace.test.util.DDSpecification
 import spock.util.concurrent.PollingConditions
 
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 
@@ -261,6 +263,77 @@ class TraceProcessingWorkerTest extends DDSpecification {
     UNSET        | 100        | FAST_LANE
   }
 
+  def "sharded workers route traces by trace id and flush every shard"() {
+    setup:
+    int shardCount = 4
+    AtomicInteger flushCount = new AtomicInteger()
+    List<Set<DDTraceId>> receivedTraceIds = []
+    List<PayloadDispatcherImpl> dispatchers = []
+    for (int i = 0; i < shardCount; i++) {
+      Set<DDTraceId> traceIds = Collections.newSetFromMap(new ConcurrentHashMap<DDTraceId, Boolean>())
+      receivedTraceIds.add(traceIds)
+      PayloadDispatcherImpl dispatcher = Mock(PayloadDispatcherImpl)
+      dispatcher.addTrace(_) >> {
+        List<CoreSpan> trace = it[0]
+        traceIds.add(trace[0].getTraceId())
+      }
+      dispatcher.flush() >> {
+        flushCount.incrementAndGet()
+      }
+      dispatchers.add(dispatcher)
+    }
+    TraceProcessingWorker worker = new TraceProcessingWorker(100, Stub(HealthMetrics),
+      dispatchers, {
+        false
+      }, FAST_LANE, 100, TimeUnit.SECONDS, null, null)
+    worker.start()
+
+    when: "traces are submitted"
+    List<DDTraceId> traceIds = (1..40).collect { DDTraceId.from(it) }
+    for (DDTraceId traceId : traceIds) {
+      DDSpan span = Stub(DDSpan) {
+        getTraceId() >> traceId
+      }
+      worker.publish(span, SAMPLER_KEEP, [span])
+    }
+    boolean flushed = worker.flush(5, TimeUnit.SECONDS)
+
+    then: "every trace is serialized by the shard its trace id maps to"
+    flushed
+    flushCount.get() >= shardCount
+    traceIds.every { traceId ->
+      receivedTraceIds[ShardedTraceQueue.shardOf([
+        Stub(DDSpan) {
+          getTraceId() >> traceId
+        }
+      ], shardCount)].contains(traceId)
+    }
+    receivedTraceIds.sum { it.size() } == traceIds.size()
+
+    cleanup:
+    worker.close()
+  }
+
+  def "sharded trace queue iterates over every shard"() {
+    setup:
+    List<Queue<Object>> shards = (1..3).collect { new ArrayDeque<Object>() }
+    ShardedTraceQueue queue = new ShardedTraceQueue(shards)
+    shards[0].add("a")
+    shards[2].addAll(["b", "c"])
+
+    expect:
+    queue.iterator().collect() == ["a", "b", "c"]
+    queue.containsAll(["a", "b", "c"])
+    new ShardedTraceQueue(shards.collect { new ArrayDeque<Object>() }).iterator().collect() == []
+
+    when:
+    Iterator<Object> iterator = new ShardedTraceQueue([new ArrayDeque<Object>()]).iterator()
+    iterator.next()
+
+    then:
+    thrown(NoSuchElementException)
+  }
+
   def "flush of full queue after worker thread stopped will not flush but will return"() {
     setup:
     PayloadDispatcherImpl countingDispatcher = Mock(PayloadDispatcherImpl)
@@ -285,6 +285,36 @@ class DDSpanContextTest extends DDCoreSpecification {
     span.context.encodedResourceName == -2
   }
 
+  def "resource name encoding can be deferred until the context is activated"() {
+    setup:
+    profilingContextIntegration.isResourceNameEncodingDeferred() >> true
+    def span = tracer.buildSpan("fakeOperation")
+      .withServiceName("fakeService")
+      .withResourceName("fakeResource")
+      .start()
+
+    when:
+    span.setResourceName("newResourceName")
+    span.setResourceName("finalResourceName")
+
+    then: "intermediate resource names are not encoded"
+    0 * profilingContextIntegration.encodeResourceName(_)
+
+    when:
+    def encoded = span.context.encodedResourceName
+
+    then:
+    1 * profilingContextIntegration.encodeResourceName("finalResourceName") >> 3
+    encoded == 3
+
+    when: "the resource name has not changed since it was encoded"
+    encoded = span.context.encodedResourceName
+
+    then:
+    0 * profilingContextIntegration.encodeResourceName(_)
+    encoded == 3
+  }
+
   private static String dataTag(String tag) {
     "_dd.${tag}.json"
   }
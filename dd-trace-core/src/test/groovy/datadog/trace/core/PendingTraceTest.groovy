@@ -124,7 +124,7 @@ class PendingTraceTest extends PendingTraceTestBase {
     traceToWrite.size() == 2
     traceToWrite.containsAll([span1, span2])
     trace.spans.size() == 1
-    trace.spans.pop() == unfinishedSpan
+    trace.spans.peek() == unfinishedSpan
   }
 
   def "write when writeRunningSpans is enabled: complete and running spans are written"() {
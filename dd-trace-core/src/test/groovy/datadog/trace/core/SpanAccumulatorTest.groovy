@@ -0,0 +1,93 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class SpanAccumulatorTest extends DDSpecification {
+
+  def "spans are drained most recent first across chunks"() {
+    setup:
+    def accumulator = new SpanAccumulator()
+    def spans = (0..<count).collect { Mock(DDSpan) }
+
+    when:
+    spans.each { accumulator.add(it) }
+
+    then:
+    accumulator.size() == count
+    accumulator.asList() == spans
+    accumulator.peek() == (count > 0 ? spans.last() : null)
+
+    when:
+    def drained = []
+    def drainedCount = accumulator.drain(drained)
+
+    then:
+    drainedCount == count
+    drained == spans.reverse()
+    accumulator.isEmpty()
+    accumulator.asList() == []
+
+    where:
+    count << [0, 1, 8, 9, 100, 5000]
+  }
+
+  def "drains resume where the previous drain stopped"() {
+    setup:
+    def accumulator = new SpanAccumulator()
+    def first = (0..<20).collect { Mock(DDSpan) }
+    def second = (0..<50).collect { Mock(DDSpan) }
+
+    when:
+    first.each { accumulator.add(it) }
+    def drained = []
+    accumulator.drain(drained)
+    second.each { accumulator.add(it) }
+
+    then:
+    drained == first.reverse()
+    accumulator.size() == 50
+
+    when:
+    drained = []
+    accumulator.drain(drained)
+
+    then:
+    drained == second.reverse()
+    accumulator.size() == 0
+  }
+
+  def "concurrently added spans are all drained once"() {
+    setup:
+    def accumulator = new SpanAccumulator()
+    def threads = 4
+    def spansPerThread = 2500
+    def spans = (0..<threads).collect { (0..<spansPerThread).collect { Mock(DDSpan) } }
+    def executor = Executors.newFixedThreadPool(threads)
+    def done = new CountDownLatch(threads)
+
+    when:
+    def drained = []
+    spans.each { batch ->
+      executor.execute {
+        batch.each { accumulator.add(it) }
+        done.countDown()
+      }
+    }
+    while (!done.await(1, TimeUnit.MILLISECONDS)) {
+      accumulator.drain(drained)
+    }
+    accumulator.drain(drained)
+
+    then:
+    drained.size() == threads * spansPerThread
+    drained.toSet().size() == threads * spansPerThread
+    accumulator.isEmpty()
+
+    cleanup:
+    executor.shutdownNow()
+  }
+}
@@ -0,0 +1,167 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+class TagMapTest extends DDSpecification {
+
+  def "primitive values are boxed to their original type on read"() {
+    setup:
+    def tags = new TagMap()
+
+    when:
+    tags.set("int", 1)
+    tags.set("long", 2L)
+    tags.set("float", 3.5f)
+    tags.set("double", 4.5d)
+    tags.set("string", "five")
+
+    then:
+    tags.size() == 5
+    tags.get("int") instanceof Integer
+    tags.get("int") == 1
+    tags.get("long") instanceof Long
+    tags.get("long") == 2L
+    tags.get("float") instanceof Float
+    tags.get("float") == 3.5f
+    tags.get("double") instanceof Double
+    tags.get("double") == 4.5d
+    tags.get("string") == "five"
+  }
+
+  def "visitor receives unboxed values"() {
+    setup:
+    def tags = new TagMap()
+    tags.set("int", 1)
+    tags.set("long", 2L)
+    tags.set("float", 3.5f)
+    tags.set("double", 4.5d)
+    tags.set("string", "five")
+    def visited = [:]
+    def visitor = new TagMap.Visitor() {
+        @Override
+        void visitObject(String key, Object value) {
+          visited.put(key, "object:$value")
+        }
+
+        @Override
+        void visitInt(String key, int value) {
+          visited.put(key, "int:$value")
+        }
+
+        @Override
+        void visitLong(String key, long value) {
+          visited.put(key, "long:$value")
+        }
+
+        @Override
+        void visitFloat(String key, float value) {
+          visited.put(key, "float:$value")
+        }
+
+        @Override
+        void visitDouble(String key, double value) {
+          visited.put(key, "double:$value")
+        }
+      }
+
+    when:
+    TagMap.visit(tags, visitor)
+
+    then:
+    visited == [
+      "int"   : "int:1",
+      "long"  : "long:2",
+      "float" : "float:3.5",
+      "double": "double:4.5",
+      "string": "object:five"
+    ]
+  }
+
+  def "setting a null value removes the tag"() {
+    setup:
+    def tags = new TagMap()
+    tags.set("key", "value")
+
+    when:
+    tags.set("key", null)
+
+    then:
+    tags.isEmpty()
+    !tags.containsKey("key")
+  }
+
+  def "behaves like a HashMap under random updates"() {
+    setup:
+    def random = new Random(42)
+    def tags = new TagMap()
+    def expected = new HashMap<String, Object>()
+
+    when:
+    for (int i = 0; i < 10_000; i++) {
+      def key = "key" + random.nextInt(100)
+      switch (random.nextInt(4)) {
+        case 0:
+          tags.remove(key)
+          expected.remove(key)
+          break
+        case 1:
+          tags.set(key, (long) i)
+          expected.put(key, (long) i)
+          break
+        case 2:
+          tags.set(key, (double) i)
+          expected.put(key, (double) i)
+          break
+        default:
+          tags.put(key, "value" + i)
+          expected.put(key, "value" + i)
+      }
+    }
+
+    then:
+    tags == expected
+    tags.copy() == expected
+  }
+
+  def "entries can be removed while iterating"() {
+    setup:
+    def tags = new TagMap()
+    def expected = new HashMap<String, Object>()
+    for (int i = 0; i < 200; i++) {
+      tags.set("key" + i, i)
+      expected.put("key" + i, i)
+    }
+
+    when:
+    def seen = new HashSet<String>()
+    def iterator = tags.entrySet().iterator()
+    while (iterator.hasNext()) {
+      def entry = iterator.next()
+      assert seen.add(entry.key)
+      if (entry.value % 2 == 0) {
+        iterator.remove()
+        expected.remove(entry.key)
+      }
+    }
+
+    then:
+    seen.size() == 200
+    tags == expected
+    tags.size() == 100
+  }
+
+  def "copy does not share state"() {
+    setup:
+    def tags = new TagMap()
+    tags.set("key", 1L)
+
+    when:
+    def copy = tags.copy()
+    copy.set("key", 2L)
+    copy.set("other", "value")
+
+    then:
+    tags == ["key": 1L]
+    copy == ["key": 2L, "other": "value"]
+  }
+}
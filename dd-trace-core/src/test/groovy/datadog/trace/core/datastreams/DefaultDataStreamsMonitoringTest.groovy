@@ -10,9 +10,11 @@ import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
 import datadog.trace.bootstrap.instrumentation.api.StatsPoint
 import datadog.trace.common.metrics.EventListener
 import datadog.trace.common.metrics.Sink
+import datadog.trace.core.monitor.HealthMetrics
 import datadog.trace.core.test.DDCoreSpecification
 import spock.util.concurrent.PollingConditions
 
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 
 import static DefaultDataStreamsMonitoring.FEATURE_CHECK_INTERVAL_NANOS
@@ -831,6 +833,108 @@ class DefaultDataStreamsMonitoringTest extends DDCoreSpecification {
     payloadWriter.close()
     dataStreams.close()
   }
+
+  def "Points added concurrently are all counted"() {
+    given:
+    def conditions = new PollingConditions(timeout: 5)
+    def features = Stub(DDAgentFeaturesDiscovery) {
+      supportsDataStreams() >> true
+    }
+    def timeSource = new ControllableTimeSource()
+    def sink = Mock(Sink)
+    def payloadWriter = new CapturingPayloadWriter()
+
+    def traceConfig = Mock(TraceConfig) {
+      isDataStreamsEnabled() >> true
+    }
+
+    when:
+    def dataStreams = new DefaultDataStreamsMonitoring(sink, features, timeSource, { traceConfig }, wellKnownTags, payloadWriter, DEFAULT_BUCKET_DURATION_NANOS)
+    dataStreams.start()
+    def threads = (1..4).collect { thread ->
+      Thread.start {
+        1000.times {
+          dataStreams.add(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, 3, timeSource.currentTimeNanos, SECONDS.toNanos(thread), 0, 0))
+        }
+      }
+    }
+    threads*.join()
+    timeSource.advance(DEFAULT_BUCKET_DURATION_NANOS)
+    dataStreams.report()
+
+    then:
+    conditions.eventually {
+      assert dataStreams.inbox.isEmpty()
+      assert dataStreams.thread.state != Thread.State.RUNNABLE
+      assert payloadWriter.buckets.size() == 1
+    }
+
+    with(payloadWriter.buckets.get(0)) {
+      groups.size() == 1
+
+      with(groups.iterator().next()) {
+        hash == 1
+        parentHash == 2
+        pathwayLatency.getCount() == 4000
+        pathwayLatency.getMinValue() >= 1
+        pathwayLatency.getMaxValue() < 4.1
+      }
+    }
+
+    cleanup:
+    payloadWriter.close()
+    dataStreams.close()
+  }
+
+  def "Points are counted as dropped when the inbox is full"() {
+    given:
+    def conditions = new PollingConditions(timeout: 5)
+    def features = Stub(DDAgentFeaturesDiscovery) {
+      supportsDataStreams() >> true
+    }
+    def timeSource = new ControllableTimeSource()
+    def sink = Mock(Sink)
+    def healthMetrics = Mock(HealthMetrics)
+    def flushing = new CountDownLatch(1)
+    def resume = new CountDownLatch(1)
+    def payloadWriter = Stub(DatastreamsPayloadWriter) {
+      writePayload(_) >> {
+        flushing.countDown()
+        resume.await(5, SECONDS)
+      }
+    }
+
+    def traceConfig = Mock(TraceConfig) {
+      isDataStreamsEnabled() >> true
+    }
+
+    when: "the inbox fills up while the consumer thread is writing a payload"
+    def dataStreams = new DefaultDataStreamsMonitoring(sink, features, timeSource, { traceConfig }, wellKnownTags, payloadWriter, DEFAULT_BUCKET_DURATION_NANOS, 0, healthMetrics)
+    dataStreams.start()
+    dataStreams.add(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, 3, timeSource.currentTimeNanos, 0, 0, 0))
+    timeSource.advance(DEFAULT_BUCKET_DURATION_NANOS)
+    dataStreams.report()
+    flushing.await(5, SECONDS)
+    (DefaultDataStreamsMonitoring.MIN_INBOX_SIZE + 10).times {
+      dataStreams.add(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, 100 + it, timeSource.currentTimeNanos, 0, 0, 0))
+    }
+    // points of the same dataset are conflated into the pending batches
+    dataStreams.add(new StatsPoint(["type:testType", "group:testGroup", "topic:testTopic"], 1, 2, 100, timeSource.currentTimeNanos, 0, 0, 0))
+    resume.countDown()
+
+    then:
+    10 * healthMetrics.onDataStreamsDrop(1)
+    0 * healthMetrics._
+
+    and:
+    conditions.eventually {
+      assert dataStreams.inbox.isEmpty()
+    }
+
+    cleanup:
+    resume.countDown()
+    dataStreams.close()
+  }
 }
 
 class CapturingPayloadWriter implements DatastreamsPayloadWriter {
@@ -7,6 +7,7 @@ import datadog.trace.api.TraceConfig
 import datadog.trace.api.WellKnownTags
 import datadog.trace.api.time.ControllableTimeSource
 import datadog.trace.bootstrap.instrumentation.api.AgentPropagation
+import datadog.trace.bootstrap.instrumentation.api.CheckpointTemplate
 import datadog.trace.bootstrap.instrumentation.api.PathwayContext
 import datadog.trace.bootstrap.instrumentation.api.StatsPoint
 import datadog.trace.bootstrap.instrumentation.api.TagContext
@@ -14,7 +15,10 @@ import datadog.trace.common.metrics.Sink
 import datadog.trace.core.propagation.ExtractedContext
 import datadog.trace.core.propagation.HttpCodec
 import datadog.trace.core.test.DDCoreSpecification
+import datadog.trace.util.FNV64Hash
 
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
 import java.util.function.Consumer
 
 import static datadog.trace.api.TracePropagationStyle.DATADOG
@@ -581,6 +585,73 @@ class DefaultPathwayContextTest extends DDCoreSpecification {
     pointConsumer.points[0].hash != pointConsumer.points[1].hash
   }
 
+  def "Checkpoint templates produce the same points as sorted tags"() {
+    given:
+    def timeSource = new ControllableTimeSource()
+    def tagsContext = new DefaultPathwayContext(timeSource, wellKnownTags)
+    def templateContext = new DefaultPathwayContext(timeSource, wellKnownTags)
+    def templatePoints = new ArrayList<StatsPoint>()
+    def checkpoints = [
+      new LinkedHashMap<>(["direction": "out", "topic": "topic", "type": "kafka"]),
+      new LinkedHashMap<>(["direction": "in", "group": "group", "topic": "topic", "type": "kafka"]),
+      new LinkedHashMap<>(["direction": "in", "group": "group", "topic": "topic", "type": "kafka"]),
+      new LinkedHashMap<>(["direction": "out", "ds.name": "my_object.csv", "ds.namespace": "my_bucket", "type": "s3"]),
+      new LinkedHashMap<>()
+    ]
+    def templates = checkpoints.collect { CheckpointTemplate.of(it) }
+
+    when:
+    checkpoints.eachWithIndex { tags, i ->
+      timeSource.advance(25)
+      tagsContext.setCheckpoint(tags, pointConsumer, 0, i)
+      templateContext.setCheckpoint(templates[i], { templatePoints.add(it) }, 0, i)
+    }
+
+    then:
+    templatePoints.size() == checkpoints.size()
+    pointConsumer.points.size() == checkpoints.size()
+    templateContext.hash == tagsContext.hash
+    [pointConsumer.points, templatePoints].transpose().each { StatsPoint expected, StatsPoint actual ->
+      assert actual.edgeTags == expected.edgeTags
+      assert actual.hash == expected.hash
+      assert actual.parentHash == expected.parentHash
+      assert actual.dataSetHash == expected.dataSetHash
+      assert actual.pathwayLatencyNano == expected.pathwayLatencyNano
+      assert actual.edgeLatencyNano == expected.edgeLatencyNano
+      assert actual.payloadSizeBytes == expected.payloadSizeBytes
+    }
+  }
+
+  def "Checkpoint templates are compiled once"() {
+    given:
+    def timeSource = new ControllableTimeSource()
+    def template = CheckpointTemplate.of(new LinkedHashMap<>(["type": "internal"]))
+
+    when:
+    new DefaultPathwayContext(timeSource, wellKnownTags).setCheckpoint(template, pointConsumer, 0, 0)
+    def compiled = template.compiled
+    new DefaultPathwayContext(timeSource, wellKnownTags).setCheckpoint(template, pointConsumer, 0, 0)
+
+    then:
+    compiled != null
+    template.compiled.is(compiled)
+    pointConsumer.points[0].hash == pointConsumer.points[1].hash
+    // node hash of service, env and hashable tags, combined with the empty parent hash
+    def nodeHash = FNV64Hash.generateHash("servicetestingtype:internal", FNV64Hash.Version.v1)
+    def buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putLong(nodeHash).putLong(0)
+    def hash = FNV64Hash.generateHash(buffer.array(), FNV64Hash.Version.v1)
+    pointConsumer.points[0].hash == hash
+    pointConsumer.points[0].dataSetHash == FNV64Hash.generateHash("0" + hash, FNV64Hash.Version.v1)
+
+    when: "the primary tag changes the node hash"
+    injectSysConfig(PRIMARY_TAG, "region-2")
+    new DefaultPathwayContext(timeSource, wellKnownTags).setCheckpoint(template, pointConsumer, 0, 0)
+
+    then:
+    !template.compiled.is(compiled)
+    pointConsumer.points[2].hash != pointConsumer.points[0].hash
+  }
+
   def "Check context extractor decorator behavior"() {
     given:
     def sink = Mock(Sink)
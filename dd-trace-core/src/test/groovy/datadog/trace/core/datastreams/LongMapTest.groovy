@@ -0,0 +1,43 @@
+package datadog.trace.core.datastreams
+
+import datadog.trace.core.test.DDCoreSpecification
+
+class LongMapTest extends DDCoreSpecification {
+
+  def "behaves like a hash map for #keys keys"() {
+    setup:
+    def map = new LongMap<Long>(1)
+    def expected = new HashMap<Long, Long>()
+    def random = new Random(keys)
+
+    when: "bucket timestamps are added, replaced and removed"
+    10_000.times {
+      long key = random.nextInt(keys) * 10_000_000_000L
+      switch (random.nextInt(3)) {
+        case 0:
+          assert map.put(key, it as Long) == expected.put(key, it as Long)
+          break
+        case 1:
+          assert map.remove(key) == expected.remove(key)
+          break
+        default:
+          assert map.get(key) == expected.get(key)
+      }
+    }
+
+    then:
+    map.size() == expected.size()
+    map.values().sort() == expected.values().sort()
+
+    when:
+    map.clear()
+
+    then:
+    map.isEmpty()
+    map.values().isEmpty()
+    expected.keySet().every { map.get(it) == null }
+
+    where:
+    keys << [1, 10, 1000]
+  }
+}
@@ -1,5 +1,6 @@
 package datadog.trace.core.monitor
 
+import datadog.communication.serialization.ByteBufferPool
 import datadog.trace.api.StatsDClient
 import datadog.trace.api.sampling.PrioritySampling
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource
@@ -415,6 +416,57 @@ class HealthMetricsTest extends DDSpecification {
     healthMetrics.close()
   }
 
+  def "test onPendingTraceBuffer"() {
+    setup:
+    def latch = new CountDownLatch(3)
+    def healthMetrics = new TracerHealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+    when:
+    healthMetrics.onPendingTraceBufferOccupancy(7)
+    healthMetrics.onPendingTraceBufferWrite(TimeUnit.MILLISECONDS.toNanos(500))
+    healthMetrics.onPendingTraceBufferWrite(TimeUnit.MILLISECONDS.toNanos(700))
+    latch.await(10, TimeUnit.SECONDS)
+    then:
+    1 * statsD.count("pending.write", 2, _)
+    1 * statsD.count("pending.dwell_time.ms", 1200, _)
+    1 * statsD.gauge("pending.occupancy", 7, _)
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test onDataStreamsDrop"() {
+    setup:
+    def latch = new CountDownLatch(1)
+    def healthMetrics = new TracerHealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS)
+    healthMetrics.start()
+    when:
+    healthMetrics.onDataStreamsDrop(64)
+    healthMetrics.onDataStreamsDrop(1)
+    latch.await(10, TimeUnit.SECONDS)
+    then:
+    1 * statsD.count("datastreams.dropped", 65, _)
+    cleanup:
+    healthMetrics.close()
+  }
+
+  def "test buffer pool hits and misses"() {
+    setup:
+    def pool = new ByteBufferPool(false, 4, 1 << 20)
+    def latch = new CountDownLatch(2)
+    def healthMetrics = new TracerHealthMetrics(new Latched(statsD, latch), 100, TimeUnit.MILLISECONDS, pool)
+    when:
+    pool.release(pool.acquire(1024))
+    pool.acquire(1024)
+    pool.acquire(2048)
+    healthMetrics.start()
+    latch.await(10, TimeUnit.SECONDS)
+    then:
+    1 * statsD.count("serialization.buffer_pool.hit", 1, _)
+    1 * statsD.count("serialization.buffer_pool.miss", 2, _)
+    cleanup:
+    healthMetrics.close()
+  }
+
   private static class Latched implements StatsDClient {
     final StatsDClient delegate
     final CountDownLatch latch
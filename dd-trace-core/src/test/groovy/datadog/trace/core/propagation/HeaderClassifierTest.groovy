@@ -0,0 +1,55 @@
+package datadog.trace.core.propagation
+
+import datadog.trace.test.util.DDSpecification
+
+import static datadog.trace.core.propagation.HeaderClassifier.IGNORE
+
+class HeaderClassifierTest extends DDSpecification {
+
+  static final HeaderClassifier CLASSIFIER = new HeaderClassifier()
+  .add("x-datadog-trace-id", 0)
+  .add("X-B3-TraceId", 1)
+  .add("x-forwarded", 2)
+  .add("x-forwarded-for", 3)
+  .add("ot-baggage-t0", 4)
+  .addPrefix("ot-baggage-", 5)
+
+  def "classify #key as #expected"() {
+    expect:
+    CLASSIFIER.classify(key) == expected
+
+    where:
+    key                   | expected
+    "x-datadog-trace-id"  | 0
+    "X-Datadog-Trace-ID"  | 0
+    "x-b3-traceid"        | 1
+    "X-B3-TRACEID"        | 1
+    "x-forwarded"         | 2
+    "x-forwarded-for"     | 3
+    "X-Forwarded-Fo"      | IGNORE
+    "x-forwarded-form"    | IGNORE
+    "x-datadog-trace"     | IGNORE
+    "ot-baggage-t0"       | 4
+    "OT-Baggage-T0"       | 4
+    "ot-baggage-t"        | 5
+    "ot-baggage-t00"      | 5
+    "ot-baggage-"         | 5
+    "ot-baggage-Some-Key" | 5
+    "ot-baggage"          | IGNORE
+    "traceparent"         | IGNORE
+    ""                    | IGNORE
+  }
+
+  def "common headers are told apart from the style headers"() {
+    setup:
+    def classifier = ContextInterpreter.commonHeaders().add(W3CHttpCodec.TRACE_PARENT_KEY, 0)
+
+    expect:
+    ContextInterpreter.isStyleHeader(classifier.classify("TraceParent"))
+    !ContextInterpreter.isStyleHeader(classifier.classify(HttpCodec.X_FORWARDED_FOR_KEY))
+    classifier.classify(HttpCodec.X_FORWARDED_FOR_KEY) != IGNORE
+    classifier.classify(HttpCodec.CF_CONNECTING_IP_V6_KEY.toUpperCase()) != IGNORE
+    classifier.classify("x-unknown-header") == IGNORE
+    !ContextInterpreter.isStyleHeader(IGNORE)
+  }
+}
@@ -310,6 +310,78 @@ class W3CPropagationTagsTest extends DDCoreSpecification {
     'dd=s:1;o:some;t.dm:934086a686-4' | PrioritySampling.SAMPLER_DROP | SamplingMechanism.EXTERNAL_OVERRIDE | "other" | 'dd=s:0;o:other'                   | [:]
   }
 
+  def "other tracestate members are kept when the Datadog member changes #memberCount '#separator'"() {
+    setup:
+    def config = Mock(Config)
+    config.getxDatadogTagsMaxLength() >> 512
+    def propagationTagsFactory = PropagationTags.factory(config)
+    def members = (1..memberCount).collect { "k$it=v$it" }
+    def before = members.take(memberCount.intdiv(2))
+    def after = members.drop(memberCount.intdiv(2))
+    def header = (before + ['dd=s:0;o:some;x:unknown'] + after).join(separator)
+
+    when:
+    def propagationTags = propagationTagsFactory.fromHeaderValue(HeaderType.W3C, header)
+
+    then:
+    propagationTags.headerValue(HeaderType.W3C) == (['dd=s:0;o:some;x:unknown'] + members).join(',')
+
+    when:
+    propagationTags.updateTraceSamplingPriority(PrioritySampling.USER_KEEP, SamplingMechanism.LOCAL_USER_RULE)
+
+    then:
+    propagationTags.headerValue(HeaderType.W3C) == (['dd=s:2;o:some;t.dm:-3;x:unknown'] + members).join(',')
+
+    where:
+    memberCount | separator
+    1           | ','
+    8           | ','
+    31          | ','
+    8           | ', '
+    8           | ' ,'
+    8           | ',,'
+    31          | ',\t'
+  }
+
+  def "tracestate without Datadog member keeps #expectedCount members next to the Datadog member"() {
+    setup:
+    def config = Mock(Config)
+    config.getxDatadogTagsMaxLength() >> 512
+    def propagationTagsFactory = PropagationTags.factory(config)
+    def header = (1..memberCount).collect { "k$it=v$it" }.join(separator)
+
+    when:
+    def propagationTags = propagationTagsFactory.fromHeaderValue(HeaderType.W3C, header)
+    propagationTags.updateTraceSamplingPriority(PrioritySampling.SAMPLER_KEEP, SamplingMechanism.DEFAULT)
+
+    then:
+    propagationTags.headerValue(HeaderType.W3C) == (['dd=s:1;t.dm:-0'] + (1..expectedCount).collect { "k$it=v$it" }).join(',')
+
+    where:
+    memberCount | separator | expectedCount
+    8           | ','       | 8
+    31          | ','       | 31
+    32          | ','       | 31
+    32          | ' , '     | 31
+  }
+
+  def "cached tracestate header is encoded again when the trace id high-order bits change"() {
+    setup:
+    def config = Mock(Config)
+    config.getxDatadogTagsMaxLength() >> 512
+    def propagationTagsFactory = PropagationTags.factory(config)
+    def propagationTags = propagationTagsFactory.fromHeaderValue(HeaderType.W3C, 'dd=s:1,other=whatever')
+
+    expect:
+    propagationTags.headerValue(HeaderType.W3C) == 'dd=s:1,other=whatever'
+
+    when:
+    propagationTags.updateTraceIdHighOrderBits(0x640cfd8d00000000L)
+
+    then:
+    propagationTags.headerValue(HeaderType.W3C) == 'dd=s:1;t.tid:640cfd8d00000000,other=whatever'
+  }
+
   static private String toLcAlpha(String cs) {
     // Argh groovy and characters
     char c = cs
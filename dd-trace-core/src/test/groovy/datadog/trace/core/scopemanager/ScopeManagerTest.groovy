@@ -2,6 +2,7 @@ package datadog.trace.core.scopemanager
 
 import datadog.trace.agent.test.utils.ThreadUtils
 import datadog.trace.api.DDTraceId
+import datadog.trace.api.Platform
 import datadog.trace.api.Stateful
 import datadog.trace.api.TraceConfig
 import datadog.trace.api.interceptor.MutableSpan
@@ -18,6 +19,7 @@ import datadog.trace.context.TraceScope
 import datadog.trace.core.CoreTracer
 import datadog.trace.core.DDSpan
 import datadog.trace.core.test.DDCoreSpecification
+import spock.lang.Requires
 import spock.lang.Shared
 
 import java.lang.ref.WeakReference
@@ -572,6 +574,23 @@ class ScopeManagerTest extends DDCoreSpecification {
     assertEvents([ACTIVATE, ACTIVATE, CLOSE, CLOSE])
   }
 
+  @Requires({ Platform.isJavaVersionAtLeast(21) })
+  def "virtual threads do not attach the profiler"() {
+    when:
+    // started reflectively as the tests are compiled for Java 8
+    Thread thread = Thread.getMethod("startVirtualThread", Runnable).invoke(null, {
+      AgentSpan span = tracer.buildSpan("foo").start()
+      tracer.activateSpan(span).close()
+      span.finish()
+    } as Runnable) as Thread
+    thread.join()
+
+    then:
+    1 * profilingContext.newScopeState(_) >> Stub(Stateful)
+    0 * profilingContext.onAttach()
+    0 * profilingContext.onDetach()
+  }
+
   def "closing scope out of order - complex"() {
     // Events are checked twice in each case to ensure a call to
     // tracer.activeScope() or tracer.activeSpan() doesn't change the count
@@ -0,0 +1,164 @@
+package datadog.trace.core.scopemanager
+
+import datadog.trace.api.config.TracerConfig
+import datadog.trace.bootstrap.instrumentation.api.ProfilingContextIntegration
+import datadog.trace.bootstrap.instrumentation.api.ScopeSource
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.CoreTracer
+import datadog.trace.core.monitor.HealthMetrics
+import datadog.trace.core.test.DDCoreSpecification
+
+class ScopeRecyclingTest extends DDCoreSpecification {
+
+  CoreTracer tracer
+
+  def setup() {
+    tracer = tracerBuilder().writer(new ListWriter()).build()
+  }
+
+  def cleanup() {
+    tracer.close()
+  }
+
+  def "closed scopes are reused when recycling is enabled"() {
+    setup:
+    injectSysConfig(TracerConfig.SCOPE_RECYCLING_ENABLED, "true")
+    def recyclingTracer = tracerBuilder().writer(new ListWriter()).build()
+    def first = recyclingTracer.buildSpan("first").start()
+    def second = recyclingTracer.buildSpan("second").start()
+
+    when:
+    def scope = recyclingTracer.activateSpan(first)
+    scope.close()
+
+    then: "the released scope no longer references its span"
+    scope.span() == null
+
+    when:
+    def reused = recyclingTracer.activateSpan(second)
+
+    then:
+    reused.is(scope)
+    reused.span() == second
+    recyclingTracer.activeSpan() == second
+
+    when:
+    reused.close()
+
+    then:
+    recyclingTracer.activeSpan() == null
+
+    cleanup:
+    recyclingTracer.close()
+  }
+
+  def "closed scopes are not reused by default"() {
+    setup:
+    def span = tracer.buildSpan("test").start()
+
+    when:
+    def scope = tracer.activateSpan(span)
+    scope.close()
+    def next = tracer.activateSpan(span)
+
+    then:
+    !next.is(scope)
+
+    cleanup:
+    next?.close()
+  }
+
+  def "nested scopes unwind in order"() {
+    setup:
+    def scopeManager = recyclingScopeManager(HealthMetrics.NO_OP)
+    def spans = (0..<depth).collect { tracer.buildSpan("span" + it).start() }
+
+    when:
+    def scopes = spans.collect { scopeManager.activate(it, ScopeSource.MANUAL) }
+
+    then:
+    scopeManager.scopeStack().depth() == depth
+
+    when:
+    for (int i = depth - 1; i >= 0; --i) {
+      assert scopeManager.activeSpan() == spans[i]
+      scopes[i].close()
+    }
+
+    then:
+    scopeManager.activeSpan() == null
+    scopeManager.scopeStack().depth() == 0
+
+    when: "the same depth is activated again"
+    def reused = spans.collect { scopeManager.activate(it, ScopeSource.MANUAL) }
+
+    then: "closed scopes are reused up to the recycling limit"
+    reused.count { scope -> scopes.any { it.is(scope) } } == Math.min(depth, 16)
+    scopeManager.activeSpan() == spans[depth - 1]
+
+    where:
+    depth << [1, 8, 20]
+  }
+
+  def "closing a released scope is reported and ignored"() {
+    setup:
+    def healthMetrics = Mock(HealthMetrics)
+    def scopeManager = recyclingScopeManager(healthMetrics)
+    def first = tracer.buildSpan("first").start()
+    def second = tracer.buildSpan("second").start()
+
+    when:
+    def scope = scopeManager.activate(first, ScopeSource.INSTRUMENTATION)
+    scope.close()
+    scope.close()
+
+    then:
+    1 * healthMetrics.onScopeCloseError(ScopeSource.INSTRUMENTATION.id())
+
+    when: "the released scope is still available for reuse"
+    def reused = scopeManager.activate(second, ScopeSource.INSTRUMENTATION)
+
+    then:
+    reused.is(scope)
+    scopeManager.activeSpan() == second
+
+    cleanup:
+    reused?.close()
+  }
+
+  def "scopes with wrappers are not reused"() {
+    setup:
+    def scopeManager = recyclingScopeManager(HealthMetrics.NO_OP)
+    def span = tracer.buildSpan("test").start()
+
+    when:
+    def scope = scopeManager.activate(span, ScopeSource.MANUAL)
+    scope.attachWrapper(new Object())
+    scope.close()
+
+    then:
+    !scopeManager.activate(span, ScopeSource.MANUAL).is(scope)
+  }
+
+  def "continued scopes are not reused"() {
+    setup:
+    def scopeManager = recyclingScopeManager(HealthMetrics.NO_OP)
+    def span = tracer.buildSpan("test").start()
+    def parent = scopeManager.activate(span, ScopeSource.MANUAL, true)
+    def continuation = parent.capture()
+    parent.close()
+
+    when:
+    def continued = continuation.activate()
+    continued.close()
+
+    then:
+    continued instanceof ContinuingScope
+    !scopeManager.activate(span, ScopeSource.MANUAL).is(continued)
+  }
+
+  def recyclingScopeManager(HealthMetrics healthMetrics) {
+    return new ContinuableScopeManager(
+      0, false, true, true, ProfilingContextIntegration.NoOp.INSTANCE, healthMetrics)
+  }
+}
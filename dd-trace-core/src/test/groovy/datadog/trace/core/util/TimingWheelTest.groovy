@@ -0,0 +1,121 @@
+package datadog.trace.core.util
+
+import datadog.trace.test.util.DDSpecification
+
+class TimingWheelTest extends DDSpecification {
+
+  static final long TICK = 10
+
+  def "elements expire once their deadline has passed"() {
+    setup:
+    def wheel = new TimingWheel<String>(TICK, 0)
+    def expired = []
+    def expiry = { element, attachment -> expired.add(element) } as TimingWheel.Expiry<String>
+    wheel.schedule("a", 25, 0)
+    wheel.schedule("b", 55, 0)
+
+    when:
+    wheel.advance(20, expiry)
+
+    then:
+    expired.isEmpty()
+    wheel.size() == 2
+    wheel.nextExpiryNanos() == 30
+
+    when:
+    wheel.advance(30, expiry)
+
+    then:
+    expired == ["a"]
+    wheel.size() == 1
+    wheel.nextExpiryNanos() == 60
+
+    when:
+    wheel.advance(1000, expiry)
+
+    then:
+    expired == ["a", "b"]
+    wheel.isEmpty()
+    wheel.nextExpiryNanos() == Long.MAX_VALUE
+  }
+
+  def "past deadlines expire on the next tick"() {
+    setup:
+    def wheel = new TimingWheel<String>(TICK, 100)
+    def expired = []
+    def expiry = { element, attachment -> expired.add(element) } as TimingWheel.Expiry<String>
+
+    when:
+    wheel.schedule("late", 50, 0)
+    wheel.advance(105, expiry)
+
+    then:
+    expired.isEmpty()
+
+    when:
+    wheel.advance(110, expiry)
+
+    then:
+    expired == ["late"]
+  }
+
+  def "attachments are passed back on expiry"() {
+    setup:
+    def wheel = new TimingWheel<String>(TICK, 0)
+    def attachments = [:]
+    def expiry = { element, attachment -> attachments.put(element, attachment) } as TimingWheel.Expiry<String>
+    wheel.schedule("a", 10, 42)
+    wheel.schedule("b", 10, -1)
+
+    when:
+    wheel.advance(10, expiry)
+
+    then:
+    attachments == ["a": 42L, "b": -1L]
+  }
+
+  def "distant deadlines cascade through the outer level"() {
+    setup:
+    def wheel = new TimingWheel<long[]>(TICK, 0)
+    def random = new Random(42)
+    def pending = [] as Set
+    def now = 0L
+    def expiry = { long[] element, long attachment ->
+      assert element[0] <= now
+      assert pending.remove(element)
+    } as TimingWheel.Expiry<long[]>
+
+    when:
+    for (int i = 0; i < 1000; ++i) {
+      long[] element = [now + random.nextInt(100_000)]
+      wheel.schedule(element, element[0], 0)
+      pending.add(element)
+      now += random.nextInt(200)
+      wheel.advance(now, expiry)
+      assert wheel.size() == pending.size()
+    }
+    now += 100_000
+    wheel.advance(now, expiry)
+
+    then:
+    pending.isEmpty()
+    wheel.isEmpty()
+  }
+
+  def "drain removes every element"() {
+    setup:
+    def wheel = new TimingWheel<String>(TICK, 0)
+    def drained = []
+    wheel.schedule("soon", 20, 0)
+    wheel.schedule("later", 10_000, 0)
+    wheel.schedule("much later", 1_000_000, 0)
+
+    when:
+    wheel.drain({ element, attachment -> drained.add(element) } as TimingWheel.Expiry<String>)
+
+    then:
+    drained as Set == ["soon", "later", "much later"] as Set
+    wheel.isEmpty()
+    wheel.nextExpiryNanos() == Long.MAX_VALUE
+  }
+}
@@ -36,6 +36,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_CWS_TLS_REFRESH;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DATA_JOBS_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DATA_STREAMS_BUCKET_DURATION;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DATA_STREAMS_ENABLED;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_DATA_STREAMS_INBOX_SIZE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_HOST;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_DB_CLIENT_HOST_SPLIT_BY_INSTANCE_TYPE_SUFFIX;
@@ -72,6 +73,7 @@ import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_CLIENT_TAG_QUERY_STR
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_SERVER_ERROR_STATUSES;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_SERVER_ROUTE_BASED_NAMING;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_HTTP_SERVER_TAG_QUERY_STRING;
+import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_ADAPTIVE_SAMPLING_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_ANONYMOUS_CLASSES_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_DEBUG_ENABLED;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_IAST_HARDCODED_SECRET_ENABLED;
@@ -242,6 +244,7 @@ import static datadog.trace.api.config.GeneralConfig.AZURE_APP_SERVICES;
 import static datadog.trace.api.config.GeneralConfig.DATA_JOBS_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.DATA_STREAMS_BUCKET_DURATION_SECONDS;
 import static datadog.trace.api.config.GeneralConfig.DATA_STREAMS_ENABLED;
+import static datadog.trace.api.config.GeneralConfig.DATA_STREAMS_INBOX_SIZE;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_ARGS;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_HOST;
 import static datadog.trace.api.config.GeneralConfig.DOGSTATSD_NAMED_PIPE;
@@ -281,6 +284,7 @@ import static datadog.trace.api.config.GeneralConfig.TRACE_TRIAGE;
 import static datadog.trace.api.config.GeneralConfig.TRIAGE_REPORT_DIR;
 import static datadog.trace.api.config.GeneralConfig.TRIAGE_REPORT_TRIGGER;
 import static datadog.trace.api.config.GeneralConfig.VERSION;
+import static datadog.trace.api.config.IastConfig.IAST_ADAPTIVE_SAMPLING_ENABLED;
 import static datadog.trace.api.config.IastConfig.IAST_ANONYMOUS_CLASSES_ENABLED;
 import static datadog.trace.api.config.IastConfig.IAST_CONTEXT_MODE;
 import static datadog.trace.api.config.IastConfig.IAST_DEBUG_ENABLED;
@@ -338,6 +342,10 @@ import static datadog.trace.api.config.ProfilingConfig.PROFILING_TAGS;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_TEMPLATE_OVERRIDE_FILE;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_DEFAULT;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_EVENT_SUMMARY;
+import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_EVENT_SUMMARY_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_PERIOD;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_PERIOD_DEFAULT;
 import static datadog.trace.api.config.ProfilingConfig.PROFILING_UPLOAD_SUMMARY_ON_413;
@@ -428,6 +436,7 @@ import static datadog.trace.api.config.TracerConfig.RESPONSE_HEADER_TAGS;
 import static datadog.trace.api.config.TracerConfig.SCOPE_DEPTH_LIMIT;
 import static datadog.trace.api.config.TracerConfig.SCOPE_INHERIT_ASYNC_PROPAGATION;
 import static datadog.trace.api.config.TracerConfig.SCOPE_ITERATION_KEEP_ALIVE;
+import static datadog.trace.api.config.TracerConfig.SCOPE_RECYCLING_ENABLED;
 import static datadog.trace.api.config.TracerConfig.SCOPE_STRICT_MODE;
 import static datadog.trace.api.config.TracerConfig.SECURE_RANDOM;
 import static datadog.trace.api.config.TracerConfig.SERVICE_MAPPING;
@@ -437,6 +446,7 @@ import static datadog.trace.api.config.TracerConfig.SPAN_TAGS;
 import static datadog.trace.api.config.TracerConfig.SPLIT_BY_TAGS;
 import static datadog.trace.api.config.TracerConfig.TRACE_128_BIT_TRACEID_GENERATION_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_ARGS;
+import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_COMPRESSION_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_PATH;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_PORT;
 import static datadog.trace.api.config.TracerConfig.TRACE_AGENT_URL;
@@ -463,6 +473,7 @@ import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLE_RATE;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_OPERATION_RULES;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_RULES;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_SERVICE_RULES;
+import static datadog.trace.api.config.TracerConfig.TRACE_SERIALIZATION_SHARDS;
 import static datadog.trace.api.config.TracerConfig.TRACE_SPAN_ATTRIBUTE_SCHEMA;
 import static datadog.trace.api.config.TracerConfig.TRACE_STRICT_WRITES_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_X_DATADOG_TAGS_MAX_LENGTH;
@@ -634,6 +645,7 @@ public class Config {
   private final Set<String> splitByTags;
   private final int scopeDepthLimit;
   private final boolean scopeStrictMode;
+  private final boolean scopeRecyclingEnabled;
   private final boolean scopeInheritAsyncPropagation;
   private final int scopeIterationKeepAlive;
   private final int partialFlushMinSpans;
@@ -706,6 +718,7 @@ public class Config {
   private final String profilingTemplateOverrideFile;
   private final int profilingUploadTimeout;
   private final String profilingUploadCompression;
+  private final int profilingUploadCompressionLevel;
   private final String profilingProxyHost;
   private final int profilingProxyPort;
   private final String profilingProxyUsername;
@@ -716,6 +729,7 @@ public class Config {
   private final int profilingExceptionHistogramMaxCollectionSize;
   private final boolean profilingExcludeAgentThreads;
   private final boolean profilingUploadSummaryOn413Enabled;
+  private final boolean profilingUploadEventSummaryEnabled;
   private final boolean profilingRecordExceptionMessage;
 
   private final boolean crashTrackingAgentless;
@@ -743,6 +757,7 @@ public class Config {
   private final int iastMaxConcurrentRequests;
   private final int iastVulnerabilitiesPerRequest;
   private final float iastRequestSampling;
+  private final boolean iastAdaptiveSamplingEnabled;
   private final boolean iastDebugEnabled;
   private final Verbosity iastTelemetryVerbosity;
   private final boolean iastRedactionEnabled;
@@ -914,6 +929,7 @@ public class Config {
 
   private final boolean dataStreamsEnabled;
   private final float dataStreamsBucketDurationSeconds;
+  private final int dataStreamsInboxSize;
 
   private final Set<String> iastWeakHashAlgorithms;
 
@@ -956,6 +972,10 @@ public class Config {
   private final float traceFlushIntervalSeconds;
   private final long tracePostProcessingTimeout;
 
+  private final int traceSerializationShards;
+
+  private final boolean traceAgentCompressionEnabled;
+
   private final boolean telemetryDebugRequestsEnabled;
 
   // Read order: System Properties -> Env Variables, [-> properties file], [-> default value]
@@ -1268,6 +1288,8 @@ public class Config {
 
     scopeStrictMode = configProvider.getBoolean(SCOPE_STRICT_MODE, false);
 
+    scopeRecyclingEnabled = configProvider.getBoolean(SCOPE_RECYCLING_ENABLED, false);
+
     scopeInheritAsyncPropagation = configProvider.getBoolean(SCOPE_INHERIT_ASYNC_PROPAGATION, true);
 
     scopeIterationKeepAlive =
@@ -1528,6 +1550,9 @@ public class Config {
     profilingUploadCompression =
         configProvider.getString(
             PROFILING_UPLOAD_COMPRESSION, PROFILING_UPLOAD_COMPRESSION_DEFAULT);
+    profilingUploadCompressionLevel =
+        configProvider.getInteger(
+            PROFILING_UPLOAD_COMPRESSION_LEVEL, PROFILING_UPLOAD_COMPRESSION_LEVEL_DEFAULT);
     profilingProxyHost = configProvider.getString(PROFILING_PROXY_HOST);
     profilingProxyPort =
         configProvider.getInteger(PROFILING_PROXY_PORT, PROFILING_PROXY_PORT_DEFAULT);
@@ -1559,6 +1584,9 @@ public class Config {
     profilingUploadSummaryOn413Enabled =
         configProvider.getBoolean(
             PROFILING_UPLOAD_SUMMARY_ON_413, PROFILING_UPLOAD_SUMMARY_ON_413_DEFAULT);
+    profilingUploadEventSummaryEnabled =
+        configProvider.getBoolean(
+            PROFILING_UPLOAD_EVENT_SUMMARY, PROFILING_UPLOAD_EVENT_SUMMARY_DEFAULT);
 
     crashTrackingAgentless =
         configProvider.getBoolean(CRASH_TRACKING_AGENTLESS, CRASH_TRACKING_AGENTLESS_DEFAULT);
@@ -1651,6 +1679,9 @@ public class Config {
     iastVulnerabilitiesPerRequest =
         iastDetectionMode.getIastVulnerabilitiesPerRequest(configProvider);
     iastRequestSampling = iastDetectionMode.getIastRequestSampling(configProvider);
+    iastAdaptiveSamplingEnabled =
+        configProvider.getBoolean(
+            IAST_ADAPTIVE_SAMPLING_ENABLED, DEFAULT_IAST_ADAPTIVE_SAMPLING_ENABLED);
     iastDeduplicationEnabled = iastDetectionMode.isIastDeduplicationEnabled(configProvider);
     iastWeakHashAlgorithms =
         tryMakeImmutableSet(
@@ -2006,6 +2037,8 @@ public class Config {
     dataStreamsBucketDurationSeconds =
         configProvider.getFloat(
             DATA_STREAMS_BUCKET_DURATION_SECONDS, DEFAULT_DATA_STREAMS_BUCKET_DURATION);
+    dataStreamsInboxSize =
+        configProvider.getInteger(DATA_STREAMS_INBOX_SIZE, DEFAULT_DATA_STREAMS_INBOX_SIZE);
 
     azureAppServices = configProvider.getBoolean(AZURE_APP_SERVICES, false);
     traceAgentPath = configProvider.getString(TRACE_AGENT_PATH);
@@ -2094,6 +2127,17 @@ public class Config {
         configProvider.getLong(
             TRACE_POST_PROCESSING_TIMEOUT, ConfigDefaults.DEFAULT_TRACE_POST_PROCESSING_TIMEOUT);
 
+    this.traceSerializationShards =
+        Math.max(
+            1,
+            configProvider.getInteger(
+                TRACE_SERIALIZATION_SHARDS, ConfigDefaults.DEFAULT_TRACE_SERIALIZATION_SHARDS));
+
+    this.traceAgentCompressionEnabled =
+        configProvider.getBoolean(
+            TRACE_AGENT_COMPRESSION_ENABLED,
+            ConfigDefaults.DEFAULT_TRACE_AGENT_COMPRESSION_ENABLED);
+
     if (isCiVisibilityEnabled()
         && ciVisibilityAgentlessEnabled
         && (apiKey == null || apiKey.isEmpty())) {
@@ -2206,6 +2250,14 @@ public class Config {
     return tracePostProcessingTimeout;
   }
 
+  public int getTraceSerializationShards() {
+    return traceSerializationShards;
+  }
+
+  public boolean isTraceAgentCompressionEnabled() {
+    return traceAgentCompressionEnabled;
+  }
+
   public boolean isIntegrationSynapseLegacyOperationName() {
     return integrationSynapseLegacyOperationName;
   }
@@ -2390,6 +2442,10 @@ public class Config {
     return scopeStrictMode;
   }
 
+  public boolean isScopeRecyclingEnabled() {
+    return scopeRecyclingEnabled;
+  }
+
   public boolean isScopeInheritAsyncPropagation() {
     return scopeInheritAsyncPropagation;
   }
@@ -2638,6 +2694,10 @@ public class Config {
     return profilingUploadCompression;
   }
 
+  public int getProfilingUploadCompressionLevel() {
+    return profilingUploadCompressionLevel;
+  }
+
   public String getProfilingProxyHost() {
     return profilingProxyHost;
   }
@@ -2678,6 +2738,10 @@ public class Config {
     return profilingUploadSummaryOn413Enabled;
   }
 
+  public boolean isProfilingUploadEventSummaryEnabled() {
+    return profilingUploadEventSummaryEnabled;
+  }
+
   public boolean isProfilingRecordExceptionMessage() {
     return profilingRecordExceptionMessage;
   }
@@ -2846,6 +2910,10 @@ public class Config {
     return iastRequestSampling;
   }
 
+  public boolean isIastAdaptiveSamplingEnabled() {
+    return iastAdaptiveSamplingEnabled;
+  }
+
   public Verbosity getIastTelemetryVerbosity() {
     return isTelemetryEnabled() ? iastTelemetryVerbosity : Verbosity.OFF;
   }
@@ -3411,6 +3479,10 @@ public class Config {
     return TimeUnit.MILLISECONDS.toNanos(milliseconds);
   }
 
+  public int getDataStreamsInboxSize() {
+    return dataStreamsInboxSize;
+  }
+
   public String getTraceAgentPath() {
     return traceAgentPath;
   }
@@ -4304,6 +4376,8 @@ public class Config {
         + scopeDepthLimit
         + ", scopeStrictMode="
         + scopeStrictMode
+        + ", scopeRecyclingEnabled="
+        + scopeRecyclingEnabled
         + ", scopeInheritAsyncPropagation="
         + scopeInheritAsyncPropagation
         + ", scopeIterationKeepAlive="
@@ -4402,6 +4476,10 @@ public class Config {
         + ", profilingUploadCompression='"
         + profilingUploadCompression
         + '\''
+        + ", profilingUploadCompressionLevel="
+        + profilingUploadCompressionLevel
+        + ", profilingUploadEventSummaryEnabled="
+        + profilingUploadEventSummaryEnabled
         + ", profilingProxyHost='"
         + profilingProxyHost
         + '\''
@@ -1,5 +1,8 @@
 package datadog.trace.api;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
@@ -13,6 +16,20 @@ public final class Platform {
     public static final boolean isNativeImage = checkForNativeImageBuilder();
   }
 
+  // Looked up on first use, so JVMs without virtual threads never attempt it
+  private static class VirtualThreads {
+    public static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private static MethodHandle findIsVirtual() {
+      try {
+        return MethodHandles.publicLookup()
+            .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+      } catch (Throwable e) {
+        return null;
+      }
+    }
+  }
+
   public enum GC {
     SERIAL("marksweep"),
     PARALLEL("ps"),
@@ -292,6 +309,22 @@ public final class Platform {
     return JAVA_VERSION.isBetween(fromMajor, fromMinor, fromUpdate, toMajor, toMinor, toUpdate);
   }
 
+  /** @return whether the thread is a virtual thread, always false before Java 21 */
+  public static boolean isVirtualThread(Thread thread) {
+    if (!isJavaVersionAtLeast(21)) {
+      return false;
+    }
+    MethodHandle isVirtual = VirtualThreads.IS_VIRTUAL;
+    if (null == isVirtual) {
+      return false;
+    }
+    try {
+      return (boolean) isVirtual.invokeExact(thread);
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
   public static boolean isLinux() {
     return System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux");
   }
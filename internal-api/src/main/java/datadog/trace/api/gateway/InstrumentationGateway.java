@@ -412,6 +412,20 @@ public class InstrumentationGateway {
                       ((Function<RequestContext, Flow<Void>>) callbackIast).apply(requestContext);
                   return mergeFlows(flowAppSec, flowIast);
                 };
+      case REQUEST_METHOD_URI_RAW_ID:
+        return (C)
+            (TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>>)
+                (requestContext, method, uri) -> {
+                  Flow<Void> flowAppSec =
+                      ((TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>>)
+                              callbackAppSec)
+                          .apply(requestContext, method, uri);
+                  Flow<Void> flowIast =
+                      ((TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>>)
+                              callbackIast)
+                          .apply(requestContext, method, uri);
+                  return mergeFlows(flowAppSec, flowIast);
+                };
     }
     return null;
   }
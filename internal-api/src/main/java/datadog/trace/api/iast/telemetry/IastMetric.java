@@ -19,6 +19,10 @@ public enum IastMetric {
   EXECUTED_TAINTED("executed.tainted", true, Scope.REQUEST, Verbosity.DEBUG),
   REQUEST_TAINTED("request.tainted", true, Scope.REQUEST, Verbosity.INFORMATION),
   TAINTED_FLAT_MODE("tainted.flat.mode", false, Scope.GLOBAL, Verbosity.INFORMATION),
+  TAINTED_LOST_WRITE("tainted.lost.write", false, Scope.GLOBAL, Verbosity.INFORMATION),
+  OVERHEAD_ROUTE_NEW("overhead.route.new", false, Scope.GLOBAL, Verbosity.INFORMATION),
+  OVERHEAD_ROUTE_ANALYZED("overhead.route.analyzed", false, Scope.GLOBAL, Verbosity.INFORMATION),
+  OVERHEAD_ROUTE_SKIPPED("overhead.route.skipped", false, Scope.GLOBAL, Verbosity.INFORMATION),
   JSON_TAG_SIZE_EXCEED("json.tag.size.exceeded", true, Scope.GLOBAL, Verbosity.INFORMATION);
 
   private static final int COUNT;
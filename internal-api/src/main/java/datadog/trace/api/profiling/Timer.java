@@ -8,6 +8,31 @@ public interface Timer {
 
   Timing start(TimerType type);
 
+  /**
+   * Starts timing the queueing of a task without allocating a {@link QueueTiming}, the caller keeps
+   * the returned ticks (e.g. in the state of the task) and passes them to {@link
+   * #recordQueueingTime} once the task is dequeued.
+   *
+   * @return the current ticks, or {@literal 0} if the queueing time must be measured with {@link
+   *     #start(TimerType)}
+   */
+  default long getQueueingStartTicks() {
+    return 0L;
+  }
+
+  /**
+   * Records the time a task spent queued if it exceeds the configured threshold.
+   *
+   * @param startTicks the ticks returned by {@link #getQueueingStartTicks()} when the task was
+   *     queued
+   * @param startMillis the wall clock time when the task was queued
+   * @param task the dequeued task
+   * @param scheduler the type of the executor the task was queued to
+   * @param origin the thread which queued the task
+   */
+  default void recordQueueingTime(
+      long startTicks, long startMillis, Object task, Class<?> scheduler, Thread origin) {}
+
   final class NoOp implements Timer {
 
     public static final Timer INSTANCE = new NoOp();
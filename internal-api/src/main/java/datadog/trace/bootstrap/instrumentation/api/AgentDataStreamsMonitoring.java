@@ -24,6 +24,13 @@ public interface AgentDataStreamsMonitoring extends DataStreamsCheckpointer {
       long defaultTimestamp,
       long payloadSizeBytes);
 
+  /**
+   * Same as {@link #setCheckpoint(AgentSpan, LinkedHashMap, long, long)}, for instrumentations
+   * which register the edge tags of their checkpoints once as a template.
+   */
+  void setCheckpoint(
+      AgentSpan span, CheckpointTemplate template, long defaultTimestamp, long payloadSizeBytes);
+
   PathwayContext newPathwayContext();
 
   void add(StatsPoint statsPoint);
@@ -22,6 +22,14 @@ public interface AgentPropagation {
       long defaultTimestamp,
       long payloadSizeBytes);
 
+  <C> void injectPathwayContext(
+      AgentSpan span,
+      C carrier,
+      Setter<C> setter,
+      CheckpointTemplate template,
+      long defaultTimestamp,
+      long payloadSizeBytes);
+
   <C> void injectPathwayContextWithoutSendingStats(
       AgentSpan span, C carrier, Setter<C> setter, LinkedHashMap<String, String> sortedTags);
 
@@ -918,6 +918,15 @@ public class AgentTracer {
         long defaultTimestamp,
         long payloadSizeBytes) {}
 
+    @Override
+    public <C> void injectPathwayContext(
+        AgentSpan span,
+        C carrier,
+        Setter<C> setter,
+        CheckpointTemplate template,
+        long defaultTimestamp,
+        long payloadSizeBytes) {}
+
     @Override
     public <C> void injectPathwayContextWithoutSendingStats(
         AgentSpan span, C carrier, Setter<C> setter, LinkedHashMap<String, String> sortedTags) {}
@@ -1096,6 +1105,13 @@ public class AgentTracer {
         long defaultTimestamp,
         long payloadSizeBytes) {}
 
+    @Override
+    public void setCheckpoint(
+        AgentSpan span,
+        CheckpointTemplate template,
+        long defaultTimestamp,
+        long payloadSizeBytes) {}
+
     @Override
     public PathwayContext newPathwayContext() {
       return NoopPathwayContext.INSTANCE;
@@ -1158,6 +1174,13 @@ public class AgentTracer {
     public void setCheckpoint(
         LinkedHashMap<String, String> sortedTags, Consumer<StatsPoint> pointConsumer) {}
 
+    @Override
+    public void setCheckpoint(
+        CheckpointTemplate template,
+        Consumer<StatsPoint> pointConsumer,
+        long defaultTimestamp,
+        long payloadSizeBytes) {}
+
     @Override
     public void saveStats(StatsPoint point) {}
 
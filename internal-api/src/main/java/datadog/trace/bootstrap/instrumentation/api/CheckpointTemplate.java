@@ -0,0 +1,56 @@
+package datadog.trace.bootstrap.instrumentation.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The edge tags of a data streams checkpoint, registered once by an instrumentation and reused for
+ * every message going through that edge, for instance:
+ *
+ * <pre>{@code
+ * static final CheckpointTemplate SERVER_CHECKPOINT = CheckpointTemplate.of(sortedTags);
+ * ...
+ * dataStreamsMonitoring.setCheckpoint(span, SERVER_CHECKPOINT, 0, payloadSize);
+ * }</pre>
+ *
+ * The data streams monitoring compiles the tags (edge tags, node hash, loop protection direction)
+ * the first time the template is used, so later checkpoints only record timestamps and hashes.
+ */
+public final class CheckpointTemplate {
+
+  /** Form of the template prepared by the data streams monitoring. */
+  public interface Compiled {}
+
+  private final Map<String, String> sortedTags;
+  private volatile Compiled compiled;
+
+  private CheckpointTemplate(Map<String, String> sortedTags) {
+    this.sortedTags = sortedTags;
+  }
+
+  /**
+   * @param sortedTags alphabetically sorted tags for the checkpoint (direction, queue type etc), they
+   *     are copied so the map may be reused afterwards
+   */
+  public static CheckpointTemplate of(LinkedHashMap<String, String> sortedTags) {
+    return new CheckpointTemplate(Collections.unmodifiableMap(new LinkedHashMap<>(sortedTags)));
+  }
+
+  public Map<String, String> getSortedTags() {
+    return sortedTags;
+  }
+
+  public Compiled getCompiled() {
+    return compiled;
+  }
+
+  public void setCompiled(Compiled compiled) {
+    this.compiled = compiled;
+  }
+
+  @Override
+  public String toString() {
+    return "CheckpointTemplate{" + sortedTags + '}';
+  }
+}
@@ -27,6 +27,13 @@ public interface PathwayContext {
   // The input tags should be sorted.
   void setCheckpoint(LinkedHashMap<String, String> sortedTags, Consumer<StatsPoint> pointConsumer);
 
+  /** Same as the sorted tags variant, but the tags have been registered once as a template. */
+  void setCheckpoint(
+      CheckpointTemplate template,
+      Consumer<StatsPoint> pointConsumer,
+      long defaultTimestamp,
+      long payloadSizeBytes);
+
   void saveStats(StatsPoint point);
 
   StatsPoint getSavedStats();
@@ -33,6 +33,14 @@ public interface ProfilingContextIntegration extends Profiling, EndpointCheckpoi
     return 0;
   }
 
+  /**
+   * @return {@literal true} if resource names should only be encoded when the context holding them
+   *     is activated, rather than each time the resource name of a span changes
+   */
+  default boolean isResourceNameEncodingDeferred() {
+    return false;
+  }
+
   String name();
 
   final class NoOp implements ProfilingContextIntegration {
@@ -30,6 +30,66 @@ public class FNV64Hash {
     }
   }
 
+  /**
+   * Hashes the little-endian bytes of {@code first} followed by those of {@code second}, without
+   * copying them to an intermediate array.
+   */
+  public static long generateHash(long first, long second, Version version) {
+    long hash = FNV_INIT;
+    hash = updateLE(hash, first, version);
+    return updateLE(hash, second, version);
+  }
+
+  /**
+   * Hashes the decimal representation of {@code first} followed by that of {@code second}, giving
+   * the same result as {@code generateHash(String.valueOf(first) + second, version)} without
+   * building the string.
+   */
+  public static long generateDecimalHash(long first, long second, Version version) {
+    long hash = FNV_INIT;
+    hash = updateDecimal(hash, first, version);
+    return updateDecimal(hash, second, version);
+  }
+
+  private static long updateLE(long hash, long value, Version version) {
+    for (int i = 0; i < 8; i++) {
+      hash = update(hash, (int) (value >>> (i << 3)), version);
+    }
+    return hash;
+  }
+
+  private static long updateDecimal(long hash, long value, Version version) {
+    // work with the negative magnitude so that Long.MIN_VALUE needs no special case
+    long remaining = value;
+    if (remaining < 0) {
+      hash = update(hash, '-', version);
+    } else {
+      remaining = -remaining;
+    }
+    long divisor = 1;
+    while (remaining / divisor <= -10) {
+      divisor *= 10;
+    }
+    while (divisor > 0) {
+      long digit = remaining / divisor;
+      hash = update(hash, (int) ('0' - digit), version);
+      remaining -= digit * divisor;
+      divisor /= 10;
+    }
+    return hash;
+  }
+
+  private static long update(long hash, int b, Version version) {
+    if (version == Version.v1) {
+      hash *= FNV_PRIME;
+      hash ^= 0xffL & b;
+    } else {
+      hash ^= 0xffL & b;
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
   private static long generateFNV1Hash(byte[] data, int start, int length) {
     long hash = FNV_INIT;
 
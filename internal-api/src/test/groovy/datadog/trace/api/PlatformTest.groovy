@@ -22,6 +22,11 @@ class PlatformTest extends DDSpecification {
     expect: Platform.isJavaVersionAtLeast(11) && Platform.isJavaVersionAtLeast(8)
   }
 
+  def "platform threads are not virtual"() {
+    expect:
+    !Platform.isVirtualThread(Thread.currentThread())
+  }
+
   def "test parse #version yields #major, #minor, and #update"() {
     when:
     def javaVersion = Platform.parseJavaVersion(version)
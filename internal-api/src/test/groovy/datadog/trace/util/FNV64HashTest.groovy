@@ -178,4 +178,35 @@ class FNV64HashTest extends DDSpecification {
     [0x07] * 500 as byte[]                                          | "0289a488a8df69d9" | "c23e9fccd6f70591"
     [0x7f] * 500 as byte[]                                          | "e6be57375ad89b99" | "39e9f18f2f85e221"
   }
+
+  def "Long pairs hash like their little-endian bytes"() {
+    setup:
+    def buffer = java.nio.ByteBuffer.allocate(16).order(java.nio.ByteOrder.LITTLE_ENDIAN)
+    buffer.putLong(first).putLong(second)
+
+    expect:
+    FNV64Hash.generateHash(first, second, version) == FNV64Hash.generateHash(buffer.array(), version)
+
+    where:
+    [first, second, version] << [
+      [0L, 1L, -1L, 0x0123456789abcdefL, Long.MIN_VALUE, Long.MAX_VALUE],
+      [0L, -42L, -0x0123456789abcdefL, Long.MAX_VALUE],
+      FNV64Hash.Version.values().toList()
+    ].combinations()
+  }
+
+  def "Long pairs hash like their decimal strings"() {
+    setup:
+    def expected = FNV64Hash.generateHash(String.valueOf(first) + second, version)
+
+    expect:
+    FNV64Hash.generateDecimalHash(first, second, version) == expected
+
+    where:
+    [first, second, version] << [
+      [0L, 7L, 10L, -1L, -10L, 999_999_999_999L, Long.MIN_VALUE, Long.MAX_VALUE],
+      [0L, 9L, 100L, -123_456_789L, Long.MIN_VALUE, Long.MAX_VALUE],
+      FNV64Hash.Version.values().toList()
+    ].combinations()
+  }
 }
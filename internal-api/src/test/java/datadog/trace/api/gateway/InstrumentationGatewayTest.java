@@ -9,6 +9,7 @@ import datadog.trace.api.function.TriFunction;
 import datadog.trace.api.http.StoredBodySupplier;
 import datadog.trace.api.internal.TraceSegment;
 import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
+import datadog.trace.bootstrap.instrumentation.api.URIDataAdapter;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.function.BiConsumer;
@@ -309,6 +310,27 @@ public class InstrumentationGatewayTest {
     assertThat(uniCb).isSameAs(uniCb2);
   }
 
+  @Test
+  public void universalCallbackProviderForRequestMethodUriRaw() {
+    SubscriptionService ssIast = gateway.getSubscriptionService(RequestContextSlot.IAST);
+    final int[] count = new int[1];
+    TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>> cb =
+        (requestContext, method, uri) -> {
+          assertThat(requestContext).isSameAs(callback.ctxt);
+          assertThat(method).isEqualTo("GET");
+          count[0]++;
+          return new Flow.ResultFlow<>(null);
+        };
+    ss.registerCallback(events.requestMethodUriRaw(), cb);
+    ssIast.registerCallback(events.requestMethodUriRaw(), cb);
+    TriFunction<RequestContext, String, URIDataAdapter, Flow<Void>> uniCb =
+        gateway.getUniversalCallbackProvider().getCallback(events.requestMethodUriRaw());
+    Flow<Void> res = uniCb.apply(callback.ctxt, "GET", null);
+
+    assertThat(count[0]).isEqualTo(2);
+    assertThat(res).isNotNull();
+  }
+
   @Test
   public void universalCallbackWithOnlyAppSec() {
     ss.registerCallback(events.requestEnded(), callback);